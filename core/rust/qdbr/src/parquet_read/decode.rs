@@ -132,17 +132,27 @@ impl ParquetDecoder {
         let stats = &mut self.column_chunk_stats[column];
 
         stats.min_value.clear();
+        stats.max_value.clear();
+        stats.null_count = -1;
 
         if let Some(meta_data) = &column_chunk.meta_data {
             if let Some(statistics) = &meta_data.statistics {
                 if let Some(min) = statistics.min_value.as_ref() {
                     stats.min_value.extend_from_slice(min);
                 }
+                if let Some(max) = statistics.max_value.as_ref() {
+                    stats.max_value.extend_from_slice(max);
+                }
+                if let Some(null_count) = statistics.null_count {
+                    stats.null_count = null_count;
+                }
             }
         }
 
         stats.min_value_ptr = stats.min_value.as_mut_ptr();
         stats.min_value_size = stats.min_value.len();
+        stats.max_value_ptr = stats.max_value.as_mut_ptr();
+        stats.max_value_size = stats.max_value.len();
     }
 }
 
@@ -1005,6 +1015,38 @@ mod tests {
     //     }
     // }
 
+    #[test]
+    fn test_column_chunk_stats() {
+        let row_count = 2500;
+        let expected_buff =
+            create_col_data_buff::<i64, 8, _>(row_count, LONG_NULL, |long| long.to_le_bytes());
+        let columns = vec![create_fix_column(
+            0,
+            row_count,
+            "long_col",
+            expected_buff.data_vec.as_ref(),
+            ColumnType::Long,
+        )];
+        let file = write_cols_to_parquet_file(1000, 1024 * 1024, Version::V1, columns);
+
+        let mut decoder = ParquetDecoder::read(file).unwrap();
+        assert_eq!(decoder.row_group_count, 3);
+
+        // every other row is null, the rest hold their index divided by 2
+        let expected: [(i64, i64, i64); 3] = [(0, 499, 500), (500, 999, 500), (1000, 1249, 250)];
+        for (row_group_index, (min, max, null_count)) in expected.iter().enumerate() {
+            decoder.update_column_chunk_stats(row_group_index, 0, 0);
+            let stats = &decoder.column_chunk_stats[0];
+            assert_eq!(stats.min_value, min.to_le_bytes());
+            assert_eq!(stats.min_value_size, size_of::<i64>());
+            assert_eq!(stats.min_value_ptr as *const u8, stats.min_value.as_ptr());
+            assert_eq!(stats.max_value, max.to_le_bytes());
+            assert_eq!(stats.max_value_size, size_of::<i64>());
+            assert_eq!(stats.max_value_ptr as *const u8, stats.max_value.as_ptr());
+            assert_eq!(stats.null_count, *null_count);
+        }
+    }
+
     #[test]
     fn test_decode_int_long_column_v2_nulls_multi_groups() {
         let row_count = 10000;
@@ -132,6 +132,14 @@ pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDec
     offset_of!(ParquetDecoder, row_group_count)
 }
 
+#[no_mangle]
+pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDecoder_rowGroupSizesPtrOffset(
+    _env: JNIEnv,
+    _class: JClass,
+) -> usize {
+    offset_of!(ParquetDecoder, row_group_sizes_ptr)
+}
+
 #[no_mangle]
 pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDecoder_columnsPtrOffset(
     _env: JNIEnv,
@@ -172,6 +180,14 @@ pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDec
     offset_of!(ColumnMeta, id)
 }
 
+#[no_mangle]
+pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDecoder_columnRecordFieldIdOffset(
+    _env: JNIEnv,
+    _class: JClass,
+) -> usize {
+    offset_of!(ColumnMeta, field_id)
+}
+
 #[no_mangle]
 pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDecoder_columnRecordSize(
     _env: JNIEnv,
@@ -196,6 +212,22 @@ pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDec
     offset_of!(ColumnChunkBuffers, aux_ptr)
 }
 
+#[no_mangle]
+pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDecoder_chunkDataSizeOffset(
+    _env: JNIEnv,
+    _class: JClass,
+) -> usize {
+    offset_of!(ColumnChunkBuffers, data_size)
+}
+
+#[no_mangle]
+pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDecoder_chunkAuxSizeOffset(
+    _env: JNIEnv,
+    _class: JClass,
+) -> usize {
+    offset_of!(ColumnChunkBuffers, aux_size)
+}
+
 #[no_mangle]
 pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDecoder_chunkRowGroupCountPtrOffset(
     _env: JNIEnv,
@@ -219,3 +251,27 @@ pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDec
 ) -> usize {
     offset_of!(ColumnChunkStats, min_value_size)
 }
+
+#[no_mangle]
+pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDecoder_chunkStatMaxValuePtrOffset(
+    _env: JNIEnv,
+    _class: JClass,
+) -> usize {
+    offset_of!(ColumnChunkStats, max_value_ptr)
+}
+
+#[no_mangle]
+pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDecoder_chunkStatMaxValueSizeOffset(
+    _env: JNIEnv,
+    _class: JClass,
+) -> usize {
+    offset_of!(ColumnChunkStats, max_value_size)
+}
+
+#[no_mangle]
+pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionDecoder_chunkStatNullCountOffset(
+    _env: JNIEnv,
+    _class: JClass,
+) -> usize {
+    offset_of!(ColumnChunkStats, null_count)
+}
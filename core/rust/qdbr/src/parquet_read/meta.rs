@@ -36,6 +36,7 @@ impl ParquetDecoder {
                     typ: data_type,
                     column_type,
                     id: column_id as i32,
+                    field_id: f.descriptor.primitive_type.field_info.id.unwrap_or(-1),
                     name_size: name.len() as u32,
                     name_ptr: name.as_ptr(),
                     name_vec: name,
@@ -46,11 +47,19 @@ impl ParquetDecoder {
             }
         }
 
+        let row_group_sizes: Vec<i32> = metadata
+            .row_groups
+            .iter()
+            .map(|rg| rg.num_rows() as i32)
+            .collect();
+
         // TODO: add some validation
         let decoder = ParquetDecoder {
             col_count: columns.len() as i32,
             row_count: metadata.num_rows,
             row_group_count: metadata.row_groups.len() as i32,
+            row_group_sizes_ptr: row_group_sizes.as_ptr(),
+            row_group_sizes,
             file: reader,
             metadata,
             decompress_buffer: vec![],
@@ -248,6 +257,50 @@ mod tests {
         assert_eq!(buffers_columns.len(), column_count);
     }
 
+    #[test]
+    fn test_decode_field_ids_and_row_group_sizes() {
+        let mut buf: Cursor<Vec<u8>> = Cursor::new(Vec::new());
+        let row_count = 2500;
+        let mut buffers_columns = Vec::new();
+        let mut columns = Vec::new();
+
+        // column ids don't have to be contiguous, e.g. after a column was dropped
+        for (col_id, name) in [(3, "col_a"), (7, "col_b")] {
+            let (buff, column) =
+                create_fix_column(col_id, row_count, ColumnType::Long, size_of::<i64>(), name);
+            columns.push(column);
+            buffers_columns.push(buff);
+        }
+
+        let partition = Partition { table: "test_table".to_string(), columns };
+        ParquetWriter::new(&mut buf)
+            .with_row_group_size(Some(1000))
+            .finish(partition)
+            .expect("parquet writer");
+
+        buf.set_position(0);
+        let bytes: Bytes = buf.into_inner().into();
+        let mut temp_file = NamedTempFile::new().expect("Failed to create temp file");
+        temp_file
+            .write_all(bytes.to_byte_slice())
+            .expect("Failed to write to temp file");
+
+        let path = temp_file.path().to_str().unwrap();
+        let file = File::open(Path::new(path)).unwrap();
+        let meta = ParquetDecoder::read(file).unwrap();
+
+        assert_eq!(meta.columns[0].field_id, 3);
+        assert_eq!(meta.columns[1].field_id, 7);
+        assert_eq!(meta.row_group_count, 3);
+        assert_eq!(meta.row_group_sizes, vec![1000, 1000, 500]);
+        assert_eq!(meta.row_group_sizes_ptr, meta.row_group_sizes.as_ptr());
+
+        temp_file.close().expect("Failed to delete temp file");
+
+        // make sure buffer live until the end of the test
+        assert_eq!(buffers_columns.len(), 2);
+    }
+
     fn create_fix_column(
         id: i32,
         row_count: usize,
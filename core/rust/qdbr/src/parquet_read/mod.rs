@@ -15,6 +15,8 @@ pub struct ParquetDecoder {
     pub col_count: i32,
     pub row_count: usize,
     pub row_group_count: i32,
+    pub row_group_sizes_ptr: *const i32,
+    pub row_group_sizes: Vec<i32>,
     pub columns_ptr: *const ColumnMeta,
     pub columns: Vec<ColumnMeta>,
     file: File,
@@ -30,6 +32,9 @@ pub struct ColumnMeta {
     pub typ: ColumnType,
     pub column_type: i32,
     pub id: i32,
+    // Parquet field id, equal to the QuestDB column writer index
+    // for the files produced by the partition encoder; -1 when absent.
+    pub field_id: i32,
     pub name_size: u32,
     pub name_ptr: *const u16,
     pub name_vec: Vec<u16>,
@@ -50,6 +55,11 @@ pub struct ColumnChunkStats {
     pub min_value_ptr: *mut u8,
     pub min_value_size: usize,
     pub min_value: Vec<u8>,
+    pub max_value_ptr: *mut u8,
+    pub max_value_size: usize,
+    pub max_value: Vec<u8>,
+    // -1 when the column chunk has no null count statistics.
+    pub null_count: i64,
 }
 
 impl ColumnChunkStats {
@@ -58,6 +68,10 @@ impl ColumnChunkStats {
             min_value_ptr: ptr::null_mut(),
             min_value_size: 0,
             min_value: Vec::new(),
+            max_value_ptr: ptr::null_mut(),
+            max_value_size: 0,
+            max_value: Vec::new(),
+            null_count: -1,
         }
     }
 }
@@ -119,8 +119,7 @@ impl<W: Write> ParquetWriter<W> {
         self
     }
 
-    /// Serialize columns in parallel
-    #[allow(dead_code)]
+    /// Serialize row groups and columns in parallel
     pub fn set_parallel(mut self, parallel: bool) -> Self {
         self.parallel = parallel;
         self
@@ -202,6 +201,25 @@ impl<W: Write> ChunkedWriter<W> {
                 (offset, length)
             });
         let schema = &self.parquet_schema;
+        if self.parallel {
+            // Row groups are encoded in batches of one per pool thread, so that
+            // the memory held by the compressed pages stays bounded.
+            let row_group_ranges = row_group_range.collect::<Vec<_>>();
+            let batch_size = POOL.current_num_threads().max(1);
+            for batch in row_group_ranges.chunks(batch_size) {
+                let row_groups = create_row_groups_parallel(
+                    &partition,
+                    batch,
+                    schema.fields(),
+                    &self.encodings,
+                    self.options,
+                )?;
+                for row_group in row_groups {
+                    self.writer.write(row_group)?;
+                }
+            }
+            return Ok(());
+        }
         for (offset, length) in row_group_range {
             let row_group = create_row_group(
                 &partition,
@@ -266,24 +284,14 @@ pub fn create_row_group(
               -> ParquetResult<
             DynStreamingIterator<CompressedPage, ParquetError>,
         > {
-            let encoded_column = column_chunk_to_pages(
+            let compressed_pages = compress_column_chunk(
                 *column,
                 column_type.clone(),
                 offset,
                 length,
                 options,
                 *encoding,
-            )
-            .expect("encoded_column");
-            let compressed_pages = encoded_column
-                .into_iter()
-                .map(|page| {
-                    let page = page?;
-                    let page = compress(page, vec![], options.compression)?;
-                    Ok(Ok(page))
-                })
-                .collect::<ParquetResult<VecDeque<_>>>()?;
-
+            )?;
             Ok(DynStreamingIterator::new(CompressedPages::new(
                 compressed_pages,
             )))
@@ -334,6 +342,78 @@ pub fn create_row_group(
     Ok(DynIter::new(columns.into_iter().map(Ok)))
 }
 
+/// Encodes the given row groups with all their column chunks compressed concurrently
+/// on the shared pool. The row groups are returned in the same order, so they can be
+/// written to the file one after another.
+fn create_row_groups_parallel(
+    partition: &Partition,
+    row_groups: &[(usize, usize)],
+    column_types: &[ParquetType],
+    encodings: &[Encoding],
+    options: WriteOptions,
+) -> ParquetResult<Vec<RowGroupIter<'static, ParquetError>>> {
+    let column_count = partition.columns.len();
+    let chunks = POOL.install(|| {
+        (0..row_groups.len() * column_count)
+            .into_par_iter()
+            .map(|i| {
+                let (offset, length) = row_groups[i / column_count];
+                let column_index = i % column_count;
+                compress_column_chunk(
+                    partition.columns[column_index],
+                    column_types[column_index].clone(),
+                    offset,
+                    length,
+                    options,
+                    encodings[column_index],
+                )
+            })
+            .collect::<ParquetResult<Vec<_>>>()
+    })?;
+
+    let mut chunks = chunks.into_iter();
+    let mut result = Vec::with_capacity(row_groups.len());
+    for _ in 0..row_groups.len() {
+        let columns = chunks
+            .by_ref()
+            .take(column_count)
+            .map(
+                |pages| -> ParquetResult<DynStreamingIterator<CompressedPage, ParquetError>> {
+                    Ok(DynStreamingIterator::new(CompressedPages::new(pages)))
+                },
+            )
+            .collect::<Vec<_>>();
+        result.push(DynIter::new(columns.into_iter()));
+    }
+    Ok(result)
+}
+
+fn compress_column_chunk(
+    column: Column,
+    parquet_type: ParquetType,
+    chunk_offset: usize,
+    chunk_length: usize,
+    options: WriteOptions,
+    encoding: Encoding,
+) -> ParquetResult<VecDeque<ParquetResult<CompressedPage>>> {
+    let encoded_column = column_chunk_to_pages(
+        column,
+        parquet_type,
+        chunk_offset,
+        chunk_length,
+        options,
+        encoding,
+    )?;
+    encoded_column
+        .into_iter()
+        .map(|page| {
+            let page = page?;
+            let page = compress(page, vec![], options.compression)?;
+            Ok(Ok(page))
+        })
+        .collect::<ParquetResult<VecDeque<_>>>()
+}
+
 fn column_chunk_to_pages(
     column: Column,
     parquet_type: ParquetType,
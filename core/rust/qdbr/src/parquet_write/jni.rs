@@ -195,7 +195,7 @@ pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionUpd
         env,
         _class,
         parquet_updater,
-        Some(row_group_id),
+        (row_group_id >= 0).then_some(row_group_id),
         col_count,
         col_names_ptr,
         col_names_len,
@@ -225,6 +225,7 @@ pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionEnc
     row_group_size: jlong,
     data_page_size: jlong,
     version: jint,
+    parallel: jboolean,
 ) {
     let encode = || -> anyhow::Result<()> {
         let partition = create_partition_descriptor(
@@ -279,6 +280,7 @@ pub extern "system" fn Java_io_questdb_griffin_engine_table_parquet_PartitionEnc
             .with_row_group_size(row_group_size)
             .with_data_page_size(data_page_size)
             .with_sorting_columns(sorting_columns)
+            .set_parallel(parallel != 0)
             .finish(partition)
             .map(|_| ())
             .context("ParquetWriter::finish failed")
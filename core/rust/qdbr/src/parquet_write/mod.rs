@@ -196,6 +196,50 @@ mod tests {
         save_to_file(bytes);
     }
 
+    #[test]
+    fn test_parallel_write_produces_same_file() {
+        let row_count = 10_000;
+        let buffers: Vec<Vec<i64>> = (0..4)
+            .map(|i| (0..row_count).map(|v| v * (i + 1)).collect())
+            .collect();
+        let create_partition = || {
+            let columns: Vec<Column> = buffers
+                .iter()
+                .enumerate()
+                .map(|(i, buffer)| {
+                    let name: &'static str = Box::leak(format!("col{}", i).into_boxed_str());
+                    Column::from_raw_data(
+                        i as i32,
+                        name,
+                        ColumnType::Long as i32,
+                        0,
+                        row_count as usize,
+                        buffer.as_ptr() as *const u8,
+                        buffer.len() * size_of::<i64>(),
+                        null(),
+                        0,
+                        null(),
+                        0,
+                    )
+                    .expect("column")
+                })
+                .collect();
+            Partition { table: "test_table".to_string(), columns }
+        };
+        let write = |parallel: bool| -> Vec<u8> {
+            let mut buf: Cursor<Vec<u8>> = Cursor::new(Vec::new());
+            ParquetWriter::new(&mut buf)
+                .with_row_group_size(Some(1000))
+                .with_data_page_size(Some(1024))
+                .set_parallel(parallel)
+                .finish(create_partition())
+                .expect("parquet writer");
+            buf.into_inner()
+        };
+
+        assert_eq!(write(false), write(true));
+    }
+
     #[test]
     fn test_write_parquet_with_symbol_column() {
         let mut buf: Cursor<Vec<u8>> = Cursor::new(Vec::new());
@@ -157,6 +157,17 @@ JNIEXPORT jboolean JNICALL Java_io_questdb_std_Files_setLastModified
     return (jboolean) (utimes((const char *) lpszName, t) == 0);
 }
 
+JNIEXPORT jboolean JNICALL Java_io_questdb_std_Files_punchHole
+        (JNIEnv *e, jclass cl, jint fd, jlong offset, jlong len) {
+#ifdef __APPLE__
+    fpunchhole_t args = {0, 0, offset, len};
+    return fcntl((int) fd, F_PUNCHHOLE, &args) == 0;
+#else
+    // Hole punching is not supported, the range stays allocated
+    return JNI_FALSE;
+#endif
+}
+
 JNIEXPORT jlong JNICALL Java_io_questdb_std_Files_getLastModified
         (JNIEnv *e, jclass cl, jlong pchar) {
     struct stat st;
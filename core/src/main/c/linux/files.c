@@ -425,6 +425,12 @@ JNIEXPORT jboolean JNICALL Java_io_questdb_std_Files_allocate
     return JNI_FALSE;
 }
 
+JNIEXPORT jboolean JNICALL Java_io_questdb_std_Files_punchHole
+        (JNIEnv *e, jclass cl, jint fd, jlong offset, jlong len) {
+    // Deallocates the range while keeping file size, reads from the hole return zeros
+    return fallocate(fd, FALLOC_FL_PUNCH_HOLE | FALLOC_FL_KEEP_SIZE, offset, len) == 0;
+}
+
 JNIEXPORT jlong JNICALL Java_io_questdb_std_Files_getLastModified
         (JNIEnv *e, jclass cl, jlong pchar) {
     struct stat st;
@@ -173,6 +173,14 @@ JNIEXPORT jboolean JNICALL Java_io_questdb_std_Files_truncate
 JNIEXPORT jboolean JNICALL Java_io_questdb_std_Files_allocate
         (JNIEnv *, jclass, jint, jlong);
 
+/*
+ * Class:     com_questdb_std_Files
+ * Method:    punchHole
+ * Signature: (IJJ)Z
+ */
+JNIEXPORT jboolean JNICALL Java_io_questdb_std_Files_punchHole
+        (JNIEnv *, jclass, jint, jlong, jlong);
+
 /*
  * Class:     com_questdb_std_Files
  * Method:    write
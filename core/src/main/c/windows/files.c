@@ -630,6 +630,12 @@ JNIEXPORT jboolean JNICALL Java_io_questdb_std_Files_truncate
     return FALSE;
 }
 
+JNIEXPORT jboolean JNICALL Java_io_questdb_std_Files_punchHole
+        (JNIEnv *e, jclass cl, jint fd, jlong offset, jlong len) {
+    /* Files are not sparse, the range stays allocated */
+    return FALSE;
+}
+
 JNIEXPORT jboolean JNICALL Java_io_questdb_std_Files_allocate
         (JNIEnv *e, jclass cl, jint fd, jlong size) {
     /* On Windows truncate does the allocation */
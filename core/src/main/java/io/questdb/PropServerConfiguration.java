@@ -86,6 +86,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final String backupRoot;
     private final CharSequence backupTempDirName;
     private final int binaryEncodingMaxLength;
+    private final double bloomFilterFpp;
     private final BuildInformation buildInformation;
     private final boolean cairoAttachPartitionCopy;
     private final String cairoAttachPartitionSuffix;
@@ -127,6 +128,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int createAsSelectRetryCount;
     private final int dateAdapterPoolCapacity;
     private final String dbDirectory;
+    private final boolean dedupDuplicateRowFilterEnabled;
     private final int defaultSeqPartTxnCount;
     private final boolean defaultSymbolCacheFlag;
     private final int defaultSymbolCapacity;
@@ -185,6 +187,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final String keepAliveHeader;
     private final int latestByQueueCapacity;
     private final String legacyCheckpointRoot;
+    private final int lineHttpColumnarMaxBlockSize;
     private final boolean lineHttpEnabled;
     private final CharSequence lineHttpPingVersion;
     private final LineHttpProcessorConfiguration lineHttpProcessorConfiguration = new PropLineHttpProcessorConfiguration();
@@ -239,12 +242,18 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int o3PurgeDiscoveryQueueCapacity;
     private final boolean o3QuickSortEnabled;
     private final int parallelIndexThreshold;
+    private final long parquetTieringCheckInterval;
+    private final long parquetTieringMaxBandwidth;
+    private final int parquetTieringMaxConcurrentConversions;
     private final boolean parallelIndexingEnabled;
+    private final long partitionDecoderParquetCacheSize;
     private final int partitionEncoderParqeutRowGroupSize;
     private final int partitionEncoderParquetCompressionCodec;
     private final int partitionEncoderParquetCompressionLevel;
     private final int partitionEncoderParquetDataPageSize;
+    private final boolean partitionEncoderParquetParallelEnabled;
     private final boolean partitionEncoderParquetStatisticsEnabled;
+    private final boolean partitionZoneMapsEnabled;
     private final int partitionEncoderParquetVersion;
     private final boolean pgEnabled;
     private final PGWireConfiguration pgWireConfiguration = new PropPGWireConfiguration();
@@ -305,6 +314,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlHashJoinLightValuePageSize;
     private final int sqlHashJoinValueMaxPages;
     private final int sqlHashJoinValuePageSize;
+    private final int sqlHashSpillPartitions;
+    private final long sqlHashSpillThreshold;
     private final long sqlInsertModelBatchSize;
     private final int sqlInsertModelPoolCapacity;
     private final int sqlJitBindVarsMemoryMaxPages;
@@ -328,9 +339,13 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final boolean sqlOrderBySortEnabled;
     private final int sqlPageFrameMaxRows;
     private final int sqlPageFrameMinRows;
+    private final boolean sqlPageFrameReadAheadEnabled;
+    private final int sqlPageFrameReadAheadFrames;
     private final boolean sqlParallelFilterEnabled;
     private final boolean sqlParallelFilterPreTouchEnabled;
     private final boolean sqlParallelGroupByEnabled;
+    private final boolean sqlParallelHashJoinEnabled;
+    private final boolean sqlParallelOrderByEnabled;
     private final int sqlParallelWorkStealingThreshold;
     private final int sqlQueryRegistryPoolSize;
     private final int sqlRenameTableModelPoolCapacity;
@@ -342,6 +357,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long sqlSortKeyPageSize;
     private final int sqlSortLightValueMaxPages;
     private final long sqlSortLightValuePageSize;
+    private final long sqlSortSpillThreshold;
     private final int sqlSortValueMaxPages;
     private final int sqlSortValuePageSize;
     private final int sqlStrFunctionBufferMaxSize;
@@ -382,6 +398,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final boolean walApplyEnabled;
     private final int walApplyLookAheadTransactionCount;
     private final WorkerPoolConfiguration walApplyPoolConfiguration = new PropWalApplyPoolConfiguration();
+    private final int walApplySchedulerCapacity;
     private final long walApplySleepTimeout;
     private final long walApplyTableTimeQuota;
     private final int[] walApplyWorkerAffinity;
@@ -390,6 +407,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long walApplyWorkerNapThreshold;
     private final long walApplyWorkerSleepThreshold;
     private final long walApplyWorkerYieldThreshold;
+    private final boolean walCompressionEnabled;
     private final boolean walEnabledDefault;
     private final long walMaxLagSize;
     private final int walMaxLagTxnCount;
@@ -397,6 +415,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long walPurgeInterval;
     private final int walPurgeWaitBeforeDelete;
     private final int walRecreateDistressedSequencerAttempts;
+    private final boolean walSegmentPromotionEnabled;
     private final long walSegmentRolloverRowCount;
     private final double walSquashUncommittedRowsMultiplier;
     private final boolean walSupported;
@@ -475,6 +494,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private long lineTcpNetConnectionTimeout;
     private LineTcpTimestampAdapter lineTcpTimestampAdapter;
     private int lineTcpWriterQueueCapacity;
+    private long lineTcpWriterRelocationInterval;
     private int[] lineTcpWriterWorkerAffinity;
     private int lineTcpWriterWorkerCount;
     private long lineTcpWriterWorkerNapThreshold;
@@ -635,6 +655,16 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.walMaxLagSize = getLongSize(properties, env, PropertyKey.CAIRO_WAL_MAX_LAG_SIZE, 75 * Numbers.SIZE_1MB);
         this.walMaxSegmentFileDescriptorsCache = getInt(properties, env, PropertyKey.CAIRO_WAL_MAX_SEGMENT_FILE_DESCRIPTORS_CACHE, 30);
         this.walApplyTableTimeQuota = getLong(properties, env, PropertyKey.CAIRO_WAL_APPLY_TABLE_TIME_QUOTA, 1000);
+        this.walApplySchedulerCapacity = getInt(properties, env, PropertyKey.CAIRO_WAL_APPLY_SCHEDULER_CAPACITY, 64);
+        this.walSegmentPromotionEnabled = getBoolean(properties, env, PropertyKey.CAIRO_WAL_SEGMENT_PROMOTION_ENABLED, false);
+        final boolean walCompressionRequested = getBoolean(properties, env, PropertyKey.CAIRO_WAL_COMPRESSION_ENABLED, false);
+        if (walCompressionRequested && !Files.PUNCH_HOLE_AVAILABLE) {
+            // without hole punching the raw pages are written back along with the compressed copy
+            log.advisory().$("native library does not support hole punching, WAL compression is disabled [property=")
+                    .$(PropertyKey.CAIRO_WAL_COMPRESSION_ENABLED.getPropertyPath()).I$();
+        }
+        this.walCompressionEnabled = walCompressionRequested && Files.PUNCH_HOLE_AVAILABLE;
+        this.dedupDuplicateRowFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_DEDUP_DUPLICATE_ROW_FILTER_ENABLED, false);
         this.walApplyLookAheadTransactionCount = getInt(properties, env, PropertyKey.CAIRO_WAL_APPLY_LOOK_AHEAD_TXN_COUNT, 20);
         this.tableTypeConversionEnabled = getBoolean(properties, env, PropertyKey.TABLE_TYPE_CONVERSION_ENABLED, true);
         this.tempRenamePendingTablePrefix = getString(properties, env, PropertyKey.CAIRO_WAL_TEMP_PENDING_RENAME_TABLE_PREFIX, "temp_5822f658-31f6-11ee-be56-0242ac120002");
@@ -1038,10 +1068,13 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlLatestByRowCount = getInt(properties, env, PropertyKey.CAIRO_SQL_LATEST_BY_ROW_COUNT, 1000);
             this.sqlHashJoinLightValuePageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_LIGHT_VALUE_PAGE_SIZE, 128 * 1024);
             this.sqlHashJoinLightValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_LIGHT_VALUE_MAX_PAGES, Integer.MAX_VALUE);
+            this.sqlHashSpillThreshold = getLongSize(properties, env, PropertyKey.CAIRO_SQL_HASH_SPILL_THRESHOLD, 0);
+            this.sqlHashSpillPartitions = getInt(properties, env, PropertyKey.CAIRO_SQL_HASH_SPILL_PARTITIONS, 16);
             this.sqlAsOfJoinLookahead = getInt(properties, env, PropertyKey.CAIRO_SQL_ASOF_JOIN_LOOKAHEAD, 100);
             this.useFastAsOfJoin = getBoolean(properties, env, PropertyKey.CAIRO_SQL_ASOF_JOIN_FAST, true);
             this.sqlSortValuePageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_VALUE_PAGE_SIZE, 16777216);
             this.sqlSortValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_VALUE_MAX_PAGES, Integer.MAX_VALUE);
+            this.sqlSortSpillThreshold = getLongSize(properties, env, PropertyKey.CAIRO_SQL_SORT_SPILL_THRESHOLD, 0);
             this.workStealTimeoutNanos = getLong(properties, env, PropertyKey.CAIRO_WORK_STEAL_TIMEOUT_NANOS, 10_000);
             this.parallelIndexingEnabled = getBoolean(properties, env, PropertyKey.CAIRO_PARALLEL_INDEXING_ENABLED, true);
             this.sqlJoinMetadataPageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_JOIN_METADATA_PAGE_SIZE, 16384);
@@ -1100,6 +1133,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlDistinctTimestampLoadFactor = getDouble(properties, env, PropertyKey.CAIRO_SQL_DISTINCT_TIMESTAMP_LOAD_FACTOR, "0.5");
             this.sqlPageFrameMinRows = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_MIN_ROWS, 100_000);
             this.sqlPageFrameMaxRows = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 1_000_000);
+            this.sqlPageFrameReadAheadEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_READ_AHEAD_ENABLED, false);
+            this.sqlPageFrameReadAheadFrames = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_READ_AHEAD_FRAMES, 4);
 
             this.sqlJitMode = getSqlJitMode(properties, env);
             this.sqlJitIRMemoryPageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_JIT_IR_MEMORY_PAGE_SIZE, 8 * 1024);
@@ -1229,6 +1264,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.lineTcpEnabled = getBoolean(properties, env, PropertyKey.LINE_TCP_ENABLED, true);
             this.lineHttpEnabled = getBoolean(properties, env, PropertyKey.LINE_HTTP_ENABLED, true);
             this.lineHttpPingVersion = getString(properties, env, PropertyKey.LINE_HTTP_PING_VERSION, "v2.7.4");
+            this.lineHttpColumnarMaxBlockSize = getIntSize(properties, env, PropertyKey.LINE_HTTP_COLUMNAR_MAX_BLOCK_SIZE, 512 * 1024);
             if (lineTcpEnabled || lineHttpEnabled) {
                 // obsolete
                 lineTcpNetConnectionLimit = getInt(properties, env, PropertyKey.LINE_TCP_NET_ACTIVE_CONNECTION_LIMIT, 256);
@@ -1259,6 +1295,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                     lineTcpMsgBufferSize = lineTcpMaxMeasurementSize;
                 }
                 this.lineTcpWriterQueueCapacity = getQueueCapacity(properties, env, PropertyKey.LINE_TCP_WRITER_QUEUE_CAPACITY, 128);
+                this.lineTcpWriterRelocationInterval = getLong(properties, env, PropertyKey.LINE_TCP_WRITER_RELOCATION_INTERVAL, 1000);
                 this.lineTcpWriterWorkerCount = getInt(properties, env, PropertyKey.LINE_TCP_WRITER_WORKER_COUNT, 0);
                 cpuUsed += this.lineTcpWriterWorkerCount;
                 this.lineTcpWriterWorkerAffinity = getAffinity(properties, env, PropertyKey.LINE_TCP_WRITER_WORKER_AFFINITY, lineTcpWriterWorkerCount);
@@ -1362,6 +1399,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             boolean defaultParallelSqlEnabled = sharedWorkerCount >= 4;
             this.sqlParallelFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_ENABLED, defaultParallelSqlEnabled);
             this.sqlParallelGroupByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_ENABLED, defaultParallelSqlEnabled);
+            this.sqlParallelOrderByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_ORDERBY_ENABLED, false);
+            this.sqlParallelHashJoinEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, false);
             this.sqlParallelWorkStealingThreshold = getInt(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_WORK_STEALING_THRESHOLD, 16);
             this.sqlOrderBySortEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_ORDER_BY_SORT_ENABLED, true);
             this.sqlOrderByRadixSortThreshold = getInt(properties, env, PropertyKey.CAIRO_SQL_ORDER_BY_RADIX_SORT_THRESHOLD, 600);
@@ -1386,8 +1425,15 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.partitionEncoderParquetStatisticsEnabled = getBoolean(properties, env, PropertyKey.CAIRO_PARTITION_ENCODER_PARQUET_STATISTICS_ENABLED, true);
         this.partitionEncoderParquetCompressionCodec = getInt(properties, env, PropertyKey.CAIRO_PARTITION_ENCODER_PARQUET_COMPRESSION_CODEC, ParquetCompression.COMPRESSION_UNCOMPRESSED);
         this.partitionEncoderParquetCompressionLevel = getInt(properties, env, PropertyKey.CAIRO_PARTITION_ENCODER_PARQUET_COMPRESSION_LEVEL, 0);
+        this.partitionEncoderParquetParallelEnabled = getBoolean(properties, env, PropertyKey.CAIRO_PARTITION_ENCODER_PARQUET_PARALLEL_ENABLED, true);
         this.partitionEncoderParqeutRowGroupSize = getInt(properties, env, PropertyKey.CAIRO_PARTITION_ENCODER_PARQUET_ROW_GROUP_SIZE, 0);
         this.partitionEncoderParquetDataPageSize = getInt(properties, env, PropertyKey.CAIRO_PARTITION_ENCODER_PARQUET_DATA_PAGE_SIZE, 0);
+        this.partitionDecoderParquetCacheSize = getLongSize(properties, env, PropertyKey.CAIRO_PARTITION_DECODER_PARQUET_CACHE_SIZE, 64 * Numbers.SIZE_1MB);
+        this.parquetTieringCheckInterval = getLong(properties, env, PropertyKey.CAIRO_PARQUET_TIERING_CHECK_INTERVAL, 60_000);
+        this.parquetTieringMaxConcurrentConversions = getInt(properties, env, PropertyKey.CAIRO_PARQUET_TIERING_MAX_CONCURRENT_CONVERSIONS, 1);
+        this.parquetTieringMaxBandwidth = getLongSize(properties, env, PropertyKey.CAIRO_PARQUET_TIERING_MAX_BANDWIDTH, 64 * Numbers.SIZE_1MB);
+        this.partitionZoneMapsEnabled = getBoolean(properties, env, PropertyKey.CAIRO_PARTITION_ZONE_MAPS_ENABLED, true);
+        this.bloomFilterFpp = getDouble(properties, env, PropertyKey.CAIRO_BLOOM_FILTER_FPP, "0.01");
     }
 
     public static String rootSubdir(CharSequence dbRoot, CharSequence subdir) {
@@ -2102,6 +2148,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return buildInformation;
         }
 
+        @Override
+        public double getBloomFilterFpp() {
+            return bloomFilterFpp;
+        }
+
         @Override
         public boolean getCairoSqlLegacyOperatorPrecedence() {
             return cairoSqlLegacyOperatorPrecedence;
@@ -2525,6 +2576,26 @@ public class PropServerConfiguration implements ServerConfiguration {
             return partitionEncoderParquetCompressionLevel;
         }
 
+        @Override
+        public long getParquetTieringCheckInterval() {
+            return parquetTieringCheckInterval;
+        }
+
+        @Override
+        public long getParquetTieringMaxBandwidth() {
+            return parquetTieringMaxBandwidth;
+        }
+
+        @Override
+        public int getParquetTieringMaxConcurrentConversions() {
+            return parquetTieringMaxConcurrentConversions;
+        }
+
+        @Override
+        public long getPartitionDecoderParquetCacheSize() {
+            return partitionDecoderParquetCacheSize;
+        }
+
         @Override
         public int getPartitionEncoderParquetDataPageSize() {
             return partitionEncoderParquetDataPageSize;
@@ -2710,6 +2781,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlHashJoinValuePageSize;
         }
 
+        @Override
+        public int getSqlHashSpillPartitions() {
+            return sqlHashSpillPartitions;
+        }
+
+        @Override
+        public long getSqlHashSpillThreshold() {
+            return sqlHashSpillThreshold;
+        }
+
         @Override
         public int getSqlJitBindVarsMemoryMaxPages() {
             return sqlJitBindVarsMemoryMaxPages;
@@ -2800,6 +2881,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlPageFrameMinRows;
         }
 
+        @Override
+        public int getSqlPageFrameReadAheadFrames() {
+            return sqlPageFrameReadAheadFrames;
+        }
+
         @Override
         public int getSqlParallelWorkStealingThreshold() {
             return sqlParallelWorkStealingThreshold;
@@ -2835,6 +2921,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlSortLightValuePageSize;
         }
 
+        @Override
+        public long getSqlSortSpillThreshold() {
+            return sqlSortSpillThreshold;
+        }
+
         @Override
         public int getSqlSortValueMaxPages() {
             return sqlSortValueMaxPages;
@@ -2964,6 +3055,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return walApplyLookAheadTransactionCount;
         }
 
+        @Override
+        public int getWalApplySchedulerCapacity() {
+            return walApplySchedulerCapacity;
+        }
+
         @Override
         public long getWalApplyTableTimeQuota() {
             return walApplyTableTimeQuota;
@@ -3089,6 +3185,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return checkpointRecoveryEnabled;
         }
 
+        @Override
+        public boolean isDedupDuplicateRowFilterEnabled() {
+            return dedupDuplicateRowFilterEnabled;
+        }
+
         @Override
         public boolean isDevModeEnabled() {
             return devModeEnabled;
@@ -3119,11 +3220,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return parallelIndexingEnabled;
         }
 
+        @Override
+        public boolean isPartitionEncoderParquetParallelEnabled() {
+            return partitionEncoderParquetParallelEnabled;
+        }
+
         @Override
         public boolean isPartitionEncoderParquetStatisticsEnabled() {
             return partitionEncoderParquetStatisticsEnabled;
         }
 
+        @Override
+        public boolean isPartitionZoneMapsEnabled() {
+            return partitionZoneMapsEnabled;
+        }
+
         @Override
         public boolean isReadOnlyInstance() {
             return isReadOnlyInstance;
@@ -3139,6 +3250,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlOrderBySortEnabled;
         }
 
+        @Override
+        public boolean isSqlPageFrameReadAheadEnabled() {
+            return sqlPageFrameReadAheadEnabled;
+        }
+
         @Override
         public boolean isSqlParallelFilterEnabled() {
             return sqlParallelFilterEnabled;
@@ -3154,6 +3270,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlParallelGroupByEnabled;
         }
 
+        @Override
+        public boolean isSqlParallelHashJoinEnabled() {
+            return sqlParallelHashJoinEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelOrderByEnabled() {
+            return sqlParallelOrderByEnabled;
+        }
+
         @Override
         public boolean isTableTypeConversionEnabled() {
             return tableTypeConversionEnabled;
@@ -3164,6 +3290,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return walApplyEnabled;
         }
 
+        @Override
+        public boolean isWalCompressionEnabled() {
+            return walCompressionEnabled;
+        }
+
+        @Override
+        public boolean isWalSegmentPromotionEnabled() {
+            return walSegmentPromotionEnabled;
+        }
+
         public boolean isWalSupported() {
             return walSupported;
         }
@@ -3708,6 +3844,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return ilpAutoCreateNewTables;
         }
 
+        @Override
+        public int getColumnarMaxBlockSize() {
+            return lineHttpColumnarMaxBlockSize;
+        }
+
         @Override
         public short getDefaultColumnTypeForFloat() {
             return floatDefaultColumnType;
@@ -3930,6 +4071,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return lineTcpWriterQueueCapacity;
         }
 
+        @Override
+        public long getWriterRelocationInterval() {
+            return lineTcpWriterRelocationInterval;
+        }
+
         @Override
         public WorkerPoolConfiguration getWriterWorkerPoolConfiguration() {
             return lineTcpWriterWorkerPoolConfiguration;
@@ -316,6 +316,7 @@ public enum PropertyKey implements ConfigPropertyKey {
     LINE_TCP_ENABLED("line.tcp.enabled"),
     LINE_HTTP_ENABLED("line.http.enabled"),
     LINE_HTTP_PING_VERSION("line.http.ping.version"),
+    LINE_HTTP_COLUMNAR_MAX_BLOCK_SIZE("line.http.columnar.max.block.size"),
     LINE_TCP_NET_ACTIVE_CONNECTION_LIMIT("line.tcp.net.active.connection.limit"),
     LINE_TCP_NET_CONNECTION_LIMIT("line.tcp.net.connection.limit"),
     LINE_TCP_NET_CONNECTION_HINT("line.tcp.net.connection.hint"),
@@ -332,6 +333,7 @@ public enum PropertyKey implements ConfigPropertyKey {
     LINE_TCP_MSG_BUFFER_SIZE("line.tcp.msg.buffer.size"),
     LINE_TCP_MAX_MEASUREMENT_SIZE("line.tcp.max.measurement.size"),
     LINE_TCP_WRITER_QUEUE_CAPACITY("line.tcp.writer.queue.capacity"),
+    LINE_TCP_WRITER_RELOCATION_INTERVAL("line.tcp.writer.relocation.interval"),
     LINE_TCP_WRITER_WORKER_COUNT("line.tcp.writer.worker.count"),
     LINE_TCP_WRITER_WORKER_AFFINITY("line.tcp.writer.worker.affinity"),
     LINE_TCP_WRITER_HALT_ON_ERROR("line.tcp.writer.halt.on.error"),
@@ -490,7 +492,25 @@ public enum PropertyKey implements ConfigPropertyKey {
     CAIRO_PARTITION_ENCODER_PARQUET_COMPRESSION_CODEC("cairo.partition.encoder.parquet.compression.codec"),
     CAIRO_PARTITION_ENCODER_PARQUET_COMPRESSION_LEVEL("cairo.partition.encoder.parquet.compression.level"),
     CAIRO_PARTITION_ENCODER_PARQUET_ROW_GROUP_SIZE("cairo.partition.encoder.parquet.row.group.size"),
-    CAIRO_PARTITION_ENCODER_PARQUET_DATA_PAGE_SIZE("cairo.partition.encoder.parquet.data.page.size");
+    CAIRO_PARTITION_ENCODER_PARQUET_DATA_PAGE_SIZE("cairo.partition.encoder.parquet.data.page.size"),
+    CAIRO_PARTITION_DECODER_PARQUET_CACHE_SIZE("cairo.partition.decoder.parquet.cache.size"),
+    CAIRO_PARQUET_TIERING_CHECK_INTERVAL("cairo.parquet.tiering.check.interval"),
+    CAIRO_PARQUET_TIERING_MAX_CONCURRENT_CONVERSIONS("cairo.parquet.tiering.max.concurrent.conversions"),
+    CAIRO_PARQUET_TIERING_MAX_BANDWIDTH("cairo.parquet.tiering.max.bandwidth"),
+    CAIRO_PARTITION_ZONE_MAPS_ENABLED("cairo.partition.zone.maps.enabled"),
+    CAIRO_BLOOM_FILTER_FPP("cairo.bloom.filter.fpp"),
+    CAIRO_PARTITION_ENCODER_PARQUET_PARALLEL_ENABLED("cairo.partition.encoder.parquet.parallel.enabled"),
+    CAIRO_SQL_PAGE_FRAME_READ_AHEAD_ENABLED("cairo.sql.page.frame.read.ahead.enabled"),
+    CAIRO_SQL_PAGE_FRAME_READ_AHEAD_FRAMES("cairo.sql.page.frame.read.ahead.frames"),
+    CAIRO_WAL_APPLY_SCHEDULER_CAPACITY("cairo.wal.apply.scheduler.capacity"),
+    CAIRO_WAL_SEGMENT_PROMOTION_ENABLED("cairo.wal.segment.promotion.enabled"),
+    CAIRO_WAL_COMPRESSION_ENABLED("cairo.wal.compression.enabled"),
+    CAIRO_DEDUP_DUPLICATE_ROW_FILTER_ENABLED("cairo.dedup.duplicate.row.filter.enabled"),
+    CAIRO_SQL_PARALLEL_ORDERBY_ENABLED("cairo.sql.parallel.orderby.enabled"),
+    CAIRO_SQL_SORT_SPILL_THRESHOLD("cairo.sql.sort.spill.threshold"),
+    CAIRO_SQL_HASH_SPILL_THRESHOLD("cairo.sql.hash.spill.threshold"),
+    CAIRO_SQL_HASH_SPILL_PARTITIONS("cairo.sql.hash.spill.partitions"),
+    CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED("cairo.sql.parallel.hash.join.enabled");
 
     private static final Map<String, PropertyKey> nameMapping;
     private final boolean debug;
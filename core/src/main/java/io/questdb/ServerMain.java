@@ -28,9 +28,11 @@ import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.CairoException;
 import io.questdb.cairo.FlushQueryCacheJob;
+import io.questdb.cairo.ParquetTieringJob;
 import io.questdb.cairo.security.ReadOnlySecurityContextFactory;
 import io.questdb.cairo.security.SecurityContextFactory;
 import io.questdb.cairo.wal.ApplyWal2TableJob;
+import io.questdb.cairo.wal.WalApplyScheduler;
 import io.questdb.cairo.wal.WalPurgeJob;
 import io.questdb.cutlass.Services;
 import io.questdb.cutlass.auth.AuthUtils;
@@ -346,6 +348,11 @@ public class ServerMain implements Closeable {
                             }
                         }
 
+                        // age-based conversion of partitions to parquet
+                        final ParquetTieringJob parquetTieringJob = new ParquetTieringJob(engine);
+                        sharedPool.assign(parquetTieringJob);
+                        sharedPool.freeOnExit(parquetTieringJob);
+
                         // text import
                         CopyJob.assignToPool(engine.getMessageBus(), sharedPool);
                         if (!Chars.empty(cairoConfig.getSqlCopyInputRoot())) {
@@ -446,9 +453,11 @@ public class ServerMain implements Closeable {
             CairoEngine engine,
             int sharedWorkerCount
     ) {
+        // the workers rank the tables together, so that an idle worker picks up the most urgent one
+        final WalApplyScheduler scheduler = new WalApplyScheduler(engine);
         for (int i = 0, workerCount = workerPool.getWorkerCount(); i < workerCount; i++) {
             // create job per worker
-            final ApplyWal2TableJob applyWal2TableJob = new ApplyWal2TableJob(engine, workerCount, sharedWorkerCount);
+            final ApplyWal2TableJob applyWal2TableJob = new ApplyWal2TableJob(engine, workerCount, sharedWorkerCount, scheduler);
             workerPool.assign(i, applyWal2TableJob);
             workerPool.freeOnExit(applyWal2TableJob);
         }
@@ -27,13 +27,18 @@ package io.questdb.cairo;
 import io.questdb.cairo.sql.PartitionFrame;
 import io.questdb.cairo.sql.PartitionFrameCursor;
 import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
 import io.questdb.cairo.vm.api.MemoryR;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.parquet.PartitionDecoder;
 import io.questdb.griffin.model.RuntimeIntrinsicIntervalModel;
 import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
 import io.questdb.std.Vect;
+import io.questdb.std.str.Path;
 import org.jetbrains.annotations.TestOnly;
 
 public abstract class AbstractIntervalPartitionFrameCursor implements PartitionFrameCursor {
@@ -58,6 +63,11 @@ public abstract class AbstractIntervalPartitionFrameCursor implements PartitionF
     private int initialIntervalsLo;
     private int initialPartitionHi;
     private int initialPartitionLo;
+    // Own decoder is used since the reader's one must not be used for decoding.
+    private PartitionDecoder parquetDecoder;
+    // Timestamps of the Parquet partition, decoded for binary search.
+    private MemoryCARW parquetTimestamps;
+    private int parquetTimestampsPartitionIndex = -1;
 
     public AbstractIntervalPartitionFrameCursor(RuntimeIntrinsicIntervalModel intervalModel, int timestampIndex) {
         assert timestampIndex > -1;
@@ -72,6 +82,9 @@ public abstract class AbstractIntervalPartitionFrameCursor implements PartitionF
     @Override
     public void close() {
         reader = Misc.free(reader);
+        parquetDecoder = Misc.free(parquetDecoder);
+        parquetTimestamps = Misc.free(parquetTimestamps);
+        parquetTimestampsPartitionIndex = -1;
     }
 
     @Override
@@ -124,8 +137,24 @@ public abstract class AbstractIntervalPartitionFrameCursor implements PartitionF
         sizeSoFar = 0;
     }
 
+    /**
+     * Returns designated timestamp column of the given open partition. Parquet partitions
+     * are not memory-mapped, so their timestamps are decoded into a buffer owned by this cursor.
+     * The returned memory stays valid until another partition is requested.
+     */
+    protected MemoryR getTimestampColumn(int partitionIndex, long rowCount) {
+        if (reader.getPartitionFormat(partitionIndex) == PartitionFormat.PARQUET) {
+            if (parquetTimestampsPartitionIndex != partitionIndex) {
+                decodeParquetTimestamps(partitionIndex, rowCount);
+            }
+            return parquetTimestamps;
+        }
+        return reader.getColumn(TableReader.getPrimaryColumnIndex(reader.getColumnBase(partitionIndex), timestampIndex));
+    }
+
     private void calculateRanges(TableReader reader, LongList intervals) {
         size = -1;
+        parquetTimestampsPartitionIndex = -1;
         if (intervals.size() > 0) {
             if (PartitionBy.isPartitioned(reader.getPartitionedBy())) {
                 cullIntervals(reader, intervals);
@@ -170,7 +199,7 @@ public abstract class AbstractIntervalPartitionFrameCursor implements PartitionF
                 return -1;
             }
             if (rowCount > 0) {
-                final MemoryR column = reader.getColumn(TableReader.getPrimaryColumnIndex(reader.getColumnBase(partitionLo), timestampIndex));
+                final MemoryR column = getTimestampColumn(partitionLo, rowCount);
                 final long intervalLo = intervals.getQuick(intervalsLo * 2);
                 final long intervalHi = intervals.getQuick(intervalsLo * 2 + 1);
 
@@ -283,6 +312,50 @@ public abstract class AbstractIntervalPartitionFrameCursor implements PartitionF
         this.initialPartitionHi = Math.min(reader.getPartitionCount(), reader.getPartitionIndexByTimestamp(intervalHi) + 1);
     }
 
+    private void decodeParquetTimestamps(int partitionIndex, long rowCount) {
+        final PartitionDecoder readerDecoder = reader.getParquetDecoder(partitionIndex);
+        if (parquetDecoder == null) {
+            parquetDecoder = new PartitionDecoder(readerDecoder.getFilesFacade());
+        }
+        parquetDecoder.of(Path.getThreadLocal(readerDecoder.getPath()).$());
+        final PartitionDecoder.Metadata metadata = parquetDecoder.getMetadata();
+        final int timestampWriterIndex = reader.getMetadata().getWriterIndex(timestampIndex);
+        int parquetTimestampIndex = -1;
+        for (int i = 0, n = metadata.columnCount(); i < n; i++) {
+            if (metadata.fieldId(i) == timestampWriterIndex) {
+                parquetTimestampIndex = i;
+                break;
+            }
+        }
+        if (parquetTimestampIndex == -1) {
+            throw CairoException.critical(0).put("designated timestamp column not found in parquet partition [table=")
+                    .put(reader.getTableToken().getTableName())
+                    .put(", partitionIndex=").put(partitionIndex)
+                    .put(']');
+        }
+
+        if (parquetTimestamps == null) {
+            parquetTimestamps = Vm.getCARWInstance(Math.max(Long.BYTES, rowCount * Long.BYTES), Integer.MAX_VALUE, MemoryTag.NATIVE_PARQUET_PARTITION_DECODER);
+        }
+        parquetTimestamps.jumpTo(0);
+        long rowsDecoded = 0;
+        for (int rowGroup = 0, n = metadata.rowGroupCount(); rowGroup < n && rowsDecoded < rowCount; rowGroup++) {
+            final long chunkPtr = parquetDecoder.decodeColumnChunk(rowGroup, parquetTimestampIndex, ColumnType.TIMESTAMP);
+            final long rowGroupSize = Math.min(metadata.rowGroupSize(rowGroup), rowCount - rowsDecoded);
+            parquetTimestamps.putBlockOfBytes(PartitionDecoder.getChunkDataPtr(chunkPtr), rowGroupSize * Long.BYTES);
+            rowsDecoded += rowGroupSize;
+        }
+        if (rowsDecoded < rowCount) {
+            throw CairoException.critical(0).put("parquet partition has fewer rows than expected [table=")
+                    .put(reader.getTableToken().getTableName())
+                    .put(", partitionIndex=").put(partitionIndex)
+                    .put(", expected=").put(rowCount)
+                    .put(", actual=").put(rowsDecoded)
+                    .put(']');
+        }
+        parquetTimestampsPartitionIndex = partitionIndex;
+    }
+
     protected static class IntervalPartitionFrame implements PartitionFrame {
 
         protected int partitionIndex;
@@ -642,4 +642,98 @@ public interface CairoConfiguration {
     int getPartitionEncoderParquetRowGroupSize();
 
     int getPartitionEncoderParquetDataPageSize();
+
+    /**
+     * Maximum size in bytes of decoded Parquet column chunks cached by the engine; 0 disables the cache.
+     */
+    long getPartitionDecoderParquetCacheSize();
+
+    /**
+     * Interval in milliseconds between checks for partitions due for conversion to Parquet.
+     */
+    long getParquetTieringCheckInterval();
+
+    /**
+     * Maximum rate in bytes per second at which a partition converted to Parquet is written, both by the
+     * tiering job and by <code>ALTER TABLE ... CONVERT PARTITION</code>; 0 means unlimited.
+     */
+    long getParquetTieringMaxBandwidth();
+
+    /**
+     * Maximum number of partition conversions to Parquet the tiering job keeps in flight.
+     */
+    int getParquetTieringMaxConcurrentConversions();
+
+    /**
+     * Returns true if table writers maintain per-partition column min/max zone maps used to skip partitions on filtering.
+     */
+    boolean isPartitionZoneMapsEnabled();
+
+    /**
+     * Returns target false positive probability of the Bloom filters of the columns declared with ADD BLOOM FILTER.
+     */
+    double getBloomFilterFpp();
+
+    /**
+     * Returns true if partition conversion to Parquet encodes row groups and column chunks concurrently.
+     */
+    boolean isPartitionEncoderParquetParallelEnabled();
+
+    /**
+     * Returns true if parallel page frame scans read upcoming column file ranges ahead of the reduce workers via io_uring.
+     */
+    boolean isSqlPageFrameReadAheadEnabled();
+
+    /**
+     * Number of page frames read ahead of the frames being processed by the reduce workers.
+     */
+    int getSqlPageFrameReadAheadFrames();
+
+    /**
+     * Maximum number of tables a WAL apply job ranks by urgency before picking the next table to apply. Value of 1 applies tables in the notification order.
+     */
+    int getWalApplySchedulerCapacity();
+
+    /**
+     * Returns true if an in-order WAL segment that lands in a new partition can be hard-linked into the partition directory instead of being copied.
+     */
+    boolean isWalSegmentPromotionEnabled();
+
+    /**
+     * Returns true if WAL writers compress column data of each committed transaction into the segment frames file and release the raw column pages.
+     */
+    boolean isWalCompressionEnabled();
+
+    /**
+     * Returns true if rows of a deduplicated WAL commit that are exact copies of rows in the last partition are dropped before the O3 merge.
+     * Only commits that are applied without a lag are filtered; rows landing in other partitions, and rows matching upsert keys
+     * but not all values, are merged as usual.
+     */
+    boolean isDedupDuplicateRowFilterEnabled();
+
+    /**
+     * Returns true if ORDER BY, with or without LIMIT, on a single int, ipv4, long, timestamp or date column
+     * of a table scan sorts page frames on worker threads and merges the sorted runs on the query owner thread.
+     */
+    boolean isSqlParallelOrderByEnabled();
+
+    /**
+     * Size of sorted records kept in memory, in bytes, beyond which ORDER BY writes sorted runs to disk and merges them once the input is consumed. Zero disables spilling.
+     */
+    long getSqlSortSpillThreshold();
+
+    /**
+     * Size of the hash table and the records of an inner hash join or a keyed GROUP BY, in bytes, beyond which the input is hash-partitioned to disk and processed partition by partition. A partition that exceeds it as well is split again by other hash bits. Zero disables spilling.
+     */
+    long getSqlHashSpillThreshold();
+
+    /**
+     * Number of partitions, rounded up to a power of two, the input of a spilled hash join or GROUP BY is split into.
+     */
+    int getSqlHashSpillPartitions();
+
+    /**
+     * Returns true if inner hash joins on a single integer key between two table scans build and probe the hash table on worker threads.
+     */
+    boolean isSqlParallelHashJoinEnabled();
 }
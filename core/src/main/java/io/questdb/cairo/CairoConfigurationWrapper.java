@@ -110,6 +110,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getBuildInformation();
     }
 
+    @Override
+    public double getBloomFilterFpp() {
+        return getDelegate().getBloomFilterFpp();
+    }
+
     @Override
     public boolean getCairoSqlLegacyOperatorPrecedence() {
         return getDelegate().getCairoSqlLegacyOperatorPrecedence();
@@ -695,6 +700,16 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getSqlHashJoinValuePageSize();
     }
 
+    @Override
+    public int getSqlHashSpillPartitions() {
+        return getDelegate().getSqlHashSpillPartitions();
+    }
+
+    @Override
+    public long getSqlHashSpillThreshold() {
+        return getDelegate().getSqlHashSpillThreshold();
+    }
+
     @Override
     public int getSqlJitBindVarsMemoryMaxPages() {
         return getDelegate().getSqlJitBindVarsMemoryMaxPages();
@@ -785,6 +800,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getSqlPageFrameMinRows();
     }
 
+    @Override
+    public int getSqlPageFrameReadAheadFrames() {
+        return getDelegate().getSqlPageFrameReadAheadFrames();
+    }
+
     @Override
     public int getSqlParallelWorkStealingThreshold() {
         return getDelegate().getSqlParallelWorkStealingThreshold();
@@ -820,6 +840,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getSqlSortLightValuePageSize();
     }
 
+    @Override
+    public long getSqlSortSpillThreshold() {
+        return getDelegate().getSqlSortSpillThreshold();
+    }
+
     @Override
     public int getSqlSortValueMaxPages() {
         return getDelegate().getSqlSortValueMaxPages();
@@ -950,6 +975,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getWalApplyLookAheadTransactionCount();
     }
 
+    @Override
+    public int getWalApplySchedulerCapacity() {
+        return getDelegate().getWalApplySchedulerCapacity();
+    }
+
     @Override
     public long getWalApplyTableTimeQuota() {
         return getDelegate().getWalApplyTableTimeQuota();
@@ -1075,6 +1105,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isCheckpointRecoveryEnabled();
     }
 
+    @Override
+    public boolean isDedupDuplicateRowFilterEnabled() {
+        return getDelegate().isDedupDuplicateRowFilterEnabled();
+    }
+
     @Override
     public boolean isDevModeEnabled() {
         return getDelegate().isDevModeEnabled();
@@ -1105,6 +1140,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isParallelIndexingEnabled();
     }
 
+    @Override
+    public boolean isPartitionEncoderParquetParallelEnabled() {
+        return getDelegate().isPartitionEncoderParquetParallelEnabled();
+    }
+
     @Override
     public boolean isReadOnlyInstance() {
         return getDelegate().isReadOnlyInstance();
@@ -1120,6 +1160,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isSqlOrderBySortEnabled();
     }
 
+    @Override
+    public boolean isSqlPageFrameReadAheadEnabled() {
+        return getDelegate().isSqlPageFrameReadAheadEnabled();
+    }
+
     @Override
     public boolean isSqlParallelFilterEnabled() {
         return getDelegate().isSqlParallelFilterEnabled();
@@ -1135,6 +1180,16 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isSqlParallelGroupByEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return getDelegate().isSqlParallelHashJoinEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelOrderByEnabled() {
+        return getDelegate().isSqlParallelOrderByEnabled();
+    }
+
     @Override
     public boolean isTableTypeConversionEnabled() {
         return getDelegate().isTableTypeConversionEnabled();
@@ -1145,6 +1200,16 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isWalApplyEnabled();
     }
 
+    @Override
+    public boolean isWalCompressionEnabled() {
+        return getDelegate().isWalCompressionEnabled();
+    }
+
+    @Override
+    public boolean isWalSegmentPromotionEnabled() {
+        return getDelegate().isWalSegmentPromotionEnabled();
+    }
+
     public boolean isWalSupported() {
         return getDelegate().isWalSupported();
     }
@@ -1179,6 +1244,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isPartitionEncoderParquetStatisticsEnabled();
     }
 
+    @Override
+    public boolean isPartitionZoneMapsEnabled() {
+        return getDelegate().isPartitionZoneMapsEnabled();
+    }
+
     @Override
     public int getPartitionEncoderParquetCompressionCodec() {
         return getDelegate().getPartitionEncoderParquetCompressionCodec();
@@ -1199,6 +1269,26 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getPartitionEncoderParquetDataPageSize();
     }
 
+    @Override
+    public long getParquetTieringCheckInterval() {
+        return getDelegate().getParquetTieringCheckInterval();
+    }
+
+    @Override
+    public long getParquetTieringMaxBandwidth() {
+        return getDelegate().getParquetTieringMaxBandwidth();
+    }
+
+    @Override
+    public int getParquetTieringMaxConcurrentConversions() {
+        return getDelegate().getParquetTieringMaxConcurrentConversions();
+    }
+
+    @Override
+    public long getPartitionDecoderParquetCacheSize() {
+        return getDelegate().getPartitionDecoderParquetCacheSize();
+    }
+
     protected CairoConfiguration getDelegate() {
         return delegate;
     }
@@ -37,6 +37,7 @@ import io.questdb.cairo.wal.seq.TableSequencerAPI;
 import io.questdb.cutlass.text.CopyContext;
 import io.questdb.griffin.*;
 import io.questdb.griffin.engine.ops.UpdateOperation;
+import io.questdb.griffin.engine.table.parquet.ParquetChunkCache;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.log.LogRecord;
@@ -83,6 +84,7 @@ public class CairoEngine implements Closeable, WriterSource {
     private final FunctionFactoryCache ffCache;
     private final MessageBusImpl messageBus;
     private final Metrics metrics;
+    private final ParquetChunkCache parquetChunkCache;
     private final QueryRegistry queryRegistry;
     private final ReaderPool readerPool;
     private final SqlExecutionContext rootExecutionContext;
@@ -126,7 +128,8 @@ public class CairoEngine implements Closeable, WriterSource {
             this.metrics = metrics;
             // Message bus and metrics must be initialized before the pools.
             this.writerPool = new WriterPool(configuration, this);
-            this.readerPool = new ReaderPool(configuration, messageBus);
+            this.parquetChunkCache = new ParquetChunkCache(configuration.getPartitionDecoderParquetCacheSize());
+            this.readerPool = new ReaderPool(configuration, messageBus, parquetChunkCache);
             this.sequencerMetadataPool = new SequencerMetadataPool(configuration, this);
             this.tableMetadataPool = new TableMetadataPool(configuration);
             this.walWriterPool = new WalWriterPool(configuration, this);
@@ -309,6 +312,7 @@ public class CairoEngine implements Closeable, WriterSource {
         boolean b4 = sequencerMetadataPool.releaseAll();
         boolean b5 = walWriterPool.releaseAll();
         boolean b6 = tableMetadataPool.releaseAll();
+        parquetChunkCache.clear();
         return b1 & b2 & b3 & b4 & b5 & b6;
     }
 
@@ -317,6 +321,7 @@ public class CairoEngine implements Closeable, WriterSource {
         Misc.free(sqlCompilerPool);
         Misc.free(writerPool);
         Misc.free(readerPool);
+        Misc.free(parquetChunkCache);
         Misc.free(sequencerMetadataPool);
         Misc.free(tableMetadataPool);
         Misc.free(walWriterPool);
@@ -521,6 +526,10 @@ public class CairoEngine implements Closeable, WriterSource {
         return metrics;
     }
 
+    public ParquetChunkCache getParquetChunkCache() {
+        return parquetChunkCache;
+    }
+
     @TestOnly
     public PoolListener getPoolListener() {
         return this.writerPool.getPoolListener();
@@ -1057,6 +1066,7 @@ public class CairoEngine implements Closeable, WriterSource {
         table.setPartitionBy(tableMetadata.getPartitionBy());
         table.setMaxUncommittedRows(tableMetadata.getMaxUncommittedRows());
         table.setO3MaxLag(tableMetadata.getO3MaxLag());
+        table.setParquetConversionAge(tableMetadata.getParquetConversionAge());
 
         int timestampIndex = tableMetadata.getTimestampIndex();
         table.setTimestampIndex(timestampIndex);
@@ -1680,6 +1690,7 @@ public class CairoEngine implements Closeable, WriterSource {
             table.setPartitionBy(metaMem.getInt(TableUtils.META_OFFSET_PARTITION_BY));
             table.setMaxUncommittedRows(metaMem.getInt(TableUtils.META_OFFSET_MAX_UNCOMMITTED_ROWS));
             table.setO3MaxLag(metaMem.getLong(TableUtils.META_OFFSET_O3_MAX_LAG));
+            table.setParquetConversionAge(metaMem.getLong(TableUtils.META_OFFSET_PARQUET_CONVERSION_AGE));
             table.setTimestampIndex(metaMem.getInt(TableUtils.META_OFFSET_TIMESTAMP_INDEX));
             table.setIsSoftLink(isSoftLink);
 
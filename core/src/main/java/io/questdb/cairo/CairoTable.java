@@ -40,6 +40,7 @@ public class CairoTable implements Sinkable {
     private int maxUncommittedRows;
     private long metadataVersion = -1;
     private long o3MaxLag;
+    private long parquetConversionAge;
     private int partitionBy;
     private int timestampIndex;
     private TableToken token;
@@ -106,6 +107,10 @@ public class CairoTable implements Sinkable {
         return o3MaxLag;
     }
 
+    public long getParquetConversionAge() {
+        return parquetConversionAge;
+    }
+
     public int getPartitionBy() {
         return partitionBy;
     }
@@ -160,6 +165,10 @@ public class CairoTable implements Sinkable {
         this.o3MaxLag = o3MaxLag;
     }
 
+    public void setParquetConversionAge(long parquetConversionAge) {
+        this.parquetConversionAge = parquetConversionAge;
+    }
+
     public void setPartitionBy(int partitionBy) {
         this.partitionBy = partitionBy;
     }
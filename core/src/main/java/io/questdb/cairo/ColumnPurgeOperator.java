@@ -321,6 +321,15 @@ public class ColumnPurgeOperator implements Closeable {
                     }
                 }
 
+                // Bloom filter, if any, has the same version as the column
+                if (!isSymbolRootFiles && PartitionBloomFilter.isSupported(columnType)) {
+                    path.trimTo(pathTrimToPartition);
+                    if (couldNotRemove(ff, TableUtils.bloomFilterFileName(path, columnName, columnVersion))) {
+                        allDone = false;
+                        continue;
+                    }
+                }
+
                 // Check if it's symbol, try remove .k and .v files in the partition
                 if (ColumnType.isSymbol(columnType)) {
                     if (isSymbolRootFiles) {
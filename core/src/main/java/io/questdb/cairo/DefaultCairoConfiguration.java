@@ -122,6 +122,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return buildInformation;
     }
 
+    @Override
+    public double getBloomFilterFpp() {
+        return 0.01;
+    }
+
     @Override
     public boolean getCairoSqlLegacyOperatorPrecedence() {
         return false;
@@ -538,6 +543,26 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 0;
     }
 
+    @Override
+    public long getParquetTieringCheckInterval() {
+        return 60_000;
+    }
+
+    @Override
+    public long getParquetTieringMaxBandwidth() {
+        return 64 * Numbers.SIZE_1MB;
+    }
+
+    @Override
+    public int getParquetTieringMaxConcurrentConversions() {
+        return 1;
+    }
+
+    @Override
+    public long getPartitionDecoderParquetCacheSize() {
+        return 64 * Numbers.SIZE_1MB;
+    }
+
     @Override
     public int getPartitionEncoderParquetDataPageSize() {
         return 0; // use default (1024*1024) bytes
@@ -725,6 +750,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return Numbers.SIZE_1MB * 16;
     }
 
+    @Override
+    public int getSqlHashSpillPartitions() {
+        return 16;
+    }
+
+    @Override
+    public long getSqlHashSpillThreshold() {
+        return 0;
+    }
+
     @Override
     public int getSqlJitBindVarsMemoryMaxPages() {
         return 8;
@@ -815,6 +850,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1_000;
     }
 
+    @Override
+    public int getSqlPageFrameReadAheadFrames() {
+        return 4;
+    }
+
     @Override
     public int getSqlParallelWorkStealingThreshold() {
         return 16;
@@ -850,6 +890,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 128 * 1024;
     }
 
+    @Override
+    public long getSqlSortSpillThreshold() {
+        return 0;
+    }
+
     @Override
     public int getSqlSortValueMaxPages() {
         return 1024;
@@ -980,6 +1025,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 20;
     }
 
+    @Override
+    public int getWalApplySchedulerCapacity() {
+        return 64;
+    }
+
     @Override
     public long getWalApplyTableTimeQuota() {
         return 1000L;
@@ -1104,6 +1154,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isDedupDuplicateRowFilterEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isDevModeEnabled() {
         return false;
@@ -1134,11 +1189,21 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isPartitionEncoderParquetParallelEnabled() {
+        return true;
+    }
+
     @Override
     public boolean isPartitionEncoderParquetStatisticsEnabled() {
         return true;
     }
 
+    @Override
+    public boolean isPartitionZoneMapsEnabled() {
+        return true;
+    }
+
     @Override
     public boolean isReadOnlyInstance() {
         return false;
@@ -1154,6 +1219,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isSqlPageFrameReadAheadEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isSqlParallelFilterEnabled() {
         return true;
@@ -1169,6 +1239,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlParallelOrderByEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isTableTypeConversionEnabled() {
         return true;
@@ -1179,6 +1259,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isWalCompressionEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isWalSegmentPromotionEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isWalSupported() {
         return true;
@@ -57,7 +57,7 @@ public class IntervalBwdPartitionFrameCursor extends AbstractIntervalPartitionFr
             final int currentPartition = partitionHi - 1;
             long rowCount = reader.openPartition(currentPartition);
             if (rowCount > 0) {
-                final MemoryR column = reader.getColumn(TableReader.getPrimaryColumnIndex(reader.getColumnBase(currentPartition), timestampIndex));
+                final MemoryR column = getTimestampColumn(currentPartition, rowCount);
                 final long intervalLo = intervals.getQuick(currentInterval * 2);
                 final long intervalHi = intervals.getQuick(currentInterval * 2 + 1);
 
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.wal.seq.SeqTxnTracker;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+import io.questdb.std.datetime.millitime.MillisecondClock;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+
+import java.io.Closeable;
+
+/**
+ * Enforces per-table storage policy set with
+ * <code>ALTER TABLE x SET PARAM parquetConversionAge = 30d</code> by converting partitions
+ * older than the given age to Parquet. The active (last) partition is never converted.
+ * <p>
+ * Non-WAL tables are converted on the job's thread, but only when the table writer is
+ * not in use, so the job never blocks ingestion. Only one partition is converted per run,
+ * so that the writer is released between partitions and the worker thread gets back to
+ * other jobs; the next run follows without waiting for the check interval. For WAL tables, the job issues
+ * CONVERT PARTITION statements, which are applied along with other WAL transactions;
+ * tables that have a backlog of transactions to apply are left alone. Each run picks up
+ * from the table after the last one it visited, so that tables late in the list get their turn.
+ * <p>
+ * The job is rate-limited: no more than the configured number of conversions are in flight
+ * at a time. The table writer caps the rate at which the Parquet file of each conversion
+ * is written to the configured bandwidth.
+ */
+public class ParquetTieringJob extends SynchronizedJob implements Closeable {
+    private static final Log LOG = LogFactory.getLog(ParquetTieringJob.class);
+    private static final String LOCK_REASON = "parquetTiering";
+    private final long checkInterval;
+    private final LongList conversionSizes = new LongList();
+    private final LongList conversionTimestamps = new LongList();
+    private final CairoEngine engine;
+    private final FilesFacade ff;
+    private final int maxConcurrentConversions;
+    private final MicrosecondClock microsecondClock;
+    private final MillisecondClock millisecondClock;
+    // WAL tables with issued conversions and sequencer txns of the conversions.
+    private final ObjList<TableToken> pendingTables = new ObjList<>();
+    private final LongList pendingTxns = new LongList();
+    private final StringSink sqlSink = new StringSink();
+    private final ObjHashSet<TableToken> tableTokens = new ObjHashSet<>();
+    private long lastRunMs;
+    // Position in the table list where the next run starts, so that all tables get their turn.
+    private int nextTableIndex;
+    private Path path;
+    // Set when a partition was converted on the job's thread, there may be more to convert.
+    private boolean resume;
+    private SqlExecutionContextImpl sqlExecutionContext;
+
+    public ParquetTieringJob(CairoEngine engine) {
+        this.engine = engine;
+        final CairoConfiguration configuration = engine.getConfiguration();
+        this.ff = configuration.getFilesFacade();
+        this.checkInterval = configuration.getParquetTieringCheckInterval();
+        this.maxConcurrentConversions = configuration.getParquetTieringMaxConcurrentConversions();
+        this.microsecondClock = configuration.getMicrosecondClock();
+        this.millisecondClock = configuration.getMillisecondClock();
+        this.path = new Path();
+        this.sqlExecutionContext = new SqlExecutionContextImpl(engine, 1);
+        this.sqlExecutionContext.with(
+                configuration.getFactoryProvider().getSecurityContextFactory().getRootContext(),
+                null,
+                null
+        );
+        this.lastRunMs = millisecondClock.getTicks();
+    }
+
+    @Override
+    public void close() {
+        path = Misc.free(path);
+        sqlExecutionContext = Misc.free(sqlExecutionContext);
+    }
+
+    /**
+     * Converts partitions that are due for conversion, as long as the rate limits allow.
+     * At most one partition of a non-WAL table is converted per call.
+     *
+     * @return true if at least one conversion was done or issued
+     */
+    public boolean convertPartitions() {
+        updatePendingTables();
+        resume = false;
+        boolean useful = false;
+        engine.getTableTokens(tableTokens, false);
+        final int n = tableTokens.size();
+        for (int i = 0; i < n && canConvert(); i++) {
+            final int tableIndex = (nextTableIndex + i) % n;
+            nextTableIndex = tableIndex + 1;
+            final TableToken tableToken = tableTokens.get(tableIndex);
+            if (tableToken.isSystem()) {
+                continue;
+            }
+            try {
+                if (convertNextPartition(tableToken)) {
+                    useful = true;
+                    if (!tableToken.isWal()) {
+                        // the partition was converted on this thread, leave the rest for the next run
+                        resume = true;
+                        break;
+                    }
+                }
+            } catch (CairoException | SqlException e) {
+                LOG.error().$("could not convert partitions to parquet [table=").$(tableToken)
+                        .$(", msg=").$(e.getFlyweightMessage())
+                        .I$();
+            }
+        }
+        return useful;
+    }
+
+    @Override
+    protected boolean runSerially() {
+        final long nowMs = millisecondClock.getTicks();
+        if (!resume && nowMs - lastRunMs < checkInterval) {
+            return false;
+        }
+        lastRunMs = nowMs;
+        return convertPartitions();
+    }
+
+    private boolean canConvert() {
+        return pendingTables.size() < maxConcurrentConversions;
+    }
+
+    private boolean convertNextPartition(TableToken tableToken) throws SqlException {
+        final CairoTable cachedTable = engine.metadataCacheGetTable(tableToken);
+        if (cachedTable != null && cachedTable.getParquetConversionAge() <= 0) {
+            return false;
+        }
+        if (tableToken.isWal()) {
+            if (pendingTables.indexOf(tableToken) > -1) {
+                return false;
+            }
+            final SeqTxnTracker tracker = engine.getTableSequencerAPI().getTxnTracker(tableToken);
+            if (tracker.isSuspended() || tracker.getWriterTxn() < tracker.getSeqTxn()) {
+                // the table is busy applying transactions, we'd rather not add to it
+                return false;
+            }
+        }
+
+        final int partitionBy;
+        try (TableReader reader = engine.getReader(tableToken)) {
+            final long parquetConversionAge = reader.getMetadata().getParquetConversionAge();
+            partitionBy = reader.getPartitionedBy();
+            if (parquetConversionAge <= 0 || !PartitionBy.isPartitioned(partitionBy)) {
+                return false;
+            }
+            findPartitions(reader, microsecondClock.getTicks() - parquetConversionAge);
+        }
+
+        if (conversionTimestamps.size() > 0 && canConvert()) {
+            final long partitionTimestamp = conversionTimestamps.getQuick(0);
+            if (tableToken.isWal()) {
+                sqlSink.clear();
+                sqlSink.put("ALTER TABLE \"").put(tableToken.getTableName()).put("\" CONVERT PARTITION TO PARQUET LIST '");
+                PartitionBy.setSinkForPartition(sqlSink, partitionBy, partitionTimestamp);
+                sqlSink.put('\'');
+                engine.ddl(sqlSink, sqlExecutionContext);
+                // the conversion is the last txn unless there were commits in the meantime,
+                // in which case we wait a bit longer
+                pendingTables.add(tableToken);
+                pendingTxns.add(engine.getTableSequencerAPI().lastTxn(tableToken));
+            } else {
+                try (TableWriter writer = engine.getWriter(tableToken, LOCK_REASON)) {
+                    writer.convertPartition(partitionTimestamp);
+                } catch (EntryUnavailableException e) {
+                    // the table is in use, we'll try again on the next run
+                    LOG.debug().$("table is busy, skipping parquet conversion [table=").$(tableToken)
+                            .$(", reason=").$(e.getReason())
+                            .I$();
+                    return false;
+                }
+            }
+            LOG.info().$("converting partition to parquet [table=").$(tableToken)
+                    .$(", partition=").$ts(partitionTimestamp)
+                    .$(", size=").$(conversionSizes.getQuick(0))
+                    .I$();
+            // the remaining partitions are converted on the next runs, for WAL tables
+            // once this conversion is applied
+            return true;
+        }
+        return false;
+    }
+
+    // Collects native partitions with all rows older than the given timestamp, except for the last partition.
+    private void findPartitions(TableReader reader, long maxTimestamp) {
+        conversionTimestamps.clear();
+        conversionSizes.clear();
+        final TxReader txFile = reader.getTxFile();
+        final int partitionBy = reader.getPartitionedBy();
+        final PartitionBy.PartitionFloorMethod floorMethod = PartitionBy.getPartitionFloorMethod(partitionBy);
+        final PartitionBy.PartitionCeilMethod ceilMethod = PartitionBy.getPartitionCeilMethod(partitionBy);
+        final int partitionCount = txFile.getPartitionCount();
+        if (partitionCount < 2) {
+            return;
+        }
+        final long lastPartitionTimestamp = floorMethod.floor(txFile.getPartitionTimestampByIndex(partitionCount - 1));
+        for (int i = 0; i < partitionCount - 1; i++) {
+            final long partitionTimestamp = floorMethod.floor(txFile.getPartitionTimestampByIndex(i));
+            if (partitionTimestamp == lastPartitionTimestamp || ceilMethod.ceil(partitionTimestamp) > maxTimestamp) {
+                break;
+            }
+            final int n = conversionTimestamps.size();
+            if (n > 0 && conversionTimestamps.getQuick(n - 1) == partitionTimestamp) {
+                // split partition, it gets squashed on conversion
+                path.of(engine.getConfiguration().getRoot()).concat(reader.getTableToken());
+                TableUtils.setPathForPartition(path, partitionBy, txFile.getPartitionTimestampByIndex(i), txFile.getPartitionNameTxn(i));
+                conversionSizes.setQuick(n - 1, conversionSizes.getQuick(n - 1) + ff.getDirSize(path));
+                continue;
+            }
+            if (txFile.isPartitionParquet(i) || txFile.isPartitionReadOnly(i)) {
+                continue;
+            }
+            path.of(engine.getConfiguration().getRoot()).concat(reader.getTableToken());
+            TableUtils.setPathForPartition(path, partitionBy, partitionTimestamp, txFile.getPartitionNameTxn(i));
+            conversionTimestamps.add(partitionTimestamp);
+            conversionSizes.add(ff.getDirSize(path));
+        }
+    }
+
+    private void updatePendingTables() {
+        for (int i = pendingTables.size() - 1; i > -1; i--) {
+            final TableToken tableToken = pendingTables.getQuick(i);
+            final SeqTxnTracker tracker = engine.getTableSequencerAPI().getTxnTracker(tableToken);
+            if (tracker.isSuspended() || tracker.getWriterTxn() >= pendingTxns.getQuick(i) || engine.getTableTokenIfExists(tableToken.getTableName()) == null) {
+                pendingTables.remove(i);
+                pendingTxns.removeIndex(i);
+            }
+        }
+    }
+}
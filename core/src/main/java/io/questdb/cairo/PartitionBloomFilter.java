@@ -0,0 +1,179 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.Utf8Sequence;
+
+/**
+ * Bloom filter of the values of a column in a native partition, read from the
+ * "column.bf" file in the partition directory. The file name carries the column
+ * name txn, so updated columns never use a stale filter.
+ * <p>
+ * The filter is written by {@link TableWriter} for the columns marked with
+ * ALTER TABLE ... ALTER COLUMN ... ADD BLOOM FILTER in partitions other than the last one.
+ * It's valid only as long as the partition row count and the column top are the same as
+ * at the time the file was written. Nulls and column top rows are not added to the filter.
+ * <p>
+ * The file consists of a header holding partition row count, column top, number of hash
+ * functions and number of bits, followed by the bit array. The number of bits is a power of 2.
+ */
+public class PartitionBloomFilter implements QuietCloseable {
+    static final long HEADER_SIZE = 4 * Long.BYTES;
+    static final long OFFSET_BIT_COUNT = 3 * Long.BYTES;
+    static final long OFFSET_COLUMN_TOP = Long.BYTES;
+    static final long OFFSET_HASH_COUNT = 2 * Long.BYTES;
+    static final long OFFSET_ROW_COUNT = 0;
+    // Multiplier from Rust compiler's FxHasher, same as in Hash.
+    private static final long M2 = 0x517cc1b727220a95L;
+    private final MemoryCMR mem = Vm.getCMRInstance();
+    private long bitsAddr;
+    private int hashCount;
+    private long mask;
+
+    /**
+     * Returns hash of a SYMBOL column value, i.e. of the symbol key.
+     */
+    public static long hashInt(int value) {
+        return Hash.hashInt64(value);
+    }
+
+    public static long hashLong(long value) {
+        return Hash.hashLong64(value);
+    }
+
+    /**
+     * Returns hash of the UTF-8 bytes, the same for all the representations of the string.
+     */
+    public static long hashUtf8(Utf8Sequence value) {
+        long h = 0;
+        for (int i = 0, n = value.size(); i < n; i++) {
+            h = h * M2 + value.byteAt(i);
+        }
+        return Hash.hashLong64(h ^ value.size());
+    }
+
+    public static long hashUuid(long lo, long hi) {
+        return Hash.hashLong128_64(lo, hi);
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.LONG:
+            case ColumnType.SYMBOL:
+            case ColumnType.UUID:
+            case ColumnType.VARCHAR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        mem.close();
+        bitsAddr = 0;
+    }
+
+    /**
+     * Checks if the value with the given hash may be present in the partition.
+     *
+     * @param hash value hash as returned by one of the hash methods of this class
+     * @return false if the value is definitely not in the partition
+     */
+    public boolean mightContain(long hash) {
+        final long h2 = Long.rotateLeft(hash, 32) | 1;
+        long h = hash;
+        for (int i = 0; i < hashCount; i++) {
+            final long bit = h & mask;
+            if ((Unsafe.getUnsafe().getLong(bitsAddr + ((bit >>> 6) << 3)) & (1L << bit)) == 0) {
+                return false;
+            }
+            h += h2;
+        }
+        return true;
+    }
+
+    /**
+     * Opens Bloom filter of the column.
+     *
+     * @param ff            files facade
+     * @param partitionPath path to the partition directory; the path is restored on return
+     * @param columnName    column name
+     * @param columnNameTxn column name txn in the partition
+     * @param rowCount      partition row count
+     * @param columnTop     column top in the partition
+     * @return false if the column has no Bloom filter in the partition or the filter is stale
+     */
+    public boolean of(FilesFacade ff, Path partitionPath, CharSequence columnName, long columnNameTxn, long rowCount, long columnTop) {
+        close();
+        final int plen = partitionPath.size();
+        try {
+            TableUtils.bloomFilterFileName(partitionPath, columnName, columnNameTxn);
+            if (!ff.exists(partitionPath.$())) {
+                return false;
+            }
+            mem.smallFile(ff, partitionPath.$(), MemoryTag.MMAP_TABLE_READER);
+            final long size = mem.size();
+            if (
+                    size < HEADER_SIZE
+                            || mem.getLong(OFFSET_ROW_COUNT) != rowCount
+                            || mem.getLong(OFFSET_COLUMN_TOP) != columnTop
+            ) {
+                mem.close();
+                return false;
+            }
+            final long bitCount = mem.getLong(OFFSET_BIT_COUNT);
+            if (bitCount < Long.SIZE || (bitCount & (bitCount - 1)) != 0 || size < HEADER_SIZE + (bitCount >>> 3)) {
+                mem.close();
+                return false;
+            }
+            hashCount = (int) mem.getLong(OFFSET_HASH_COUNT);
+            mask = bitCount - 1;
+            bitsAddr = mem.addressOf(HEADER_SIZE);
+            return true;
+        } catch (CairoException e) {
+            // the filter is just an optimization, the caller will do without it
+            mem.close();
+            return false;
+        } finally {
+            partitionPath.trimTo(plen);
+        }
+    }
+
+    static void add(long bitsAddr, long mask, int hashCount, long hash) {
+        final long h2 = Long.rotateLeft(hash, 32) | 1;
+        long h = hash;
+        for (int i = 0; i < hashCount; i++) {
+            final long bit = h & mask;
+            final long wordAddr = bitsAddr + ((bit >>> 6) << 3);
+            Unsafe.getUnsafe().putLong(wordAddr, Unsafe.getUnsafe().getLong(wordAddr) | (1L << bit));
+            h += h2;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8SplitString;
+
+/**
+ * Maintains {@link PartitionBloomFilter} files of the columns marked with a Bloom filter.
+ * Same as zone maps, the filters are written for native partitions other than the last one
+ * once they're committed, and rewritten whenever the partition size, version or column
+ * versions change.
+ */
+class PartitionBloomFilterWriter implements QuietCloseable {
+    private static final Log LOG = LogFactory.getLog(PartitionBloomFilterWriter.class);
+    private static final long MAX_BIT_COUNT = 1L << 40;
+    private static final int PARTITION_LONGS = 4;
+    private static final int PARTITION_NAME_TXN = 1;
+    private static final int PARTITION_SIZE = 2;
+    private static final int PARTITION_STATE = 3;
+    private static final long STATE_FAILED = 2;
+    private static final long STATE_MISSING = 0;
+    private static final long STATE_VALID = 1;
+    private final double bitsPerValue;
+    private final FilesFacade ff;
+    private final long fileOpenOpts;
+    private final PartitionBloomFilter filter = new PartitionBloomFilter();
+    private final int hashCount;
+    // [timestamp, name txn, size, state] of partitions as of the last update
+    private final LongList partitions = new LongList();
+    private final Utf8SplitString utf8View = new Utf8SplitString();
+    private long columnVersion = -1;
+    private long metadataVersion = -1;
+
+    PartitionBloomFilterWriter(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.fileOpenOpts = configuration.getWriterFileOpenOpts();
+        // optimal number of bits and hash functions for the target false positive rate
+        final double fpp = Math.min(Math.max(configuration.getBloomFilterFpp(), 0.000001), 0.5);
+        final double ln2 = Math.log(2);
+        this.bitsPerValue = -Math.log(fpp) / (ln2 * ln2);
+        this.hashCount = Math.max(1, (int) Math.round(bitsPerValue * ln2));
+    }
+
+    @Override
+    public void close() {
+        Misc.free(filter);
+        partitions.clear();
+    }
+
+    /**
+     * Checks Bloom filters of the committed partitions and writes the missing ones.
+     * Errors are logged, not thrown, since Bloom filters are optional.
+     *
+     * @param path                table path, restored on return
+     * @param other               path used as a scratch space
+     * @param rootLen             table path length
+     * @param partitionBy         table partitioning
+     * @param txWriter            committed transaction
+     * @param columnVersionReader committed column versions
+     * @param metadata            table metadata
+     * @param maxBuilds           max number of partitions to write Bloom filters for
+     */
+    void update(
+            Path path,
+            Path other,
+            int rootLen,
+            int partitionBy,
+            TxReader txWriter,
+            ColumnVersionReader columnVersionReader,
+            TableWriterMetadata metadata,
+            int maxBuilds
+    ) {
+        if (columnVersionReader.getVersion() != columnVersion || metadata.getMetadataVersion() != metadataVersion) {
+            // columns may have changed, the existing filters have to be checked again
+            partitions.clear();
+            columnVersion = columnVersionReader.getVersion();
+            metadataVersion = metadata.getMetadataVersion();
+        }
+        if (!hasBloomFilters(metadata)) {
+            return;
+        }
+
+        final int partitionCount = txWriter.getPartitionCount();
+        final int oldSize = partitions.size();
+        partitions.setPos(partitionCount * PARTITION_LONGS);
+        for (int i = oldSize; i < partitions.size(); i += PARTITION_LONGS) {
+            partitions.setQuick(i, Long.MIN_VALUE);
+        }
+
+        int builds = 0;
+        try {
+            // the last partition is still being written to
+            for (int i = 0; i < partitionCount - 1; i++) {
+                if (txWriter.isPartitionParquet(i)) {
+                    continue;
+                }
+                final long partitionTimestamp = txWriter.getPartitionTimestampByIndex(i);
+                final long partitionNameTxn = txWriter.getPartitionNameTxn(i);
+                final long partitionSize = txWriter.getPartitionSize(i);
+                final int offset = i * PARTITION_LONGS;
+                if (
+                        partitions.getQuick(offset) != partitionTimestamp
+                                || partitions.getQuick(offset + PARTITION_NAME_TXN) != partitionNameTxn
+                                || partitions.getQuick(offset + PARTITION_SIZE) != partitionSize
+                ) {
+                    partitions.setQuick(offset, partitionTimestamp);
+                    partitions.setQuick(offset + PARTITION_NAME_TXN, partitionNameTxn);
+                    partitions.setQuick(offset + PARTITION_SIZE, partitionSize);
+                    TableUtils.setPathForPartition(path.trimTo(rootLen), partitionBy, partitionTimestamp, partitionNameTxn);
+                    final boolean valid = isUpToDate(path, partitionTimestamp, partitionSize, columnVersionReader, metadata);
+                    partitions.setQuick(offset + PARTITION_STATE, valid ? STATE_VALID : STATE_MISSING);
+                }
+
+                if (partitions.getQuick(offset + PARTITION_STATE) == STATE_MISSING && builds < maxBuilds) {
+                    builds++;
+                    TableUtils.setPathForPartition(path.trimTo(rootLen), partitionBy, partitionTimestamp, partitionNameTxn);
+                    try {
+                        writePartition(path, other, partitionTimestamp, partitionSize, columnVersionReader, metadata);
+                        partitions.setQuick(offset + PARTITION_STATE, STATE_VALID);
+                    } catch (CairoException e) {
+                        // don't retry until the partition changes
+                        partitions.setQuick(offset + PARTITION_STATE, STATE_FAILED);
+                        LOG.error().$("could not write bloom filter [path=").$(path)
+                                .$(", msg=").$(e.getFlyweightMessage())
+                                .$(", errno=").$(e.getErrno())
+                                .I$();
+                    }
+                }
+            }
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+    }
+
+    private static boolean hasBloomFilters(TableWriterMetadata metadata) {
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            if (isFilterColumn(metadata, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isFilterColumn(TableWriterMetadata metadata, int columnIndex) {
+        final int columnType = metadata.getColumnType(columnIndex);
+        return columnType > 0 && metadata.getColumnMetadata(columnIndex).isBloomFilter() && PartitionBloomFilter.isSupported(columnType);
+    }
+
+    private void addValues(Path path, CharSequence columnName, long columnNameTxn, int columnType, long dataRows, long bitsAddr, long mask) {
+        final int plen = path.size();
+        long fd = -1;
+        long auxFd = -1;
+        long addr = 0;
+        long size = 0;
+        long auxAddr = 0;
+        long auxSize = 0;
+        try {
+            if (ColumnType.tagOf(columnType) == ColumnType.VARCHAR) {
+                auxSize = dataRows * VarcharTypeDriver.VARCHAR_AUX_WIDTH_BYTES;
+                auxFd = TableUtils.openRO(ff, TableUtils.iFile(path.trimTo(plen), columnName, columnNameTxn), LOG);
+                auxAddr = TableUtils.mapRO(ff, auxFd, auxSize, MemoryTag.MMAP_TABLE_WRITER);
+                fd = TableUtils.openRO(ff, TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn), LOG);
+                size = ff.length(fd);
+                if (size > 0) {
+                    addr = TableUtils.mapRO(ff, fd, size, MemoryTag.MMAP_TABLE_WRITER);
+                }
+                for (long row = 0; row < dataRows; row++) {
+                    final Utf8Sequence value = VarcharTypeDriver.getSplitValue(auxAddr, auxAddr + auxSize, addr, addr + size, row, utf8View);
+                    if (value != null) {
+                        PartitionBloomFilter.add(bitsAddr, mask, hashCount, PartitionBloomFilter.hashUtf8(value));
+                    }
+                }
+                return;
+            }
+
+            size = dataRows << ColumnType.pow2SizeOf(columnType);
+            fd = TableUtils.openRO(ff, TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn), LOG);
+            addr = TableUtils.mapRO(ff, fd, size, MemoryTag.MMAP_TABLE_WRITER);
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.SYMBOL:
+                    for (long p = addr, lim = addr + size; p < lim; p += Integer.BYTES) {
+                        final int key = Unsafe.getUnsafe().getInt(p);
+                        if (key != SymbolTable.VALUE_IS_NULL) {
+                            PartitionBloomFilter.add(bitsAddr, mask, hashCount, PartitionBloomFilter.hashInt(key));
+                        }
+                    }
+                    break;
+                case ColumnType.UUID:
+                    for (long p = addr, lim = addr + size; p < lim; p += 2 * Long.BYTES) {
+                        final long lo = Unsafe.getUnsafe().getLong(p);
+                        final long hi = Unsafe.getUnsafe().getLong(p + Long.BYTES);
+                        if (!Uuid.isNull(lo, hi)) {
+                            PartitionBloomFilter.add(bitsAddr, mask, hashCount, PartitionBloomFilter.hashUuid(lo, hi));
+                        }
+                    }
+                    break;
+                default:
+                    // LONG
+                    for (long p = addr, lim = addr + size; p < lim; p += Long.BYTES) {
+                        final long value = Unsafe.getUnsafe().getLong(p);
+                        if (value != Numbers.LONG_NULL) {
+                            PartitionBloomFilter.add(bitsAddr, mask, hashCount, PartitionBloomFilter.hashLong(value));
+                        }
+                    }
+                    break;
+            }
+        } finally {
+            if (addr != 0) {
+                ff.munmap(addr, size, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            if (auxAddr != 0) {
+                ff.munmap(auxAddr, auxSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            ff.close(fd);
+            ff.close(auxFd);
+            path.trimTo(plen);
+        }
+    }
+
+    private boolean isUpToDate(Path path, long partitionTimestamp, long rowCount, ColumnVersionReader columnVersionReader, TableWriterMetadata metadata) {
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            final long columnTop = columnVersionReader.getColumnTop(partitionTimestamp, i);
+            if (
+                    isFilterColumn(metadata, i)
+                            && columnTop > -1
+                            && columnTop < rowCount
+                            && !filter.of(ff, path, metadata.getColumnName(i), columnVersionReader.getColumnNameTxn(partitionTimestamp, i), rowCount, columnTop)
+            ) {
+                return false;
+            }
+        }
+        filter.close();
+        return true;
+    }
+
+    // Writes the filter to a temporary file first, so that readers never see a partially written file.
+    private void writeColumn(Path path, Path other, CharSequence columnName, long columnNameTxn, int columnType, long columnTop, long rowCount) {
+        final int plen = path.size();
+        final long dataRows = rowCount - columnTop;
+        final long bitCount = Math.min(Numbers.ceilPow2(Math.max(Long.SIZE, (long) Math.ceil(dataRows * bitsPerValue))), MAX_BIT_COUNT);
+        final long fileSize = PartitionBloomFilter.HEADER_SIZE + (bitCount >>> 3);
+        other.of(path);
+        TableUtils.bloomFilterFileName(other, columnName, columnNameTxn);
+        other.put(".tmp");
+        final long fd = TableUtils.openRW(ff, other.$(), LOG, fileOpenOpts);
+        long addr = 0;
+        try {
+            if (!ff.truncate(fd, 0)) {
+                throw CairoException.critical(ff.errno()).put("could not truncate [file=").put(other).put(']');
+            }
+            addr = TableUtils.mapRW(ff, fd, fileSize, MemoryTag.MMAP_TABLE_WRITER);
+            Unsafe.getUnsafe().putLong(addr + PartitionBloomFilter.OFFSET_ROW_COUNT, rowCount);
+            Unsafe.getUnsafe().putLong(addr + PartitionBloomFilter.OFFSET_COLUMN_TOP, columnTop);
+            Unsafe.getUnsafe().putLong(addr + PartitionBloomFilter.OFFSET_HASH_COUNT, hashCount);
+            Unsafe.getUnsafe().putLong(addr + PartitionBloomFilter.OFFSET_BIT_COUNT, bitCount);
+            addValues(path, columnName, columnNameTxn, columnType, dataRows, addr + PartitionBloomFilter.HEADER_SIZE, bitCount - 1);
+        } finally {
+            if (addr != 0) {
+                ff.munmap(addr, fileSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            ff.close(fd);
+        }
+        TableUtils.bloomFilterFileName(path, columnName, columnNameTxn);
+        try {
+            if (ff.rename(other.$(), path.$()) != Files.FILES_RENAME_OK) {
+                throw CairoException.critical(ff.errno()).put("could not rename [from=").put(other).put(", to=").put(path).put(']');
+            }
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
+    private void writePartition(
+            Path path,
+            Path other,
+            long partitionTimestamp,
+            long rowCount,
+            ColumnVersionReader columnVersionReader,
+            TableWriterMetadata metadata
+    ) {
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            final long columnTop = columnVersionReader.getColumnTop(partitionTimestamp, i);
+            if (!isFilterColumn(metadata, i) || columnTop < 0 || columnTop >= rowCount) {
+                continue;
+            }
+            final CharSequence columnName = metadata.getColumnName(i);
+            final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, i);
+            if (!filter.of(ff, path, columnName, columnNameTxn, rowCount, columnTop)) {
+                writeColumn(path, other, columnName, columnNameTxn, metadata.getColumnType(i), columnTop, rowCount);
+            }
+        }
+        filter.close();
+    }
+}
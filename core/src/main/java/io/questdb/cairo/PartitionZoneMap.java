@@ -0,0 +1,192 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.str.Path;
+
+/**
+ * Min/max values and null counts of the columns of a native partition, read from
+ * the {@value TableUtils#ZONE_MAP_FILE_NAME} file in the partition directory.
+ * <p>
+ * The file is written by {@link TableWriter} for partitions other than the last one.
+ * Statistics of a column are valid only as long as the partition row count, the column
+ * type, name txn and column top are the same as at the time the file was written,
+ * so that updated or rewritten columns don't use stale statistics.
+ * <p>
+ * The file consists of a header holding partition row count and column count followed
+ * by an entry per each column in writer order: column type (0 if there are no statistics),
+ * column name txn, column top, min value, max value and null count. Min and max values
+ * of FLOAT and DOUBLE columns are stored as double bits; the rest are stored as longs.
+ * Column top rows count as nulls or, for types with no null value, as zeros.
+ */
+public class PartitionZoneMap implements QuietCloseable {
+    static final int ENTRY_COLUMN_NAME_TXN = 1;
+    static final int ENTRY_COLUMN_TOP = 2;
+    static final int ENTRY_COLUMN_TYPE = 0;
+    static final int ENTRY_LONGS = 6;
+    static final int ENTRY_MAX = 4;
+    static final int ENTRY_MIN = 3;
+    static final int ENTRY_NULL_COUNT = 5;
+    static final int HEADER_LONGS = 2;
+    private final LongList entries = new LongList();
+    private final MemoryCMR mem = Vm.getCMRInstance();
+    private int columnCount;
+    private ColumnVersionReader columnVersionReader;
+    private RecordMetadata metadata;
+    private long partitionTimestamp;
+    private long rowCount;
+
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(mem);
+    }
+
+    public double getMaxDouble(int columnIndex) {
+        return Double.longBitsToDouble(getEntry(columnIndex, ENTRY_MAX));
+    }
+
+    public long getMaxLong(int columnIndex) {
+        return getEntry(columnIndex, ENTRY_MAX);
+    }
+
+    public double getMinDouble(int columnIndex) {
+        return Double.longBitsToDouble(getEntry(columnIndex, ENTRY_MIN));
+    }
+
+    public long getMinLong(int columnIndex) {
+        return getEntry(columnIndex, ENTRY_MIN);
+    }
+
+    public long getNullCount(int columnIndex) {
+        return getEntry(columnIndex, ENTRY_NULL_COUNT);
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Checks if the zone map has up-to-date statistics for the given column.
+     *
+     * @param columnIndex column index in the metadata the zone map was read with
+     * @return true if the min, max and null count values of the column can be used
+     */
+    public boolean hasStats(int columnIndex) {
+        final int writerIndex = metadata.getWriterIndex(columnIndex);
+        if (writerIndex >= columnCount) {
+            return false;
+        }
+        final int offset = HEADER_LONGS + writerIndex * ENTRY_LONGS;
+        final int columnType = metadata.getColumnType(columnIndex);
+        return columnType > 0
+                && entries.getQuick(offset + ENTRY_COLUMN_TYPE) == columnType
+                && entries.getQuick(offset + ENTRY_COLUMN_NAME_TXN) == columnVersionReader.getColumnNameTxn(partitionTimestamp, writerIndex)
+                && entries.getQuick(offset + ENTRY_COLUMN_TOP) == columnVersionReader.getColumnTop(partitionTimestamp, writerIndex);
+    }
+
+    /**
+     * Reads zone map of the partition.
+     *
+     * @param ff                  files facade
+     * @param partitionPath       path to the partition directory; the path is restored on return
+     * @param partitionTimestamp  partition timestamp
+     * @param rowCount            partition row count
+     * @param columnVersionReader column versions used to check that the column statistics are up-to-date
+     * @param metadata            table metadata used to map column indexes to writer indexes
+     * @return false if the partition has no zone map or the zone map is stale
+     */
+    public boolean of(
+            FilesFacade ff,
+            Path partitionPath,
+            long partitionTimestamp,
+            long rowCount,
+            ColumnVersionReader columnVersionReader,
+            RecordMetadata metadata
+    ) {
+        entries.clear();
+        columnCount = 0;
+        final int plen = partitionPath.size();
+        try {
+            partitionPath.concat(TableUtils.ZONE_MAP_FILE_NAME);
+            if (!ff.exists(partitionPath.$())) {
+                return false;
+            }
+            mem.smallFile(ff, partitionPath.$(), MemoryTag.MMAP_DEFAULT);
+            final long size = mem.size();
+            if (size < HEADER_LONGS * Long.BYTES || mem.getLong(0) != rowCount) {
+                return false;
+            }
+            final long fileColumnCount = mem.getLong(Long.BYTES);
+            if (fileColumnCount < 0 || size < (HEADER_LONGS + fileColumnCount * ENTRY_LONGS) * Long.BYTES) {
+                return false;
+            }
+            final int longCount = (int) (HEADER_LONGS + fileColumnCount * ENTRY_LONGS);
+            entries.setPos(longCount);
+            for (int i = 0; i < longCount; i++) {
+                entries.setQuick(i, mem.getLong((long) i * Long.BYTES));
+            }
+            columnCount = (int) fileColumnCount;
+        } catch (CairoException e) {
+            // the zone map is just an optimization, the caller will do without it
+            return false;
+        } finally {
+            mem.close();
+            partitionPath.trimTo(plen);
+        }
+        this.partitionTimestamp = partitionTimestamp;
+        this.rowCount = rowCount;
+        this.columnVersionReader = columnVersionReader;
+        this.metadata = metadata;
+        return true;
+    }
+
+    private long getEntry(int columnIndex, int entryOffset) {
+        return entries.getQuick(HEADER_LONGS + metadata.getWriterIndex(columnIndex) * ENTRY_LONGS + entryOffset);
+    }
+}
@@ -0,0 +1,316 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryMARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+/**
+ * Maintains {@link PartitionZoneMap} files of the table partitions. Zone maps are written
+ * for native partitions other than the last one once they're committed, and rewritten
+ * whenever the partition size, version or column versions change.
+ * <p>
+ * Building a zone map scans the partition's columns, so no more than one zone map is
+ * built per update. That's to avoid stalling the writer when there is a backlog of
+ * partitions with no zone maps, e.g. after an upgrade.
+ */
+class PartitionZoneMapWriter implements QuietCloseable {
+    private static final Log LOG = LogFactory.getLog(PartitionZoneMapWriter.class);
+    private static final int MAX_BUILDS_PER_UPDATE = 1;
+    private static final int PARTITION_LONGS = 4;
+    private static final int PARTITION_NAME_TXN = 1;
+    private static final int PARTITION_SIZE = 2;
+    private static final int PARTITION_STATE = 3;
+    private static final long STATE_FAILED = 2;
+    private static final long STATE_MISSING = 0;
+    private static final long STATE_VALID = 1;
+    private final FilesFacade ff;
+    private final MemoryMARW mem = Vm.getCMARWInstance();
+    // [timestamp, name txn, size, state] of partitions as of the last update
+    private final LongList partitions = new LongList();
+    private final PartitionZoneMap zoneMap = new PartitionZoneMap();
+    private long columnVersion = -1;
+    private long max;
+    private long metadataVersion = -1;
+    private long min;
+    private long nullCount;
+
+    PartitionZoneMapWriter(FilesFacade ff) {
+        this.ff = ff;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(mem);
+        Misc.free(zoneMap);
+        partitions.clear();
+    }
+
+    /**
+     * Checks zone maps of the committed partitions and writes the missing ones.
+     * Errors are logged, not thrown, since zone maps are optional.
+     *
+     * @param path                table path, restored on return
+     * @param other               path used as a scratch space
+     * @param rootLen             table path length
+     * @param partitionBy         table partitioning
+     * @param txWriter            committed transaction
+     * @param columnVersionReader committed column versions
+     * @param metadata            table metadata
+     */
+    void update(
+            Path path,
+            Path other,
+            int rootLen,
+            int partitionBy,
+            TxReader txWriter,
+            ColumnVersionReader columnVersionReader,
+            TableWriterMetadata metadata
+    ) {
+        if (columnVersionReader.getVersion() != columnVersion || metadata.getMetadataVersion() != metadataVersion) {
+            // columns may have changed, the existing zone maps have to be checked again
+            partitions.clear();
+            columnVersion = columnVersionReader.getVersion();
+            metadataVersion = metadata.getMetadataVersion();
+        }
+
+        final int partitionCount = txWriter.getPartitionCount();
+        final int oldSize = partitions.size();
+        partitions.setPos(partitionCount * PARTITION_LONGS);
+        for (int i = oldSize; i < partitions.size(); i += PARTITION_LONGS) {
+            partitions.setQuick(i, Long.MIN_VALUE);
+        }
+
+        int builds = 0;
+        try {
+            // the last partition is still being written to
+            for (int i = 0; i < partitionCount - 1; i++) {
+                if (txWriter.isPartitionParquet(i)) {
+                    continue;
+                }
+                final long partitionTimestamp = txWriter.getPartitionTimestampByIndex(i);
+                final long partitionNameTxn = txWriter.getPartitionNameTxn(i);
+                final long partitionSize = txWriter.getPartitionSize(i);
+                final int offset = i * PARTITION_LONGS;
+                if (
+                        partitions.getQuick(offset) != partitionTimestamp
+                                || partitions.getQuick(offset + PARTITION_NAME_TXN) != partitionNameTxn
+                                || partitions.getQuick(offset + PARTITION_SIZE) != partitionSize
+                ) {
+                    partitions.setQuick(offset, partitionTimestamp);
+                    partitions.setQuick(offset + PARTITION_NAME_TXN, partitionNameTxn);
+                    partitions.setQuick(offset + PARTITION_SIZE, partitionSize);
+                    TableUtils.setPathForPartition(path.trimTo(rootLen), partitionBy, partitionTimestamp, partitionNameTxn);
+                    final boolean valid = zoneMap.of(ff, path, partitionTimestamp, partitionSize, columnVersionReader, metadata)
+                            && isUpToDate(columnVersionReader, partitionTimestamp, metadata);
+                    partitions.setQuick(offset + PARTITION_STATE, valid ? STATE_VALID : STATE_MISSING);
+                }
+
+                if (partitions.getQuick(offset + PARTITION_STATE) == STATE_MISSING && builds < MAX_BUILDS_PER_UPDATE) {
+                    builds++;
+                    TableUtils.setPathForPartition(path.trimTo(rootLen), partitionBy, partitionTimestamp, partitionNameTxn);
+                    try {
+                        write(path, other, partitionTimestamp, partitionSize, columnVersionReader, metadata);
+                        partitions.setQuick(offset + PARTITION_STATE, STATE_VALID);
+                    } catch (CairoException e) {
+                        // don't retry until the partition changes
+                        partitions.setQuick(offset + PARTITION_STATE, STATE_FAILED);
+                        LOG.error().$("could not write zone map [path=").$(path)
+                                .$(", msg=").$(e.getFlyweightMessage())
+                                .$(", errno=").$(e.getErrno())
+                                .I$();
+                    }
+                }
+            }
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+    }
+
+    private static boolean isStatsColumn(int columnType, long columnTop, long rowCount) {
+        return columnType > 0 && PartitionZoneMap.isSupported(columnType) && columnTop > -1 && columnTop <= rowCount;
+    }
+
+    private void computeStats(Path path, CharSequence columnName, long columnNameTxn, int columnType, long columnTop, long rowCount) {
+        final int tag = ColumnType.tagOf(columnType);
+        final boolean zeroNull = tag == ColumnType.BYTE || tag == ColumnType.SHORT;
+        final boolean floatingPoint = tag == ColumnType.FLOAT || tag == ColumnType.DOUBLE;
+        long minLong = Long.MAX_VALUE;
+        long maxLong = Long.MIN_VALUE;
+        double minDouble = Double.POSITIVE_INFINITY;
+        double maxDouble = Double.NEGATIVE_INFINITY;
+        long nulls = 0;
+        if (zeroNull && columnTop > 0) {
+            minLong = 0;
+            maxLong = 0;
+        } else {
+            nulls = columnTop;
+        }
+
+        final long dataRows = rowCount - columnTop;
+        if (dataRows > 0) {
+            final int plen = path.size();
+            final long size = dataRows << ColumnType.pow2SizeOf(columnType);
+            final long fd = TableUtils.openRO(ff, TableUtils.dFile(path, columnName, columnNameTxn), LOG);
+            long addr = 0;
+            try {
+                addr = TableUtils.mapRO(ff, fd, size, MemoryTag.MMAP_TABLE_WRITER);
+                switch (tag) {
+                    case ColumnType.BYTE:
+                        for (long p = addr, lim = addr + size; p < lim; p++) {
+                            final byte value = Unsafe.getUnsafe().getByte(p);
+                            minLong = Math.min(minLong, value);
+                            maxLong = Math.max(maxLong, value);
+                        }
+                        break;
+                    case ColumnType.SHORT:
+                        for (long p = addr, lim = addr + size; p < lim; p += Short.BYTES) {
+                            final short value = Unsafe.getUnsafe().getShort(p);
+                            minLong = Math.min(minLong, value);
+                            maxLong = Math.max(maxLong, value);
+                        }
+                        break;
+                    case ColumnType.INT:
+                        final long nonNullInts = Vect.countInt(addr, dataRows);
+                        if (nonNullInts > 0) {
+                            minLong = Vect.minInt(addr, dataRows);
+                            maxLong = Vect.maxInt(addr, dataRows);
+                        }
+                        nulls += dataRows - nonNullInts;
+                        break;
+                    case ColumnType.FLOAT:
+                        for (long p = addr, lim = addr + size; p < lim; p += Float.BYTES) {
+                            final float value = Unsafe.getUnsafe().getFloat(p);
+                            if (Float.isNaN(value)) {
+                                nulls++;
+                            } else {
+                                minDouble = Math.min(minDouble, value);
+                                maxDouble = Math.max(maxDouble, value);
+                            }
+                        }
+                        break;
+                    case ColumnType.DOUBLE:
+                        for (long p = addr, lim = addr + size; p < lim; p += Double.BYTES) {
+                            final double value = Unsafe.getUnsafe().getDouble(p);
+                            if (Double.isNaN(value)) {
+                                nulls++;
+                            } else {
+                                minDouble = Math.min(minDouble, value);
+                                maxDouble = Math.max(maxDouble, value);
+                            }
+                        }
+                        break;
+                    default:
+                        // LONG, DATE and TIMESTAMP
+                        final long nonNullLongs = Vect.countLong(addr, dataRows);
+                        if (nonNullLongs > 0) {
+                            minLong = Vect.minLong(addr, dataRows);
+                            maxLong = Vect.maxLong(addr, dataRows);
+                        }
+                        nulls += dataRows - nonNullLongs;
+                        break;
+                }
+            } finally {
+                if (addr != 0) {
+                    ff.munmap(addr, size, MemoryTag.MMAP_TABLE_WRITER);
+                }
+                ff.close(fd);
+                path.trimTo(plen);
+            }
+        }
+
+        if (floatingPoint) {
+            min = Double.doubleToRawLongBits(minDouble);
+            max = Double.doubleToRawLongBits(maxDouble);
+        } else {
+            min = minLong;
+            max = maxLong;
+        }
+        nullCount = nulls;
+    }
+
+    private boolean isUpToDate(ColumnVersionReader columnVersionReader, long partitionTimestamp, TableWriterMetadata metadata) {
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            final long columnTop = columnVersionReader.getColumnTop(partitionTimestamp, i);
+            if (isStatsColumn(metadata.getColumnType(i), columnTop, zoneMap.getRowCount()) && !zoneMap.hasStats(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Writes zone map to a temporary file first, so that readers never see a partially written file.
+    private void write(
+            Path path,
+            Path other,
+            long partitionTimestamp,
+            long rowCount,
+            ColumnVersionReader columnVersionReader,
+            TableWriterMetadata metadata
+    ) {
+        final int plen = path.size();
+        final int columnCount = metadata.getColumnCount();
+        other.of(path).concat(TableUtils.ZONE_MAP_FILE_NAME).put(".tmp");
+        try {
+            mem.smallFile(ff, other.$(), MemoryTag.MMAP_TABLE_WRITER);
+            mem.jumpTo(0);
+            mem.putLong(rowCount);
+            mem.putLong(columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                final long columnTop = columnVersionReader.getColumnTop(partitionTimestamp, i);
+                if (!isStatsColumn(columnType, columnTop, rowCount)) {
+                    for (int j = 0; j < PartitionZoneMap.ENTRY_LONGS; j++) {
+                        mem.putLong(0);
+                    }
+                    continue;
+                }
+                final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, i);
+                computeStats(path, metadata.getColumnName(i), columnNameTxn, columnType, columnTop, rowCount);
+                mem.putLong(columnType);
+                mem.putLong(columnNameTxn);
+                mem.putLong(columnTop);
+                mem.putLong(min);
+                mem.putLong(max);
+                mem.putLong(nullCount);
+            }
+        } finally {
+            mem.close(true, Vm.TRUNCATE_TO_POINTER);
+        }
+        path.concat(TableUtils.ZONE_MAP_FILE_NAME);
+        try {
+            if (ff.rename(other.$(), path.$()) != Files.FILES_RENAME_OK) {
+                throw CairoException.critical(ff.errno()).put("could not rename [from=").put(other).put(", to=").put(path).put(']');
+            }
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+}
@@ -28,21 +28,32 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.cairo.vm.api.MemoryCMARW;
 import io.questdb.std.*;
 import io.questdb.std.str.CharSink;
 import io.questdb.std.str.Utf8Sequence;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 
+/**
+ * Chain of records stored in native memory. When spill files are provided, the records are moved
+ * to a memory-mapped file once their size reaches the spill threshold, so that the chain keeps
+ * growing on disk rather than in RAM.
+ */
 public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSinkSPI, WindowSPI, Reopenable {
     private final long[] columnOffsets;
     private final long fixOffset;
-    private final MemoryARW mem;
+    private final MemoryARW heapMem;
     private final RecordChainRecord recordA = new RecordChainRecord();
     private final RecordChainRecord recordB = new RecordChainRecord();
     private final RecordSink recordSink;
+    private final SpillFiles spillFiles;
+    private final long spillThreshold;
     private final long varOffset;
+    // either heap memory or memory-mapped spill file
+    private MemoryARW mem;
     private long nextRecordOffset = -1L;
     private RecordChainRecord recordC;
     private long recordOffset;
@@ -54,9 +65,28 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
             @NotNull RecordSink recordSink,
             long pageSize,
             int maxPages
+    ) {
+        this(columnTypes, recordSink, pageSize, maxPages, null, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param spillFiles     files to spill the records to, owned by the chain; null disables spilling
+     * @param spillThreshold size of records in bytes that triggers spilling, zero means that
+     *                       the records are always stored on disk
+     */
+    public RecordChain(
+            @Transient @NotNull ColumnTypes columnTypes,
+            @NotNull RecordSink recordSink,
+            long pageSize,
+            int maxPages,
+            @Nullable SpillFiles spillFiles,
+            long spillThreshold
     ) {
         try {
-            this.mem = Vm.getARWInstance(pageSize, maxPages, MemoryTag.NATIVE_RECORD_CHAIN);
+            this.heapMem = Vm.getARWInstance(pageSize, maxPages, MemoryTag.NATIVE_RECORD_CHAIN);
+            this.mem = heapMem;
+            this.spillFiles = spillFiles;
+            this.spillThreshold = spillFiles != null ? spillThreshold : Long.MAX_VALUE;
             this.recordSink = recordSink;
             int count = columnTypes.getColumnCount();
             long varOffset = 0L;
@@ -86,6 +116,9 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
     }
 
     public long beginRecord(long prevOffset) {
+        if (varAppendOffset >= spillThreshold && mem == heapMem) {
+            spill();
+        }
         // no next record
         mem.putLong(varAppendOffset, -1);
         recordOffset = varAppendOffset;
@@ -110,7 +143,11 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
 
     @Override
     public void clear() {
-        mem.close();
+        if (mem != heapMem) {
+            spillFiles.clear();
+            mem = heapMem;
+        }
+        heapMem.close();
         nextRecordOffset = -1L;
         varAppendOffset = 0L;
     }
@@ -118,6 +155,7 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
     @Override
     public void close() {
         clear();
+        Misc.free(spillFiles);
         symbolTableResolver = null;
     }
 
@@ -126,6 +164,13 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         return addressOf(getOffsetOfColumn(recordOffset, columnIndex));
     }
 
+    /**
+     * Returns size of the stored records in bytes.
+     */
+    public long getDataSize() {
+        return varAppendOffset;
+    }
+
     public long getOffsetOfColumn(long recordOffset, int columnIndex) {
         return rowToDataOffset(recordOffset) + varOffset + columnOffsets[columnIndex];
     }
@@ -160,6 +205,10 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         return false;
     }
 
+    public boolean isSpilled() {
+        return mem != heapMem;
+    }
+
     public void of(long nextRecordOffset) {
         this.nextRecordOffset = nextRecordOffset;
     }
@@ -343,6 +392,19 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         recordOffset += 8;
     }
 
+    private void spill() {
+        final MemoryCMARW fileMem = spillFiles.newMemory();
+        final long pageSize = heapMem.getPageSize();
+        long offset = 0;
+        while (offset < varAppendOffset) {
+            final long len = Math.min(varAppendOffset - offset, pageSize - offset % pageSize);
+            Vect.memcpy(fileMem.appendAddressFor(offset, len), heapMem.addressOf(offset), len);
+            offset += len;
+        }
+        heapMem.close();
+        mem = fileMem;
+    }
+
     private class RecordChainRecord implements Record {
         private final Interval interval = new Interval();
         long baseOffset;
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Temporary memory-mapped files used by a query operator to spill data that doesn't fit
+ * into memory. The files are created in the {@value #SPILL_DIRECTORY} directory under the
+ * database root and are removed by {@link #clear()}.
+ * <p>
+ * The memory returned by {@link #newMemory()} is owned by this class. It must not be closed by
+ * the caller, since closing a file-based memory truncates the file and zeroes the unused tail.
+ */
+public class SpillFiles implements QuietCloseable, Mutable {
+    public static final String SPILL_DIRECTORY = ".spill";
+    private static final AtomicLong FILE_ID = new AtomicLong(System.currentTimeMillis());
+    private final long extendSegmentSize;
+    private final FilesFacade ff;
+    private final LongList fileIds = new LongList();
+    private final ObjList<MemoryCMARW> memories = new ObjList<>();
+    private final int mkDirMode;
+    private final CharSequence root;
+    private int memoryCount;
+    // allocated on first use, so that the instance can be reused after close
+    private Path path;
+    private int rootLen;
+
+    public SpillFiles(CairoConfiguration configuration, long extendSegmentSize) {
+        this.ff = configuration.getFilesFacade();
+        this.mkDirMode = configuration.getMkDirMode();
+        this.extendSegmentSize = Math.max(Numbers.ceilPow2(extendSegmentSize), ff.getPageSize());
+        this.root = configuration.getRoot();
+    }
+
+    /**
+     * Unmaps and removes all files.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i < memoryCount; i++) {
+            memories.getQuick(i).close(false, Vm.TRUNCATE_TO_POINTER);
+            ff.removeQuiet(filePath(fileIds.getQuick(i)));
+        }
+        memoryCount = 0;
+        fileIds.clear();
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.freeObjListAndClear(memories);
+        path = Misc.free(path);
+    }
+
+    public int getFileCount() {
+        return memoryCount;
+    }
+
+    /**
+     * Creates a new file and maps it for append, read and write.
+     */
+    public MemoryCMARW newMemory() {
+        if (path == null) {
+            path = new Path().of(root).concat(SPILL_DIRECTORY);
+            rootLen = path.size();
+        }
+        path.trimTo(rootLen);
+        if (!ff.exists(path.$()) && ff.mkdirs(path.slash(), mkDirMode) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create spill directory [dir=").put(path.trimTo(rootLen).$()).put(']');
+        }
+
+        final long fileId = FILE_ID.incrementAndGet();
+        final MemoryCMARW mem;
+        if (memoryCount < memories.size()) {
+            mem = memories.getQuick(memoryCount);
+        } else {
+            mem = Vm.getCMARWInstance();
+            memories.add(mem);
+        }
+        mem.of(ff, filePath(fileId), extendSegmentSize, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE);
+        fileIds.add(fileId);
+        memoryCount++;
+        return mem;
+    }
+
+    private LPSZ filePath(long fileId) {
+        return path.trimTo(rootLen).slash().put(fileId).put(".s").$();
+    }
+}
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.std.*;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Records hash-partitioned into memory-mapped spill files. Used by hash-based operators once their
+ * hash table outgrows the memory budget: the input is split by key hash, so that each partition can
+ * be processed with a hash table of its own.
+ * <p>
+ * Each partition is a {@link RecordChain} that keeps the records in insertion order. The chains are
+ * created on first use, so that the instance can be reused after close.
+ * <p>
+ * A partition that still doesn't fit the budget is split again into the partitions of the next level,
+ * see {@link #nextLevel()}. Each level takes its partition index from another slice of the hash bits.
+ */
+public class SpillPartitions implements QuietCloseable, Mutable {
+    private final ObjList<RecordChain> chains = new ObjList<>();
+    private final ArrayColumnTypes columnTypes = new ArrayColumnTypes();
+    private final CairoConfiguration configuration;
+    private final int hashShift;
+    private final long pageSize;
+    private final int partitionMask;
+    private final RecordSink recordSink;
+    private final LongList tailOffsets = new LongList();
+    private SpillPartitions nextLevel;
+    private SymbolTableSource symbolTableResolver;
+
+    /**
+     * @param metadata       metadata of the partitioned records
+     * @param recordSink     sink copying all columns of the partitioned records
+     * @param pageSize       extend segment size of the spill files
+     * @param partitionCount number of partitions, rounded up to a power of two
+     */
+    public SpillPartitions(
+            CairoConfiguration configuration,
+            @Transient RecordMetadata metadata,
+            RecordSink recordSink,
+            long pageSize,
+            int partitionCount
+    ) {
+        this(configuration, metadata, recordSink, pageSize, Numbers.ceilPow2(Math.max(partitionCount, 2)), 64);
+    }
+
+    private SpillPartitions(
+            CairoConfiguration configuration,
+            @Transient ColumnTypes columnTypes,
+            RecordSink recordSink,
+            long pageSize,
+            int partitionCount,
+            int levelShift
+    ) {
+        this.configuration = configuration;
+        for (int i = 0, n = columnTypes.getColumnCount(); i < n; i++) {
+            this.columnTypes.add(columnTypes.getColumnType(i));
+        }
+        this.recordSink = recordSink;
+        this.pageSize = pageSize;
+        this.partitionMask = partitionCount - 1;
+        // each level takes the next slice of the high hash bits
+        this.hashShift = levelShift - Numbers.msb(partitionCount);
+        tailOffsets.setAll(partitionCount, -1);
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0, n = chains.size(); i < n; i++) {
+            final RecordChain chain = chains.getQuick(i);
+            if (chain != null) {
+                chain.clear();
+            }
+        }
+        tailOffsets.setAll(partitionMask + 1, -1);
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjListAndClear(chains);
+        nextLevel = Misc.free(nextLevel);
+        tailOffsets.setAll(partitionMask + 1, -1);
+        symbolTableResolver = null;
+    }
+
+    /**
+     * Returns records of the partition positioned at the top, or null if the partition is empty.
+     */
+    @Nullable
+    public RecordChain getPartition(int partitionIndex) {
+        if (tailOffsets.getQuick(partitionIndex) == -1) {
+            return null;
+        }
+        final RecordChain chain = chains.getQuick(partitionIndex);
+        chain.toTop();
+        return chain;
+    }
+
+    public int getPartitionCount() {
+        return partitionMask + 1;
+    }
+
+    /**
+     * @param hashCode hash of the record's key, as returned by {@link io.questdb.cairo.map.MapKey#hash()};
+     *                 maps that don't hash their keys, such as Unordered2Map, must not be spilled
+     */
+    public int getPartitionIndex(long hashCode) {
+        return (int) (hashCode >>> hashShift) & partitionMask;
+    }
+
+    /**
+     * Returns partitions that split a partition of this level by another slice of the hash bits,
+     * or null if the slices are exhausted. The instance is created on first use and owned by this one;
+     * callers clear it before they put records.
+     */
+    @Nullable
+    public SpillPartitions nextLevel() {
+        // the low bits are used by hash tables to pick a slot, so the partitions use the high ones only
+        if (hashShift - Numbers.msb(partitionMask + 1) < 32) {
+            return null;
+        }
+        if (nextLevel == null) {
+            nextLevel = new SpillPartitions(configuration, columnTypes, recordSink, pageSize, partitionMask + 1, hashShift);
+            nextLevel.setSymbolTableResolver(symbolTableResolver);
+        }
+        return nextLevel;
+    }
+
+    public void put(long hashCode, Record record) {
+        final int partitionIndex = getPartitionIndex(hashCode);
+        RecordChain chain = chains.getQuiet(partitionIndex);
+        if (chain == null) {
+            chain = new RecordChain(
+                    columnTypes,
+                    recordSink,
+                    pageSize,
+                    Integer.MAX_VALUE,
+                    new SpillFiles(configuration, pageSize),
+                    0
+            );
+            chains.extendAndSet(partitionIndex, chain);
+            chain.setSymbolTableResolver(symbolTableResolver);
+        }
+        tailOffsets.setQuick(partitionIndex, chain.put(record, tailOffsets.getQuick(partitionIndex)));
+    }
+
+    public void setSymbolTableResolver(SymbolTableSource resolver) {
+        this.symbolTableResolver = resolver;
+        for (int i = 0, n = chains.size(); i < n; i++) {
+            final RecordChain chain = chains.getQuick(i);
+            if (chain != null) {
+                chain.setSymbolTableResolver(resolver);
+            }
+        }
+        if (nextLevel != null) {
+            nextLevel.setSymbolTableResolver(resolver);
+        }
+    }
+}
@@ -33,6 +33,8 @@ import io.questdb.cairo.vm.api.MemoryCMR;
 import io.questdb.cairo.vm.api.MemoryCR;
 import io.questdb.cairo.vm.api.MemoryMR;
 import io.questdb.cairo.vm.api.MemoryR;
+import io.questdb.griffin.engine.table.parquet.ParquetChunkCache;
+import io.questdb.griffin.engine.table.parquet.PartitionDecoder;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
@@ -55,7 +57,10 @@ public class TableReader implements Closeable, SymbolTableSource {
     private static final int PARTITIONS_SLOT_SIZE = 4;
     private static final int PARTITIONS_SLOT_SIZE_MSB = Numbers.msb(PARTITIONS_SLOT_SIZE);
     private final MillisecondClock clock;
+    private final PartitionBloomFilter bloomFilter = new PartitionBloomFilter();
     private final ColumnVersionReader columnVersionReader;
+    // Engine-wide cache of decoded Parquet column chunks; null if the reader is not owned by an engine.
+    private final ParquetChunkCache chunkCache;
     private final CairoConfiguration configuration;
     private final int dbRootSize;
     private final FilesFacade ff;
@@ -63,6 +68,8 @@ public class TableReader implements Closeable, SymbolTableSource {
     private final MessageBus messageBus;
     private final TableReaderMetadata metadata;
     private final LongList openPartitionInfo;
+    // Decoders for partitions in Parquet format, aligned with partition indexes; null for native partitions.
+    private final ObjList<PartitionDecoder> parquetDecoders = new ObjList<>();
     private final int partitionBy;
     private final Path path;
     private final int rootLen;
@@ -70,6 +77,7 @@ public class TableReader implements Closeable, SymbolTableSource {
     private final MemoryMR todoMem = Vm.getCMRInstance();
     private final TxReader txFile;
     private final TxnScoreboard txnScoreboard;
+    private final PartitionZoneMap zoneMap = new PartitionZoneMap();
     private ObjList<BitmapIndexReader> bitmapIndexes;
     private int columnCount;
     private int columnCountShl;
@@ -94,8 +102,18 @@ public class TableReader implements Closeable, SymbolTableSource {
             CairoConfiguration configuration,
             TableToken tableToken,
             @Nullable MessageBus messageBus
+    ) {
+        this(configuration, tableToken, messageBus, null);
+    }
+
+    public TableReader(
+            CairoConfiguration configuration,
+            TableToken tableToken,
+            @Nullable MessageBus messageBus,
+            @Nullable ParquetChunkCache chunkCache
     ) {
         this.configuration = configuration;
+        this.chunkCache = chunkCache;
         this.clock = configuration.getMillisecondClock();
         this.maxOpenPartitions = configuration.getInactiveReaderMaxOpenPartitions();
         this.ff = configuration.getFilesFacade();
@@ -139,6 +157,7 @@ public class TableReader implements Closeable, SymbolTableSource {
 
             openPartitionInfo = new LongList(partitionCount * PARTITIONS_SLOT_SIZE);
             openPartitionInfo.setPos(partitionCount * PARTITIONS_SLOT_SIZE);
+            parquetDecoders.setPos(partitionCount);
             for (int i = 0; i < partitionCount; i++) {
                 // ts, number of rows, txn, column version for each partition
                 // it is compared to attachedPartitions within the txn file to determine if a partition needs to be reloaded or not
@@ -189,6 +208,8 @@ public class TableReader implements Closeable, SymbolTableSource {
             Misc.free(txnScoreboard);
             Misc.free(path);
             Misc.free(columnVersionReader);
+            Misc.free(zoneMap);
+            Misc.free(bloomFilter);
             LOG.debug().$("closed '").utf8(tableToken.getTableName()).$('\'').$();
         }
     }
@@ -224,6 +245,37 @@ public class TableReader implements Closeable, SymbolTableSource {
         return createBitmapIndexReaderAt(index, columnBase, columnIndex, columnNameTxn, direction, partitionTxn);
     }
 
+    /**
+     * Returns Bloom filter of the column in the given open partition in native format.
+     * The filter is owned by the reader and is reused between the calls.
+     *
+     * @param partitionIndex partition index
+     * @param columnIndex    column index
+     * @return Bloom filter or null if the column has no up-to-date filter in the partition
+     */
+    public @Nullable PartitionBloomFilter getBloomFilter(int partitionIndex, int columnIndex) {
+        if (!metadata.getColumnMetadata(columnIndex).isBloomFilter()) {
+            return null;
+        }
+        final long partitionRowCount = getPartitionRowCount(partitionIndex);
+        if (partitionRowCount < 1 || getPartitionFormat(partitionIndex) != PartitionFormat.NATIVE) {
+            return null;
+        }
+        final long partitionTimestamp = openPartitionInfo.getQuick(partitionIndex * PARTITIONS_SLOT_SIZE);
+        final int writerIndex = metadata.getWriterIndex(columnIndex);
+        final long columnTop = columnVersionReader.getColumnTop(partitionTimestamp, writerIndex);
+        if (columnTop < 0 || columnTop >= partitionRowCount) {
+            return null;
+        }
+        try {
+            pathGenPartitioned(partitionIndex);
+            final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, writerIndex);
+            return bloomFilter.of(ff, path, metadata.getColumnName(columnIndex), columnNameTxn, partitionRowCount, columnTop) ? bloomFilter : null;
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     public MemoryCR getColumn(int absoluteIndex) {
         return columns.getQuick(absoluteIndex);
     }
@@ -280,6 +332,17 @@ public class TableReader implements Closeable, SymbolTableSource {
         return partitionCount;
     }
 
+    /**
+     * Returns format of the given open partition.
+     *
+     * @param partitionIndex partition index
+     * @return {@link PartitionFormat#NATIVE} or {@link PartitionFormat#PARQUET}
+     */
+    public byte getPartitionFormat(int partitionIndex) {
+        final PartitionDecoder decoder = parquetDecoders.getQuick(partitionIndex);
+        return decoder != null && decoder.isOpen() ? PartitionFormat.PARQUET : PartitionFormat.NATIVE;
+    }
+
     @TestOnly
     public int getPartitionIndex(int columnBase) {
         return columnBase >>> columnCountShl;
@@ -307,6 +370,19 @@ public class TableReader implements Closeable, SymbolTableSource {
         return metadata.getPartitionBy();
     }
 
+    /**
+     * Returns decoder for the given open partition in Parquet format. The decoder is owned
+     * by the reader and must not be used for decoding column chunks concurrently; its
+     * metadata and file path can be used to open per-thread decoders.
+     *
+     * @param partitionIndex partition index
+     * @return partition decoder or null if the partition is in native format
+     */
+    public PartitionDecoder getParquetDecoder(int partitionIndex) {
+        final PartitionDecoder decoder = parquetDecoders.getQuick(partitionIndex);
+        return decoder != null && decoder.isOpen() ? decoder : null;
+    }
+
     public SymbolMapReader getSymbolMapReader(int columnIndex) {
         return symbolMapReaders.getQuick(columnIndex);
     }
@@ -340,6 +416,27 @@ public class TableReader implements Closeable, SymbolTableSource {
         return txnScoreboard;
     }
 
+    /**
+     * Returns zone map of the given open partition in native format. The zone map
+     * is owned by the reader and is reused between the calls.
+     *
+     * @param partitionIndex partition index
+     * @return zone map or null if the partition has no up-to-date zone map
+     */
+    public @Nullable PartitionZoneMap getZoneMap(int partitionIndex) {
+        final long partitionRowCount = getPartitionRowCount(partitionIndex);
+        if (partitionRowCount < 1 || getPartitionFormat(partitionIndex) != PartitionFormat.NATIVE) {
+            return null;
+        }
+        try {
+            pathGenPartitioned(partitionIndex);
+            final long partitionTimestamp = openPartitionInfo.getQuick(partitionIndex * PARTITIONS_SLOT_SIZE);
+            return zoneMap.of(ff, path, partitionTimestamp, partitionRowCount, columnVersionReader, metadata) ? zoneMap : null;
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     public void goActive() {
         reload();
     }
@@ -431,7 +528,10 @@ public class TableReader implements Closeable, SymbolTableSource {
                 if (!forceTruncate) {
                     if (openPartitionNameTxn == txPartitionNameTxn && openPartitionColumnVersion == columnVersionReader.getMaxPartitionVersion(txPartTs)) {
                         if (openPartitionSize != newPartitionSize) {
-                            if (openPartitionSize > -1L) {
+                            if (getPartitionFormat(partitionIndex) == PartitionFormat.PARQUET) {
+                                // Parquet partition was updated in place, decoder has to re-read file metadata
+                                prepareForLazyOpen(partitionIndex);
+                            } else if (openPartitionSize > -1L) {
                                 reloadGrowPartition(partitionIndex, newPartitionSize, txPartitionNameTxn);
                                 openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE, newPartitionSize);
                                 LOG.debug().$("updated partition size [partition=").$(openPartitionTimestamp).I$();
@@ -591,6 +691,8 @@ public class TableReader implements Closeable, SymbolTableSource {
         columnTops.removeIndexBlock(colTopStart, columnSlotSize / 2);
 
         openPartitionInfo.removeIndexBlock(offset, PARTITIONS_SLOT_SIZE);
+        Misc.free(parquetDecoders.getQuick(partitionIndex));
+        parquetDecoders.remove(partitionIndex);
         LOG.info().$("closed deleted partition [table=").$(tableToken).$(", ts=").$ts(partitionTimestamp).$(", partitionIndex=").$(partitionIndex).I$();
         partitionCount--;
     }
@@ -604,6 +706,7 @@ public class TableReader implements Closeable, SymbolTableSource {
             for (int k = 0; k < columnCount; k++) {
                 closePartitionColumnFile(columnBase, k);
             }
+            Misc.free(parquetDecoders.getQuick(partitionIndex));
             openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE, -1L);
             openPartitionCount--;
 
@@ -631,6 +734,7 @@ public class TableReader implements Closeable, SymbolTableSource {
             for (int i = 0; i < columnCount; i++) {
                 closePartitionColumnFile(oldBase, i);
             }
+            Misc.free(parquetDecoders.getQuick(partitionIndex));
             openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE, -1L);
             openPartitionCount--;
             return -1;
@@ -721,6 +825,11 @@ public class TableReader implements Closeable, SymbolTableSource {
 
             try {
                 long partitionRowCount = openPartitionInfo.getQuick(partitionIndex * PARTITIONS_SLOT_SIZE + PARTITIONS_SLOT_OFFSET_SIZE);
+                if (partitionRowCount > -1L && getPartitionFormat(partitionIndex) == PartitionFormat.PARQUET) {
+                    // Parquet partitions hold no column files, so we simply re-open them lazily
+                    closePartition(partitionIndex);
+                    continue;
+                }
                 if (partitionRowCount > -1L && (partitionRowCount = closeRewrittenPartitionFiles(partitionIndex, fromBase)) > -1L) {
                     for (int i = 0; i < iterateCount; i++) {
                         if (transitionIndex.closeColumn(i)) {
@@ -771,6 +880,7 @@ public class TableReader implements Closeable, SymbolTableSource {
 
     private void freeColumns() {
         Misc.freeObjList(columns);
+        Misc.freeObjList(parquetDecoders);
     }
 
     private void freeSymbolMapReaders() {
@@ -805,6 +915,7 @@ public class TableReader implements Closeable, SymbolTableSource {
         openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE, -1L);
         openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_NAME_TXN, -1L);
         openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_COLUMN_VERSION, -1L);
+        parquetDecoders.insert(partitionIndex, 1, null);
         partitionCount++;
         LOG.debug().$("inserted partition [index=").$(partitionIndex).$(", table=").$(tableToken).$(", timestamp=").$ts(timestamp).I$();
     }
@@ -880,7 +991,11 @@ public class TableReader implements Closeable, SymbolTableSource {
                             .$(", partitionCount=").$(partitionCount)
                             .I$();
 
-                    openPartitionColumns(partitionIndex, path, getColumnBase(partitionIndex), partitionSize);
+                    if (txFile.isPartitionParquet(partitionIndex)) {
+                        openParquetPartition(partitionIndex, path, getColumnBase(partitionIndex));
+                    } else {
+                        openPartitionColumns(partitionIndex, path, getColumnBase(partitionIndex), partitionSize);
+                    }
                     openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE, partitionSize);
                     openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_NAME_TXN, partitionNameTxn);
                     final long partitionTimestamp = openPartitionInfo.getQuick(partitionIndex * PARTITIONS_SLOT_SIZE);
@@ -914,7 +1029,33 @@ public class TableReader implements Closeable, SymbolTableSource {
         }
     }
 
+    private void openParquetPartition(int partitionIndex, Path path, int columnBase) {
+        // Column data is decoded from the Parquet file on demand, so the column
+        // list holds no files for the partition. Readers that access columns
+        // directly rather than via page frames will see nulls.
+        for (int i = 0; i < columnCount; i++) {
+            closePartitionColumnFile(columnBase, i);
+            final int index = getPrimaryColumnIndex(columnBase, i);
+            columns.setQuick(index, NullMemoryCMR.INSTANCE);
+            columns.setQuick(index + 1, NullMemoryCMR.INSTANCE);
+            columnTops.setQuick(columnBase / 2 + i, 0);
+        }
+
+        PartitionDecoder decoder = parquetDecoders.getQuick(partitionIndex);
+        if (decoder == null) {
+            decoder = new PartitionDecoder(ff, chunkCache, tableToken.getTableId());
+            parquetDecoders.setQuick(partitionIndex, decoder);
+        }
+        final int pathLen = path.size();
+        try {
+            decoder.of(path.concat(TableUtils.PARQUET_PARTITION_NAME).$());
+        } finally {
+            path.trimTo(pathLen);
+        }
+    }
+
     private void openPartitionColumns(int partitionIndex, Path path, int columnBase, long partitionRowCount) {
+        Misc.free(parquetDecoders.getQuick(partitionIndex));
         for (int i = 0; i < columnCount; i++) {
             reloadColumnAt(
                     partitionIndex,
@@ -1008,9 +1149,14 @@ public class TableReader implements Closeable, SymbolTableSource {
 
                         if (openPartitionNameTxn == txPartitionNameTxn) {
                             if (openPartitionSize != txPartitionSize) {
-                                reloadGrowPartition(partitionIndex, txPartitionSize, txPartitionNameTxn);
-                                openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE, txPartitionSize);
-                                LOG.debug().$("updated partition size [partition=").$(openPartitionInfo.getQuick(offset)).I$();
+                                if (getPartitionFormat(partitionIndex) == PartitionFormat.PARQUET) {
+                                    // Parquet partition was updated in place, decoder has to re-read file metadata
+                                    prepareForLazyOpen(partitionIndex);
+                                } else {
+                                    reloadGrowPartition(partitionIndex, txPartitionSize, txPartitionNameTxn);
+                                    openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE, txPartitionSize);
+                                    LOG.debug().$("updated partition size [partition=").$(openPartitionInfo.getQuick(offset)).I$();
+                                }
                             }
                         } else {
                             prepareForLazyOpen(partitionIndex);
@@ -1289,6 +1435,11 @@ public class TableReader implements Closeable, SymbolTableSource {
             int base = getColumnBase(partitionIndex);
             try {
                 long partitionRowCount = openPartitionInfo.getQuick(partitionIndex * PARTITIONS_SLOT_SIZE + PARTITIONS_SLOT_OFFSET_SIZE);
+                if (partitionRowCount > -1L && getPartitionFormat(partitionIndex) == PartitionFormat.PARQUET) {
+                    // Parquet partitions hold no column files, so we simply re-open them lazily
+                    closePartition(partitionIndex);
+                    continue;
+                }
                 if (partitionRowCount > -1L && (partitionRowCount = closeRewrittenPartitionFiles(partitionIndex, base)) > -1L) {
                     for (int i = 0; i < iterateCount; i++) {
                         final int copyFrom = transitionIndex.getCopyFromIndex(i);
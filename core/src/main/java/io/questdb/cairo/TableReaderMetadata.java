@@ -45,6 +45,7 @@ public class TableReaderMetadata extends AbstractRecordMetadata implements Table
     private MemoryMR metaMem;
     private int metadataVersion;
     private long o3MaxLag;
+    private long parquetConversionAge;
     private int partitionBy;
     private Path path;
     private int plen;
@@ -95,6 +96,7 @@ public class TableReaderMetadata extends AbstractRecordMetadata implements Table
         this.metadataVersion = metaMem.getInt(TableUtils.META_OFFSET_METADATA_VERSION);
         this.maxUncommittedRows = metaMem.getInt(TableUtils.META_OFFSET_MAX_UNCOMMITTED_ROWS);
         this.o3MaxLag = metaMem.getLong(TableUtils.META_OFFSET_O3_MAX_LAG);
+        this.parquetConversionAge = metaMem.getLong(TableUtils.META_OFFSET_PARQUET_CONVERSION_AGE);
         this.walEnabled = metaMem.getBool(TableUtils.META_OFFSET_WAL_ENABLED);
 
         int shiftLeft = 0, existingIndex = 0;
@@ -190,6 +192,8 @@ public class TableReaderMetadata extends AbstractRecordMetadata implements Table
                         transitionIndex.markReplaced(existingIndex);
                     }
                 }
+                // bloom filters don't change the column layout, so the flag is updated in place
+                columnMetadata.getQuick(outIndex).setBloomFilter(TableUtils.isColumnBloomFilter(metaMem, writerIndex));
                 this.columnNameIndexMap.put(newName, outIndex);
                 if (timestampIndex == writerIndex) {
                     this.timestampIndex = outIndex;
@@ -252,6 +256,14 @@ public class TableReaderMetadata extends AbstractRecordMetadata implements Table
         return o3MaxLag;
     }
 
+    /**
+     * Returns age of partitions, in microseconds, after which they are converted
+     * to Parquet by {@link ParquetTieringJob}, or 0 if the table has no such policy.
+     */
+    public long getParquetConversionAge() {
+        return parquetConversionAge;
+    }
+
     @Override
     public int getPartitionBy() {
         return partitionBy;
@@ -286,6 +298,7 @@ public class TableReaderMetadata extends AbstractRecordMetadata implements Table
             this.tableId = metaMem.getInt(TableUtils.META_OFFSET_TABLE_ID);
             this.maxUncommittedRows = metaMem.getInt(TableUtils.META_OFFSET_MAX_UNCOMMITTED_ROWS);
             this.o3MaxLag = metaMem.getLong(TableUtils.META_OFFSET_O3_MAX_LAG);
+            this.parquetConversionAge = metaMem.getLong(TableUtils.META_OFFSET_PARQUET_CONVERSION_AGE);
             this.metadataVersion = metaMem.getInt(TableUtils.META_OFFSET_METADATA_VERSION);
             this.walEnabled = metaMem.getBool(TableUtils.META_OFFSET_WAL_ENABLED);
             this.columnMetadata.clear();
@@ -308,20 +321,20 @@ public class TableReaderMetadata extends AbstractRecordMetadata implements Table
 
                 if (columnType > -1) {
                     String colName = Chars.toString(name);
-                    columnMetadata.add(
-                            new TableReaderMetadataColumn(
-                                    colName,
-                                    columnType,
-                                    TableUtils.isColumnIndexed(metaMem, writerIndex),
-                                    TableUtils.getIndexBlockCapacity(metaMem, writerIndex),
-                                    true,
-                                    null,
-                                    writerIndex,
-                                    TableUtils.isColumnDedupKey(metaMem, writerIndex),
-                                    denseSymbolIndex,
-                                    stableIndex
-                            )
+                    final TableReaderMetadataColumn column = new TableReaderMetadataColumn(
+                            colName,
+                            columnType,
+                            TableUtils.isColumnIndexed(metaMem, writerIndex),
+                            TableUtils.getIndexBlockCapacity(metaMem, writerIndex),
+                            true,
+                            null,
+                            writerIndex,
+                            TableUtils.isColumnDedupKey(metaMem, writerIndex),
+                            denseSymbolIndex,
+                            stableIndex
                     );
+                    column.setBloomFilter(TableUtils.isColumnBloomFilter(metaMem, writerIndex));
+                    columnMetadata.add(column);
                     int denseIndex = columnMetadata.size() - 1;
                     if (!columnNameIndexMap.put(colName, denseIndex)) {
                         throw validationException(metaMem).put("Duplicate column [name=").put(name).put("] at ").put(i);
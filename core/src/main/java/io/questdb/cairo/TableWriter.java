@@ -47,6 +47,7 @@ import io.questdb.griffin.engine.table.parquet.MappedMemoryPartitionDescriptor;
 import io.questdb.griffin.engine.table.parquet.ParquetCompression;
 import io.questdb.griffin.engine.table.parquet.PartitionDescriptor;
 import io.questdb.griffin.engine.table.parquet.PartitionEncoder;
+import io.questdb.griffin.engine.table.parquet.PartitionUpdater;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.log.LogRecord;
@@ -93,7 +94,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     public static final int PARTITION_SINK_SIZE_LONGS = 8;
     public static final int PARTITION_SINK_COL_TOP_OFFSET = PARTITION_SINK_SIZE_LONGS * Long.BYTES;
     public static final int TIMESTAMP_MERGE_ENTRY_BYTES = Long.BYTES * 2;
-    private static final ObjectFactory<MemoryCMOR> GET_MEMORY_CMOR = Vm::getMemoryCMOR;
+    private static final ObjectFactory<MemoryCMOR> GET_MEMORY_CMOR = WalFrameMemory::new;
     private static final long IGNORE = -1L;
     private static final Log LOG = LogFactory.getLog(TableWriter.class);
     /*
@@ -105,6 +106,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     };
     private static final Row NOOP_ROW = new NoOpRow();
     private static final int O3_ERRNO_FATAL = Integer.MAX_VALUE - 1;
+    // matches the native encoder's default, used when no row group size is configured
+    private static final long PARQUET_DEFAULT_ROW_GROUP_SIZE = 512 * 512;
     private static final int ROW_ACTION_NO_PARTITION = 1;
     private static final int ROW_ACTION_NO_TIMESTAMP = 2;
     private static final int ROW_ACTION_O3 = 3;
@@ -115,6 +118,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     // Publisher source is identified by a long value
     private final AlterOperation alterOp = new AlterOperation();
     private final LongConsumer appendTimestampSetter;
+    private final PartitionBloomFilterWriter bloomFilterWriter;
     private final DatabaseCheckpointStatus checkpointStatus;
     private final ColumnVersionWriter columnVersionWriter;
     private final MPSequence commandPubSeq;
@@ -124,6 +128,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final long dataAppendPageSize;
     private final DdlListener ddlListener;
     private final MemoryMAR ddlMem;
+    // Address and size pairs of last partition column files mapped by the duplicate row filter.
+    private final LongList dedupFilterMaps = new LongList();
+    private final Utf8SplitString dedupFilterUtf8A = new Utf8SplitString();
+    private final Utf8SplitString dedupFilterUtf8B = new Utf8SplitString();
     private final ObjList<ColumnIndexer> denseIndexers = new ObjList<>();
     private final ObjList<MapWriter> denseSymbolMapWriters;
     private final int detachedMkDirMode;
@@ -183,7 +191,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final LongObjHashMap<LongList> walFdCache = new LongObjHashMap<>();
     private final WeakClosableObjectPool<LongList> walFdCacheListPool = new WeakClosableObjectPool<>(LongList::new, 5, true);
     private final LongObjHashMap.LongObjConsumer<LongList> walFdCloseCachedFdAction;
+    private final WalFrameReader walFrameReader;
     private final ObjList<MemoryCMOR> walMappedColumns = new ObjList<>();
+    private final PartitionZoneMapWriter zoneMapWriter;
     private ObjList<? extends MemoryA> activeColumns;
     private ObjList<Runnable> activeNullSetters;
     private ColumnVersionReader attachColumnVersionReader;
@@ -281,6 +291,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         this.fileOperationRetryCount = configuration.getFileOperationRetryCount();
         this.tableToken = tableToken;
         this.o3QuickSortEnabled = configuration.isO3QuickSortEnabled();
+        this.zoneMapWriter = configuration.isPartitionZoneMapsEnabled() ? new PartitionZoneMapWriter(ff) : null;
+        this.bloomFilterWriter = new PartitionBloomFilterWriter(configuration);
         this.engine = cairoEngine;
         try {
             this.path = new Path().of(root);
@@ -393,9 +405,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     fdList.clear();
                     walFdCacheListPool.push(fdList);
                 };
+                walFrameReader = new WalFrameReader(ff);
             } else {
                 walColumnMemoryPool = null;
                 walFdCloseCachedFdAction = null;
+                walFrameReader = null;
             }
         } catch (Throwable e) {
             doClose(false);
@@ -427,6 +441,32 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return Unsafe.getUnsafe().getLong(timestampIndex + indexRow * 16);
     }
 
+    @Override
+    public void addBloomFilter(@NotNull CharSequence columnName) {
+        checkDistressed();
+
+        final int columnIndex = getColumnIndexQuiet(metaMem, columnName, columnCount);
+        if (columnIndex == -1) {
+            throw CairoException.invalidMetadataRecoverable("column does not exist", columnName);
+        }
+
+        commit();
+
+        if (isColumnBloomFilter(metaMem, columnIndex)) {
+            throw CairoException.invalidMetadataRecoverable("column already has bloom filter", columnName);
+        }
+
+        final int existingType = getColumnType(metaMem, columnIndex);
+        if (!PartitionBloomFilter.isSupported(existingType)) {
+            throw CairoException.invalidMetadataRecoverable("cannot create bloom filter, column type is not LONG, SYMBOL, UUID or VARCHAR", columnName);
+        }
+
+        LOG.info().$("adding bloom filter to '").utf8(columnName).$("' [").$(ColumnType.nameOf(existingType)).$(", path=").$substr(pathRootSize, path).I$();
+        changeBloomFilterFlag(columnIndex, columnName, true);
+        // build filters of the existing partitions right away, same as bitmap indexes
+        bloomFilterWriter.update(path, other, pathSize, partitionBy, txWriter, columnVersionWriter, metadata, Integer.MAX_VALUE);
+    }
+
     @Override
     public void addColumn(@NotNull CharSequence columnName, int columnType, SecurityContext securityContext) {
         addColumn(
@@ -1088,6 +1128,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             // Bookmark masterRef to track how many rows is in uncommitted state
             committedMasterRef = masterRef;
             processPartitionRemoveCandidates();
+            updatePartitionSummaries();
 
             metrics.tableWriter().incrementCommits();
 
@@ -1256,21 +1297,64 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 final CairoConfiguration config = this.getConfiguration();
                 final int compressionCodec = config.getPartitionEncoderParquetCompressionCodec();
                 final int compressionLevel = config.getPartitionEncoderParquetCompressionLevel();
+                final long compressionCodecLevel = ParquetCompression.packCompressionCodecLevel(compressionCodec, compressionLevel);
                 final int rowGroupSize = config.getPartitionEncoderParquetRowGroupSize();
                 final int dataPageSize = config.getPartitionEncoderParquetDataPageSize();
                 final boolean statisticsEnabled = config.isPartitionEncoderParquetStatisticsEnabled();
                 final int parquetVersion = config.getPartitionEncoderParquetVersion();
+                final boolean parallel = config.isPartitionEncoderParquetParallelEnabled();
+                final long maxBandwidth = config.getParquetTieringMaxBandwidth();
+                final long sliceRowCount = rowGroupSize > 0 ? rowGroupSize : PARQUET_DEFAULT_ROW_GROUP_SIZE;
 
-                PartitionEncoder.encodeWithOptions(
-                        partitionDescriptor,
-                        other,
-                        ParquetCompression.packCompressionCodecLevel(compressionCodec, compressionLevel),
-                        statisticsEnabled,
-                        rowGroupSize,
-                        dataPageSize,
-                        parquetVersion
-
-                );
+                if (maxBandwidth <= 0 || partitionRowCount <= sliceRowCount) {
+                    PartitionEncoder.encodeWithOptions(
+                            partitionDescriptor,
+                            other,
+                            compressionCodecLevel,
+                            statisticsEnabled,
+                            rowGroupSize,
+                            dataPageSize,
+                            parquetVersion,
+                            parallel
+                    );
+                } else {
+                    // The encoder writes the whole file in a single native call, so to cap the write rate
+                    // the partition is encoded one row group at a time, pausing between row groups.
+                    final long startUs = configuration.getMicrosecondClock().getTicks();
+                    try (
+                            PartitionDescriptor sliceDescriptor = new PartitionDescriptor();
+                            PartitionUpdater partitionUpdater = new PartitionUpdater(ff)
+                    ) {
+                        PartitionEncoder.encodeWithOptions(
+                                sliceDescriptor.ofRows(partitionDescriptor, 0, sliceRowCount),
+                                other,
+                                compressionCodecLevel,
+                                statisticsEnabled,
+                                rowGroupSize,
+                                dataPageSize,
+                                parquetVersion,
+                                parallel
+                        );
+                        long bytesWritten = ff.length(other.$());
+                        partitionUpdater.of(
+                                other.$(),
+                                config.getWriterFileOpenOpts(),
+                                bytesWritten,
+                                timestampIndex,
+                                compressionCodecLevel,
+                                statisticsEnabled,
+                                rowGroupSize,
+                                dataPageSize
+                        );
+                        for (long rowLo = sliceRowCount; rowLo < partitionRowCount; rowLo += sliceRowCount) {
+                            throttleConversion(bytesWritten, startUs, maxBandwidth);
+                            partitionUpdater.appendRowGroup(
+                                    sliceDescriptor.ofRows(partitionDescriptor, rowLo, Math.min(rowLo + sliceRowCount, partitionRowCount))
+                            );
+                            bytesWritten = ff.length(other.$());
+                        }
+                    }
+                }
                 parquetFileLength = ff.length(other.$());
             }
         } catch (CairoException e) {
@@ -1493,6 +1577,35 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         engine.metadataCacheHydrateTable(metadata, true, true);
     }
 
+    @Override
+    public void dropBloomFilter(@NotNull CharSequence columnName) {
+        checkDistressed();
+
+        final int columnIndex = getColumnIndexQuiet(metaMem, columnName, columnCount);
+        if (columnIndex == -1) {
+            throw CairoException.invalidMetadataRecoverable("column does not exist", columnName);
+        }
+        if (!isColumnBloomFilter(metaMem, columnIndex)) {
+            throw CairoException.invalidMetadataRecoverable("column has no bloom filter", columnName);
+        }
+
+        commit();
+
+        LOG.info().$("removing bloom filter [txn=").$(txWriter.getTxn())
+                .$(", table=").utf8(tableToken.getTableName())
+                .$(", column=").utf8(columnName)
+                .I$();
+        changeBloomFilterFlag(columnIndex, columnName, false);
+
+        // readers ignore the files once the flag is cleared, so the removal is best effort
+        for (int i = 0, n = txWriter.getPartitionCount(); i < n; i++) {
+            final long partitionTimestamp = txWriter.getPartitionTimestampByIndex(i);
+            setPathForPartition(path.trimTo(pathSize), partitionBy, partitionTimestamp, txWriter.getPartitionNameTxn(i));
+            ff.removeQuiet(bloomFilterFileName(path, columnName, columnVersionWriter.getColumnNameTxn(partitionTimestamp, columnIndex)));
+        }
+        path.trimTo(pathSize);
+    }
+
     @Override
     public void dropIndex(@NotNull CharSequence columnName) {
         checkDistressed();
@@ -1961,6 +2074,13 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             boolean isLastSegmentUsage,
             O3JobParallelismRegulator regulator
     ) {
+        if (
+                canPromoteWalSegment(ordered, rowLo, o3TimestampMin, o3TimestampMax, commitToTimestamp, isLastSegmentUsage)
+                        && promoteWalSegment(walPath, timestampIndex, rowHi, o3TimestampMin, o3TimestampMax, mapDiffCursor, walSegmentId)
+        ) {
+            return true;
+        }
+
         int walRootPathLen = walPath.size();
         long maxTimestamp = txWriter.getMaxTimestamp();
         if (isLastPartitionClosed()) {
@@ -2137,6 +2257,29 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     }
                 }
 
+                if (needsDedup && walLagRowCount == 0 && configuration.isDedupDuplicateRowFilterEnabled()) {
+                    // Exact copies of last partition rows, e.g. re-sent by at-least-once producers,
+                    // would only cause O3 rewrite of the partition without changing its contents.
+                    final long filteredAddr = o3TimestampMem.getAddress();
+                    final long filteredRowCount = filterDuplicateWalRows(timestampAddr, totalUncommitted, filteredAddr, rowLo);
+                    if (filteredRowCount < totalUncommitted) {
+                        LOG.info().$("dropped WAL rows identical to last partition rows [table=").$(tableToken)
+                                .$(", rows=").$(totalUncommitted - filteredRowCount)
+                                .$(", remaining=").$(filteredRowCount)
+                                .I$();
+                        if (filteredRowCount > 0) {
+                            needsOrdering = true;
+                            timestampAddr = filteredAddr;
+                            txWriter.setLagMinTimestamp(Unsafe.getUnsafe().getLong(filteredAddr));
+                            txWriter.setLagMaxTimestamp(Unsafe.getUnsafe().getLong(filteredAddr + ((filteredRowCount - 1) << 4)));
+                        } else {
+                            needsOrdering = false;
+                            o3Hi = o3Lo;
+                        }
+                        totalUncommitted = filteredRowCount;
+                    }
+                }
+
                 if (needsOrdering) {
                     dispatchColumnTasks(timestampAddr, totalUncommitted, walLagRowCount, rowLo, rowHi, cthMergeWalColumnWithLag);
                     swapO3ColumnsExcept(timestampIndex);
@@ -2544,6 +2687,28 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    @Override
+    public void setMetaParquetConversionAge(long parquetConversionAgeUs) {
+        try {
+            commit();
+            long metaSize = copyMetadataAndUpdateVersion();
+            openMetaSwapFileByIndex(ff, ddlMem, path, pathSize, this.metaSwapIndex);
+            try {
+                ddlMem.jumpTo(META_OFFSET_PARQUET_CONVERSION_AGE);
+                ddlMem.putLong(parquetConversionAgeUs);
+                ddlMem.jumpTo(metaSize);
+            } finally {
+                ddlMem.close();
+            }
+
+            finishMetaSwapUpdate();
+            metadata.setParquetConversionAge(parquetConversionAgeUs);
+            engine.metadataCacheHydrateTable(metadata, true, true);
+        } finally {
+            ddlMem.close();
+        }
+    }
+
     public void setSeqTxn(long seqTxn) {
         assert txWriter.getLagRowCount() == 0 && txWriter.getLagTxnCount() == 0;
         txWriter.setSeqTxn(seqTxn);
@@ -3385,6 +3550,36 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         assert txWriter.getMetadataVersion() == metadata.getMetadataVersion();
     }
 
+    private boolean canPromoteWalSegment(
+            boolean ordered,
+            long rowLo,
+            long o3TimestampMin,
+            long o3TimestampMax,
+            long commitToTimestamp,
+            boolean isLastSegmentUsage
+    ) {
+        // The transaction has to start the segment and be the last one to use it, be in order,
+        // visible in full and without anything in the lag or indexes to take care of.
+        if (
+                !configuration.isWalSegmentPromotionEnabled()
+                        || !ordered
+                        || rowLo != 0
+                        || !isLastSegmentUsage
+                        || commitToTimestamp < o3TimestampMax
+                        || indexers.size() > 0
+                        || isDeduplicationEnabled()
+                        || txWriter.getLagRowCount() > 0
+                        || (!isEmptyTable() && isLastPartitionClosed())
+        ) {
+            return false;
+        }
+
+        // All rows must land in a single partition after the last one.
+        final long partitionTimestamp = txWriter.getLogicalPartitionTimestamp(o3TimestampMin);
+        return partitionTimestamp == txWriter.getLogicalPartitionTimestamp(o3TimestampMax)
+                && (txWriter.getMaxTimestamp() == Long.MIN_VALUE || partitionTimestamp > txWriter.getLogicalPartitionTimestamp(txWriter.getMaxTimestamp()));
+    }
+
     private boolean canSquashOverwritePartitionTail(int partitionIndex) {
         long fromTxn = txWriter.getPartitionNameTxn(partitionIndex);
         if (fromTxn < 0) {
@@ -3409,6 +3604,13 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         masterRef++;
     }
 
+    private void changeBloomFilterFlag(int columnIndex, CharSequence columnName, boolean enabled) {
+        metaSwapIndex = copyMetadataAndSetBloomFilterFlag(columnIndex, enabled);
+        swapMetaFile(columnName); // bumps structure version, this is in effect a commit
+        metadata.getColumnMetadata(columnIndex).setBloomFilter(enabled);
+        engine.metadataCacheHydrateTable(metadata, true, true);
+    }
+
     private void checkColumnName(CharSequence name) {
         if (!TableUtils.isValidColumnName(name, configuration.getMaxFileNameLength())) {
             throw CairoException.nonCritical().put("invalid column name [table=").put(tableToken.getTableName()).put(", column=").putAsPrintable(name).put(']');
@@ -3597,6 +3799,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             // Bookmark masterRef to track how many rows is in uncommitted state
             this.committedMasterRef = masterRef;
             processPartitionRemoveCandidates();
+            updatePartitionSummaries();
 
             metrics.tableWriter().incrementCommits();
             metrics.tableWriter().addCommittedRows(rowsAdded);
@@ -3740,6 +3943,46 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         checkO3Errors();
     }
 
+    private int copyMetadataAndSetBloomFilterFlag(int columnIndex, boolean enabled) {
+        try {
+            int index = openMetaSwapFile(ff, ddlMem, path, pathSize, configuration.getMaxSwapFileCount());
+            int columnCount = metaMem.getInt(META_OFFSET_COUNT);
+            ddlMem.putInt(columnCount);
+            ddlMem.putInt(metaMem.getInt(META_OFFSET_PARTITION_BY));
+            ddlMem.putInt(metaMem.getInt(META_OFFSET_TIMESTAMP_INDEX));
+            copyVersionAndLagValues();
+            ddlMem.jumpTo(META_OFFSET_COLUMN_TYPES);
+            for (int i = 0; i < columnCount; i++) {
+                if (i != columnIndex) {
+                    writeColumnEntry(i, false);
+                } else {
+                    ddlMem.putInt(getColumnType(metaMem, i));
+                    long flags = getColumnFlags(metaMem, columnIndex);
+                    if (enabled) {
+                        flags |= META_FLAG_BIT_BLOOM_FILTER;
+                    } else {
+                        flags &= ~META_FLAG_BIT_BLOOM_FILTER;
+                    }
+                    ddlMem.putLong(flags);
+                    ddlMem.putInt(getIndexBlockCapacity(metaMem, i));
+                    ddlMem.skip(8);
+                    ddlMem.putInt(getReplacingColumnIndexRaw(metaMem, i));
+                    ddlMem.skip(4);
+                }
+            }
+
+            long nameOffset = getColumnNameOffset(columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                CharSequence columnName = metaMem.getStrA(nameOffset);
+                ddlMem.putStr(columnName);
+                nameOffset += Vm.getStorageLength(columnName);
+            }
+            return index;
+        } finally {
+            ddlMem.close();
+        }
+    }
+
     private int copyMetadataAndSetIndexAttrs(int columnIndex, boolean indexedFlag, int indexValueBlockSize) {
         try {
             int index = openMetaSwapFile(ff, ddlMem, path, pathSize, configuration.getMaxSwapFileCount());
@@ -3825,6 +4068,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         ddlMem.putLong(metaMem.getLong(META_OFFSET_O3_MAX_LAG));
         ddlMem.putLong(txWriter.getMetadataVersion() + 1);
         ddlMem.putBool(metaMem.getBool(META_OFFSET_WAL_ENABLED));
+        ddlMem.jumpTo(META_OFFSET_PARQUET_CONVERSION_AGE);
+        ddlMem.putLong(metaMem.getLong(META_OFFSET_PARQUET_CONVERSION_AGE));
         metadata.setMetadataVersion(txWriter.getMetadataVersion() + 1);
     }
 
@@ -4725,7 +4970,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         Misc.free(slaveTxReader);
         Misc.free(commandQueue);
         Misc.free(dedupColumnCommitAddresses);
+        Misc.free(zoneMapWriter);
+        Misc.free(bloomFilterWriter);
         closeWalFiles();
+        Misc.free(walFrameReader);
         updateOperatorImpl = Misc.free(updateOperatorImpl);
         convertOperatorImpl = Misc.free(convertOperatorImpl);
         dropIndexOperator = null;
@@ -4840,6 +5088,72 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return true;
     }
 
+    /**
+     * Removes entries of the sorted and deduplicated WAL commit index that point to rows already
+     * present in the last partition with identical values of all columns. The designated timestamp
+     * is part of the upsert keys and the partition is sorted by it, so the candidate rows are found
+     * with a binary search on the timestamp column.
+     *
+     * @param indexAddr     timestamp index of the commit, pairs of timestamp and WAL row id
+     * @param indexCount    number of entries in the index
+     * @param destIndexAddr destination of the kept entries, may be the same as indexAddr
+     * @param mappedRowLo   first WAL row of the commit
+     * @return number of kept entries
+     */
+    private long filterDuplicateWalRows(long indexAddr, long indexCount, long destIndexAddr, long mappedRowLo) {
+        final long partitionRowCount = txWriter.getTransientRowCount();
+        final int timestampIndex = metadata.getTimestampIndex();
+        if (partitionRowCount == 0 || indexCount == 0 || getColumnTop(timestampIndex) > 0) {
+            return indexCount;
+        }
+
+        final long maxTimestamp = txWriter.getMaxTimestamp();
+        final long timestampAddr = mapDedupFilterColumn(timestampIndex, getPrimaryColumnIndex(timestampIndex), partitionRowCount << 3);
+        final long minTimestamp = Unsafe.getUnsafe().getLong(timestampAddr);
+        long keptCount = 0;
+        long searchLo = 0;
+        try {
+            for (long i = 0; i < indexCount; i++) {
+                final long entryAddr = indexAddr + (i << 4);
+                final long timestamp = Unsafe.getUnsafe().getLong(entryAddr);
+                final long walRow = Unsafe.getUnsafe().getLong(entryAddr + Long.BYTES);
+                boolean duplicate = false;
+                if (timestamp >= minTimestamp && timestamp <= maxTimestamp) {
+                    long row = Vect.binarySearch64Bit(timestampAddr, timestamp, searchLo, partitionRowCount - 1, BinarySearch.SCAN_UP);
+                    if (row > -1) {
+                        // the index is sorted, next lookups start from here
+                        searchLo = row;
+                        for (; row < partitionRowCount && Unsafe.getUnsafe().getLong(timestampAddr + (row << 3)) == timestamp; row++) {
+                            if (isDuplicateWalRow(row, walRow, mappedRowLo, partitionRowCount)) {
+                                duplicate = true;
+                                break;
+                            }
+                        }
+                    } else {
+                        searchLo = Math.min(-row - 1, partitionRowCount - 1);
+                    }
+                }
+                if (!duplicate) {
+                    final long destAddr = destIndexAddr + (keptCount << 4);
+                    if (destAddr != entryAddr) {
+                        Unsafe.getUnsafe().putLong(destAddr, timestamp);
+                        Unsafe.getUnsafe().putLong(destAddr + Long.BYTES, walRow);
+                    }
+                    keptCount++;
+                }
+            }
+        } finally {
+            for (int i = 0, n = dedupFilterMaps.size(); i < n; i += 2) {
+                final long address = dedupFilterMaps.getQuick(i);
+                if (address != 0) {
+                    ff.munmap(address, dedupFilterMaps.getQuick(i + 1), MemoryTag.MMAP_TABLE_WRITER);
+                }
+            }
+            dedupFilterMaps.clear();
+        }
+        return keptCount;
+    }
+
     private long findMinSplitPartitionTimestamp() {
         for (int i = 0, n = txWriter.getPartitionCount(); i < n; i++) {
             long partitionTimestamp = txWriter.getPartitionTimestampByIndex(i);
@@ -5234,6 +5548,58 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return txWriter.getPartitionCount() == 0 && txWriter.getLagRowCount() == 0;
     }
 
+    private boolean isDuplicateWalRow(long partitionRow, long walRow, long mappedRowLo, long partitionRowCount) {
+        final int timestampIndex = metadata.getTimestampIndex();
+        for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+            final int columnType = metadata.getColumnType(columnIndex);
+            if (columnType < 0 || columnIndex == timestampIndex) {
+                continue;
+            }
+            final long columnTop = getColumnTop(columnIndex);
+            if (partitionRow < columnTop) {
+                // the value is not stored, don't bother comparing it with null
+                return false;
+            }
+            final long fileRow = partitionRow - columnTop;
+            final long fileRowCount = partitionRowCount - columnTop;
+            final int primaryIndex = getPrimaryColumnIndex(columnIndex);
+            final MemoryCR walDataMem = o3Columns.getQuick(primaryIndex);
+            if (ColumnType.isVarSize(columnType)) {
+                final ColumnTypeDriver driver = ColumnType.getDriver(columnType);
+                final int secondaryIndex = getSecondaryColumnIndex(columnIndex);
+                final long auxSize = driver.getAuxVectorSize(fileRowCount);
+                final long auxAddr = mapDedupFilterColumn(columnIndex, secondaryIndex, auxSize);
+                final long dataSize = driver.getDataVectorSizeAt(auxAddr, fileRowCount - 1);
+                final long dataAddr = mapDedupFilterColumn(columnIndex, primaryIndex, dataSize);
+                final long walAuxAddr = o3Columns.getQuick(secondaryIndex).addressOf(0);
+                final long walDataAddr = walDataMem.addressOf(0);
+                if (ColumnType.tagOf(columnType) == ColumnType.VARCHAR) {
+                    final Utf8Sequence value = VarcharTypeDriver.getSplitValue(auxAddr, auxAddr + auxSize, dataAddr, dataAddr + dataSize, fileRow, dedupFilterUtf8A);
+                    final Utf8Sequence walValue = VarcharTypeDriver.getSplitValue(walAuxAddr, Long.MAX_VALUE, walDataAddr, Long.MAX_VALUE, walRow, dedupFilterUtf8B);
+                    if (!Utf8s.equals(value, walValue)) {
+                        return false;
+                    }
+                } else {
+                    final long lo = driver.getDataVectorOffset(auxAddr, fileRow);
+                    final long len = driver.getDataVectorSizeAt(auxAddr, fileRow) - lo;
+                    final long walLo = driver.getDataVectorOffset(walAuxAddr, walRow);
+                    final long walLen = driver.getDataVectorSizeAt(walAuxAddr, walRow) - walLo;
+                    if (len != walLen || !Vect.memeq(dataAddr + lo, walDataAddr + walLo, len)) {
+                        return false;
+                    }
+                }
+            } else {
+                final int shl = ColumnType.pow2SizeOf(columnType);
+                final long dataAddr = mapDedupFilterColumn(columnIndex, primaryIndex, fileRowCount << shl);
+                final long walDataAddr = walDataMem.addressOf(mappedRowLo << shl) - (mappedRowLo << shl);
+                if (!Vect.memeq(dataAddr + (fileRow << shl), walDataAddr + (walRow << shl), 1L << shl)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     private boolean isLastPartitionClosed() {
         for (int i = 0; i < columnCount; i++) {
             if (metadata.getColumnType(i) > 0) {
@@ -5258,6 +5624,26 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    // Maps the file of the last partition read-only, the mapping is kept until the duplicate row filter completes.
+    private long mapDedupFilterColumn(int columnIndex, int fileIndex, long size) {
+        if (dedupFilterMaps.size() == 0) {
+            dedupFilterMaps.setAll(columns.size() * 2, 0);
+        }
+        long address = dedupFilterMaps.getQuick(fileIndex * 2);
+        if (address == 0 && size > 0) {
+            final MemoryMA mem = columns.getQuick(fileIndex);
+            if (mem == null || mem.getFd() < 0) {
+                throw CairoException.critical(0).put("last partition column is not open [table=").put(tableToken.getTableName())
+                        .put(", column=").put(getColumnNameSafe(columnIndex))
+                        .put(']');
+            }
+            address = TableUtils.mapRO(ff, mem.getFd(), size, MemoryTag.MMAP_TABLE_WRITER);
+            dedupFilterMaps.setQuick(fileIndex * 2, address);
+            dedupFilterMaps.setQuick(fileIndex * 2 + 1, size);
+        }
+        return address;
+    }
+
     private long mapAppendColumnBuffer(MemoryMA column, long offset, long size, boolean rw) {
         if (size == 0) {
             return 0;
@@ -5301,6 +5687,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
 
         try {
+            // Compressed segments are decoded into private memory, raw pages of committed
+            // transactions may have been released by the WAL writer.
+            final boolean compressed = walFrameReader.of(walPath, walPathLen);
             int file = 0;
             for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
                 final int columnType = metadata.getColumnType(columnIndex);
@@ -5333,6 +5722,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                                 CairoConfiguration.O_NONE
                         );
                         walPath.trimTo(walPathLen);
+                        if (compressed) {
+                            ((WalFrameMemory) auxMem).decode(walFrameReader, WalFrameReader.fileIndex(columnIndex, true), MemoryTag.NATIVE_TABLE_WRITER);
+                        }
 
                         LPSZ dfile = dataFd == -1 ? dFile(walPath, metadata.getColumnName(columnIndex), -1L) : null;
                         LOG.debug().$("reusing file descriptor for WAL files [fd=").$(dataFd).$(", wal=").$(walPath).$(", walSegment=").$(walSegmentId).I$();
@@ -5347,6 +5739,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                                 MemoryTag.MMAP_TABLE_WRITER,
                                 CairoConfiguration.O_NONE
                         );
+                        if (compressed) {
+                            ((WalFrameMemory) dataMem).decode(walFrameReader, WalFrameReader.fileIndex(columnIndex, false), MemoryTag.NATIVE_TABLE_WRITER);
+                        }
                     } else {
                         MemoryCMOR primary = walColumnMemoryPool.pop();
                         walMappedColumns.add(primary);
@@ -5364,6 +5759,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                                 MemoryTag.MMAP_TX_LOG,
                                 CairoConfiguration.O_NONE
                         );
+                        if (compressed) {
+                            ((WalFrameMemory) primary).decode(walFrameReader, WalFrameReader.fileIndex(columnIndex, false), MemoryTag.NATIVE_TABLE_WRITER);
+                        }
                     }
                     walPath.trimTo(walPathLen);
                 } else {
@@ -5375,6 +5773,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         } catch (Throwable th) {
             closeWalColumns(true, walSegmentId);
             throw th;
+        } finally {
+            walFrameReader.close();
+            walPath.trimTo(walPathLen);
         }
     }
 
@@ -6599,6 +7000,147 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    /**
+     * Moves WAL segment into a new partition without copying column values. Column files are hard-linked
+     * into the partition directory, only the designated timestamp column, which WAL stores as
+     * (timestamp, row id) pairs, and the symbol columns with remapped keys are written out.
+     * <p>
+     * Both the segment and the partition keep referring to the same files, so the segment must be
+     * closed by the WAL writer and hold rows of this transaction only. Writes appended to the partition
+     * later go past the segment rows and do not affect the WAL data in case it has to be re-applied.
+     *
+     * @return false when segment cannot be promoted and nothing has been changed
+     */
+    private boolean promoteWalSegment(
+            @Transient Path walPath,
+            int timestampIndex,
+            long rowCount,
+            long o3TimestampMin,
+            long o3TimestampMax,
+            SymbolMapDiffCursor mapDiffCursor,
+            long walSegmentId
+    ) {
+        final int walPathLen = walPath.size();
+        try {
+            if (ff.exists(walPath.concat(WalUtils.WAL_FRAMES_FILE_NAME).$())) {
+                // raw column files of a compressed segment may have released pages
+                return false;
+            }
+            walPath.trimTo(walPathLen);
+            final long lockFd = TableUtils.lock(ff, TableUtils.lockName(walPath), false);
+            if (lockFd < 0) {
+                // WAL writer still appends to the segment
+                return false;
+            }
+            ff.close(lockFd);
+
+            for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+                final int columnType = metadata.getColumnType(columnIndex);
+                if (columnType > 0) {
+                    final CharSequence columnName = metadata.getColumnName(columnIndex);
+                    if (ColumnType.isVarSize(columnType)) {
+                        if (ff.length(iFile(walPath.trimTo(walPathLen), columnName, -1L)) < ColumnType.getDriver(columnType).getAuxVectorSize(rowCount)
+                                || !ff.exists(dFile(walPath.trimTo(walPathLen), columnName, -1L))) {
+                            return false;
+                        }
+                    } else {
+                        final long size = rowCount << ColumnType.getWalDataColumnShl(columnType, columnIndex == timestampIndex);
+                        final long fileSize = ff.length(dFile(walPath.trimTo(walPathLen), columnName, -1L));
+                        // WAL writer truncates files of closed segments, so the timestamp
+                        // column size tells there are no rows past the transaction
+                        if (columnIndex == timestampIndex ? fileSize != size : fileSize < size) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        } finally {
+            walPath.trimTo(walPathLen);
+        }
+
+        final long partitionTimestamp = txWriter.getLogicalPartitionTimestamp(o3TimestampMin);
+        final long partitionNameTxn = txWriter.getTxn() - 1;
+        setPathForPartition(path, partitionBy, partitionTimestamp, partitionNameTxn);
+        final int plen = path.size();
+        try {
+            if (ff.mkdirs(path.slash(), mkDirMode) != 0) {
+                LOG.info().$("could not create partition directory, WAL segment will be copied [path=").$substr(pathRootSize, path)
+                        .$(", errno=").$(ff.errno()).I$();
+                return false;
+            }
+
+            // Link the files first, in case of a failure the transaction is still applied the usual way.
+            try {
+                for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+                    final int columnType = metadata.getColumnType(columnIndex);
+                    if (columnType > 0 && columnIndex != timestampIndex && !ColumnType.isSymbol(columnType)) {
+                        final CharSequence columnName = metadata.getColumnName(columnIndex);
+                        final long columnNameTxn = columnVersionWriter.getColumnNameTxn(partitionTimestamp, columnIndex);
+                        linkFile(ff, dFile(walPath.trimTo(walPathLen), columnName, -1L), dFile(path.trimTo(plen), columnName, columnNameTxn));
+                        if (ColumnType.isVarSize(columnType)) {
+                            linkFile(ff, iFile(walPath.trimTo(walPathLen), columnName, -1L), iFile(path.trimTo(plen), columnName, columnNameTxn));
+                        }
+                    }
+                }
+            } catch (CairoException e) {
+                LOG.info().$("could not link WAL segment, it will be copied [path=").$substr(pathRootSize, path.trimTo(plen))
+                        .$(", msg=").$(e.getFlyweightMessage())
+                        .$(", errno=").$(e.getErrno()).I$();
+                ff.rmdir(path.trimTo(plen).slash());
+                return false;
+            }
+
+            try {
+                mmapWalColumns(walPath, walSegmentId, timestampIndex, 0, rowCount);
+                o3Columns = remapWalSymbols(mapDiffCursor, 0, rowCount, walPath);
+                for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+                    final int columnType = metadata.getColumnType(columnIndex);
+                    if (columnType < 0) {
+                        continue;
+                    }
+
+                    final CharSequence columnName = metadata.getColumnName(columnIndex);
+                    final long columnNameTxn = columnVersionWriter.getColumnNameTxn(partitionTimestamp, columnIndex);
+                    final int primaryColumnIndex = getPrimaryColumnIndex(columnIndex);
+                    if (columnIndex == timestampIndex) {
+                        o3TimestampMem.jumpTo(rowCount << 3);
+                        Vect.copyFromTimestampIndex(walMappedColumns.getQuick(primaryColumnIndex).addressOf(0), 0, rowCount - 1, o3TimestampMem.getAddress());
+                        writeWalColumnFile(dFile(path.trimTo(plen), columnName, columnNameTxn), o3TimestampMem.getAddress(), rowCount << 3);
+                    } else if (ColumnType.isSymbol(columnType)) {
+                        final MemoryCR symbolColumn = o3Columns.getQuick(primaryColumnIndex);
+                        if (symbolColumn == walMappedColumns.getQuick(primaryColumnIndex)) {
+                            // WAL symbol keys are the same as the table ones
+                            linkFile(ff, dFile(walPath.trimTo(walPathLen), columnName, -1L), dFile(path.trimTo(plen), columnName, columnNameTxn));
+                        } else {
+                            writeWalColumnFile(dFile(path.trimTo(plen), columnName, columnNameTxn), symbolColumn.addressOf(0), rowCount << 2);
+                        }
+                    }
+                }
+            } catch (Throwable th) {
+                ff.rmdir(path.trimTo(plen).slash());
+                throw th;
+            } finally {
+                walPath.trimTo(walPathLen);
+                finishO3Append(0);
+                o3Columns = o3MemColumns1;
+                closeWalColumns(true, walSegmentId);
+            }
+        } finally {
+            path.trimTo(pathSize);
+        }
+
+        LOG.info().$("promoted WAL segment to partition [table=").$(tableToken)
+                .$(", partition=").$ts(partitionTimestamp)
+                .$(", rows=").$(rowCount)
+                .I$();
+
+        txWriter.updatePartitionSizeByTimestamp(partitionTimestamp, rowCount, partitionNameTxn);
+        txWriter.finishPartitionSizeUpdate(Math.min(txWriter.getMinTimestamp(), o3TimestampMin), o3TimestampMax);
+        lastPartitionTimestamp = partitionTimestamp;
+        openLastPartitionAndSetAppendPosition(o3TimestampMax);
+        return true;
+    }
+
     private void publishTableWriterEvent(int cmdType, long tableId, long correlationId, int errorCode, CharSequence errorMsg, long affectedRowsCount, int eventType) {
         long pubCursor;
         do {
@@ -7816,6 +8358,15 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         throw new CairoError(cause);
     }
 
+    // Pauses the conversion until bytesWritten fits under maxBandwidth bytes per second since startUs.
+    private void throttleConversion(long bytesWritten, long startUs, long maxBandwidth) {
+        final long dueUs = startUs + bytesWritten * Timestamps.SECOND_MICROS / maxBandwidth;
+        final long nowUs = configuration.getMicrosecondClock().getTicks();
+        if (dueUs > nowUs) {
+            Os.sleep((dueUs - nowUs) / Timestamps.MILLI_MICROS);
+        }
+    }
+
     private void truncate(boolean keepSymbolTables) {
         rollback();
 
@@ -8095,6 +8646,13 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void updatePartitionSummaries() {
+        if (zoneMapWriter != null) {
+            zoneMapWriter.update(path, other, pathSize, partitionBy, txWriter, columnVersionWriter, metadata);
+        }
+        bloomFilterWriter.update(path, other, pathSize, partitionBy, txWriter, columnVersionWriter, metadata, 1);
+    }
+
     private void validateSwapMeta(CharSequence columnName) {
         try {
             try {
@@ -8204,6 +8762,20 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         todoMem.sync(false);
     }
 
+    private void writeWalColumnFile(LPSZ file, long address, long size) {
+        final long fd = ff.openRW(file, configuration.getWriterFileOpenOpts());
+        if (fd < 0) {
+            throw CairoException.critical(ff.errno()).put("could not open [file=").put(file).put(']');
+        }
+        try {
+            if (ff.write(fd, address, size, 0) != size || !ff.truncate(fd, size)) {
+                throw CairoException.critical(ff.errno()).put("could not write [file=").put(file).put(", size=").put(size).put(']');
+            }
+        } finally {
+            ff.close(fd);
+        }
+    }
+
     static void indexAndCountDown(ColumnIndexer indexer, long lo, long hi, SOCountDownLatch latch) {
         try {
             indexer.refreshSourceAndIndex(lo, hi);
@@ -36,6 +36,7 @@ public class TableWriterMetadata extends AbstractRecordMetadata implements Table
     private int maxUncommittedRows;
     private long metadataVersion;
     private long o3MaxLag;
+    private long parquetConversionAge;
     private int partitionBy;
     private int symbolMapCount;
     private int tableId;
@@ -72,6 +73,10 @@ public class TableWriterMetadata extends AbstractRecordMetadata implements Table
         return o3MaxLag;
     }
 
+    public long getParquetConversionAge() {
+        return parquetConversionAge;
+    }
+
     @Override
     public int getPartitionBy() {
         return partitionBy;
@@ -133,6 +138,7 @@ public class TableWriterMetadata extends AbstractRecordMetadata implements Table
         this.tableId = metaMem.getInt(TableUtils.META_OFFSET_TABLE_ID);
         this.maxUncommittedRows = metaMem.getInt(TableUtils.META_OFFSET_MAX_UNCOMMITTED_ROWS);
         this.o3MaxLag = metaMem.getLong(TableUtils.META_OFFSET_O3_MAX_LAG);
+        this.parquetConversionAge = metaMem.getLong(TableUtils.META_OFFSET_PARQUET_CONVERSION_AGE);
         TableUtils.validateMeta(metaMem, columnNameIndexMap, ColumnType.VERSION);
         this.timestampIndex = metaMem.getInt(TableUtils.META_OFFSET_TIMESTAMP_INDEX);
         this.columnMetadata.clear();
@@ -148,22 +154,22 @@ public class TableWriterMetadata extends AbstractRecordMetadata implements Table
             assert name != null;
             int type = TableUtils.getColumnType(metaMem, i);
             String nameStr = Chars.toString(name);
-            columnMetadata.add(
-                    new WriterTableColumnMetadata(
-                            nameStr,
-                            type,
-                            TableUtils.isColumnIndexed(metaMem, i),
-                            TableUtils.getIndexBlockCapacity(metaMem, i),
-                            TableUtils.isSymbolCached(metaMem, i),
-                            null,
-                            i,
-                            TableUtils.isSequential(metaMem, i),
-                            TableUtils.getSymbolCapacity(metaMem, i),
-                            TableUtils.isColumnDedupKey(metaMem, i),
-                            TableUtils.getReplacingColumnIndex(metaMem, i),
-                            TableUtils.isSymbolCached(metaMem, i)
-                    )
+            final WriterTableColumnMetadata column = new WriterTableColumnMetadata(
+                    nameStr,
+                    type,
+                    TableUtils.isColumnIndexed(metaMem, i),
+                    TableUtils.getIndexBlockCapacity(metaMem, i),
+                    TableUtils.isSymbolCached(metaMem, i),
+                    null,
+                    i,
+                    TableUtils.isSequential(metaMem, i),
+                    TableUtils.getSymbolCapacity(metaMem, i),
+                    TableUtils.isColumnDedupKey(metaMem, i),
+                    TableUtils.getReplacingColumnIndex(metaMem, i),
+                    TableUtils.isSymbolCached(metaMem, i)
             );
+            column.setBloomFilter(TableUtils.isColumnBloomFilter(metaMem, i));
+            columnMetadata.add(column);
             if (type > -1) {
                 columnNameIndexMap.put(nameStr, i);
                 if (ColumnType.isSymbol(type)) {
@@ -186,6 +192,10 @@ public class TableWriterMetadata extends AbstractRecordMetadata implements Table
         this.o3MaxLag = o3MaxLagUs;
     }
 
+    public void setParquetConversionAge(long parquetConversionAgeUs) {
+        this.parquetConversionAge = parquetConversionAgeUs;
+    }
+
     public void updateTableToken(TableToken tableToken) {
         this.tableToken = tableToken;
     }
@@ -48,6 +48,12 @@ public interface Map extends Mutable, Closeable, Reopenable {
     @TestOnly
     int getKeyCapacity();
 
+    /**
+     * Returns size of the native memory allocated by the map in bytes, including the hash table.
+     * Operators that spill to disk compare it with their memory budget.
+     */
+    long getMemorySize();
+
     MapRecord getRecord();
 
     /**
@@ -276,6 +276,11 @@ public class OrderedMap implements Map, Reopenable {
         return keyCapacity;
     }
 
+    @Override
+    public long getMemorySize() {
+        return heapLimit - heapStart + offsets.getCapacity() * Integer.BYTES;
+    }
+
     @Override
     public MapRecord getRecord() {
         return record;
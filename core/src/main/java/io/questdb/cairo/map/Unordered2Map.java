@@ -164,6 +164,11 @@ public class Unordered2Map implements Map, Reopenable {
         return TABLE_SIZE;
     }
 
+    @Override
+    public long getMemorySize() {
+        return memLimit - memStart;
+    }
+
     @Override
     public MapRecord getRecord() {
         return record;
@@ -217,6 +217,11 @@ public class Unordered4Map implements Map, Reopenable {
         return keyCapacity;
     }
 
+    @Override
+    public long getMemorySize() {
+        return memLimit - memStart;
+    }
+
     @Override
     public MapRecord getRecord() {
         return record;
@@ -218,6 +218,11 @@ public class Unordered8Map implements Map, Reopenable {
         return keyCapacity;
     }
 
+    @Override
+    public long getMemorySize() {
+        return memLimit - memStart;
+    }
+
     @Override
     public MapRecord getRecord() {
         return record;
@@ -225,6 +225,11 @@ public class UnorderedVarcharMap implements Map, Reopenable {
         return keyCapacity;
     }
 
+    @Override
+    public long getMemorySize() {
+        return memLimit - memStart + allocator.allocated();
+    }
+
     @Override
     public MapRecord getRecord() {
         return record;
@@ -28,16 +28,24 @@ import io.questdb.MessageBus;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.TableReader;
 import io.questdb.cairo.TableToken;
+import io.questdb.griffin.engine.table.parquet.ParquetChunkCache;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 
 public class ReaderPool extends AbstractMultiTenantPool<ReaderPool.R> {
 
+    private final ParquetChunkCache chunkCache;
     private final MessageBus messageBus;
     private ReaderListener readerListener;
 
     public ReaderPool(CairoConfiguration configuration, MessageBus messageBus) {
+        this(configuration, messageBus, null);
+    }
+
+    public ReaderPool(CairoConfiguration configuration, MessageBus messageBus, @Nullable ParquetChunkCache chunkCache) {
         super(configuration, configuration.getReaderPoolMaxSegments(), configuration.getInactiveReaderTTL());
         this.messageBus = messageBus;
+        this.chunkCache = chunkCache;
     }
 
     @TestOnly
@@ -52,7 +60,7 @@ public class ReaderPool extends AbstractMultiTenantPool<ReaderPool.R> {
 
     @Override
     protected R newTenant(TableToken tableToken, Entry<R> entry, int index) {
-        return new R(this, entry, index, tableToken, messageBus, readerListener);
+        return new R(this, entry, index, tableToken, messageBus, chunkCache, readerListener);
     }
 
     @TestOnly
@@ -73,9 +81,10 @@ public class ReaderPool extends AbstractMultiTenantPool<ReaderPool.R> {
                 int index,
                 TableToken tableToken,
                 MessageBus messageBus,
+                ParquetChunkCache chunkCache,
                 ReaderListener readerListener
         ) {
-            super(pool.getConfiguration(), tableToken, messageBus);
+            super(pool.getConfiguration(), tableToken, messageBus, chunkCache);
             this.pool = pool;
             this.entry = entry;
             this.index = index;
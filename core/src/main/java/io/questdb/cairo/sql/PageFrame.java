@@ -25,6 +25,8 @@
 package io.questdb.cairo.sql;
 
 import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.cairo.PartitionFormat;
+import io.questdb.griffin.engine.table.parquet.PartitionDecoder;
 
 /**
  * Represents a contiguous fragment of a table partition.
@@ -38,11 +40,11 @@ public interface PageFrame {
     /**
      * Page frame belonging to a partition in native QDB format.
      */
-    byte NATIVE_FORMAT = 0;
+    byte NATIVE_FORMAT = PartitionFormat.NATIVE;
     /**
      * Page frame belonging to a partition in Apache Parquet format.
      */
-    byte PARQUET_FORMAT = 1;
+    byte PARQUET_FORMAT = PartitionFormat.PARQUET;
 
     /**
      * Auxiliary index page for variable-length column types, such as Varchar, String, and Binary.
@@ -103,6 +105,47 @@ public interface PageFrame {
      */
     long getPageSize(int columnIndex);
 
+    /**
+     * Return index of the column in the Parquet file or -1 if the file has no such column,
+     * e.g. when the column was added after the partition was converted.
+     * <p>
+     * Can be called only for frames in Parquet format.
+     *
+     * @param columnIndex index of column
+     * @return column index within the Parquet file
+     */
+    int getParquetColumnIndex(int columnIndex);
+
+    /**
+     * Return decoder of the Parquet partition the frame belongs to. The decoder belongs
+     * to the table reader, so it should be used only to get the file path and metadata.
+     * <p>
+     * Can be called only for frames in Parquet format.
+     */
+    PartitionDecoder getParquetDecoder();
+
+    /**
+     * Return index of the row group the frame belongs to. Parquet page frames
+     * never span multiple row groups.
+     * <p>
+     * Can be called only for frames in Parquet format.
+     */
+    int getParquetRowGroup();
+
+    /**
+     * Return high row index within the frame's row group, exclusive.
+     * <p>
+     * Can be called only for frames in Parquet format.
+     */
+    int getParquetRowGroupHi();
+
+    /**
+     * Return low row index within the frame's row group, inclusive.
+     * <p>
+     * Can be called only for frames in Parquet format.
+     */
+    int getParquetRowGroupLo();
+
     /**
      * Return high row index within the frame's partition, exclusive.
      */
@@ -26,10 +26,13 @@ package io.questdb.cairo.sql;
 
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnType;
+import io.questdb.griffin.engine.table.parquet.PartitionDecoder;
 import io.questdb.std.*;
 
 /**
  * Holds formats, addresses and sizes for native (mmapped) page frames.
+ * For Parquet page frames, holds partition decoders, row group coordinates
+ * and column mapping required to decode the frame.
  * <p>
  * Once initialized, this cache is thread-safe.
  * <p>
@@ -41,10 +44,17 @@ public class PageFrameAddressCache implements Mutable {
     private final IntList columnTypes = new IntList();
     private final ByteList frameFormats = new ByteList();
     private final LongList frameSizes = new LongList();
+    private final ObjectPool<IntList> intListPool = new ObjectPool<>(IntList::new, 16);
     private final ObjectPool<LongList> longListPool = new ObjectPool<>(LongList::new, 64);
     private final long nativeCacheSizeThreshold;
     private final ObjList<LongList> pageAddresses = new ObjList<>();
     private final ObjList<LongList> pageSizes = new ObjList<>();
+    // Parquet file column indexes for projected columns, per frame; null for native frames.
+    private final ObjList<IntList> parquetColumnIndexes = new ObjList<>();
+    // Table reader owned decoders, per frame; null for native frames.
+    private final ObjList<PartitionDecoder> parquetDecoders = new ObjList<>();
+    private final IntList parquetRowGroupLos = new IntList();
+    private final IntList parquetRowGroups = new IntList();
     // Makes it possible to determine real row id, not the one relative to the page.
     private final LongList rowIdOffsets = new LongList();
     // Sum of all LongList sizes.
@@ -84,11 +94,23 @@ public class PageFrameAddressCache implements Mutable {
             cacheSize += frameAuxPageAddresses.capacity();
             auxPageSizes.add(frameAuxPageSizes);
             cacheSize += frameAuxPageSizes.capacity();
+            parquetColumnIndexes.add(null);
+            parquetDecoders.add(null);
+            parquetRowGroups.add(-1);
+            parquetRowGroupLos.add(-1);
         } else {
             pageAddresses.add(null);
             pageSizes.add(null);
             auxPageAddresses.add(null);
             auxPageSizes.add(null);
+            final IntList frameParquetColumnIndexes = intListPool.next();
+            for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+                frameParquetColumnIndexes.add(frame.getParquetColumnIndex(columnIndex));
+            }
+            parquetColumnIndexes.add(frameParquetColumnIndexes);
+            parquetDecoders.add(frame.getParquetDecoder());
+            parquetRowGroups.add(frame.getParquetRowGroup());
+            parquetRowGroupLos.add(frame.getParquetRowGroupLo());
         }
 
         frameSizes.add(frame.getPartitionHi() - frame.getPartitionLo());
@@ -105,6 +127,11 @@ public class PageFrameAddressCache implements Mutable {
         pageSizes.clear();
         auxPageSizes.clear();
         rowIdOffsets.clear();
+        parquetColumnIndexes.clear();
+        parquetDecoders.clear();
+        parquetRowGroups.clear();
+        parquetRowGroupLos.clear();
+        intListPool.clear();
         if (cacheSize < nativeCacheSizeThreshold) {
             longListPool.clear();
         } else {
@@ -145,22 +172,33 @@ public class PageFrameAddressCache implements Mutable {
         return pageSizes.getQuick(frameIndex);
     }
 
-    public long getRowIdOffset(int frameIndex) {
-        return rowIdOffsets.getQuick(frameIndex);
+    /**
+     * Returns Parquet file column indexes of the frame's columns. Can be called only
+     * for frames in Parquet format.
+     */
+    public IntList getParquetColumnIndexes(int frameIndex) {
+        return parquetColumnIndexes.getQuick(frameIndex);
     }
 
-    public boolean hasColumnTops(int frameIndex) {
-        final byte frameFormat = frameFormats.getQuick(frameIndex);
-        assert frameFormat == PageFrame.NATIVE_FORMAT;
-        for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
-            if (pageAddresses.getQuick(frameIndex).getQuick(columnIndex) == 0
-                    // VARCHAR column that contains short strings will have zero data vector,
-                    // so for such columns we also need to check that the aux (index) vector is zero.
-                    && auxPageAddresses.getQuick(frameIndex).getQuick(columnIndex) == 0) {
-                return true;
-            }
-        }
-        return false;
+    /**
+     * Returns the table reader owned decoder of the frame's partition. The decoder must not
+     * be used to decode column chunks as the cache may be used concurrently. Can be called
+     * only for frames in Parquet format.
+     */
+    public PartitionDecoder getParquetDecoder(int frameIndex) {
+        return parquetDecoders.getQuick(frameIndex);
+    }
+
+    public int getParquetRowGroup(int frameIndex) {
+        return parquetRowGroups.getQuick(frameIndex);
+    }
+
+    public int getParquetRowGroupLo(int frameIndex) {
+        return parquetRowGroupLos.getQuick(frameIndex);
+    }
+
+    public long getRowIdOffset(int frameIndex) {
+        return rowIdOffsets.getQuick(frameIndex);
     }
 
     public boolean isVarSizeColumn(int columnIndex) {
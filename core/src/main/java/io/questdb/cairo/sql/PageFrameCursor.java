@@ -35,6 +35,17 @@ public interface PageFrameCursor extends QuietCloseable, SymbolTableSource {
     @Override
     StaticSymbolTable getSymbolTable(int columnIndex);
 
+    /**
+     * Return index of the table reader column the given page frame column is read from
+     * or -1 if the column is not backed by a table reader column.
+     *
+     * @param columnIndex index of page frame column
+     * @return table reader column index or -1
+     */
+    default int getReaderColumnIndex(int columnIndex) {
+        return -1;
+    }
+
     // same TableReader is available on each page frame
     TableReader getTableReader();
 
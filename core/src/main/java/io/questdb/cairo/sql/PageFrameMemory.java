@@ -54,4 +54,10 @@ public interface PageFrameMemory {
     LongList getPageSizes();
 
     long getRowIdOffset();
+
+    /**
+     * Returns true if any of the frame's columns is a column top, i.e. has no data
+     * in the frame. Such columns have zero page addresses.
+     */
+    boolean hasColumnTops();
 }
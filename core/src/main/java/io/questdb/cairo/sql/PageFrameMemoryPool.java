@@ -21,12 +21,21 @@
  *  limitations under the License.
  *
  ******************************************************************************/
-
 package io.questdb.cairo.sql;
 
-import io.questdb.std.LongList;
-import io.questdb.std.Mutable;
-import io.questdb.std.QuietCloseable;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypeDriver;
+import io.questdb.cairo.VarcharTypeDriver;
+import io.questdb.griffin.engine.table.parquet.ParquetChunkCache;
+import io.questdb.griffin.engine.table.parquet.PartitionDecoder;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8SplitString;
+import io.questdb.std.str.Utf8s;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Provides addresses for page frames in both native and Parquet formats.
@@ -36,18 +45,41 @@ import io.questdb.std.QuietCloseable;
  * Thus, a {@link #navigateTo(int)} call is required before accessing memory
  * that belongs to a page frame.
  * <p>
+ * Only the projected columns of the frame's row group are decoded. Decoded
+ * data is kept in per-consumer buffers, i.e. the {@link PageFrameMemory} flyweight
+ * and each of the records navigated via {@link #navigateTo(int, PageFrameMemoryRecord)}
+ * get their own buffers, so that navigating one of them doesn't invalidate the others.
+ * Symbol columns are decoded into keys using the symbol tables provided
+ * by the {@link SymbolTableSource}.
+ * <p>
+ * Decoded column chunks are looked up in and added to the engine-wide {@link ParquetChunkCache},
+ * if the partition decoder provides one. Chunks are pinned in the cache for as long as
+ * the owning buffers point to them.
+ * <p>
  * This pool is thread-unsafe as it may hold navigated Parquet partition data,
  * so it shouldn't be shared between multiple threads.
  */
-// TODO: add LRU cache for multiple frames
 public class PageFrameMemoryPool implements QuietCloseable {
     private final PageFrameMemoryImpl frameMemory = new PageFrameMemoryImpl();
+    // Buffers holding decoded Parquet frames, one per owner (frame memory flyweight or record).
+    private final ObjList<ParquetBuffers> parquetBuffers = new ObjList<>();
+    // Symbol value to key caches used to decode symbol columns, one per column.
+    private final ObjList<Utf8SequenceIntHashMap> symbolKeyCaches = new ObjList<>();
+    private final ObjList<SymbolTable> symbolTables = new ObjList<>();
+    private final StringSink symbolValueSink = new StringSink();
+    private final Utf8SplitString symbolValueView = new Utf8SplitString();
     private PageFrameAddressCache addressCache;
+    private SymbolTableSource symbolTableSource;
 
     @Override
     public void close() {
         frameMemory.clear();
+        Misc.freeObjListAndClear(parquetBuffers);
+        Misc.freeObjListIfCloseable(symbolTables);
+        symbolTables.clear();
+        symbolKeyCaches.clear();
         addressCache = null;
+        symbolTableSource = null;
     }
 
     /**
@@ -56,12 +88,30 @@ public class PageFrameMemoryPool implements QuietCloseable {
      * any row within the frame.
      */
     public void navigateTo(int frameIndex, PageFrameMemoryRecord record) {
-        if (record.getFrameIndex() == frameIndex) {
+        final byte frameFormat = addressCache.getFrameFormat(frameIndex);
+        if (frameFormat == PageFrame.PARQUET_FORMAT) {
+            // The record may point to buffers of another consumer that have been
+            // overwritten since, so we have to check the buffers before trusting the index.
+            if (record.getFrameIndex() == frameIndex && hasParquetFrame(frameIndex, record.getPageAddresses())) {
+                return;
+            }
+
+            final ParquetBuffers buffers = decodeParquetFrame(frameIndex, record);
+            record.init(
+                    frameIndex,
+                    frameFormat,
+                    addressCache.getRowIdOffset(frameIndex),
+                    buffers.pageAddresses,
+                    buffers.auxPageAddresses,
+                    buffers.pageSizes,
+                    buffers.auxPageSizes
+            );
             return;
         }
 
-        final byte frameFormat = addressCache.getFrameFormat(frameIndex);
-        assert frameFormat != PageFrame.PARQUET_FORMAT;
+        if (record.getFrameIndex() == frameIndex) {
+            return;
+        }
 
         record.init(
                 frameIndex,
@@ -88,22 +138,285 @@ public class PageFrameMemoryPool implements QuietCloseable {
             return frameMemory;
         }
 
-        frameMemory.frameIndex = frameIndex;
         frameMemory.frameFormat = addressCache.getFrameFormat(frameIndex);
-        assert frameMemory.frameFormat != PageFrame.PARQUET_FORMAT;
-
-        frameMemory.pageAddresses = addressCache.getPageAddresses(frameIndex);
-        frameMemory.auxPageAddresses = addressCache.getAuxPageAddresses(frameIndex);
-        frameMemory.pageSizes = addressCache.getPageSizes(frameIndex);
-        frameMemory.auxPageSizes = addressCache.getAuxPageSizes(frameIndex);
+        if (frameMemory.frameFormat == PageFrame.PARQUET_FORMAT) {
+            final ParquetBuffers buffers = decodeParquetFrame(frameIndex, frameMemory);
+            frameMemory.pageAddresses = buffers.pageAddresses;
+            frameMemory.auxPageAddresses = buffers.auxPageAddresses;
+            frameMemory.pageSizes = buffers.pageSizes;
+            frameMemory.auxPageSizes = buffers.auxPageSizes;
+        } else {
+            frameMemory.pageAddresses = addressCache.getPageAddresses(frameIndex);
+            frameMemory.auxPageAddresses = addressCache.getAuxPageAddresses(frameIndex);
+            frameMemory.pageSizes = addressCache.getPageSizes(frameIndex);
+            frameMemory.auxPageSizes = addressCache.getAuxPageSizes(frameIndex);
+        }
         frameMemory.frameIndex = frameIndex;
 
         return frameMemory;
     }
 
-    public void of(PageFrameAddressCache addressCache) {
+    /**
+     * Initializes the pool.
+     *
+     * @param addressCache      address cache of the page frames to navigate
+     * @param symbolTableSource source of symbol tables used to decode symbol columns of Parquet
+     *                          frames; may be null if the frames are known to have no such columns
+     */
+    public void of(PageFrameAddressCache addressCache, @Nullable SymbolTableSource symbolTableSource) {
         this.addressCache = addressCache;
+        if (this.symbolTableSource != symbolTableSource) {
+            Misc.freeObjListIfCloseable(symbolTables);
+            symbolTables.clear();
+            symbolKeyCaches.clear();
+            this.symbolTableSource = symbolTableSource;
+        }
         frameMemory.clear();
+        for (int i = 0, n = parquetBuffers.size(); i < n; i++) {
+            parquetBuffers.getQuick(i).releaseChunks();
+        }
+    }
+
+    private ParquetBuffers decodeParquetFrame(int frameIndex, Object owner) {
+        ParquetBuffers buffers = null;
+        for (int i = 0, n = parquetBuffers.size(); i < n; i++) {
+            final ParquetBuffers candidate = parquetBuffers.getQuick(i);
+            if (candidate.owner == owner) {
+                buffers = candidate;
+                break;
+            }
+        }
+        if (buffers == null) {
+            buffers = new ParquetBuffers(owner);
+            parquetBuffers.add(buffers);
+        }
+        if (buffers.frameIndex == frameIndex) {
+            return buffers;
+        }
+
+        final PartitionDecoder readerDecoder = addressCache.getParquetDecoder(frameIndex);
+        final ParquetChunkCache chunkCache = readerDecoder.getChunkCache();
+        final IntList parquetColumnIndexes = addressCache.getParquetColumnIndexes(frameIndex);
+        final IntList columnTypes = addressCache.getColumnTypes();
+        final int columnCount = addressCache.getColumnCount();
+        final int rowGroup = addressCache.getParquetRowGroup(frameIndex);
+        final long rowLo = addressCache.getParquetRowGroupLo(frameIndex);
+        final long rowCount = addressCache.getFrameSize(frameIndex);
+
+        buffers.releaseChunks();
+        buffers.pageAddresses.setAll(columnCount, 0);
+        buffers.pageSizes.setAll(columnCount, 0);
+        buffers.auxPageAddresses.setAll(columnCount, 0);
+        buffers.auxPageSizes.setAll(columnCount, 0);
+        PartitionDecoder decoder = null;
+        for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+            final int columnType = columnTypes.getQuick(columnIndex);
+            final int parquetColumnIndex = parquetColumnIndexes.getQuick(columnIndex);
+            if (parquetColumnIndex == -1) {
+                // The column is missing in the file, so it's a column top. Same as for native
+                // frames, data page size is used as the size hint.
+                final int sh = ColumnType.isVarSize(columnType) ? 0 : ColumnType.pow2SizeOf(columnType);
+                buffers.pageSizes.setQuick(columnIndex, rowCount << sh);
+                continue;
+            }
+
+            final long dataPtr;
+            final long dataSize;
+            final long auxPtr;
+            final long auxSize;
+            ParquetChunkCache.Chunk chunk = chunkCache != null
+                    ? chunkCache.acquire(readerDecoder, rowGroup, parquetColumnIndex, columnType)
+                    : null;
+            long chunkPtr = 0;
+            if (chunk == null) {
+                if (decoder == null) {
+                    decoder = buffers.openDecoder(readerDecoder);
+                }
+                chunkPtr = decoder.decodeColumnChunk(rowGroup, parquetColumnIndex, columnType);
+                // The file may have been updated since the reader opened it, in which case
+                // decoded data doesn't belong to the reader's version of the file.
+                if (chunkCache != null && decoder.getFileSize() == readerDecoder.getFileSize()) {
+                    chunk = chunkCache.put(readerDecoder, rowGroup, parquetColumnIndex, columnType, chunkPtr);
+                }
+            }
+            if (chunk != null) {
+                buffers.pinChunk(chunkCache, chunk);
+                dataPtr = chunk.getDataPtr();
+                dataSize = chunk.getDataSize();
+                auxPtr = chunk.getAuxPtr();
+                auxSize = chunk.getAuxSize();
+            } else {
+                dataPtr = PartitionDecoder.getChunkDataPtr(chunkPtr);
+                dataSize = PartitionDecoder.getChunkDataSize(chunkPtr);
+                auxPtr = PartitionDecoder.getChunkAuxPtr(chunkPtr);
+                auxSize = PartitionDecoder.getChunkAuxSize(chunkPtr);
+            }
+
+            if (ColumnType.isSymbol(columnType)) {
+                // Symbols are stored as strings in Parquet, so we map them back to the table's keys.
+                final DirectIntList keys = buffers.symbolKeys(columnIndex, rowCount);
+                decodeSymbolKeys(columnIndex, auxPtr, auxSize, dataPtr, dataSize, rowLo, rowCount, keys);
+                buffers.pageAddresses.setQuick(columnIndex, keys.getAddress());
+                buffers.pageSizes.setQuick(columnIndex, rowCount << 2);
+            } else if (ColumnType.isVarSize(columnType)) {
+                // Data vector offsets are stored in the aux vector, so we shift only the aux vector.
+                final ColumnTypeDriver columnTypeDriver = ColumnType.getDriver(columnType);
+                final long auxOffsetLo = columnTypeDriver.getAuxVectorOffset(rowLo);
+                final long auxOffsetHi = columnTypeDriver.getAuxVectorOffset(rowLo + rowCount);
+                buffers.pageAddresses.setQuick(columnIndex, dataPtr);
+                buffers.pageSizes.setQuick(columnIndex, dataSize);
+                buffers.auxPageAddresses.setQuick(columnIndex, auxPtr + auxOffsetLo);
+                buffers.auxPageSizes.setQuick(columnIndex, auxOffsetHi - auxOffsetLo);
+            } else {
+                final int sh = ColumnType.pow2SizeOf(columnType);
+                buffers.pageAddresses.setQuick(columnIndex, dataPtr + (rowLo << sh));
+                buffers.pageSizes.setQuick(columnIndex, rowCount << sh);
+            }
+        }
+        buffers.frameIndex = frameIndex;
+        return buffers;
+    }
+
+    private void decodeSymbolKeys(
+            int columnIndex,
+            long auxPtr,
+            long auxSize,
+            long dataPtr,
+            long dataSize,
+            long rowLo,
+            long rowCount,
+            DirectIntList keys
+    ) {
+        final SymbolLookup symbolLookup = getSymbolLookup(columnIndex);
+        Utf8SequenceIntHashMap keyCache = symbolKeyCaches.getQuiet(columnIndex);
+        if (keyCache == null) {
+            keyCache = new Utf8SequenceIntHashMap();
+            symbolKeyCaches.extendAndSet(columnIndex, keyCache);
+        }
+
+        final long auxLim = auxPtr + auxSize;
+        final long dataLim = dataPtr + dataSize;
+        for (long r = 0; r < rowCount; r++) {
+            final Utf8Sequence value = VarcharTypeDriver.getSplitValue(auxPtr, auxLim, dataPtr, dataLim, rowLo + r, symbolValueView);
+            int key;
+            if (value == null) {
+                key = SymbolTable.VALUE_IS_NULL;
+            } else {
+                final int index = keyCache.keyIndex(value);
+                if (index < 0) {
+                    key = keyCache.valueAt(index);
+                } else {
+                    symbolValueSink.clear();
+                    Utf8s.utf8ToUtf16(value, symbolValueSink);
+                    key = symbolLookup.keyOf(symbolValueSink);
+                    if (key == SymbolTable.VALUE_NOT_FOUND) {
+                        throw CairoException.critical(0)
+                                .put("symbol value from parquet partition is missing in symbol table [columnIndex=").put(columnIndex)
+                                .put(", value=").put(symbolValueSink)
+                                .put(']');
+                    }
+                    keyCache.putAt(index, value, key);
+                }
+            }
+            keys.set(r, key);
+        }
+    }
+
+    private SymbolLookup getSymbolLookup(int columnIndex) {
+        SymbolTable symbolTable = symbolTables.getQuiet(columnIndex);
+        if (symbolTable == null) {
+            if (symbolTableSource == null) {
+                throw CairoException.critical(0).put("cannot decode symbol column in parquet frame, no symbol table source [columnIndex=")
+                        .put(columnIndex)
+                        .put(']');
+            }
+            symbolTable = symbolTableSource.newSymbolTable(columnIndex);
+            symbolTables.extendAndSet(columnIndex, symbolTable);
+        }
+        if (!(symbolTable instanceof SymbolLookup)) {
+            throw CairoException.critical(0).put("cannot decode symbol column in parquet frame, symbol table does not support lookups [columnIndex=")
+                    .put(columnIndex)
+                    .put(']');
+        }
+        return (SymbolLookup) symbolTable;
+    }
+
+    private boolean hasParquetFrame(int frameIndex, LongList pageAddresses) {
+        for (int i = 0, n = parquetBuffers.size(); i < n; i++) {
+            final ParquetBuffers buffers = parquetBuffers.getQuick(i);
+            if (buffers.pageAddresses == pageAddresses) {
+                return buffers.frameIndex == frameIndex;
+            }
+        }
+        return false;
+    }
+
+    private static class ParquetBuffers implements QuietCloseable {
+        private final LongList auxPageAddresses = new LongList();
+        private final LongList auxPageSizes = new LongList();
+        // Cached chunks the buffers point to, pinned until the buffers move to another frame.
+        private final ObjList<ParquetChunkCache.Chunk> chunks = new ObjList<>();
+        private final Object owner;
+        private final LongList pageAddresses = new LongList();
+        private final LongList pageSizes = new LongList();
+        private final ObjList<DirectIntList> symbolKeys = new ObjList<>();
+        private ParquetChunkCache chunkCache;
+        private PartitionDecoder decoder;
+        private int frameIndex = -1;
+
+        private ParquetBuffers(Object owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        public void close() {
+            releaseChunks();
+            decoder = Misc.free(decoder);
+            Misc.freeObjListAndClear(symbolKeys);
+        }
+
+        private PartitionDecoder openDecoder(PartitionDecoder readerDecoder) {
+            if (decoder == null) {
+                decoder = new PartitionDecoder(readerDecoder.getFilesFacade());
+            }
+            // The reader's decoder can't be used for decoding as it may be shared with
+            // other threads, so we open the same file with our own decoder. The file
+            // may be updated in place, hence the metadata check.
+            if (!decoder.isOpen()
+                    || !Utf8s.equals(decoder.getPath(), readerDecoder.getPath())
+                    || decoder.getFileSize() != readerDecoder.getFileSize()
+                    || decoder.getMetadata().rowCount() != readerDecoder.getMetadata().rowCount()
+                    || decoder.getMetadata().rowGroupCount() != readerDecoder.getMetadata().rowGroupCount()) {
+                frameIndex = -1;
+                decoder.of(Path.getThreadLocal(readerDecoder.getPath()).$());
+            }
+            return decoder;
+        }
+
+        private void pinChunk(ParquetChunkCache chunkCache, ParquetChunkCache.Chunk chunk) {
+            this.chunkCache = chunkCache;
+            chunks.add(chunk);
+        }
+
+        private void releaseChunks() {
+            frameIndex = -1;
+            for (int i = 0, n = chunks.size(); i < n; i++) {
+                chunkCache.release(chunks.getQuick(i));
+            }
+            chunks.clear();
+        }
+
+        private DirectIntList symbolKeys(int columnIndex, long rowCount) {
+            DirectIntList keys = symbolKeys.getQuiet(columnIndex);
+            if (keys == null) {
+                keys = new DirectIntList(Math.max(rowCount, 16), MemoryTag.NATIVE_PARQUET_PARTITION_DECODER);
+                symbolKeys.extendAndSet(columnIndex, keys);
+            } else if (keys.getCapacity() < rowCount) {
+                keys.setCapacity(rowCount);
+            }
+            keys.setPos(rowCount);
+            return keys;
+        }
     }
 
     private class PageFrameMemoryImpl implements PageFrameMemory, Mutable {
@@ -178,5 +491,18 @@ public class PageFrameMemoryPool implements QuietCloseable {
         public long getRowIdOffset() {
             return addressCache.getRowIdOffset(frameIndex);
         }
+
+        @Override
+        public boolean hasColumnTops() {
+            for (int columnIndex = 0, n = getColumnCount(); columnIndex < n; columnIndex++) {
+                if (pageAddresses.getQuick(columnIndex) == 0
+                        // VARCHAR column that contains short strings will have zero data vector,
+                        // so for such columns we also need to check that the aux (index) vector is zero.
+                        && auxPageAddresses.getQuick(columnIndex) == 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
     }
 }
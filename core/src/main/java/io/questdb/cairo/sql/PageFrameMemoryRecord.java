@@ -525,6 +525,10 @@ public class PageFrameMemoryRecord implements Record, StableStringSource, Closea
         return utf8ViewsB.getQuick(columnIndex);
     }
 
+    LongList getPageAddresses() {
+        return pageAddresses;
+    }
+
     void init(
             int frameIndex,
             byte frameFormat,
@@ -31,6 +31,7 @@ import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.Plannable;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.parquet.ParquetRowGroupFilter;
 import io.questdb.jit.CompiledFilter;
 import io.questdb.mp.SCSequence;
 import io.questdb.std.ObjList;
@@ -214,6 +215,18 @@ public interface RecordCursorFactory extends Closeable, Sinkable, Plannable {
     default void revertFromSampleByIndexPageFrameCursorFactory() {
     }
 
+    /**
+     * Sets Parquet row group filter extracted from the filter applied on top of this factory.
+     * The factory takes ownership of the row group filter. Must be called before any cursor
+     * is obtained from the factory.
+     *
+     * @param rowGroupFilter row group filter
+     * @see #supportsParquetRowGroupFilter()
+     */
+    default void setParquetRowGroupFilter(ParquetRowGroupFilter rowGroupFilter) {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * Returns true if the factory stands for nothing more but a filter, so that
      * the above factory (e.g. a parallel GROUP BY one) can steal the filter.
@@ -226,6 +239,16 @@ public interface RecordCursorFactory extends Closeable, Sinkable, Plannable {
         return false;
     }
 
+    /**
+     * Returns true if the factory is able to skip Parquet row groups that can't match
+     * the filter applied on top of it.
+     *
+     * @return true if {@link #setParquetRowGroupFilter(ParquetRowGroupFilter)} can be safely called
+     */
+    default boolean supportsParquetRowGroupFilter() {
+        return false;
+    }
+
     /**
      * Time frames are supported only for full table scan cursors, i.e. "x" queries.
      *
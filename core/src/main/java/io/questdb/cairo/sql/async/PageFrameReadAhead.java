@@ -0,0 +1,248 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql.async;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.vm.api.MemoryCR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+
+/**
+ * Best-effort read-ahead of column files scanned by a page frame sequence. File ranges
+ * of native page frames are recorded while the sequence builds its address cache. As the
+ * reduce workers move through the frames, the ranges of the next few frames are read via
+ * io_uring into a scratch buffer, so that by the time a worker touches the mapped pages
+ * they are in the OS page cache and don't stall the scan on major page faults.
+ * <p>
+ * Read data is discarded, and reads are never waited for, except when the read-ahead is
+ * cleared. This class is not thread-safe.
+ */
+public class PageFrameReadAhead implements QuietCloseable, Mutable {
+    private static final Log LOG = LogFactory.getLog(PageFrameReadAhead.class);
+    private static final int READ_SIZE = 256 * 1024;
+    private static final int RING_CAPACITY = 64;
+    // fd -> index of the file's covered range in the coveredRanges list
+    private final LongIntHashMap coveredRangeIndexes = new LongIntHashMap();
+    // lo, hi pairs of the file ranges recorded so far
+    private final LongList coveredRanges = new LongList();
+    // frame index -> index of the frame's first range in the ranges list
+    private final IntList frameRangeIndexes = new IntList();
+    private final int framesAhead;
+    // fd, offset, length triplets
+    private final LongList ranges = new LongList();
+    private final IOURingFacade rf;
+    private long bufPtr;
+    private boolean enabled;
+    private int inFlight;
+    private int rangeIndex;
+    // part of the current range that is already read
+    private long rangeOffset;
+    private IOURing ring;
+
+    public PageFrameReadAhead(CairoConfiguration configuration) {
+        this.rf = configuration.getIOURingFacade();
+        this.framesAhead = configuration.getSqlPageFrameReadAheadFrames();
+        this.enabled = configuration.isSqlPageFrameReadAheadEnabled()
+                && configuration.isIOURingEnabled()
+                && framesAhead > 0
+                && rf.isAvailable();
+    }
+
+    /**
+     * Records file ranges of the given page frame. Must be called for all frames of
+     * the sequence in their order.
+     *
+     * @param frameCursor cursor the frame belongs to
+     * @param frame       page frame
+     */
+    public void add(PageFrameCursor frameCursor, PageFrame frame) {
+        if (!enabled) {
+            return;
+        }
+        frameRangeIndexes.add(ranges.size());
+        if (frame.getFormat() != PageFrame.NATIVE_FORMAT) {
+            return;
+        }
+        final TableReader reader = frameCursor.getTableReader();
+        final int base = reader.getColumnBase(frame.getPartitionIndex());
+        for (int i = 0, n = frame.getColumnCount(); i < n; i++) {
+            final int columnIndex = frameCursor.getReaderColumnIndex(i);
+            if (columnIndex < 0) {
+                continue;
+            }
+            final int primaryIndex = TableReader.getPrimaryColumnIndex(base, columnIndex);
+            addRange(reader.getColumn(primaryIndex), frame.getPageAddress(i), frame.getPageSize(i));
+            addRange(reader.getColumn(primaryIndex + 1), frame.getAuxPageAddress(i), frame.getAuxPageSize(i));
+        }
+    }
+
+    /**
+     * Reaps completed reads and issues reads for the frames that follow the given one.
+     *
+     * @param frameIndex index of the first frame that is not yet processed
+     */
+    public void advance(int frameIndex) {
+        if (!enabled || rangeIndex == ranges.size()) {
+            return;
+        }
+        if (ring == null) {
+            try {
+                ring = rf.newInstance(RING_CAPACITY);
+            } catch (CairoException e) {
+                LOG.error().$("could not create io_uring, disabling read-ahead [errno=").$(e.getErrno())
+                        .$(", msg=").$(e.getFlyweightMessage())
+                        .I$();
+                enabled = false;
+                return;
+            }
+            bufPtr = Unsafe.malloc(READ_SIZE, MemoryTag.NATIVE_DEFAULT);
+        }
+
+        while (ring.nextCqe()) {
+            // read errors are not of interest, the scan will hit them anyway
+            inFlight--;
+        }
+
+        final int frameCount = frameRangeIndexes.size();
+        if (frameIndex < frameCount && rangeIndex < frameRangeIndexes.getQuick(frameIndex)) {
+            // the workers got ahead of us, so skip the frames that are already processed
+            rangeIndex = frameRangeIndexes.getQuick(frameIndex);
+            rangeOffset = 0;
+        }
+        final int frameHi = frameIndex + framesAhead;
+        final int rangeHi = frameHi < frameCount ? frameRangeIndexes.getQuick(frameHi) : ranges.size();
+        boolean enqueued = false;
+        while (rangeIndex < rangeHi && inFlight < RING_CAPACITY) {
+            final long fd = ranges.getQuick(rangeIndex);
+            final long offset = ranges.getQuick(rangeIndex + 1);
+            final long length = ranges.getQuick(rangeIndex + 2);
+            final int len = (int) Math.min(length - rangeOffset, READ_SIZE);
+            if (ring.enqueueRead(fd, offset + rangeOffset, bufPtr, len) < 0) {
+                break;
+            }
+            inFlight++;
+            enqueued = true;
+            rangeOffset += len;
+            if (rangeOffset == length) {
+                rangeIndex += 3;
+                rangeOffset = 0;
+            }
+        }
+        if (enqueued) {
+            ring.submit();
+        }
+    }
+
+    /**
+     * Waits for the in-flight reads and forgets recorded ranges. Must be called before
+     * the column files of the recorded frames get closed.
+     */
+    @Override
+    public void clear() {
+        if (ring != null) {
+            while (inFlight > 0) {
+                if (ring.nextCqe()) {
+                    inFlight--;
+                } else {
+                    ring.submitAndWait();
+                }
+            }
+        }
+        coveredRangeIndexes.clear();
+        coveredRanges.clear();
+        frameRangeIndexes.clear();
+        ranges.clear();
+        toTop();
+    }
+
+    @Override
+    public void close() {
+        clear();
+        ring = Misc.free(ring);
+        bufPtr = Unsafe.free(bufPtr, READ_SIZE, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Prepares the read-ahead for scanning the recorded frames again.
+     */
+    public void toTop() {
+        rangeIndex = 0;
+        rangeOffset = 0;
+    }
+
+    private void addRange(MemoryCR mem, long address, long size) {
+        if (address == 0 || size <= 0) {
+            return;
+        }
+        final long fd = mem.getFd();
+        if (fd == -1) {
+            return;
+        }
+        final long lo = address - mem.getPageAddress(0);
+        final long hi = lo + size;
+        final int index = coveredRangeIndexes.keyIndex(fd);
+        if (index > -1) {
+            coveredRangeIndexes.putAt(index, fd, coveredRanges.size());
+            coveredRanges.add(lo, hi);
+            addReadRange(fd, lo, hi);
+            return;
+        }
+
+        // Var-size data vectors of consecutive frames overlap, so read only the part
+        // that wasn't recorded yet.
+        final int coveredIndex = coveredRangeIndexes.valueAt(index);
+        final long coveredLo = coveredRanges.getQuick(coveredIndex);
+        final long coveredHi = coveredRanges.getQuick(coveredIndex + 1);
+        if (lo < coveredHi && hi > coveredLo) {
+            if (lo < coveredLo) {
+                addReadRange(fd, lo, coveredLo);
+            }
+            if (hi > coveredHi) {
+                addReadRange(fd, coveredHi, hi);
+            }
+            coveredRanges.setQuick(coveredIndex, Math.min(lo, coveredLo));
+            coveredRanges.setQuick(coveredIndex + 1, Math.max(hi, coveredHi));
+        } else {
+            addReadRange(fd, lo, hi);
+            coveredRanges.setQuick(coveredIndex, lo);
+            coveredRanges.setQuick(coveredIndex + 1, hi);
+        }
+    }
+
+    private void addReadRange(long fd, long lo, long hi) {
+        ranges.add(fd);
+        ranges.add(lo);
+        ranges.add(hi - lo);
+    }
+}
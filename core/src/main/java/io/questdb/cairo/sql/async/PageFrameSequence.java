@@ -56,6 +56,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
     private final LongList frameRowCounts = new LongList();
     private final PageFrameReduceTaskFactory localTaskFactory;
     private final MessageBus messageBus;
+    private final PageFrameReadAhead readAhead;
     private final AtomicInteger reduceFinishedCounter = new AtomicInteger(0);
     private final AtomicInteger reduceStartedCounter = new AtomicInteger(0);
     private final PageFrameReducer reducer;
@@ -91,6 +92,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
             byte taskType
     ) {
         this.frameAddressCache = new PageFrameAddressCache(configuration);
+        this.readAhead = new PageFrameReadAhead(configuration);
         this.messageBus = messageBus;
         this.atom = atom;
         this.reducer = reducer;
@@ -172,6 +174,8 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         frameRowCounts.clear();
         frameAddressCache.clear();
         atom.clear();
+        // in-flight reads must complete before the reader closes column files
+        readAhead.clear();
         frameCursor = Misc.freeIfCloseable(frameCursor);
         // collect sequence may not be set here when
         // factory is closed without using cursor
@@ -190,6 +194,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         localRecord = Misc.free(localRecord);
         circuitBreaker = Misc.freeIfCloseable(circuitBreaker);
         localTask = Misc.free(localTask);
+        Misc.free(readAhead);
         Misc.free(atom);
     }
 
@@ -423,6 +428,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
             workStealingStrategy.of(reduceStartedCounter);
             valid.set(true);
             cancelReason.set(SqlExecutionCircuitBreaker.STATE_OK);
+            readAhead.toTop();
         }
     }
 
@@ -431,6 +437,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         while ((frame = frameCursor.next()) != null) {
             frameRowCounts.add(frame.getPartitionHi() - frame.getPartitionLo());
             frameAddressCache.add(frameCount++, frame);
+            readAhead.add(frameCursor, frame);
         }
 
         // dispatch tasks only if there is anything to dispatch
@@ -466,6 +473,9 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
 
         final int collectedFrameCount = collectedFrameIndex + 1;
 
+        // keep column files of the upcoming frames warm while the workers process the current ones
+        readAhead.advance(reduceStartedCounter.get());
+
         long cursor;
         int i = dispatchStartFrameIndex;
         OUT:
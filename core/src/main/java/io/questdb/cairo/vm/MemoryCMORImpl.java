@@ -36,7 +36,7 @@ import io.questdb.std.str.LPSZ;
 // Contiguous mapped with offset readable memory
 public class MemoryCMORImpl extends MemoryCMRImpl implements MemoryCMOR {
     private static final Log LOG = LogFactory.getLog(MemoryCMORImpl.class);
-    private long mapFileOffset;
+    protected long mapFileOffset;
     private long offset;
 
     public MemoryCMORImpl() {
@@ -41,7 +41,6 @@ import io.questdb.mp.Job;
 import io.questdb.std.*;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
-import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.std.str.Path;
 import io.questdb.std.str.Utf8Sequence;
 import io.questdb.std.str.Utf8s;
@@ -72,7 +71,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
     private final MicrosecondClock microClock;
     private final OperationExecutor operationExecutor;
     private final Rnd rnd = new Rnd();
-    private final long tableTimeQuotaMicros;
+    private final WalApplyScheduler scheduler;
     private final Telemetry<TelemetryTask> telemetry;
     private final TelemetryFacade telemetryFacade;
     private final WalEventReader walEventReader;
@@ -81,6 +80,13 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
     private long lastAttemptSeqTxn;
 
     public ApplyWal2TableJob(CairoEngine engine, int workerCount, int sharedWorkerCount) {
+        this(engine, workerCount, sharedWorkerCount, new WalApplyScheduler(engine));
+    }
+
+    /**
+     * @param scheduler table scheduler, shared by the apply jobs of the same worker pool
+     */
+    public ApplyWal2TableJob(CairoEngine engine, int workerCount, int sharedWorkerCount, WalApplyScheduler scheduler) {
         super(engine.getMessageBus().getWalTxnNotificationQueue(), engine.getMessageBus().getWalTxnNotificationSubSequence());
         this.engine = engine;
         walTelemetry = engine.getTelemetryWal();
@@ -93,7 +99,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
         walEventReader = new WalEventReader(configuration.getFilesFacade());
         metrics = engine.getMetrics().walMetrics();
         lookAheadTransactionCount = configuration.getWalApplyLookAheadTransactionCount();
-        tableTimeQuotaMicros = configuration.getWalApplyTableTimeQuota() >= 0 ? configuration.getWalApplyTableTimeQuota() * 1000L : Timestamps.DAY_MICROS;
+        this.scheduler = scheduler;
     }
 
     @Override
@@ -102,6 +108,37 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
         Misc.free(walEventReader);
     }
 
+    @Override
+    public boolean run(int workerId, @NotNull RunStatus runStatus) {
+        // Collect the pending notifications, so that the most urgent table can be picked among them.
+        // The scheduler is shared with the other apply jobs, the tables not picked here are
+        // left to whichever worker runs next.
+        boolean useful = false;
+        final TableToken tableToken;
+        final long timeQuotaMicros;
+        scheduler.lock();
+        try {
+            while (!scheduler.isFull()) {
+                final long cursor = subSeq.next();
+                if (cursor < 0) {
+                    useful = cursor == -2;
+                    break;
+                }
+                doRun(workerId, cursor, runStatus);
+            }
+            tableToken = scheduler.poll(microClock.getTicks());
+            timeQuotaMicros = scheduler.getTimeQuotaMicros();
+        } finally {
+            scheduler.unlock();
+        }
+
+        if (tableToken != null) {
+            applyWal(tableToken, engine, operationExecutor, runStatus, timeQuotaMicros);
+            return true;
+        }
+        return useful;
+    }
+
     private static boolean cleanDroppedTableDirectory(CairoEngine engine, Path tempPath, TableToken tableToken) {
         // Clean all the files inside table folder name except WAL directories and SEQ_DIR directory
         boolean allClean = true;
@@ -194,6 +231,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                     // Force writer to close all the files.
                     writer.destroy();
                 }
+                engine.getMetrics().walMetrics().removeApplyLag(tableToken);
                 return cleanDroppedTableDirectory(engine, tempPath, tableToken);
             } finally {
                 if (writerToClose != null) {
@@ -219,6 +257,8 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
      * @param operationExecutor operation executor
      * @param tempPath          temporary path
      * @param runStatus         run status
+     * @param txnTracker        transaction tracker of the table
+     * @param timeQuotaMicros   time limit after which the job ejects, unless the first transaction is being applied
      */
     private void applyOutstandingWalTransactions(
             TableToken tableToken,
@@ -227,7 +267,8 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
             OperationExecutor operationExecutor,
             Path tempPath,
             RunStatus runStatus,
-            O3JobParallelismRegulator regulator
+            SeqTxnTracker txnTracker,
+            long timeQuotaMicros
     ) {
         final TableSequencerAPI tableSequencerAPI = engine.getTableSequencerAPI();
         boolean isTerminating;
@@ -250,7 +291,8 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                 transactionLogCursor.toTop();
 
                 isTerminating = runStatus.isTerminating();
-                final long timeLimit = microClock.getTicks() + tableTimeQuotaMicros;
+                final long applyStart = microClock.getTicks();
+                final long timeLimit = applyStart + timeQuotaMicros;
                 boolean firstRun = true;
                 WHILE_TRANSACTION_CURSOR:
 
@@ -351,7 +393,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                                     operationExecutor,
                                     seqTxn,
                                     commitTimestamp,
-                                    regulator
+                                    txnTracker
                             );
 
                             if (added > -1L) {
@@ -372,6 +414,11 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                     writer.commitSeqTxn();
                 }
 
+                // When the job ejects on the time limit, the cursor stays at the last applied transaction.
+                // Otherwise, any transactions left were committed after the cursor was read.
+                final long unappliedSince = !finishedAll && transactionLogCursor.hasNext() ? transactionLogCursor.getCommitTimestamp() : applyStart;
+                txnTracker.onApplied(totalTransactionCount, rowsAdded, insertTimespan, unappliedSince);
+
                 if (totalTransactionCount > 0) {
                     LOG.info().$("job ")
                             .$(finishedAll ? "finished" : "ejected")
@@ -553,7 +600,8 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
             @NotNull TableToken tableToken,
             CairoEngine engine,
             OperationExecutor operationCompiler,
-            Job.RunStatus runStatus
+            Job.RunStatus runStatus,
+            long timeQuotaMicros
     ) {
         final Path tempPath = Path.PATH.get();
         SeqTxnTracker txnTracker = null;
@@ -575,7 +623,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                         // rely on CheckWalTransactionsJob to notify us when to apply transactions
                         return;
                     }
-                    applyOutstandingWalTransactions(tableToken, writer, engine, operationCompiler, tempPath, runStatus, txnTracker);
+                    applyOutstandingWalTransactions(tableToken, writer, engine, operationCompiler, tempPath, runStatus, txnTracker, timeQuotaMicros);
                     txnTracker.hadEnoughMemory(tableToken.getTableName(), rnd);
                     lastWriterTxn = writer.getSeqTxn();
                 } catch (EntryUnavailableException tableBusy) {
@@ -597,6 +645,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                 if (engine.getTableSequencerAPI().notifyCommitReadable(tableToken, lastWriterTxn)) {
                     engine.notifyWalTxnCommitted(tableToken);
                 }
+                metrics.setApplyLag(tableToken, txnTracker.getLagMicros(microClock.getTicks()));
             }
         } catch (CairoException ex) {
             if (ex.isTableDropped() || engine.isTableDropped(tableToken)) {
@@ -613,16 +662,13 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
 
     @Override
     protected boolean doRun(int workerId, long cursor, RunStatus runStatus) {
-        final TableToken tableToken;
         try {
             final WalTxnNotificationTask task = queue.get(cursor);
-            tableToken = task.getTableToken();
+            scheduler.add(task.getTableToken());
         } finally {
             // Do not hold the queue while transactions are applied to the table
             subSeq.done(cursor);
         }
-
-        applyWal(tableToken, engine, operationExecutor, runStatus);
         return true;
     }
 
@@ -83,6 +83,8 @@ public interface MetadataService {
         addColumn(name, type, symbolCapacity, symbolCacheFlag, isIndexed, indexValueBlockCapacity, isSequential, null);
     }
 
+    void addBloomFilter(@NotNull CharSequence columnName);
+
     void addIndex(@NotNull CharSequence columnName, int indexValueBlockSize);
 
     AttachDetachStatus attachPartition(long partitionTimestamp);
@@ -93,6 +95,8 @@ public interface MetadataService {
 
     void disableDeduplication();
 
+    void dropBloomFilter(@NotNull CharSequence columnName);
+
     void dropIndex(@NotNull CharSequence columnName);
 
     void enableDeduplicationWithUpsertKeys(LongList columnsIndexes);
@@ -127,6 +131,8 @@ public interface MetadataService {
 
     void setMetaO3MaxLag(long o3MaxLagUs);
 
+    void setMetaParquetConversionAge(long parquetConversionAgeUs);
+
     void squashPartitions();
 
     void tick();
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.wal;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.wal.seq.SeqTxnTracker;
+import io.questdb.cairo.wal.seq.TableSequencerAPI;
+import io.questdb.std.Mutable;
+import io.questdb.std.ObjList;
+import io.questdb.std.datetime.microtime.Timestamps;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Picks the next table for WAL apply among the tables that have pending transactions.
+ * <p>
+ * Tables are ranked by their projected visibility lag, i.e. the age of the oldest
+ * unapplied transaction plus the estimated time to apply the transaction backlog.
+ * Both come from the table's {@link SeqTxnTracker}. When other tables are waiting, the
+ * apply time slice of the picked table is scaled by its share of the total projected lag:
+ * the table that holds most of the lag gets up to {@value #MAX_QUOTA_MULTIPLIER} times the
+ * base quota, while with many equally lagging tables the slices shrink down to a
+ * {@value #MIN_QUOTA_DIVISOR}th of the base quota, so that every table gets its turn sooner.
+ * <p>
+ * An instance is shared by all apply jobs of a worker pool, so that whichever worker
+ * becomes free takes the most urgent table, rather than the tables drained by a busy
+ * worker waiting for it. The methods are not thread-safe on their own; callers hold
+ * {@link #lock()} while they add and poll tables.
+ */
+public class WalApplyScheduler implements Mutable {
+    private static final long MAX_QUOTA_MULTIPLIER = 4;
+    private static final long MIN_QUOTA_DIVISOR = 4;
+    private final long baseTimeQuotaMicros;
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final boolean scaleTimeQuota;
+    private final TableSequencerAPI tableSequencerAPI;
+    private final ObjList<TableToken> tables = new ObjList<>();
+    private long timeQuotaMicros;
+
+    /**
+     * @param tableSequencerAPI   source of the tables' transaction trackers
+     * @param capacity            maximum number of tables to rank
+     * @param baseTimeQuotaMicros apply time slice of a table that has no competitors
+     * @param scaleTimeQuota      true to scale time slices by the table urgency
+     */
+    public WalApplyScheduler(TableSequencerAPI tableSequencerAPI, int capacity, long baseTimeQuotaMicros, boolean scaleTimeQuota) {
+        this.tableSequencerAPI = tableSequencerAPI;
+        this.capacity = Math.max(1, capacity);
+        this.baseTimeQuotaMicros = baseTimeQuotaMicros;
+        this.scaleTimeQuota = scaleTimeQuota;
+    }
+
+    public WalApplyScheduler(CairoEngine engine) {
+        this(engine.getTableSequencerAPI(), engine.getConfiguration());
+    }
+
+    private WalApplyScheduler(TableSequencerAPI tableSequencerAPI, CairoConfiguration configuration) {
+        this(
+                tableSequencerAPI,
+                configuration.getWalApplySchedulerCapacity(),
+                configuration.getWalApplyTableTimeQuota() >= 0 ? configuration.getWalApplyTableTimeQuota() * 1000L : Timestamps.DAY_MICROS,
+                configuration.getWalApplyTableTimeQuota() >= 0
+        );
+    }
+
+    public static long getProjectedLagMicros(SeqTxnTracker tracker, long nowMicros) {
+        return tracker.getLagMicros(nowMicros) + tracker.getEstimatedApplyMicros();
+    }
+
+    /**
+     * Adds table to the set of tables waiting for apply. Repeated notifications
+     * of the same table are merged.
+     */
+    public void add(TableToken tableToken) {
+        for (int i = 0, n = tables.size(); i < n; i++) {
+            if (tables.getQuick(i).equals(tableToken)) {
+                return;
+            }
+        }
+        tables.add(tableToken);
+    }
+
+    @Override
+    public void clear() {
+        tables.clear();
+    }
+
+    /**
+     * Returns apply time slice of the table returned by the last {@link #poll(long)} call.
+     */
+    public long getTimeQuotaMicros() {
+        return timeQuotaMicros;
+    }
+
+    public boolean isFull() {
+        return tables.size() >= capacity;
+    }
+
+    public void lock() {
+        lock.lock();
+    }
+
+    /**
+     * Removes and returns the most urgent table or null if there are no tables waiting.
+     */
+    @Nullable
+    public TableToken poll(long nowMicros) {
+        final int n = tables.size();
+        if (n == 0) {
+            return null;
+        }
+
+        int topIndex = 0;
+        long topLag = -1;
+        long totalLag = 0;
+        for (int i = 0; i < n; i++) {
+            final long lag = getProjectedLagMicros(tableSequencerAPI.getTxnTracker(tables.getQuick(i)), nowMicros);
+            totalLag += lag;
+            if (lag > topLag) {
+                topLag = lag;
+                topIndex = i;
+            }
+        }
+
+        timeQuotaMicros = baseTimeQuotaMicros;
+        if (scaleTimeQuota && n > 1 && totalLag > 0) {
+            final double multiplier = (double) MAX_QUOTA_MULTIPLIER * topLag / totalLag;
+            timeQuotaMicros = (long) (baseTimeQuotaMicros * Math.max(1.0 / MIN_QUOTA_DIVISOR, multiplier));
+        }
+
+        final TableToken tableToken = tables.getQuick(topIndex);
+        tables.setQuick(topIndex, tables.getLast());
+        tables.setPos(n - 1);
+        return tableToken;
+    }
+
+    public int size() {
+        return tables.size();
+    }
+
+    public void unlock() {
+        lock.unlock();
+    }
+}
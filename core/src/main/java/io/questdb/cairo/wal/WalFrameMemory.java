@@ -0,0 +1,99 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.wal;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.vm.MemoryCMORImpl;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+/**
+ * Read-only column memory of a WAL segment that can hold data decoded from the segment
+ * frames file. Until {@link #decode(WalFrameReader, int, int)} is called it behaves as
+ * a regular lazily mapped memory. Decoding replaces the mapping with a private buffer
+ * that is freed on close.
+ */
+public class WalFrameMemory extends MemoryCMORImpl {
+    private long decodedSize;
+    private int decodedTag;
+
+    @Override
+    public void close() {
+        if (decodedSize > 0) {
+            pageAddress = Unsafe.free(pageAddress, decodedSize, decodedTag);
+            decodedSize = 0;
+        }
+        super.close();
+    }
+
+    /**
+     * Copies the area of interest from the raw file and overlays it with the frames of
+     * the given file.
+     *
+     * @param frames    frames of the segment
+     * @param fileIndex index of the file, see {@link WalFrameReader#fileIndex(int, boolean)}
+     * @param memoryTag memory tag of the private buffer
+     */
+    public void decode(WalFrameReader frames, int fileIndex, int memoryTag) {
+        if (size == 0) {
+            return;
+        }
+        if (decodedSize == 0 && pageAddress != 0) {
+            ff.munmap(pageAddress, size, this.memoryTag);
+            pageAddress = 0;
+        }
+        if (decodedSize == 0) {
+            pageAddress = Unsafe.malloc(size, memoryTag);
+            decodedSize = size;
+            decodedTag = memoryTag;
+        }
+        final long bytesRead = ff.read(fd, pageAddress, size, mapFileOffset);
+        if (bytesRead < 0) {
+            throw CairoException.critical(ff.errno()).put("could not read WAL column [fd=").put(fd)
+                    .put(", offset=").put(mapFileOffset)
+                    .put(", size=").put(size)
+                    .put(']');
+        }
+        if (bytesRead < size) {
+            Vect.memset(pageAddress + bytesRead, size - bytesRead, 0);
+        }
+        frames.decode(fileIndex, pageAddress, mapFileOffset, size);
+    }
+
+    @Override
+    public void extend(long newSize) {
+        if (decodedSize > 0) {
+            if (newSize > size) {
+                throw CairoException.critical(0).put("cannot extend decoded WAL column [fd=").put(fd)
+                        .put(", size=").put(size)
+                        .put(", newSize=").put(newSize)
+                        .put(']');
+            }
+            return;
+        }
+        super.extend(newSize);
+    }
+}
@@ -0,0 +1,228 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.wal;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableUtils;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+/**
+ * Reads the frames file of a compressed WAL segment, see {@link WalFrameWriter}.
+ * <p>
+ * The file is a sequence of blocks, one per committed transaction. Block header:
+ * <pre>
+ * long blockSize  - size of the block including the header, 0 for a block that is being written
+ * int entryCount
+ * int reserved
+ * </pre>
+ * followed by the entries, each padded to 8 bytes:
+ * <pre>
+ * int fileIndex   - column index * 2 for the data file and column index * 2 + 1 for the aux file
+ * int codec       - {@link #CODEC_NONE} or {@link #CODEC_LZ4}, an LZ4 block
+ * long rawOffset  - offset of the range in the raw column file
+ * long rawSize
+ * long payloadSize
+ * byte[] payload
+ * </pre>
+ * Entries of later blocks take precedence over earlier ones.
+ * <p>
+ * The blocks are scanned once per segment, when the file is opened, to index the entries
+ * by file, so that decoding a column range visits only the entries of that column.
+ */
+public class WalFrameReader implements QuietCloseable {
+    static final int BLOCK_ENTRY_COUNT_OFFSET = 8;
+    static final int BLOCK_HEADER_SIZE = 16;
+    static final int BLOCK_SIZE_OFFSET = 0;
+    static final int CODEC_LZ4 = 1;
+    static final int CODEC_NONE = 0;
+    static final int ENTRY_CODEC_OFFSET = 4;
+    static final int ENTRY_FILE_INDEX_OFFSET = 0;
+    static final int ENTRY_HEADER_SIZE = 32;
+    static final int ENTRY_PAYLOAD_SIZE_OFFSET = 24;
+    static final int ENTRY_RAW_OFFSET_OFFSET = 8;
+    static final int ENTRY_RAW_SIZE_OFFSET = 16;
+    private static final Log LOG = LogFactory.getLog(WalFrameReader.class);
+    // offsets of the entries in the mapped file per file index, in file order
+    private final ObjList<LongList> entryOffsets = new ObjList<>();
+    private final FilesFacade ff;
+    private long address;
+    private long fd = -1;
+    private long size;
+
+    public WalFrameReader(FilesFacade ff) {
+        this.ff = ff;
+    }
+
+    public static int fileIndex(int columnIndex, boolean aux) {
+        return aux ? 2 * columnIndex + 1 : 2 * columnIndex;
+    }
+
+    @Override
+    public void close() {
+        if (address != 0) {
+            ff.munmap(address, size, MemoryTag.MMAP_TABLE_WAL_READER);
+            address = 0;
+        }
+        size = 0;
+        for (int i = 0, n = entryOffsets.size(); i < n; i++) {
+            final LongList offsets = entryOffsets.getQuick(i);
+            if (offsets != null) {
+                offsets.clear();
+            }
+        }
+        if (fd > -1) {
+            ff.close(fd);
+            fd = -1;
+        }
+    }
+
+    /**
+     * Decodes entries of the given file that overlap the given range of the raw file. Bytes
+     * of the range that are not covered by any entry are left intact.
+     *
+     * @param fileIndex  index of the file, see {@link #fileIndex(int, boolean)}
+     * @param dest       address of the destination buffer
+     * @param destOffset raw file offset the destination buffer starts at
+     * @param destSize   size of the destination buffer
+     */
+    public void decode(int fileIndex, long dest, long destOffset, long destSize) {
+        final LongList offsets = entryOffsets.getQuiet(fileIndex);
+        if (offsets == null) {
+            return;
+        }
+        final long destHi = destOffset + destSize;
+        for (int i = 0, n = offsets.size(); i < n; i++) {
+            final long entryAddress = address + offsets.getQuick(i);
+            final long rawOffset = Unsafe.getUnsafe().getLong(entryAddress + ENTRY_RAW_OFFSET_OFFSET);
+            final long rawSize = Unsafe.getUnsafe().getLong(entryAddress + ENTRY_RAW_SIZE_OFFSET);
+            if (rawOffset < destHi && rawOffset + rawSize > destOffset) {
+                decodeEntry(
+                        Unsafe.getUnsafe().getInt(entryAddress + ENTRY_CODEC_OFFSET),
+                        entryAddress + ENTRY_HEADER_SIZE,
+                        Unsafe.getUnsafe().getLong(entryAddress + ENTRY_PAYLOAD_SIZE_OFFSET),
+                        rawOffset,
+                        rawSize,
+                        dest,
+                        destOffset,
+                        destHi
+                );
+            }
+        }
+    }
+
+    /**
+     * Opens the frames file of the segment.
+     *
+     * @param path    path to the segment directory, left intact
+     * @param pathLen length of the path
+     * @return false when the segment is not compressed
+     */
+    public boolean of(Path path, int pathLen) {
+        close();
+        try {
+            path.trimTo(pathLen).concat(WalUtils.WAL_FRAMES_FILE_NAME);
+            if (!ff.exists(path.$())) {
+                return false;
+            }
+            fd = TableUtils.openRO(ff, path.$(), LOG);
+            size = ff.length(fd);
+            if (size < 0) {
+                throw CairoException.critical(ff.errno()).put("could not get length [path=").put(path).put(']');
+            }
+            if (size > 0) {
+                address = TableUtils.mapRO(ff, fd, size, MemoryTag.MMAP_TABLE_WAL_READER);
+                indexEntries();
+            }
+            return true;
+        } catch (Throwable th) {
+            close();
+            throw th;
+        } finally {
+            path.trimTo(pathLen);
+        }
+    }
+
+    private void decodeEntry(int codec, long payload, long payloadSize, long rawOffset, long rawSize, long dest, long destOffset, long destHi) {
+        final long lo = Math.max(rawOffset, destOffset);
+        final long hi = Math.min(rawOffset + rawSize, destHi);
+        if (codec == CODEC_NONE) {
+            Vect.memcpy(dest + lo - destOffset, payload + lo - rawOffset, hi - lo);
+            return;
+        }
+        if (lo == rawOffset && hi == rawOffset + rawSize) {
+            decompress(payload, payloadSize, dest + rawOffset - destOffset, rawSize);
+            return;
+        }
+        // the entry is clipped by the destination range
+        final long buf = Unsafe.malloc(rawSize, MemoryTag.NATIVE_DEFAULT);
+        try {
+            decompress(payload, payloadSize, buf, rawSize);
+            Vect.memcpy(dest + lo - destOffset, buf + lo - rawOffset, hi - lo);
+        } finally {
+            Unsafe.free(buf, rawSize, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    private void indexEntries() {
+        long blockOffset = 0;
+        while (blockOffset + BLOCK_HEADER_SIZE <= size) {
+            final long blockAddress = address + blockOffset;
+            final long blockSize = Unsafe.getUnsafe().getLong(blockAddress + BLOCK_SIZE_OFFSET);
+            if (blockSize < BLOCK_HEADER_SIZE || blockOffset + blockSize > size) {
+                // the block is not published yet
+                break;
+            }
+            final int entryCount = Unsafe.getUnsafe().getInt(blockAddress + BLOCK_ENTRY_COUNT_OFFSET);
+            long entryOffset = blockOffset + BLOCK_HEADER_SIZE;
+            for (int i = 0; i < entryCount; i++) {
+                final long entryAddress = address + entryOffset;
+                final int fileIndex = Unsafe.getUnsafe().getInt(entryAddress + ENTRY_FILE_INDEX_OFFSET);
+                LongList offsets = entryOffsets.getQuiet(fileIndex);
+                if (offsets == null) {
+                    offsets = new LongList();
+                    entryOffsets.extendAndSet(fileIndex, offsets);
+                }
+                offsets.add(entryOffset);
+                final long payloadSize = Unsafe.getUnsafe().getLong(entryAddress + ENTRY_PAYLOAD_SIZE_OFFSET);
+                entryOffset += ENTRY_HEADER_SIZE + ((payloadSize + 7) & ~7L);
+            }
+            blockOffset += blockSize;
+        }
+    }
+
+    private void decompress(long payload, long payloadSize, long dest, long rawSize) {
+        final long len = Lz4.decompress(payload, payloadSize, dest, rawSize);
+        if (len != rawSize) {
+            throw CairoException.critical(0).put("corrupt WAL frame [fd=").put(fd)
+                    .put(", rawSize=").put(rawSize)
+                    .put(", decoded=").put(len)
+                    .put(']');
+        }
+    }
+}
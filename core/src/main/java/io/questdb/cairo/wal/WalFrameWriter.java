@@ -0,0 +1,199 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.wal;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableUtils;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import static io.questdb.cairo.wal.WalFrameReader.*;
+
+/**
+ * Appends compressed copies of WAL column data to the segment frames file, one block per
+ * committed transaction. Once the transaction is committed, the pages of the raw column files
+ * covered by the block are released by punching holes, so that dirty pages are dropped from
+ * the page cache instead of being written back to disk. Readers decode column data from the
+ * frames file into private memory and never rely on the raw pages of a compressed range.
+ * <p>
+ * A block is published by writing its header after the entries, so that readers of a frames
+ * file that is being appended to stop at the first block with zero size.
+ */
+class WalFrameWriter implements QuietCloseable {
+    private static final Log LOG = LogFactory.getLog(WalFrameWriter.class);
+    private final FilesFacade ff;
+    private final int[] hashTable = new int[Lz4.HASH_TABLE_SIZE];
+    // Triplets of fd, offset and length of the raw ranges compressed in the current block.
+    private final LongList rawRanges = new LongList();
+    private long appendOffset;
+    private long blockAddress;
+    private long blockCapacity;
+    private long blockSize;
+    private int entryCount;
+    private long fd = -1;
+
+    WalFrameWriter(FilesFacade ff) {
+        this.ff = ff;
+    }
+
+    @Override
+    public void close() {
+        if (fd > -1) {
+            ff.close(fd);
+            fd = -1;
+        }
+        if (blockAddress != 0) {
+            blockAddress = Unsafe.free(blockAddress, blockCapacity, MemoryTag.NATIVE_TABLE_WAL_WRITER);
+            blockCapacity = 0;
+        }
+        rawRanges.clear();
+    }
+
+    /**
+     * Compresses the given range of the raw column file into the current block.
+     *
+     * @param fileIndex index of the file, see {@link WalFrameReader#fileIndex(int, boolean)}
+     * @param rawFd     fd of the raw column file
+     * @param offset    offset of the range in the raw column file
+     * @param len       length of the range
+     */
+    void appendEntry(int fileIndex, long rawFd, long offset, long len) {
+        if (len <= 0) {
+            return;
+        }
+        final long mapOffset = Files.floorPageSize(offset);
+        final long mapSize = offset + len - mapOffset;
+        final long mapAddress = TableUtils.mapRO(ff, rawFd, mapSize, mapOffset, MemoryTag.MMAP_TABLE_WAL_WRITER);
+        try {
+            ensureCapacity(blockSize + ENTRY_HEADER_SIZE + align8(len));
+            final long entryAddress = blockAddress + blockSize;
+            final long payloadAddress = entryAddress + ENTRY_HEADER_SIZE;
+            final long src = mapAddress + offset - mapOffset;
+            // the output is capped by the input size, data that doesn't shrink is stored as is
+            long payloadSize = Lz4.compress(src, len, payloadAddress, len, hashTable);
+            final int codec;
+            if (payloadSize < 0) {
+                Vect.memcpy(payloadAddress, src, len);
+                payloadSize = len;
+                codec = CODEC_NONE;
+            } else {
+                codec = CODEC_LZ4;
+            }
+            Unsafe.getUnsafe().putInt(entryAddress + ENTRY_FILE_INDEX_OFFSET, fileIndex);
+            Unsafe.getUnsafe().putInt(entryAddress + ENTRY_CODEC_OFFSET, codec);
+            Unsafe.getUnsafe().putLong(entryAddress + ENTRY_RAW_OFFSET_OFFSET, offset);
+            Unsafe.getUnsafe().putLong(entryAddress + ENTRY_RAW_SIZE_OFFSET, len);
+            Unsafe.getUnsafe().putLong(entryAddress + ENTRY_PAYLOAD_SIZE_OFFSET, payloadSize);
+            blockSize += ENTRY_HEADER_SIZE + align8(payloadSize);
+            entryCount++;
+            rawRanges.add(rawFd, offset);
+            rawRanges.add(len);
+        } finally {
+            ff.munmap(mapAddress, mapSize, MemoryTag.MMAP_TABLE_WAL_WRITER);
+        }
+    }
+
+    void beginTxn() {
+        ensureCapacity(BLOCK_HEADER_SIZE);
+        blockSize = BLOCK_HEADER_SIZE;
+        entryCount = 0;
+        rawRanges.clear();
+    }
+
+    void endTxn() {
+        if (entryCount == 0) {
+            return;
+        }
+        // Entries go first and the header publishes the block.
+        Unsafe.getUnsafe().putLong(blockAddress + BLOCK_SIZE_OFFSET, 0);
+        Unsafe.getUnsafe().putInt(blockAddress + BLOCK_ENTRY_COUNT_OFFSET, 0);
+        write(blockAddress, blockSize, appendOffset);
+        Unsafe.getUnsafe().putLong(blockAddress + BLOCK_SIZE_OFFSET, blockSize);
+        Unsafe.getUnsafe().putInt(blockAddress + BLOCK_ENTRY_COUNT_OFFSET, entryCount);
+        write(blockAddress, BLOCK_HEADER_SIZE, appendOffset);
+        appendOffset += blockSize;
+    }
+
+    void of(Path path, int pathLen) {
+        if (fd > -1) {
+            ff.close(fd);
+            fd = -1;
+        }
+        try {
+            fd = TableUtils.openRW(ff, path.trimTo(pathLen).concat(WalUtils.WAL_FRAMES_FILE_NAME).$(), LOG, CairoConfiguration.O_NONE);
+        } finally {
+            path.trimTo(pathLen);
+        }
+        appendOffset = 0;
+        rawRanges.clear();
+    }
+
+    /**
+     * Releases the raw pages of the last committed block. The page holding the last bytes of
+     * each range is kept, the writer reads the boundary aux entries when it changes the append
+     * position.
+     */
+    void releaseRawPages() {
+        for (int i = 0, n = rawRanges.size(); i < n; i += 3) {
+            final long offset = rawRanges.getQuick(i + 1);
+            final long lo = Files.ceilPageSize(offset);
+            final long hi = Files.floorPageSize(offset + rawRanges.getQuick(i + 2) - 1);
+            if (hi > lo) {
+                // Failure leaves the raw data in place, readers don't depend on it.
+                ff.punchHole(rawRanges.getQuick(i), lo, hi - lo);
+            }
+        }
+        rawRanges.clear();
+    }
+
+    void sync() {
+        ff.fsync(fd);
+    }
+
+    private static long align8(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private void ensureCapacity(long size) {
+        if (size > blockCapacity) {
+            final long newCapacity = Math.max(size, blockCapacity * 2);
+            blockAddress = Unsafe.realloc(blockAddress, blockCapacity, newCapacity, MemoryTag.NATIVE_TABLE_WAL_WRITER);
+            blockCapacity = newCapacity;
+        }
+    }
+
+    private void write(long address, long len, long offset) {
+        if (ff.write(fd, address, len, offset) != len) {
+            throw CairoException.critical(ff.errno()).put("could not write WAL frames [fd=").put(fd)
+                    .put(", offset=").put(offset)
+                    .put(", size=").put(len)
+                    .put(']');
+        }
+    }
+}
@@ -24,13 +24,16 @@
 
 package io.questdb.cairo.wal;
 
+import io.questdb.cairo.TableToken;
 import io.questdb.metrics.Counter;
 import io.questdb.metrics.LongGauge;
+import io.questdb.metrics.LongGaugeWithOneLabel;
 import io.questdb.metrics.MetricsRegistry;
 
 import java.util.concurrent.atomic.AtomicLong;
 
 public class WalMetrics {
+    private final LongGaugeWithOneLabel applyLagGauge;
     private final Counter applyPhysicallyWrittenRowsCounter;
     private final LongGauge applyRowsWriteRateGauge;
     private final Counter applyRowsWrittenCounter;
@@ -39,6 +42,7 @@ public class WalMetrics {
     private final AtomicLong totalRowsWrittenTotalTime = new AtomicLong();
 
     public WalMetrics(MetricsRegistry metricsRegistry) {
+        this.applyLagGauge = metricsRegistry.newLongGauge("wal_apply_lag_micros", "table");
         this.applyPhysicallyWrittenRowsCounter = metricsRegistry.newCounter("wal_apply_physically_written_rows");
         this.applyRowsWrittenCounter = metricsRegistry.newCounter("wal_apply_written_rows");
         this.applyRowsWriteRateGauge = metricsRegistry.newLongGauge("wal_apply_rows_per_second");
@@ -57,4 +61,15 @@ public class WalMetrics {
     public void addRowsWritten(long rows) {
         rowsWrittenCounter.add(rows);
     }
+
+    public void removeApplyLag(TableToken tableToken) {
+        applyLagGauge.remove(tableToken.getTableName());
+    }
+
+    /**
+     * Sets age of the oldest transaction of the table that is not yet applied.
+     */
+    public void setApplyLag(TableToken tableToken, long lagMicros) {
+        applyLagGauge.setValue(tableToken.getTableName(), lagMicros);
+    }
 }
@@ -52,6 +52,7 @@ public class WalReader implements Closeable {
     private final WalEventCursor eventCursor;
     private final WalEventReader events;
     private final FilesFacade ff;
+    private final WalFrameReader frames;
     private final SequencerMetadata metadata;
     private final Path path;
     private final int rootLen;
@@ -66,6 +67,7 @@ public class WalReader implements Closeable {
         this.rowCount = rowCount;
 
         ff = configuration.getFilesFacade();
+        frames = new WalFrameReader(ff);
         path = new Path();
         path.of(configuration.getRoot()).concat(tableToken.getDirName()).concat(walName);
         rootLen = path.size();
@@ -100,6 +102,7 @@ public class WalReader implements Closeable {
         Misc.free(events);
         Misc.free(metadata);
         Misc.freeObjList(columns);
+        Misc.free(frames);
         Misc.free(path);
         LOG.debug().$("closed '").utf8(tableName).$('\'').$();
     }
@@ -169,7 +172,7 @@ public class WalReader implements Closeable {
         return rowCount;
     }
 
-    private void loadColumnAt(int columnIndex) {
+    private void loadColumnAt(int columnIndex, boolean compressed) {
         final int pathLen = path.size();
         try {
             final int columnType = metadata.getColumnType(columnIndex);
@@ -185,10 +188,10 @@ public class WalReader implements Closeable {
                     TableUtils.iFile(path.trimTo(pathLen), columnName);
 
                     MemoryCMR auxMem = columns.getQuick(auxMemIndex);
-                    auxMem = openOrCreateMemory(path, columns, auxMemIndex, auxMem, auxMemSize);
+                    auxMem = openOrCreateMemory(path, columns, auxMemIndex, auxMem, auxMemSize, compressed ? WalFrameReader.fileIndex(columnIndex, true) : -1);
                     final long dataMemSize = columnTypeDriver.getDataVectorSizeAt(auxMem.addressOf(0), rowCount - 1);
                     TableUtils.dFile(path.trimTo(pathLen), columnName);
-                    openOrCreateMemory(path, columns, dataMemIndex, dataMem, dataMemSize);
+                    openOrCreateMemory(path, columns, dataMemIndex, dataMem, dataMemSize, compressed ? WalFrameReader.fileIndex(columnIndex, false) : -1);
                 } else {
                     final long dataMemSize = rowCount << ColumnType.pow2SizeOf(columnType);
                     TableUtils.dFile(path.trimTo(pathLen), columnName);
@@ -197,7 +200,8 @@ public class WalReader implements Closeable {
                             columns,
                             dataMemIndex,
                             dataMem,
-                            columnIndex == getTimestampIndex() ? dataMemSize << 1 : dataMemSize
+                            columnIndex == getTimestampIndex() ? dataMemSize << 1 : dataMemSize,
+                            compressed ? WalFrameReader.fileIndex(columnIndex, false) : -1
                     );
                     Misc.free(columns.getAndSetQuick(auxMemIndex, null));
                 }
@@ -213,8 +217,22 @@ public class WalReader implements Closeable {
             ObjList<MemoryCMR> columns,
             int primaryIndex,
             MemoryCMR mem,
-            long columnSize
+            long columnSize,
+            int fileIndex
     ) {
+        if (fileIndex > -1) {
+            // committed data of a compressed segment is decoded from the frames file
+            if (!(mem instanceof WalFrameMemory)) {
+                if (mem != NullMemoryCMR.INSTANCE) {
+                    Misc.free(mem);
+                }
+                mem = new WalFrameMemory();
+                columns.setQuick(primaryIndex, mem);
+            }
+            mem.of(ff, path.$(), columnSize, columnSize, MemoryTag.MMAP_TABLE_WAL_READER);
+            ((WalFrameMemory) mem).decode(frames, fileIndex, MemoryTag.NATIVE_TABLE_READER);
+            return mem;
+        }
         if (mem != null && mem != NullMemoryCMR.INSTANCE) {
             mem.of(ff, path.$(), columnSize, columnSize, MemoryTag.MMAP_TABLE_WAL_READER);
         } else {
@@ -225,8 +243,13 @@ public class WalReader implements Closeable {
     }
 
     private void openSegmentColumns() {
-        for (int i = 0; i < columnCount; i++) {
-            loadColumnAt(i);
+        try {
+            final boolean compressed = frames.of(path, path.size());
+            for (int i = 0; i < columnCount; i++) {
+                loadColumnAt(i, compressed);
+            }
+        } finally {
+            frames.close();
         }
     }
 
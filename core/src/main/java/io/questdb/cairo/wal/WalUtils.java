@@ -60,6 +60,7 @@ public class WalUtils {
     public static final long WALE_MAX_TXN_OFFSET_32 = 0L;
     public static final int WAL_FORMAT_OFFSET_32 = Integer.BYTES;
     public static final int WAL_FORMAT_VERSION = 0;
+    public static final String WAL_FRAMES_FILE_NAME = "_frames";
     public static final int WAL_SEQUENCER_FORMAT_VERSION_V1 = 0;
     public static final int WAL_SEQUENCER_FORMAT_VERSION_V2 = 1;
     public static final String WAL_INDEX_FILE_NAME = "_wal_index.d";
@@ -61,11 +61,14 @@ public class WalWriter implements TableWriterAPI {
     private static final Runnable NOOP = () -> {
     };
     private final AlterOperation alterOp = new AlterOperation();
+    private final DirectUtf8String batchUtf8Value = new DirectUtf8String();
     private final ObjList<MemoryMA> columns;
     private final CairoConfiguration configuration;
     private final DdlListener ddlListener;
     private final WalEventWriter events;
     private final FilesFacade ff;
+    // Compresses committed column data, null when WAL compression is disabled.
+    private final WalFrameWriter frames;
     private final AtomicIntList initialSymbolCounts;
     private final IntList localSymbolIds;
     private final MetadataValidatorService metaValidatorSvc = new MetadataValidatorService();
@@ -84,12 +87,17 @@ public class WalWriter implements TableWriterAPI {
     private final BoolList symbolMapNullFlags = new BoolList();
     private final ObjList<SymbolMapReader> symbolMapReaders = new ObjList<>();
     private final ObjList<CharSequenceIntHashMap> symbolMaps = new ObjList<>();
+    private final StringSink symbolUtf16Sink = new StringSink();
     private final int timestampIndex;
     private final ObjList<Utf8StringIntHashMap> utf8SymbolMaps = new ObjList<>();
     private final Uuid uuid = new Uuid();
     private final WalDirectoryPolicy walDirectoryPolicy;
     private final int walId;
     private final String walName;
+    // Designated timestamp bounds of the rows of the current batch merged with the transaction bounds.
+    private long batchMaxTimestamp;
+    private long batchMinTimestamp;
+    private boolean batchOutOfOrder;
     private SegmentColumnRollSink columnConversionSink;
     private int columnCount;
     private ColumnVersionReader columnVersionReader;
@@ -138,6 +146,8 @@ public class WalWriter implements TableWriterAPI {
         this.metrics = metrics;
         this.open = true;
         this.symbolMapMem = Vm.getMARInstance(configuration.getCommitMode());
+        // compressed frames only pay off when the raw pages can be released, see WalFrameWriter
+        this.frames = configuration.isWalCompressionEnabled() && Files.PUNCH_HOLE_AVAILABLE ? new WalFrameWriter(ff) : null;
 
         try {
             lockWal();
@@ -203,6 +213,31 @@ public class WalWriter implements TableWriterAPI {
         );
     }
 
+    /**
+     * Appends the rows written column by column since {@link #beginBatch()}. Columns that were
+     * not written in the batch are padded with nulls. The batch must include the designated timestamp.
+     * If this method throws, the batch has to be discarded via {@link #cancelBatch()}.
+     *
+     * @param rowCount number of rows in the batch
+     */
+    public void appendBatch(long rowCount) {
+        if (rowValueIsNotNull.getQuick(timestampIndex) < segmentRowCount) {
+            throw CairoException.nonCritical().put("designated timestamp is missing in the batch");
+        }
+        for (int i = 0; i < columnCount; i++) {
+            if (rowValueIsNotNull.getQuick(i) < segmentRowCount) {
+                final Runnable nullSetter = nullSetters.getQuick(i);
+                for (long r = 0; r < rowCount; r++) {
+                    nullSetter.run();
+                }
+            }
+        }
+        txnMaxTimestamp = batchMaxTimestamp;
+        txnMinTimestamp = batchMinTimestamp;
+        txnOutOfOrder = batchOutOfOrder;
+        segmentRowCount += rowCount;
+    }
+
     @Override
     public long apply(AlterOperation alterOp, boolean contextAllowsAnyStructureChanges) throws AlterTableContextException {
         try {
@@ -243,6 +278,29 @@ public class WalWriter implements TableWriterAPI {
         //   versions of each table involved in the join when running the SQL.
     }
 
+    /**
+     * Starts a batch of rows written column by column. Each column of the batch is written once via
+     * one of the putBatch methods, then the batch is completed via {@link #appendBatch(long)}
+     * or discarded via {@link #cancelBatch()}. Unlike {@link #newRow(long)}, column data is copied
+     * in bulk, which avoids per-row overhead for fixed-size columns.
+     */
+    public void beginBatch() {
+        checkDistressed();
+        try {
+            if (rollSegmentOnNextRow) {
+                rollSegment();
+                rollSegmentOnNextRow = false;
+            }
+        } catch (Throwable e) {
+            distressed = true;
+            throw e;
+        }
+    }
+
+    public void cancelBatch() {
+        setAppendPosition(segmentRowCount);
+    }
+
     @Override
     public void close() {
         if (isOpen()) {
@@ -265,13 +323,22 @@ public class WalWriter implements TableWriterAPI {
             if (inTransaction()) {
                 isCommittingData = true;
                 final long rowsToCommit = getUncommittedRowCount();
+                if (frames != null) {
+                    appendFrames();
+                }
                 lastSegmentTxn = events.appendData(currentTxnStartRowNum, segmentRowCount, txnMinTimestamp, txnMaxTimestamp, txnOutOfOrder);
                 // flush disk before getting next txn
                 final int commitMode = configuration.getCommitMode();
                 if (commitMode != CommitMode.NOSYNC) {
                     sync(commitMode);
                 }
+                final int txnSegmentId = segmentId;
                 final long seqTxn = getSequencerTxn();
+                if (frames != null && segmentId == txnSegmentId) {
+                    // Rows rolled to a new segment are read from the raw files there,
+                    // the pages can be released only when the segment did not change.
+                    frames.releaseRawPages();
+                }
                 LOG.info().$("committed data block [wal=").$substr(pathRootSize, path).$(Files.SEPARATOR).$(segmentId)
                         .$(", segmentTxn=").$(lastSegmentTxn)
                         .$(", seqTxn=").$(seqTxn)
@@ -306,6 +373,7 @@ public class WalWriter implements TableWriterAPI {
             if (events != null) {
                 events.close(truncate, Vm.TRUNCATE_TO_POINTER);
             }
+            Misc.free(frames);
             freeSymbolMapReaders();
             if (symbolMapMem != null) {
                 symbolMapMem.close(truncate, Vm.TRUNCATE_TO_POINTER);
@@ -451,6 +519,134 @@ public class WalWriter implements TableWriterAPI {
         }
     }
 
+    /**
+     * Copies values of a fixed-size column into the current batch. Values must be laid out
+     * as the column is stored, with nulls encoded as the column type's null sentinel.
+     *
+     * @param columnIndex index of the column, must not be the designated timestamp
+     * @param address     address of the values
+     * @param rowCount    number of rows in the batch
+     */
+    public void putBatch(int columnIndex, long address, long rowCount) {
+        final int columnType = metadata.getColumnType(columnIndex);
+        assert columnIndex != timestampIndex && ColumnType.isFixedSize(columnType);
+        checkBatchColumn(columnIndex);
+        getDataColumn(columnIndex).putBlockOfBytes(address, rowCount * ColumnType.sizeOf(columnType));
+        setBatchValueNotNull(columnIndex, rowCount);
+    }
+
+    /**
+     * Writes UTF-8 values of a STRING column into the current batch.
+     *
+     * @param columnIndex  index of the column
+     * @param sizesAddress address of int value sizes in bytes, negative size stands for null
+     * @param dataAddress  address of the value bytes, laid out one after another
+     * @param rowCount     number of rows in the batch
+     */
+    public void putBatchStrUtf8(int columnIndex, long sizesAddress, long dataAddress, long rowCount) {
+        checkBatchColumn(columnIndex);
+        final MemoryMA dataMem = getDataColumn(columnIndex);
+        final MemoryMA auxMem = getAuxColumn(columnIndex);
+        long lo = dataAddress;
+        for (long r = 0; r < rowCount; r++) {
+            final int size = Unsafe.getUnsafe().getInt(sizesAddress + r * Integer.BYTES);
+            if (size < 0) {
+                auxMem.putLong(dataMem.putNullStr());
+            } else {
+                auxMem.putLong(dataMem.putStrUtf8(batchUtf8Value.of(lo, lo + size, Utf8s.isAscii(lo, size))));
+                lo += size;
+            }
+        }
+        setBatchValueNotNull(columnIndex, rowCount);
+    }
+
+    /**
+     * Writes UTF-8 values of a SYMBOL column into the current batch.
+     *
+     * @param columnIndex  index of the column
+     * @param sizesAddress address of int value sizes in bytes, negative size stands for null
+     * @param dataAddress  address of the value bytes, laid out one after another
+     * @param rowCount     number of rows in the batch
+     */
+    public void putBatchSymUtf8(int columnIndex, long sizesAddress, long dataAddress, long rowCount) {
+        final SymbolMapReader symbolMapReader = symbolMapReaders.getQuick(columnIndex);
+        if (symbolMapReader == null) {
+            // the batch is rejected, the caller cancels it and the writer stays usable
+            throw CairoException.nonCritical().put("column is not a symbol [column=").put(metadata.getColumnName(columnIndex)).put(']');
+        }
+        checkBatchColumn(columnIndex);
+        final MemoryMA dataMem = getDataColumn(columnIndex);
+        long lo = dataAddress;
+        for (long r = 0; r < rowCount; r++) {
+            final int size = Unsafe.getUnsafe().getInt(sizesAddress + r * Integer.BYTES);
+            if (size < 0) {
+                dataMem.putInt(resolveSymbol(columnIndex, null, symbolMapReader));
+            } else {
+                dataMem.putInt(resolveSymbolUtf8(columnIndex, batchUtf8Value.of(lo, lo + size), symbolMapReader));
+                lo += size;
+            }
+        }
+        setBatchValueNotNull(columnIndex, rowCount);
+    }
+
+    /**
+     * Copies designated timestamp values into the current batch.
+     *
+     * @param address  address of the timestamps in microseconds
+     * @param rowCount number of rows in the batch
+     */
+    public void putBatchTimestamp(long address, long rowCount) {
+        checkBatchColumn(timestampIndex);
+        final MemoryMA dataMem = getDataColumn(timestampIndex);
+        long maxTimestamp = txnMaxTimestamp;
+        long minTimestamp = txnMinTimestamp;
+        boolean outOfOrder = txnOutOfOrder;
+        for (long r = 0; r < rowCount; r++) {
+            final long timestamp = Unsafe.getUnsafe().getLong(address + r * Long.BYTES);
+            if (timestamp < Timestamps.O3_MIN_TS) {
+                throw CairoException.nonCritical().put("timestamp before 1970-01-01 is not allowed");
+            }
+            dataMem.putLong128(timestamp, segmentRowCount + r);
+            if (timestamp > maxTimestamp) {
+                maxTimestamp = timestamp;
+            } else {
+                outOfOrder |= (maxTimestamp != timestamp);
+            }
+            if (timestamp < minTimestamp) {
+                minTimestamp = timestamp;
+            }
+        }
+        batchMaxTimestamp = maxTimestamp;
+        batchMinTimestamp = minTimestamp;
+        batchOutOfOrder = outOfOrder;
+        setBatchValueNotNull(timestampIndex, rowCount);
+    }
+
+    /**
+     * Writes UTF-8 values of a VARCHAR column into the current batch.
+     *
+     * @param columnIndex  index of the column
+     * @param sizesAddress address of int value sizes in bytes, negative size stands for null
+     * @param dataAddress  address of the value bytes, laid out one after another
+     * @param rowCount     number of rows in the batch
+     */
+    public void putBatchVarchar(int columnIndex, long sizesAddress, long dataAddress, long rowCount) {
+        checkBatchColumn(columnIndex);
+        final MemoryMA dataMem = getDataColumn(columnIndex);
+        final MemoryMA auxMem = getAuxColumn(columnIndex);
+        long lo = dataAddress;
+        for (long r = 0; r < rowCount; r++) {
+            final int size = Unsafe.getUnsafe().getInt(sizesAddress + r * Integer.BYTES);
+            if (size < 0) {
+                VarcharTypeDriver.appendValue(auxMem, dataMem, null);
+            } else {
+                VarcharTypeDriver.appendValue(auxMem, dataMem, batchUtf8Value.of(lo, lo + size, Utf8s.isAscii(lo, size)));
+                lo += size;
+            }
+        }
+        setBatchValueNotNull(columnIndex, rowCount);
+    }
+
     public long renameTable(@NotNull CharSequence oldName, String newTableName) {
         if (!Chars.equalsIgnoreCaseNc(oldName, tableToken.getTableName())) {
             throw CairoException.tableDoesNotExist(oldName);
@@ -704,6 +900,31 @@ public class WalWriter implements TableWriterAPI {
         return columnIndex * 2;
     }
 
+    private void appendFrames() {
+        final long rowLo = currentTxnStartRowNum;
+        final long rowHi = segmentRowCount;
+        frames.beginTxn();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            if (columnType > 0) {
+                final MemoryMA dataMem = getDataColumn(i);
+                if (ColumnType.isVarSize(columnType)) {
+                    final ColumnTypeDriver driver = ColumnType.getDriver(columnType);
+                    final long auxFd = getAuxColumn(i).getFd();
+                    // Same ranges as mapped by the table writer when the transaction is applied
+                    final long auxLo = driver.getAuxVectorOffset(rowLo);
+                    frames.appendEntry(WalFrameReader.fileIndex(i, true), auxFd, auxLo, driver.getAuxVectorSize(rowHi) - auxLo);
+                    final long dataLo = driver.getDataVectorSizeAtFromFd(ff, auxFd, rowLo - 1);
+                    frames.appendEntry(WalFrameReader.fileIndex(i, false), dataMem.getFd(), dataLo, driver.getDataVectorSizeAtFromFd(ff, auxFd, rowHi - 1) - dataLo);
+                } else {
+                    final int shl = ColumnType.getWalDataColumnShl(columnType, i == timestampIndex);
+                    frames.appendEntry(WalFrameReader.fileIndex(i, false), dataMem.getFd(), rowLo << shl, (rowHi - rowLo) << shl);
+                }
+            }
+        }
+        frames.endTxn();
+    }
+
     private long acquireSegmentLock() {
         final int segmentPathLen = path.size();
         try {
@@ -862,6 +1083,12 @@ public class WalWriter implements TableWriterAPI {
         return tally > threshold;
     }
 
+    private void checkBatchColumn(int columnIndex) {
+        if (rowValueIsNotNull.getQuick(columnIndex) >= segmentRowCount) {
+            throw CairoException.nonCritical().put("duplicate column in the batch [column=").put(metadata.getColumnName(columnIndex)).put(']');
+        }
+    }
+
     private void checkDistressed() {
         if (!distressed) {
             return;
@@ -1311,6 +1538,9 @@ public class WalWriter implements TableWriterAPI {
             segmentRowCount = 0;
             metadata.switchTo(path, segmentPathLen, isTruncateFilesOnClose());
             events.openEventFile(path, segmentPathLen, isTruncateFilesOnClose(), tableToken.isSystem());
+            if (frames != null) {
+                frames.of(path, segmentPathLen);
+            }
             if (commitMode != CommitMode.NOSYNC) {
                 events.sync();
             }
@@ -1453,6 +1683,43 @@ public class WalWriter implements TableWriterAPI {
         }
     }
 
+    private int resolveSymbol(int columnIndex, CharSequence utf16Value, SymbolMapReader symbolMapReader) {
+        int key;
+        if (utf16Value != null) {
+            final CharSequenceIntHashMap utf16Map = symbolMaps.getQuick(columnIndex);
+            final int index = utf16Map.keyIndex(utf16Value);
+            if (index > -1) {
+                key = symbolMapReader.keyOf(utf16Value);
+                if (key == SymbolTable.VALUE_NOT_FOUND) {
+                    // Add it to in-memory symbol map
+                    // Locally added symbols must have a continuous range of keys
+                    final int initialSymCount = initialSymbolCounts.get(columnIndex);
+                    key = initialSymCount + localSymbolIds.postIncrement(columnIndex);
+                }
+                // Chars.toString used as value is a parser buffer memory slice or mapped memory of symbolMapReader
+                utf16Map.putAt(index, Chars.toString(utf16Value), key);
+            } else {
+                key = utf16Map.valueAt(index);
+            }
+        } else {
+            key = SymbolTable.VALUE_IS_NULL;
+            symbolMapNullFlags.set(columnIndex, true);
+        }
+        return key;
+    }
+
+    private int resolveSymbolUtf8(int columnIndex, DirectUtf8Sequence utf8Value, SymbolMapReader symbolMapReader) {
+        final Utf8StringIntHashMap utf8Map = utf8SymbolMaps.getQuick(columnIndex);
+        final int index = utf8Map.keyIndex(utf8Value);
+        if (index < 0) {
+            return utf8Map.valueAt(index);
+        }
+        // slow path, symbol is not in utf8 cache
+        final int key = resolveSymbol(columnIndex, Utf8s.directUtf8ToUtf16(utf8Value, symbolUtf16Sink), symbolMapReader);
+        utf8Map.putAt(index, Utf8String.newInstance(utf8Value), key);
+        return key;
+    }
+
     private void rollLastWalEventRecord(int newSegmentId, long uncommittedRows) {
         if (isCommittingData) {
             // Sometimes we only want to add a column without committing the data in the current wal segments in ILP.
@@ -1462,7 +1729,11 @@ public class WalWriter implements TableWriterAPI {
             events.rollback();
         }
         path.trimTo(pathSize).slash().put(newSegmentId);
-        events.openEventFile(path, path.size(), isTruncateFilesOnClose(), tableToken.isSystem());
+        final int segmentPathLen = path.size();
+        events.openEventFile(path, segmentPathLen, isTruncateFilesOnClose(), tableToken.isSystem());
+        if (frames != null) {
+            frames.of(path, segmentPathLen);
+        }
         if (isCommittingData) {
             // When current transaction is not a data transaction but a column add transaction
             // there is no need to add a record about it to the new segment event file.
@@ -1517,6 +1788,12 @@ public class WalWriter implements TableWriterAPI {
         }
     }
 
+    private void setBatchValueNotNull(int columnIndex, long rowCount) {
+        if (rowCount > 0) {
+            rowValueIsNotNull.setQuick(columnIndex, segmentRowCount + rowCount - 1);
+        }
+    }
+
     private void setColumnNull(int columnType, int columnIndex, long rowCount, int commitMode) {
         if (ColumnType.isVarSize(columnType)) {
             final ColumnTypeDriver columnTypeDriver = ColumnType.getDriver(columnType);
@@ -1624,11 +1901,16 @@ public class WalWriter implements TableWriterAPI {
     }
 
     private void sync(int commitMode) {
-        final boolean async = commitMode == CommitMode.ASYNC;
-        for (int i = 0, n = columns.size(); i < n; i++) {
-            MemoryMA column = columns.getQuick(i);
-            if (column != null) {
-                column.sync(async);
+        if (frames != null) {
+            // Committed data is durable in the frames file, raw pages are about to be released.
+            frames.sync();
+        } else {
+            final boolean async = commitMode == CommitMode.ASYNC;
+            for (int i = 0, n = columns.size(); i < n; i++) {
+                MemoryMA column = columns.getQuick(i);
+                if (column != null) {
+                    column.sync(async);
+                }
             }
         }
         events.sync();
@@ -2104,7 +2386,6 @@ public class WalWriter implements TableWriterAPI {
     }
 
     private class RowImpl implements TableWriter.Row {
-        private final StringSink tempSink = new StringSink();
         private final Utf8StringSink tempUtf8Sink = new Utf8StringSink();
         private long timestamp;
 
@@ -2301,19 +2582,8 @@ public class WalWriter implements TableWriterAPI {
             // otherwise it will write nothing.
             final SymbolMapReader symbolMapReader = symbolMapReaders.getQuick(columnIndex);
             if (symbolMapReader != null) {
-                Utf8StringIntHashMap utf8Map = utf8SymbolMaps.getQuick(columnIndex);
-                int index = utf8Map.keyIndex(value);
-                if (index < 0) {
-                    getPrimaryColumn(columnIndex).putInt(utf8Map.valueAt(index));
-                    setRowValueNotNull(columnIndex);
-                } else {
-                    // slow path, symbol is not in utf8 cache
-                    utf8Map.putAt(
-                            index,
-                            Utf8String.newInstance(value),
-                            putSymUtf8Slow(columnIndex, value, symbolMapReader)
-                    );
-                }
+                getPrimaryColumn(columnIndex).putInt(resolveSymbolUtf8(columnIndex, value, symbolMapReader));
+                setRowValueNotNull(columnIndex);
             } else {
                 throw new UnsupportedOperationException();
             }
@@ -2369,45 +2639,12 @@ public class WalWriter implements TableWriterAPI {
         }
 
         private int putSym0(int columnIndex, CharSequence utf16Value, SymbolMapReader symbolMapReader) {
-            int key;
-            if (utf16Value != null) {
-                final CharSequenceIntHashMap utf16Map = symbolMaps.getQuick(columnIndex);
-                final int index = utf16Map.keyIndex(utf16Value);
-                if (index > -1) {
-                    key = symbolMapReader.keyOf(utf16Value);
-                    if (key == SymbolTable.VALUE_NOT_FOUND) {
-                        // Add it to in-memory symbol map
-                        // Locally added symbols must have a continuous range of keys
-                        final int initialSymCount = initialSymbolCounts.get(columnIndex);
-                        key = initialSymCount + localSymbolIds.postIncrement(columnIndex);
-                    }
-                    // Chars.toString used as value is a parser buffer memory slice or mapped memory of symbolMapReader
-                    utf16Map.putAt(index, Chars.toString(utf16Value), key);
-                } else {
-                    key = utf16Map.valueAt(index);
-                }
-            } else {
-                key = SymbolTable.VALUE_IS_NULL;
-                symbolMapNullFlags.set(columnIndex, true);
-            }
-
+            final int key = resolveSymbol(columnIndex, utf16Value, symbolMapReader);
             getPrimaryColumn(columnIndex).putInt(key);
             setRowValueNotNull(columnIndex);
             return key;
         }
 
-        private int putSymUtf8Slow(
-                int columnIndex,
-                DirectUtf8Sequence utf8Value,
-                SymbolMapReader symbolMapReader
-        ) {
-            return putSym0(
-                    columnIndex,
-                    Utf8s.directUtf8ToUtf16(utf8Value, tempSink),
-                    symbolMapReader
-            );
-        }
-
         private void setTimestamp(long value) {
             // avoid lookups by having a designated field with primaryColumn
             getPrimaryColumn(timestampIndex).putLong128(value, segmentRowCount);
@@ -33,6 +33,11 @@ import org.jetbrains.annotations.NotNull;
 
 public interface MetadataServiceStub extends MetadataService {
 
+    @Override
+    default void addBloomFilter(@NotNull CharSequence columnName) {
+        throw CairoException.critical(0).put("add bloom filter does not update sequencer metadata");
+    }
+
     @Override
     default void addIndex(@NotNull CharSequence columnName, int indexValueBlockSize) {
         throw CairoException.critical(0).put("add index does not update sequencer metadata");
@@ -62,6 +67,11 @@ public interface MetadataServiceStub extends MetadataService {
     default void disableDeduplication() {
     }
 
+    @Override
+    default void dropBloomFilter(@NotNull CharSequence columnName) {
+        throw CairoException.critical(0).put("drop bloom filter does not update sequencer metadata");
+    }
+
     @Override
     default void dropIndex(@NotNull CharSequence columnName) {
         throw CairoException.critical(0).put("drop index does not update sequencer metadata");
@@ -106,6 +116,11 @@ public interface MetadataServiceStub extends MetadataService {
         throw CairoException.critical(0).put("change of o3MaxLag does not update sequencer metadata");
     }
 
+    @Override
+    default void setMetaParquetConversionAge(long parquetConversionAgeUs) {
+        throw CairoException.critical(0).put("change of parquetConversionAge does not update sequencer metadata");
+    }
+
     @Override
     default void squashPartitions() {
         throw CairoException.critical(0).put("partition squash does not update sequencer metadata");
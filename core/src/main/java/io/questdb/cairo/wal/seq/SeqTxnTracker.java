@@ -37,7 +37,12 @@ public class SeqTxnTracker implements O3JobParallelismRegulator {
     private static final Log LOG = LogFactory.getLog(SeqTxnTracker.class);
     private static final long SEQ_TXN_OFFSET = Unsafe.getFieldOffset(SeqTxnTracker.class, "seqTxn");
     private static final long SUSPENDED_STATE_OFFSET = Unsafe.getFieldOffset(SeqTxnTracker.class, "suspendedState");
+    private static final long UNAPPLIED_SINCE_OFFSET = Unsafe.getFieldOffset(SeqTxnTracker.class, "unappliedSince");
     private static final long WRITER_TXN_OFFSET = Unsafe.getFieldOffset(SeqTxnTracker.class, "writerTxn");
+    // moving average of apply time per transaction, in micros
+    private volatile long applyMicrosPerTxn;
+    // moving average of rows per applied transaction
+    private volatile long applyRowsPerTxn;
     private volatile String errorMessage = "";
     private volatile ErrorTag errorTag = ErrorTag.NONE;
     private int maxRecordedInflightPartitions = 1;
@@ -50,9 +55,18 @@ public class SeqTxnTracker implements O3JobParallelismRegulator {
     // 0 unknown
     // 1 not suspended
     private volatile int suspendedState = 0;
+    // commit timestamp of the oldest transaction not yet applied to the table, -1 if there is none
+    private volatile long unappliedSince = -1;
     private long walBackoffUntil = -1;
     private volatile long writerTxn = -1;
 
+    /**
+     * Returns approximate number of sequencer transactions not yet applied to the table.
+     */
+    public long getBacklogTxnCount() {
+        return Math.max(0, seqTxn - writerTxn);
+    }
+
     public String getErrorMessage() {
         return errorMessage;
     }
@@ -61,6 +75,31 @@ public class SeqTxnTracker implements O3JobParallelismRegulator {
         return errorTag;
     }
 
+    /**
+     * Returns approximate time to apply the transaction backlog, based on the time
+     * previous transactions took to apply.
+     */
+    public long getEstimatedApplyMicros() {
+        return getBacklogTxnCount() * applyMicrosPerTxn;
+    }
+
+    /**
+     * Returns approximate number of rows in the transaction backlog, based on the size
+     * of previously applied transactions.
+     */
+    public long getEstimatedBacklogRows() {
+        return getBacklogTxnCount() * applyRowsPerTxn;
+    }
+
+    /**
+     * Returns age of the oldest transaction that is committed to the sequencer,
+     * but not yet applied to the table, or 0 when the table is up-to-date.
+     */
+    public long getLagMicros(long nowMicros) {
+        final long since = unappliedSince;
+        return since > -1 && seqTxn > writerTxn ? Math.max(0, nowMicros - since) : 0;
+    }
+
     public int getMaxO3MergeParallelism() {
         return Math.max(1, memoryPressureRegulationValue);
     }
@@ -138,6 +177,9 @@ public class SeqTxnTracker implements O3JobParallelismRegulator {
         if (newWriterTxn > -1) {
             suspendedState = 1;
         }
+        if (newWriterTxn >= seqTxn) {
+            unappliedSince = -1;
+        }
         return newWriterTxn < seqTxn;
     }
 
@@ -161,6 +203,10 @@ public class SeqTxnTracker implements O3JobParallelismRegulator {
             }
             stxn = seqTxn;
         }
+        if (newSeqTxn > stxn && stxn <= writerTxn) {
+            // the table was up-to-date, so this is the oldest unapplied transaction now
+            Unsafe.cas(this, UNAPPLIED_SINCE_OFFSET, -1, MicrosecondClockImpl.INSTANCE.getTicks());
+        }
         // Return that Apply job notification is needed
         // when there is some new work for ApplyWal2Table job
         // Notify on transactions that are first move seqTxn from -1 or 0
@@ -168,6 +214,24 @@ public class SeqTxnTracker implements O3JobParallelismRegulator {
         return (stxn < 1 || writerTxn == (newSeqTxn - 1)) && suspendedState >= 0;
     }
 
+    /**
+     * Records statistics of a WAL apply run. They are used to estimate the size of the backlog.
+     * This is only called under TableWriter lock.
+     *
+     * @param txnCount       number of applied transactions
+     * @param rowCount       number of applied rows
+     * @param micros         time spent applying the transactions
+     * @param unappliedSince commit timestamp of the oldest transaction left unapplied
+     */
+    public void onApplied(long txnCount, long rowCount, long micros, long unappliedSince) {
+        if (txnCount > 0) {
+            // exponential moving average, so that the estimates follow changes in the ingestion pattern
+            applyMicrosPerTxn = (applyMicrosPerTxn + micros / txnCount) / 2;
+            applyRowsPerTxn = (applyRowsPerTxn + rowCount / txnCount) / 2;
+        }
+        this.unappliedSince = unappliedSince;
+    }
+
     /**
      * Applies anti-OOM measures if possible, either by reducing job parallelism, or applying backoff.<br>
      * If it was possible to apply more measures, returns true → the operation can retry.<br>
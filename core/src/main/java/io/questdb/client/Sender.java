@@ -30,8 +30,11 @@ import io.questdb.HttpClientConfiguration;
 import io.questdb.client.impl.ConfStringParser;
 import io.questdb.cutlass.auth.AuthUtils;
 import io.questdb.cutlass.line.LineChannel;
+import io.questdb.cutlass.line.LineColumnBatch;
 import io.questdb.cutlass.line.LineSenderException;
 import io.questdb.cutlass.line.LineTcpSender;
+import io.questdb.cutlass.line.http.LineHttpAsyncSender;
+import io.questdb.cutlass.line.http.LineHttpConcurrentSender;
 import io.questdb.cutlass.line.http.LineHttpSender;
 import io.questdb.cutlass.line.tcp.DelegatingTlsChannel;
 import io.questdb.cutlass.line.tcp.PlainTcpLineChannel;
@@ -72,7 +75,8 @@ import java.util.concurrent.TimeUnit;
  * when you no longer need it.
  * <br>
  * Thread-safety: Sender is not thread-safe. Each thread-safe needs its own instance, or you have to implement
- * a mechanism for passing Sender instances among thread. An object pool could have this role.
+ * a mechanism for passing Sender instances among thread. An object pool could have this role. Alternatively,
+ * a Sender built with {@link LineSenderBuilder#stripes(int)} can be shared by multiple threads.
  * <br>
  * This client supports both HTTP and TCP protocols. In most cases you should prefer HTTP protocol as it provides
  * stronger transactional guarantees and better feedback in case of errors.
@@ -206,6 +210,24 @@ public interface Sender extends Closeable {
      */
     void atNow();
 
+    /**
+     * Start a batch of rows for a table, see {@link ColumnBatch}. Values are passed column by column as
+     * primitive arrays or off-heap buffers, which saves per-field calls and checks of the row API.
+     * <br>
+     * The batch must be finished by one of its <code>at</code> methods before the sender is used again.
+     * A row in progress must be finished before starting a batch.
+     * <br>
+     * The default implementation allocates a new batch on every call and writes it through the row API.
+     * Senders with native batch support override it and reuse a single batch instance.
+     *
+     * @param table    name of the table
+     * @param rowCount number of rows in the batch
+     * @return batch to add columns to
+     */
+    default ColumnBatch batch(CharSequence table, int rowCount) {
+        return new LineColumnBatch(this).of(table, rowCount);
+    }
+
     /**
      * Add a column with a boolean value.
      *
@@ -324,6 +346,130 @@ public interface Sender extends Closeable {
      */
     Sender timestampColumn(CharSequence name, Instant value);
 
+    /**
+     * Columns of a batch of rows started by {@link Sender#batch(CharSequence, int)}. Each column
+     * must have at least as many values as there are rows in the batch. Arrays and buffers are not copied
+     * until one of the <code>at</code> methods is called, so they must not be modified before that.
+     * <br>
+     * Symbols are written before other columns regardless of the order they were added in.
+     * Null strings and symbols are treated as missing values.
+     * <p>
+     * <b>Example</b><br>
+     * <code>sender.batch("trades", n).symbol("sym", symbols).doubleColumn("price", prices).at(timestamps, ChronoUnit.MICROS);</code>
+     */
+    interface ColumnBatch {
+
+        /**
+         * Finish the batch and assign explicit timestamps to its rows.
+         *
+         * @param timestamps timestamp values since epoch, one per row
+         * @param unit       timestamp unit
+         */
+        void at(long[] timestamps, ChronoUnit unit);
+
+        /**
+         * Finish the batch and assign explicit timestamps to its rows.
+         *
+         * @param address off-heap address of 64-bit timestamp values since epoch, one per row
+         * @param unit    timestamp unit
+         */
+        void atDirect(long address, ChronoUnit unit);
+
+        /**
+         * Finish the batch and let QuestDB server assign timestamps to its rows.
+         */
+        void atNow();
+
+        /**
+         * Add a column with boolean values.
+         *
+         * @param name   name of the column
+         * @param values values, one per row
+         * @return this instance for method chaining
+         */
+        ColumnBatch boolColumn(CharSequence name, boolean[] values);
+
+        /**
+         * Add a column with floating point values.
+         *
+         * @param name   name of the column
+         * @param values values, one per row
+         * @return this instance for method chaining
+         */
+        ColumnBatch doubleColumn(CharSequence name, double[] values);
+
+        /**
+         * Add a column with floating point values stored off-heap.
+         *
+         * @param name    name of the column
+         * @param address off-heap address of 64-bit values, one per row
+         * @return this instance for method chaining
+         */
+        ColumnBatch doubleColumnDirect(CharSequence name, long address);
+
+        /**
+         * Add a column with integer values.
+         *
+         * @param name   name of the column
+         * @param values values, one per row
+         * @return this instance for method chaining
+         */
+        ColumnBatch longColumn(CharSequence name, long[] values);
+
+        /**
+         * Add a column with integer values stored off-heap.
+         *
+         * @param name    name of the column
+         * @param address off-heap address of 64-bit values, one per row
+         * @return this instance for method chaining
+         */
+        ColumnBatch longColumnDirect(CharSequence name, long address);
+
+        /**
+         * Add a column with string values.
+         *
+         * @param name   name of the column
+         * @param values values, one per row
+         * @return this instance for method chaining
+         */
+        ColumnBatch stringColumn(CharSequence name, CharSequence[] values);
+
+        /**
+         * Add a column with symbol values.
+         *
+         * @param name   name of the column
+         * @param values values, one per row
+         * @return this instance for method chaining
+         */
+        ColumnBatch symbol(CharSequence name, CharSequence[] values);
+
+        /**
+         * Add a column with non-designated timestamp values.
+         *
+         * @param name   name of the column
+         * @param values timestamp values since epoch, one per row
+         * @param unit   timestamp unit
+         * @return this instance for method chaining
+         */
+        ColumnBatch timestampColumn(CharSequence name, long[] values, ChronoUnit unit);
+    }
+
+    /**
+     * Callback receiving errors of requests sent asynchronously.
+     *
+     * @see LineSenderBuilder#inFlightWindow(int)
+     */
+    @FunctionalInterface
+    interface ErrorHandler {
+
+        /**
+         * Called on a sender's I/O thread when a batch could not be sent. The batch is dropped.
+         *
+         * @param e error, as it would be thrown by {@link Sender#flush()} of a synchronous sender
+         */
+        void onError(LineSenderException e);
+    }
+
     /**
      * Configure TLS mode.
      * Most users should not need to use anything but the default mode.
@@ -408,6 +554,7 @@ public interface Sender extends Closeable {
         private static final int DEFAULT_AUTO_FLUSH_INTERVAL_MILLIS = 1_000;
         private static final int DEFAULT_AUTO_FLUSH_ROWS = 75_000;
         private static final int DEFAULT_BUFFER_CAPACITY = 64 * 1024;
+        private static final int DEFAULT_CONNECTIONS = 2;
         private static final int DEFAULT_HTTP_PORT = 9000;
         private static final int DEFAULT_HTTP_TIMEOUT = 30_000;
         private static final int DEFAULT_MAXIMUM_BUFFER_CAPACITY = 100 * 1024 * 1024;
@@ -422,12 +569,17 @@ public interface Sender extends Closeable {
         private static final int PARAMETER_NOT_SET_EXPLICITLY = -1;
         private static final int PROTOCOL_HTTP = 1;
         private static final int PROTOCOL_TCP = 0;
+        private int autoFlushBytes = PARAMETER_NOT_SET_EXPLICITLY;
         private int autoFlushIntervalMillis = PARAMETER_NOT_SET_EXPLICITLY;
         private int autoFlushRows = PARAMETER_NOT_SET_EXPLICITLY;
         private int bufferCapacity = PARAMETER_NOT_SET_EXPLICITLY;
+        private boolean columnarFormat;
+        private int connections = PARAMETER_NOT_SET_EXPLICITLY;
+        private ErrorHandler errorHandler;
         private String host;
         private int httpTimeout = PARAMETER_NOT_SET_EXPLICITLY;
         private String httpToken;
+        private int inFlightWindow = PARAMETER_NOT_SET_EXPLICITLY;
         private String keyId;
         private int maximumBufferCapacity = PARAMETER_NOT_SET_EXPLICITLY;
         private final HttpClientConfiguration httpClientConfiguration = new DefaultHttpClientConfiguration() {
@@ -453,6 +605,7 @@ public interface Sender extends Closeable {
         private int protocol = PARAMETER_NOT_SET_EXPLICITLY;
         private int retryTimeoutMillis = PARAMETER_NOT_SET_EXPLICITLY;
         private boolean shouldDestroyPrivKey;
+        private int stripes = PARAMETER_NOT_SET_EXPLICITLY;
         private boolean tlsEnabled;
         private TlsValidationMode tlsValidationMode;
         private char[] trustStorePassword;
@@ -527,6 +680,29 @@ public interface Sender extends Closeable {
             return new AdvancedTlsSettings();
         }
 
+        /**
+         * Set the buffer size in bytes of a stripe which triggers automatic flushing of the stripe.
+         * <p>
+         * This can be used only with {@link #stripes(int)} when communicating over HTTP transport. Only rows
+         * buffered as text ILP are accounted, see {@link #columnarFormat()}. Setting this to zero disables
+         * size-based flushing, which is the default.
+         *
+         * @param autoFlushBytes stripe size in bytes which triggers flushing
+         * @return this instance for method chaining
+         */
+        public LineSenderBuilder autoFlushBytes(int autoFlushBytes) {
+            if (this.autoFlushBytes != PARAMETER_NOT_SET_EXPLICITLY) {
+                throw new LineSenderException("auto flush bytes was already configured ")
+                        .put("[autoFlushBytes=").put(this.autoFlushBytes).put("]");
+            }
+            if (autoFlushBytes < 0) {
+                throw new LineSenderException("auto flush bytes cannot be negative ")
+                        .put("[autoFlushBytes=").put(autoFlushBytes).put("]");
+            }
+            this.autoFlushBytes = autoFlushBytes;
+            return this;
+        }
+
         /**
          * Set the interval in milliseconds at which the Sender automatically flushes its buffer.
          * <br>
@@ -656,7 +832,15 @@ public interface Sender extends Closeable {
                     assert (trustStorePath == null) == (trustStorePassword == null); //either both null or both non-null
                     tlsConfig = new ClientTlsConfiguration(trustStorePath, trustStorePassword, tlsValidationMode == TlsValidationMode.DEFAULT ? ClientTlsConfiguration.TLS_VALIDATION_MODE_FULL : ClientTlsConfiguration.TLS_VALIDATION_MODE_NONE);
                 }
-                return new LineHttpSender(host, port, httpClientConfiguration, tlsConfig, actualAutoFlushRows, httpToken, username, password, actualMaxRetriesNanos, actualMinRequestThroughput, actualAutoFlushIntervalMillis);
+                if (stripes != PARAMETER_NOT_SET_EXPLICITLY) {
+                    int actualAutoFlushBytes = autoFlushBytes == PARAMETER_NOT_SET_EXPLICITLY ? AUTO_FLUSH_DISABLED : autoFlushBytes;
+                    int actualConnections = connections == PARAMETER_NOT_SET_EXPLICITLY ? DEFAULT_CONNECTIONS : connections;
+                    return new LineHttpConcurrentSender(host, port, httpClientConfiguration, tlsConfig, actualAutoFlushRows, actualAutoFlushBytes, httpToken, username, password, actualMaxRetriesNanos, actualMinRequestThroughput, actualAutoFlushIntervalMillis, columnarFormat, stripes, actualConnections);
+                }
+                if (inFlightWindow != PARAMETER_NOT_SET_EXPLICITLY) {
+                    return new LineHttpAsyncSender(host, port, httpClientConfiguration, tlsConfig, actualAutoFlushRows, httpToken, username, password, actualMaxRetriesNanos, actualMinRequestThroughput, actualAutoFlushIntervalMillis, columnarFormat, inFlightWindow, errorHandler);
+                }
+                return new LineHttpSender(host, port, httpClientConfiguration, tlsConfig, actualAutoFlushRows, httpToken, username, password, actualMaxRetriesNanos, actualMinRequestThroughput, actualAutoFlushIntervalMillis, columnarFormat);
             }
             assert protocol == PROTOCOL_TCP;
             LineChannel channel = new PlainTcpLineChannel(nf, host, port, bufferCapacity * 2);
@@ -696,6 +880,54 @@ public interface Sender extends Closeable {
             return sender;
         }
 
+        /**
+         * Send rows in the columnar binary format instead of text ILP.
+         * <p>
+         * Rows are buffered column by column and sent as contiguous column arrays, which the server copies to
+         * the table's WAL without parsing. This reduces server CPU usage per row considerably. The format has
+         * the following limitations:
+         * <ul>
+         *     <li>target tables and columns must exist, the server does not create them</li>
+         *     <li>column types have to match table column types, e.g. {@link Sender#longColumn(CharSequence, long)}
+         *     can be written to LONG columns only, while strings and symbols can be written to VARCHAR, STRING and
+         *     SYMBOL columns</li>
+         *     <li>{@link Sender#atNow()} uses the client's clock rather than the server's one</li>
+         * </ul>
+         * <br>
+         * This is only used when communicating over HTTP transport, and it's illegal to call this method when
+         * communicating over TCP transport.
+         *
+         * @return this instance for method chaining
+         */
+        public LineSenderBuilder columnarFormat() {
+            if (columnarFormat) {
+                throw new LineSenderException("columnar format was already enabled");
+            }
+            columnarFormat = true;
+            return this;
+        }
+
+        /**
+         * Set the number of connections shared by stripes, see {@link #stripes(int)}.
+         * <br>
+         * Default value: 2
+         *
+         * @param connections number of connections
+         * @return this instance for method chaining
+         */
+        public LineSenderBuilder connections(int connections) {
+            if (this.connections != PARAMETER_NOT_SET_EXPLICITLY) {
+                throw new LineSenderException("connections were already configured ")
+                        .put("[connections=").put(this.connections).put("]");
+            }
+            if (connections < 1) {
+                throw new LineSenderException("connections must be positive ")
+                        .put("[connections=").put(connections).put("]");
+            }
+            this.connections = connections;
+            return this;
+        }
+
         /**
          * Disables automatic flushing of buffered data.
          * <p>
@@ -767,6 +999,26 @@ public interface Sender extends Closeable {
             return this;
         }
 
+        /**
+         * Set a callback receiving errors of asynchronously sent requests. The callback is called on a sender's
+         * I/O thread.
+         * <p>
+         * Without an error handler, the first error is thrown by the next call to {@link Sender#flush()}
+         * or {@link Sender#close()}.
+         * <br>
+         * This can be used only together with {@link #inFlightWindow(int)}.
+         *
+         * @param errorHandler callback receiving errors
+         * @return this instance for method chaining
+         */
+        public LineSenderBuilder errorHandler(ErrorHandler errorHandler) {
+            if (this.errorHandler != null) {
+                throw new LineSenderException("error handler was already configured");
+            }
+            this.errorHandler = errorHandler;
+            return this;
+        }
+
         /**
          * Set timeout is milliseconds for HTTP requests.
          * <br>
@@ -844,6 +1096,38 @@ public interface Sender extends Closeable {
             return this;
         }
 
+        /**
+         * Send requests asynchronously, keeping up to the given number of requests in flight.
+         * <p>
+         * The Sender uses a connection and a request buffer for each in-flight request plus one buffer for rows
+         * being appended. {@link Sender#flush()}, including automatic flushes, hands the buffered rows over to
+         * an I/O thread and returns without waiting for the response, so that the application can keep appending
+         * rows while previous batches are on the wire. It blocks only when all requests of the window are in flight.
+         * {@link Sender#close()} waits for all in-flight requests to complete.
+         * <p>
+         * Since errors are not reported by the flushing call, use {@link #errorHandler(ErrorHandler)} to get
+         * notified about failed batches. Batches may be committed out of order, and each batch is committed
+         * as a separate transaction.
+         * <br>
+         * This is only used when communicating over HTTP transport, and it's illegal to call this method when
+         * communicating over TCP transport.
+         *
+         * @param inFlightWindow maximum number of requests in flight
+         * @return this instance for method chaining
+         */
+        public LineSenderBuilder inFlightWindow(int inFlightWindow) {
+            if (this.inFlightWindow != PARAMETER_NOT_SET_EXPLICITLY) {
+                throw new LineSenderException("in-flight window was already configured ")
+                        .put("[inFlightWindow=").put(this.inFlightWindow).put("]");
+            }
+            if (inFlightWindow < 1) {
+                throw new LineSenderException("in-flight window must be positive ")
+                        .put("[inFlightWindow=").put(inFlightWindow).put("]");
+            }
+            this.inFlightWindow = inFlightWindow;
+            return this;
+        }
+
         /**
          * Set the maximum local buffer capacity in bytes.
          * <br>
@@ -954,6 +1238,35 @@ public interface Sender extends Closeable {
             return this;
         }
 
+        /**
+         * Build a thread-safe Sender that buffers rows in the given number of stripes.
+         * <p>
+         * Each thread is assigned a stripe on its first row and appends rows to it without locking, as long as
+         * there are no more threads than stripes. Stripes are flushed over a pool of {@link #connections(int)}
+         * connections: a stripe is flushed once it reaches {@link #autoFlushRows(int)} rows or
+         * {@link #autoFlushBytes(int)} bytes, and all stripes are merged into a single request once the
+         * {@link #autoFlushIntervalMillis(int)} elapses. {@link Sender#flush()} sends rows of all stripes that
+         * don't have a row in progress by other threads.
+         * <br>
+         * This is only used when communicating over HTTP transport, and it's illegal to call this method when
+         * communicating over TCP transport.
+         *
+         * @param stripes number of stripes, usually the number of producer threads
+         * @return this instance for method chaining
+         */
+        public LineSenderBuilder stripes(int stripes) {
+            if (this.stripes != PARAMETER_NOT_SET_EXPLICITLY) {
+                throw new LineSenderException("stripes were already configured ")
+                        .put("[stripes=").put(this.stripes).put("]");
+            }
+            if (stripes < 1) {
+                throw new LineSenderException("stripes must be positive ")
+                        .put("[stripes=").put(stripes).put("]");
+            }
+            this.stripes = stripes;
+            return this;
+        }
+
         private static int getValue(CharSequence configurationString, int pos, StringSink sink, String name) {
             if ((pos = ConfStringParser.value(configurationString, pos, sink)) < 0) {
                 throw new LineSenderException("invalid ").put(name).put(" [error=").put(sink).put("]");
@@ -1173,11 +1486,11 @@ public interface Sender extends Closeable {
                     }
                     autoFlushIntervalMillis(autoFlushInterval);
                 } else if (Chars.equals("auto_flush_bytes", sink)) {
-                    if (protocol != PROTOCOL_TCP) {
-                        throw new LineSenderException("auto_flush_bytes is only supported for TCP transport");
-                    }
                     pos = getValue(configurationString, pos, sink, "auto_flush_bytes");
-                    if (Chars.equalsIgnoreCase("off", sink)) {
+                    if (protocol != PROTOCOL_TCP) {
+                        // HTTP transport supports it with stripes only, this is validated once all parameters are known
+                        autoFlushBytes(Chars.equalsIgnoreCase("off", sink) ? 0 : parseIntValue(sink, "auto_flush_bytes"));
+                    } else if (Chars.equalsIgnoreCase("off", sink)) {
                         throw new LineSenderException("TCP transport must have auto_flush_bytes enabled");
                     } else {
                         int autoFlushBytes = parseIntValue(sink, "auto_flush_bytes");
@@ -1201,6 +1514,22 @@ public interface Sender extends Closeable {
                     pos = getValue(configurationString, pos, sink, "request_timeout");
                     int requestTimeout = parseIntValue(sink, "request_timeout");
                     httpTimeoutMillis(requestTimeout);
+                } else if (Chars.equals("format", sink)) {
+                    pos = getValue(configurationString, pos, sink, "format");
+                    if (Chars.equals("columnar", sink)) {
+                        columnarFormat();
+                    } else if (!Chars.equals("text", sink)) {
+                        throw new LineSenderException("invalid format [value=").put(sink).put(", allowed-values=[text, columnar]]");
+                    }
+                } else if (Chars.equals("stripes", sink)) {
+                    pos = getValue(configurationString, pos, sink, "stripes");
+                    stripes(parseIntValue(sink, "stripes"));
+                } else if (Chars.equals("connections", sink)) {
+                    pos = getValue(configurationString, pos, sink, "connections");
+                    connections(parseIntValue(sink, "connections"));
+                } else if (Chars.equals("in_flight_window", sink)) {
+                    pos = getValue(configurationString, pos, sink, "in_flight_window");
+                    inFlightWindow(parseIntValue(sink, "in_flight_window"));
                 } else if (Chars.equals("request_min_throughput", sink)) {
                     pos = getValue(configurationString, pos, sink, "request_min_throughput");
                     int requestMinThroughput = parseIntValue(sink, "request_min_throughput");
@@ -1289,6 +1618,19 @@ public interface Sender extends Closeable {
                 if (privateKey != null) {
                     throw new LineSenderException("plain old token authentication is not supported for HTTP protocol. Did you mean to use HTTP token authentication?");
                 }
+                if (errorHandler != null && inFlightWindow == PARAMETER_NOT_SET_EXPLICITLY) {
+                    throw new LineSenderException("error handler requires in-flight window to be configured");
+                }
+                if (stripes == PARAMETER_NOT_SET_EXPLICITLY) {
+                    if (autoFlushBytes != PARAMETER_NOT_SET_EXPLICITLY) {
+                        throw new LineSenderException("auto_flush_bytes is only supported for TCP transport and striped HTTP transport");
+                    }
+                    if (connections != PARAMETER_NOT_SET_EXPLICITLY) {
+                        throw new LineSenderException("connections require stripes to be configured");
+                    }
+                } else if (inFlightWindow != PARAMETER_NOT_SET_EXPLICITLY) {
+                    throw new LineSenderException("in-flight window is not supported together with stripes");
+                }
             } else if (protocol == PROTOCOL_TCP) {
                 if (username != null || password != null) {
                     throw new LineSenderException("username/password authentication is not supported for TCP protocol");
@@ -1319,6 +1661,21 @@ public interface Sender extends Closeable {
                 if (autoFlushIntervalMillis != PARAMETER_NOT_SET_EXPLICITLY) {
                     throw new LineSenderException("auto flush interval is not supported for TCP protocol");
                 }
+                if (columnarFormat) {
+                    throw new LineSenderException("columnar format is not supported for TCP protocol");
+                }
+                if (inFlightWindow != PARAMETER_NOT_SET_EXPLICITLY) {
+                    throw new LineSenderException("in-flight window is not supported for TCP protocol");
+                }
+                if (stripes != PARAMETER_NOT_SET_EXPLICITLY || connections != PARAMETER_NOT_SET_EXPLICITLY) {
+                    throw new LineSenderException("stripes are not supported for TCP protocol");
+                }
+                if (autoFlushBytes != PARAMETER_NOT_SET_EXPLICITLY) {
+                    throw new LineSenderException("auto flush bytes is not supported for TCP protocol, buffer capacity is used instead");
+                }
+                if (errorHandler != null) {
+                    throw new LineSenderException("error handler is not supported for TCP protocol");
+                }
             } else {
                 throw new LineSenderException("unsupported protocol ")
                         .put("[protocol=").put(protocol).put("]");
@@ -268,6 +268,11 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
             return lineHttpProcessorConfiguration.autoCreateNewTables();
         }
 
+        @Override
+        public int getColumnarMaxBlockSize() {
+            return 512 * 1024;
+        }
+
         @Override
         public short getDefaultColumnTypeForFloat() {
             return lineHttpProcessorConfiguration.getDefaultColumnTypeForInteger();
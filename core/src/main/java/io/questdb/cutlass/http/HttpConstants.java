@@ -29,6 +29,7 @@ import io.questdb.std.str.Utf8String;
 public final class HttpConstants {
     public static final String CONTENT_TYPE_CSV = "text/csv; charset=utf-8";
     public static final String CONTENT_TYPE_HTML = "text/html; charset=utf-8";
+    public static final String CONTENT_TYPE_ILP_COLUMNAR = "application/x-questdb-columnar";
     public static final String CONTENT_TYPE_JSON = "application/json; charset=utf-8";
     public static final String CONTENT_TYPE_TEXT = "text/plain; charset=utf-8";
 
@@ -311,6 +311,10 @@ public abstract class HttpClient implements QuietCloseable {
             }
         }
 
+        public long getContentStart() {
+            return contentStart;
+        }
+
         public Request header(CharSequence name, CharSequence value) {
             beforeHeader();
             put(name).putAsciiInternal(": ").put(value);
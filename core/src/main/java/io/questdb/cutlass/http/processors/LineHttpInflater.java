@@ -0,0 +1,291 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Zip;
+
+/**
+ * Streaming decompressor of ILP request bodies. Compressed chunks are fed via {@link #setInput(long, long)}
+ * as they arrive from the socket, then {@link #inflate()} is called until it returns 0, each call leaving
+ * a piece of the decompressed body in the output buffer. The whole body is never buffered.
+ * <p>
+ * The {@code gzip} encoding is inflated as a raw deflate stream, the gzip header and trailer are
+ * parsed here, so that header and trailer may be split across chunks. The {@code deflate} encoding
+ * is the zlib format, as defined by RFC 9110.
+ */
+public class LineHttpInflater implements QuietCloseable {
+    public static final int ENCODING_DEFLATE = 2;
+    public static final int ENCODING_GZIP = 1;
+    public static final int ENCODING_IDENTITY = 0;
+    private static final int GZIP_FLAG_COMMENT = 0x10;
+    private static final int GZIP_FLAG_EXTRA = 0x04;
+    private static final int GZIP_FLAG_HCRC = 0x02;
+    private static final int GZIP_FLAG_NAME = 0x08;
+    private static final int GZIP_FLAG_RESERVED = 0xe0;
+    private static final int GZIP_TRAILER_LEN = 8;
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    private static final int PHASE_BODY = 6;
+    private static final int PHASE_COMMENT = 4;
+    private static final int PHASE_DONE = 8;
+    private static final int PHASE_EXTRA = 2;
+    private static final int PHASE_HCRC = 5;
+    private static final int PHASE_HEADER = 0;
+    private static final int PHASE_NAME = 3;
+    private static final int PHASE_TRAILER = 7;
+    private static final int PHASE_XLEN = 1;
+    private int crc;
+    private int encoding = ENCODING_IDENTITY;
+    private int flags;
+    private long inHi;
+    private long inPos;
+    // Raw deflate for gzip, zlib format for deflate.
+    private boolean nowrap;
+    private long outPtr;
+    private int phase;
+    // Header and trailer bytes left to read in the current phase.
+    private int remaining;
+    private long totalOut;
+    private long trailer;
+    private long zStream;
+
+    @Override
+    public void close() {
+        if (zStream > 0) {
+            Zip.inflateEnd(zStream);
+            zStream = 0;
+        }
+        outPtr = Unsafe.free(outPtr, OUTPUT_BUFFER_SIZE, MemoryTag.NATIVE_HTTP_CONN);
+    }
+
+    /**
+     * Checks that the whole compressed body has been received.
+     */
+    public void finish() {
+        if (phase != PHASE_DONE) {
+            throw CairoException.nonCritical().put("truncated compressed body");
+        }
+    }
+
+    public long getOutputAddress() {
+        return outPtr;
+    }
+
+    /**
+     * Decompresses the next piece of the body into the output buffer.
+     *
+     * @return number of decompressed bytes in the output buffer, 0 when the input is exhausted
+     */
+    public int inflate() {
+        while (true) {
+            switch (phase) {
+                case PHASE_BODY:
+                    final int n = inflateBody();
+                    if (n != 0 || phase == PHASE_BODY) {
+                        return n;
+                    }
+                    break;
+                case PHASE_DONE:
+                    if (inPos < inHi) {
+                        throw CairoException.nonCritical().put("unexpected data after compressed body");
+                    }
+                    return 0;
+                default:
+                    if (inPos == inHi) {
+                        return 0;
+                    }
+                    gzipByte(Unsafe.getUnsafe().getByte(inPos++) & 0xff);
+                    break;
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return encoding != ENCODING_IDENTITY;
+    }
+
+    public void of(int encoding) {
+        this.encoding = encoding;
+        if (encoding == ENCODING_IDENTITY) {
+            return;
+        }
+        final boolean nowrap = encoding == ENCODING_GZIP;
+        if (zStream > 0 && this.nowrap != nowrap) {
+            Zip.inflateEnd(zStream);
+            zStream = 0;
+        }
+        if (zStream == 0) {
+            zStream = Zip.inflateInit(nowrap);
+            if (zStream <= 0) {
+                zStream = 0;
+                throw CairoException.critical(0).put("could not initialize request body decompression");
+            }
+            this.nowrap = nowrap;
+        } else {
+            Zip.inflateReset(zStream);
+        }
+        if (outPtr == 0) {
+            outPtr = Unsafe.malloc(OUTPUT_BUFFER_SIZE, MemoryTag.NATIVE_HTTP_CONN);
+        }
+        phase = nowrap ? PHASE_HEADER : PHASE_BODY;
+        remaining = Zip.gzipHeaderLen;
+        crc = 0;
+        totalOut = 0;
+        inPos = inHi = 0;
+    }
+
+    public void setInput(long lo, long hi) {
+        assert inPos == inHi;
+        inPos = lo;
+        inHi = hi;
+    }
+
+    private void gzipByte(int b) {
+        switch (phase) {
+            case PHASE_HEADER:
+                final int offset = Zip.gzipHeaderLen - remaining--;
+                if ((offset == 0 && b != 0x1f) || (offset == 1 && b != 0x8b) || (offset == 2 && b != 8)) {
+                    throw CairoException.nonCritical().put("invalid gzip header");
+                }
+                if (offset == 3) {
+                    if ((b & GZIP_FLAG_RESERVED) != 0) {
+                        throw CairoException.nonCritical().put("invalid gzip header");
+                    }
+                    flags = b;
+                }
+                if (remaining == 0) {
+                    remaining = 2;
+                    trailer = 0;
+                    nextGzipPhase(PHASE_XLEN);
+                }
+                break;
+            case PHASE_XLEN:
+                trailer |= (long) b << ((2 - remaining) * 8);
+                if (--remaining == 0) {
+                    remaining = (int) trailer;
+                    nextGzipPhase(PHASE_EXTRA);
+                }
+                break;
+            case PHASE_EXTRA:
+                if (--remaining == 0) {
+                    nextGzipPhase(PHASE_NAME);
+                }
+                break;
+            case PHASE_NAME:
+                if (b == 0) {
+                    nextGzipPhase(PHASE_COMMENT);
+                }
+                break;
+            case PHASE_COMMENT:
+                if (b == 0) {
+                    remaining = 2;
+                    nextGzipPhase(PHASE_HCRC);
+                }
+                break;
+            case PHASE_HCRC:
+                if (--remaining == 0) {
+                    nextGzipPhase(PHASE_BODY);
+                }
+                break;
+            case PHASE_TRAILER:
+                trailer |= (long) b << ((GZIP_TRAILER_LEN - remaining) * 8);
+                if (--remaining == 0) {
+                    if ((int) trailer != crc || (int) (trailer >>> 32) != (int) totalOut) {
+                        throw CairoException.nonCritical().put("gzip checksum mismatch");
+                    }
+                    phase = PHASE_DONE;
+                }
+                break;
+            default:
+                assert false;
+        }
+    }
+
+    private int inflateBody() {
+        if (inPos < inHi) {
+            Zip.setInput(zStream, inPos, (int) (inHi - inPos));
+            inPos = inHi;
+        }
+        while (true) {
+            final int availIn = Zip.availIn(zStream);
+            final int n = Zip.inflate(zStream, outPtr, OUTPUT_BUFFER_SIZE, false);
+            if (n < 0) {
+                if (n == Zip.Z_BUF_ERROR && availIn == 0) {
+                    // wait for more input
+                    return 0;
+                }
+                throw CairoException.nonCritical().put("invalid compressed body [encoding=")
+                        .put(encoding == ENCODING_GZIP ? "gzip" : "deflate")
+                        .put(", error=").put(n)
+                        .put(']');
+            }
+            if (n > 0) {
+                if (nowrap) {
+                    crc = Zip.crc32(crc, outPtr, n);
+                }
+                totalOut += n;
+                return n;
+            }
+            if (Zip.availIn(zStream) == availIn) {
+                // Neither progress with input available nor buffer error without input,
+                // we've reached the end of the compressed stream.
+                inPos = inHi - availIn;
+                if (nowrap) {
+                    remaining = GZIP_TRAILER_LEN;
+                    trailer = 0;
+                    phase = PHASE_TRAILER;
+                } else {
+                    phase = PHASE_DONE;
+                }
+                return 0;
+            }
+        }
+    }
+
+    // Moves to the given header phase or the next one present in the header flags.
+    private void nextGzipPhase(int phase) {
+        if (phase == PHASE_XLEN && (flags & GZIP_FLAG_EXTRA) == 0) {
+            phase = PHASE_NAME;
+        }
+        if (phase == PHASE_EXTRA && remaining == 0) {
+            phase = PHASE_NAME;
+        }
+        if (phase == PHASE_NAME && (flags & GZIP_FLAG_NAME) == 0) {
+            phase = PHASE_COMMENT;
+        }
+        if (phase == PHASE_COMMENT && (flags & GZIP_FLAG_COMMENT) == 0) {
+            remaining = 2;
+            phase = PHASE_HCRC;
+        }
+        if (phase == PHASE_HCRC && (flags & GZIP_FLAG_HCRC) == 0) {
+            phase = PHASE_BODY;
+        }
+        this.phase = phase;
+    }
+}
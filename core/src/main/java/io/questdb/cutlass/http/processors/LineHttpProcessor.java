@@ -37,6 +37,7 @@ import io.questdb.std.str.Utf8Sequence;
 import io.questdb.std.str.Utf8String;
 import io.questdb.std.str.Utf8s;
 
+import static io.questdb.cutlass.http.HttpConstants.CONTENT_TYPE_ILP_COLUMNAR;
 import static io.questdb.cutlass.http.HttpConstants.CONTENT_TYPE_JSON;
 import static io.questdb.cutlass.http.processors.LineHttpProcessorState.Status.*;
 import static io.questdb.cutlass.line.tcp.LineTcpParser.*;
@@ -88,11 +89,19 @@ public class LineHttpProcessor implements HttpRequestProcessor, HttpMultipartCon
             return;
         }
 
-        // Encoding
+        // Encoding, compressed bodies are decompressed while streaming
         Utf8Sequence encoding = requestHeader.getHeader(CONTENT_ENCODING);
-        if (encoding != null && Utf8s.endsWithAscii(encoding, "gzip")) {
-            state.reject(ENCODING_NOT_SUPPORTED, "gzip encoding is not supported", context.getFd());
-            return;
+        int contentEncoding = LineHttpInflater.ENCODING_IDENTITY;
+        if (encoding != null && !Utf8s.equalsIgnoreCaseAscii("identity", encoding)) {
+            if (Utf8s.equalsIgnoreCaseAscii("gzip", encoding) || Utf8s.equalsIgnoreCaseAscii("x-gzip", encoding)) {
+                contentEncoding = LineHttpInflater.ENCODING_GZIP;
+            } else if (Utf8s.equalsIgnoreCaseAscii("deflate", encoding)) {
+                contentEncoding = LineHttpInflater.ENCODING_DEFLATE;
+            } else {
+                LOG.info().$("unsupported content encoding [encoding=").$(encoding).I$();
+                state.reject(ENCODING_NOT_SUPPORTED, "unsupported content encoding, supported encodings are gzip and deflate", context.getFd());
+                return;
+            }
         }
 
         byte timestampPrecision;
@@ -125,7 +134,11 @@ public class LineHttpProcessor implements HttpRequestProcessor, HttpMultipartCon
             timestampPrecision = ENTITY_UNIT_NANO;
         }
 
-        state.of(context.getFd(), timestampPrecision, context.getSecurityContext());
+        // Content type selects the columnar binary format, text ILP is the default
+        DirectUtf8Sequence contentType = requestHeader.getContentType();
+        boolean columnar = contentType != null && Utf8s.equalsAscii(CONTENT_TYPE_ILP_COLUMNAR, contentType);
+
+        state.of(context.getFd(), timestampPrecision, context.getSecurityContext(), columnar, contentEncoding);
     }
 
     @Override
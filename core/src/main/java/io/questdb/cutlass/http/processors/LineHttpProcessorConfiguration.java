@@ -32,6 +32,14 @@ public interface LineHttpProcessorConfiguration {
 
     boolean autoCreateNewTables();
 
+    /**
+     * Maximum size of a block of the columnar binary ILP format. Requests with larger
+     * blocks are rejected. The limit is also capped by the receive buffer size.
+     *
+     * @return block size in bytes
+     */
+    int getColumnarMaxBlockSize();
+
     short getDefaultColumnTypeForFloat();
 
     short getDefaultColumnTypeForInteger();
@@ -35,6 +35,7 @@ import io.questdb.log.LogFactory;
 import io.questdb.log.LogRecord;
 import io.questdb.std.*;
 import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8Sequence;
 import io.questdb.std.str.Utf8Sink;
 
 import java.util.UUID;
@@ -45,14 +46,19 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
     private static final String ERROR_ID = generateErrorId();
     private static final Log LOG = LogFactory.getLog(LineHttpProcessorState.class);
     private final LineWalAppender appender;
+    private final LineWalBatchAppender batchAppender = new LineWalBatchAppender();
     private final StringSink error = new StringSink();
     private final LineHttpTudCache ilpTudCache;
+    private final LineHttpInflater inflater = new LineHttpInflater();
+    private final int maxColumnarBlockSize;
     private final int maxResponseErrorMessageLength;
     private final LineTcpParser parser;
     private final int recvBufSize;
     private final WeakClosableObjectPool<SymbolCache> symbolCachePool;
     int errorLine = -1;
     private long buffer;
+    // Request body is in the columnar binary format rather than text ILP.
+    private boolean columnar;
     private Status currentStatus = Status.OK;
     private long errorId;
     private long fd = -1;
@@ -66,6 +72,7 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
     public LineHttpProcessorState(int recvBufSize, int maxResponseContentLength, CairoEngine engine, LineHttpProcessorConfiguration configuration) {
         assert recvBufSize > 0;
         this.recvBufSize = recvBufSize;
+        this.maxColumnarBlockSize = Math.min(configuration.getColumnarMaxBlockSize(), recvBufSize - Integer.BYTES);
 
         // Response is measured in bytes some error messages can have non-ascii characters
         // approximate 1.5 bytes per character
@@ -104,6 +111,8 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
         line = 0;
         recvBufStartOfMeasurement = 0;
         sendStatus = SendStatus.NONE;
+        columnar = false;
+        inflater.of(LineHttpInflater.ENCODING_IDENTITY);
     }
 
     @Override
@@ -111,6 +120,7 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
         Unsafe.free(buffer, recvBufSize, MemoryTag.NATIVE_HTTP_CONN);
         recvBufStartOfMeasurement = recvBufEnd = recvBufPos = buffer = 0;
         Misc.free(ilpTudCache);
+        Misc.free(inflater);
         Misc.free(symbolCachePool);
     }
 
@@ -151,10 +161,12 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
         return currentStatus == Status.OK;
     }
 
-    public void of(long fd, byte timestampPrecision, SecurityContext securityContext) {
+    public void of(long fd, byte timestampPrecision, SecurityContext securityContext, boolean columnar, int contentEncoding) {
         this.fd = fd;
         this.securityContext = securityContext;
         this.appender.setTimestampAdapter(timestampPrecision);
+        this.columnar = columnar;
+        this.inflater.of(contentEncoding);
     }
 
     @Override
@@ -164,6 +176,23 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
     }
 
     public void onMessageComplete() {
+        if (inflater.isEnabled() && !stopParse()) {
+            try {
+                inflater.finish();
+            } catch (CairoException e) {
+                currentStatus = handleDecompressionError(e);
+                return;
+            }
+        }
+        if (columnar) {
+            if (currentStatus == Status.NEEDS_READ) {
+                errorLine = ++line;
+                error.put("\nerror in block ").put(errorLine).put(": incomplete columnar block at the end of request");
+                logError();
+                currentStatus = Status.PARSE_ERROR;
+            }
+            return;
+        }
         if (currentStatus == Status.NEEDS_READ) {
             // Last line did not have \n as a last character
             // this is allowed by the protocol, no error in Influx
@@ -184,13 +213,10 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
             return;
         }
 
-        long pos = lo;
-        while (pos < hi) {
-            pos = copyToLocalBuffer(pos, hi);
-            currentStatus = processLocalBuffer();
-            if (stopParse()) {
-                return;
-            }
+        if (inflater.isEnabled()) {
+            parseCompressed(lo, hi);
+        } else {
+            parseBuffer(lo, hi);
         }
     }
 
@@ -242,6 +268,43 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
         }
     }
 
+    private Status appendBlock(long lo, long hi) {
+        WalTableUpdateDetails tud = null;
+        try {
+            tud = ilpTudCache.getTableUpdateDetails(securityContext, batchAppender.getTableName(lo, hi), symbolCachePool);
+            batchAppender.appendBlock(tud, lo, hi);
+            return Status.OK;
+        } catch (LineHttpTudCache.TableCreateException e) {
+            return handleBlockError(lo, hi, e.getMsg());
+        } catch (CairoException e) {
+            if (tud != null && e.isTableDropped()) {
+                tud.setIsDropped();
+                return Status.OK;
+            }
+            if (!e.isCritical() && !e.isAuthorizationError()) {
+                return handleBlockError(lo, hi, e.getFlyweightMessage());
+            }
+            ilpTudCache.setDistressed();
+            errorId = ERROR_COUNT.incrementAndGet();
+            LOG.critical().$('[').$(fd).$("] could not process columnar block [errorId=").$(ERROR_ID).$('-').$(errorId)
+                    .$(", errno=").$(e.getErrno())
+                    .$(", ex=").$(e.getFlyweightMessage())
+                    .I$();
+            error.put("write error: errno: ").put(e.getErrno()).put(", error: ").put(e.getFlyweightMessage());
+            errorLine = line + 1;
+            return e.isAuthorizationError() ? Status.SECURITY_ERROR : Status.INTERNAL_ERROR;
+        } catch (Throwable th) {
+            ilpTudCache.setDistressed();
+            errorId = ERROR_COUNT.incrementAndGet();
+            LOG.critical().$('[').$(fd).$("] could not process columnar block [errorId=").$(ERROR_ID).$('-').$(errorId)
+                    .$(", ex=").$(th)
+                    .I$();
+            error.put("write error: ").put(th.getClass().getCanonicalName());
+            errorLine = line + 1;
+            return Status.INTERNAL_ERROR;
+        }
+    }
+
     private boolean compactBuffer(long recvBufStartOfMeasurement) {
         if (recvBufStartOfMeasurement > buffer) {
             long shl = recvBufStartOfMeasurement - buffer;
@@ -266,6 +329,20 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
         return Math.min(parser.getBufferAddress() + 1, recvBufPos);
     }
 
+    private Status handleBlockError(long lo, long hi, CharSequence message) {
+        errorLine = ++line;
+        error.put("\nerror in block ").put(errorLine).put(": ");
+        try {
+            final Utf8Sequence tableName = batchAppender.getTableName(lo, hi);
+            error.put("table: ").put(tableName).put("; ");
+        } catch (CairoException ignore) {
+            // malformed block, the error message says why
+        }
+        error.put(message);
+        logError();
+        return Status.PARSE_ERROR;
+    }
+
     private Status handleCommitError(Throwable ex) {
         errorId = ERROR_COUNT.incrementAndGet();
         errorLine = -1;
@@ -286,6 +363,13 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
         }
     }
 
+    private Status handleDecompressionError(CairoException e) {
+        errorLine = -1;
+        error.put("could not decompress request body: ").put(e.getFlyweightMessage());
+        logError();
+        return Status.PARSE_ERROR;
+    }
+
     private Status handleLineError(LineTcpParser parser) {
         errorLine = ++line;
         int errorPos = error.length();
@@ -395,6 +479,67 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
                 .I$();
     }
 
+    private void parseBuffer(long lo, long hi) {
+        long pos = lo;
+        while (pos < hi) {
+            pos = copyToLocalBuffer(pos, hi);
+            currentStatus = columnar ? processColumnarBuffer() : processLocalBuffer();
+            if (stopParse()) {
+                return;
+            }
+        }
+    }
+
+    // Decompresses the chunk piece by piece and parses each piece as if it was received from the socket.
+    private void parseCompressed(long lo, long hi) {
+        inflater.setInput(lo, hi);
+        while (!stopParse()) {
+            final int n;
+            try {
+                n = inflater.inflate();
+            } catch (CairoException e) {
+                currentStatus = handleDecompressionError(e);
+                return;
+            }
+            if (n == 0) {
+                return;
+            }
+            final long out = inflater.getOutputAddress();
+            parseBuffer(out, out + n);
+        }
+    }
+
+    private Status processColumnarBuffer() {
+        long lo = buffer;
+        while (recvBufPos - lo >= Integer.BYTES) {
+            final int blockSize = Unsafe.getUnsafe().getInt(lo);
+            if (blockSize < 0 || blockSize > maxColumnarBlockSize) {
+                errorLine = ++line;
+                error.put("\nerror in block ").put(errorLine).put(": unable to read data: columnar block exceeds the maximum block size [blockSize=")
+                        .put(blockSize).put(", maxBlockSize=").put(maxColumnarBlockSize).put(']');
+                logError();
+                return Status.MESSAGE_TOO_LARGE;
+            }
+            final long blockHi = lo + Integer.BYTES + blockSize;
+            if (blockHi > recvBufPos) {
+                break;
+            }
+            final Status status = appendBlock(lo + Integer.BYTES, blockHi);
+            if (status != Status.OK) {
+                return status;
+            }
+            line++;
+            lo = blockHi;
+        }
+        // move the incomplete block to the start of the buffer
+        final long remaining = recvBufPos - lo;
+        if (lo > buffer) {
+            Vect.memmove(buffer, lo, remaining);
+            recvBufPos = buffer + remaining;
+        }
+        return remaining > 0 ? Status.NEEDS_READ : Status.OK;
+    }
+
     private Status processLocalBuffer() {
         Status status = Status.OK;
         while (recvBufPos > buffer) {
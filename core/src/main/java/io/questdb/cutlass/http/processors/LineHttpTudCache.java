@@ -129,6 +129,31 @@ public class LineHttpTudCache implements QuietCloseable {
         } while (droppedTableFound);
     }
 
+    /**
+     * Returns details of an existing WAL table, used by the columnar format which does not create tables.
+     */
+    public WalTableUpdateDetails getTableUpdateDetails(
+            SecurityContext securityContext,
+            @NotNull DirectUtf8Sequence tableName,
+            Pool<SymbolCache> symbolCachePool
+    ) throws TableCreateException {
+        int key = tableUpdateDetails.keyIndex(tableName);
+        if (key < 0) {
+            return tableUpdateDetails.valueAt(key);
+        }
+
+        tableNameUtf16.clear();
+        Utf8s.utf8ToUtf16(tableName, tableNameUtf16);
+        if (!TableUtils.isValidTableName(tableNameUtf16, engine.getConfiguration().getMaxFileNameLength())) {
+            throw parseException.of("invalid table name", null);
+        }
+        TableToken tableToken = engine.getTableTokenIfExists(tableNameUtf16);
+        if (engine.getTableStatus(path, tableToken) != TableUtils.TABLE_EXISTS) {
+            throw parseException.of("table does not exist", null);
+        }
+        return newTableUpdateDetails(key, securityContext, tableToken, tableName, symbolCachePool);
+    }
+
     public WalTableUpdateDetails getTableUpdateDetails(
             SecurityContext securityContext,
             @NotNull LineTcpParser parser,
@@ -142,28 +167,7 @@ public class LineHttpTudCache implements QuietCloseable {
         tableNameUtf16.clear();
         Utf8s.utf8ToUtf16(parser.getMeasurementName(), tableNameUtf16);
         TableToken tableToken = getOrCreateTable(securityContext, parser, tableNameUtf16);
-        if (!engine.isWalTable(tableToken)) {
-            throw parseException.of("cannot insert in non-WAL table", null);
-        }
-
-        TelemetryTask.store(telemetry, TelemetryOrigin.ILP_TCP, TelemetrySystemEvent.ILP_RESERVE_WRITER);
-        // check if table on disk is WAL
-        path.of(engine.getConfiguration().getRoot());
-        Utf8String nameUtf8 = Utf8String.newInstance(parser.getMeasurementName());
-        WalTableUpdateDetails tud = new WalTableUpdateDetails(
-                engine,
-                securityContext,
-                engine.getWalWriter(tableToken),
-                defaultColumnTypes,
-                nameUtf8,
-                symbolCachePool,
-                -1,
-                false,
-                Long.MAX_VALUE
-        );
-
-        tableUpdateDetails.putAt(key, nameUtf8, tud);
-        return tud;
+        return newTableUpdateDetails(key, securityContext, tableToken, parser.getMeasurementName(), symbolCachePool);
     }
 
     public void reset() {
@@ -211,6 +215,37 @@ public class LineHttpTudCache implements QuietCloseable {
         return tableToken;
     }
 
+    private WalTableUpdateDetails newTableUpdateDetails(
+            int key,
+            SecurityContext securityContext,
+            TableToken tableToken,
+            DirectUtf8Sequence tableName,
+            Pool<SymbolCache> symbolCachePool
+    ) throws TableCreateException {
+        if (!engine.isWalTable(tableToken)) {
+            throw parseException.of("cannot insert in non-WAL table", null);
+        }
+
+        TelemetryTask.store(telemetry, TelemetryOrigin.ILP_TCP, TelemetrySystemEvent.ILP_RESERVE_WRITER);
+        // check if table on disk is WAL
+        path.of(engine.getConfiguration().getRoot());
+        Utf8String nameUtf8 = Utf8String.newInstance(tableName);
+        WalTableUpdateDetails tud = new WalTableUpdateDetails(
+                engine,
+                securityContext,
+                engine.getWalWriter(tableToken),
+                defaultColumnTypes,
+                nameUtf8,
+                symbolCachePool,
+                -1,
+                false,
+                Long.MAX_VALUE
+        );
+
+        tableUpdateDetails.putAt(key, nameUtf8, tud);
+        return tud;
+    }
+
     public static class TableCreateException extends Exception {
         private String msg;
         private CharSequence token;
@@ -43,6 +43,7 @@ public abstract class AbstractLineSender implements Utf8Sink, Closeable, Sender
     protected final int capacity;
     private final long bufA;
     private final long bufB;
+    private final LineColumnBatch columnBatch = new LineColumnBatch(this);
     protected LineChannel lineChannel;
     private boolean closed;
     private boolean enableValidation;
@@ -106,6 +107,12 @@ public abstract class AbstractLineSender implements Utf8Sink, Closeable, Sender
         sendAll();
     }
 
+    @Override
+    public ColumnBatch batch(CharSequence table, int rowCount) {
+        validateNotClosed();
+        return columnBatch.of(table, rowCount);
+    }
+
     @Override
     public final AbstractLineSender boolColumn(CharSequence name, boolean value) {
         return field(name, value);
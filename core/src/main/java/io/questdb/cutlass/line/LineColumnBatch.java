@@ -0,0 +1,360 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line;
+
+import io.questdb.client.Sender;
+import io.questdb.std.Chars;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Collects columns of a {@link Sender.ColumnBatch} and sends them once the designated timestamps
+ * are known. This implementation sends the batch row by row via the row API of the sender,
+ * senders with a dedicated encoding override {@link #send(ChronoUnit)}.
+ */
+public class LineColumnBatch implements Sender.ColumnBatch {
+    public static final int TYPE_BOOL = 0;
+    public static final int TYPE_DOUBLE = 1;
+    public static final int TYPE_LONG = 2;
+    public static final int TYPE_STRING = 3;
+    public static final int TYPE_SYMBOL = 4;
+    public static final int TYPE_TIMESTAMP = 5;
+    private final ObjList<Column> columnPool = new ObjList<>();
+    private final ObjList<Column> columns = new ObjList<>();
+    private final Sender sender;
+    private final ObjList<Column> symbols = new ObjList<>();
+    private int rowCount;
+    private CharSequence table;
+    private long[] timestamps;
+    private long timestampsAddress;
+
+    public LineColumnBatch(Sender sender) {
+        this.sender = sender;
+    }
+
+    @Override
+    public void at(long[] timestamps, ChronoUnit unit) {
+        checkLength("timestamps", timestamps.length);
+        this.timestamps = timestamps;
+        finish(unit);
+    }
+
+    @Override
+    public void atDirect(long address, ChronoUnit unit) {
+        this.timestampsAddress = address;
+        finish(unit);
+    }
+
+    @Override
+    public void atNow() {
+        finish(null);
+    }
+
+    @Override
+    public Sender.ColumnBatch boolColumn(CharSequence name, boolean[] values) {
+        checkLength(name, values.length);
+        addColumn(columns, name, TYPE_BOOL).bools = values;
+        return this;
+    }
+
+    @Override
+    public Sender.ColumnBatch doubleColumn(CharSequence name, double[] values) {
+        checkLength(name, values.length);
+        addColumn(columns, name, TYPE_DOUBLE).doubles = values;
+        return this;
+    }
+
+    @Override
+    public Sender.ColumnBatch doubleColumnDirect(CharSequence name, long address) {
+        addColumn(columns, name, TYPE_DOUBLE).address = address;
+        return this;
+    }
+
+    public ObjList<Column> getColumns() {
+        return columns;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public ObjList<Column> getSymbols() {
+        return symbols;
+    }
+
+    public CharSequence getTable() {
+        return table;
+    }
+
+    /**
+     * Returns designated timestamp of the row in the unit passed to {@link #send(ChronoUnit)}.
+     */
+    public long getTimestamp(int row) {
+        return timestamps != null ? timestamps[row] : Unsafe.getUnsafe().getLong(timestampsAddress + (long) row * Long.BYTES);
+    }
+
+    @Override
+    public Sender.ColumnBatch longColumn(CharSequence name, long[] values) {
+        checkLength(name, values.length);
+        addColumn(columns, name, TYPE_LONG).longs = values;
+        return this;
+    }
+
+    @Override
+    public Sender.ColumnBatch longColumnDirect(CharSequence name, long address) {
+        addColumn(columns, name, TYPE_LONG).address = address;
+        return this;
+    }
+
+    public LineColumnBatch of(CharSequence table, int rowCount) {
+        if (rowCount < 0) {
+            throw new LineSenderException("row count cannot be negative [rowCount=").put(rowCount).put(']');
+        }
+        clear();
+        this.table = table;
+        this.rowCount = rowCount;
+        return this;
+    }
+
+    @Override
+    public Sender.ColumnBatch stringColumn(CharSequence name, CharSequence[] values) {
+        checkLength(name, values.length);
+        addColumn(columns, name, TYPE_STRING).strings = values;
+        return this;
+    }
+
+    @Override
+    public Sender.ColumnBatch symbol(CharSequence name, CharSequence[] values) {
+        checkLength(name, values.length);
+        addColumn(symbols, name, TYPE_SYMBOL).strings = values;
+        return this;
+    }
+
+    @Override
+    public Sender.ColumnBatch timestampColumn(CharSequence name, long[] values, ChronoUnit unit) {
+        checkLength(name, values.length);
+        final Column column = addColumn(columns, name, TYPE_TIMESTAMP);
+        column.longs = values;
+        column.unit = unit;
+        return this;
+    }
+
+    /**
+     * Sends all rows of the batch.
+     *
+     * @param unit unit of designated timestamps or null when the server assigns timestamps
+     */
+    protected void send(ChronoUnit unit) {
+        for (int row = 0; row < rowCount; row++) {
+            sender.table(table);
+            for (int i = 0, n = symbols.size(); i < n; i++) {
+                final Column symbol = symbols.getQuick(i);
+                final CharSequence value = symbol.getString(row);
+                if (value != null) {
+                    sender.symbol(symbol.name, value);
+                }
+            }
+            for (int i = 0, n = columns.size(); i < n; i++) {
+                final Column column = columns.getQuick(i);
+                switch (column.type) {
+                    case TYPE_BOOL:
+                        sender.boolColumn(column.name, column.getBool(row));
+                        break;
+                    case TYPE_DOUBLE:
+                        sender.doubleColumn(column.name, column.getDouble(row));
+                        break;
+                    case TYPE_LONG:
+                        sender.longColumn(column.name, column.getLong(row));
+                        break;
+                    case TYPE_STRING:
+                        final CharSequence value = column.getString(row);
+                        if (value != null) {
+                            sender.stringColumn(column.name, value);
+                        }
+                        break;
+                    default:
+                        sender.timestampColumn(column.name, column.getLong(row), column.unit);
+                        break;
+                }
+            }
+            if (unit != null) {
+                sender.at(getTimestamp(row), unit);
+            } else {
+                sender.atNow();
+            }
+        }
+    }
+
+    private static Column findColumn(ObjList<Column> columns, CharSequence name) {
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final Column column = columns.getQuick(i);
+            if (Chars.equals(column.name, name)) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    private Column addColumn(ObjList<Column> list, CharSequence name, int type) {
+        if (table == null) {
+            throw new LineSenderException("batch is already finished");
+        }
+        if (findColumn(symbols, name) != null || findColumn(columns, name) != null) {
+            throw new LineSenderException("duplicate column [column=").put(name).put(']');
+        }
+        final int pooled = columnPool.size();
+        final Column column;
+        if (pooled > 0) {
+            column = columnPool.getQuick(pooled - 1);
+            columnPool.setPos(pooled - 1);
+        } else {
+            column = new Column();
+        }
+        column.name = name;
+        column.type = type;
+        list.add(column);
+        return column;
+    }
+
+    private void checkLength(CharSequence name, int length) {
+        if (length < rowCount) {
+            throw new LineSenderException("column has fewer values than rows [column=").put(name)
+                    .put(", values=").put(length)
+                    .put(", rows=").put(rowCount)
+                    .put(']');
+        }
+    }
+
+    private void clear() {
+        for (int i = 0, n = symbols.size(); i < n; i++) {
+            columnPool.add(symbols.getQuick(i).clear());
+        }
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            columnPool.add(columns.getQuick(i).clear());
+        }
+        symbols.clear();
+        columns.clear();
+        table = null;
+        timestamps = null;
+        timestampsAddress = 0;
+    }
+
+    private void finish(ChronoUnit unit) {
+        if (table == null) {
+            throw new LineSenderException("batch is already finished");
+        }
+        if (symbols.size() == 0 && columns.size() == 0) {
+            clear();
+            throw new LineSenderException("no symbols or columns were provided");
+        }
+        try {
+            send(unit);
+        } finally {
+            clear();
+        }
+    }
+
+    /**
+     * Values of a column, either a heap array or an off-heap buffer of 64-bit values.
+     */
+    public static class Column {
+        private long address;
+        private boolean[] bools;
+        private double[] doubles;
+        private long[] longs;
+        private CharSequence name;
+        private CharSequence[] strings;
+        private int type;
+        private ChronoUnit unit;
+
+        /**
+         * Returns off-heap address of values or 0 if values are on heap.
+         */
+        public long getAddress() {
+            return address;
+        }
+
+        public boolean getBool(int row) {
+            return bools[row];
+        }
+
+        public boolean[] getBools() {
+            return bools;
+        }
+
+        public double getDouble(int row) {
+            return doubles != null ? doubles[row] : Unsafe.getUnsafe().getDouble(address + (long) row * Double.BYTES);
+        }
+
+        public double[] getDoubles() {
+            return doubles;
+        }
+
+        public long getLong(int row) {
+            return longs != null ? longs[row] : Unsafe.getUnsafe().getLong(address + (long) row * Long.BYTES);
+        }
+
+        public long[] getLongs() {
+            return longs;
+        }
+
+        public CharSequence getName() {
+            return name;
+        }
+
+        public CharSequence getString(int row) {
+            return strings[row];
+        }
+
+        public CharSequence[] getStrings() {
+            return strings;
+        }
+
+        public int getType() {
+            return type;
+        }
+
+        /**
+         * Returns unit of timestamp column values.
+         */
+        public ChronoUnit getUnit() {
+            return unit;
+        }
+
+        private Column clear() {
+            address = 0;
+            bools = null;
+            doubles = null;
+            longs = null;
+            name = null;
+            strings = null;
+            unit = null;
+            return this;
+        }
+    }
+}
@@ -24,18 +24,32 @@
 
 package io.questdb.cutlass.line;
 
+import io.questdb.metrics.Counter;
 import io.questdb.metrics.LongGauge;
+import io.questdb.metrics.LongGaugeWithOneLabel;
 import io.questdb.metrics.MetricsRegistry;
 
 public class LineMetrics {
 
     private final LongGauge connectionCountGauge;
+    private final LongGaugeWithOneLabel writerQueueDepthGauge;
+    private final Counter writerRelocationCounter;
 
     public LineMetrics(MetricsRegistry metricsRegistry) {
         this.connectionCountGauge = metricsRegistry.newLongGauge("line_tcp_connections");
+        this.writerQueueDepthGauge = metricsRegistry.newLongGauge("line_tcp_writer_queue_depth", "writer");
+        this.writerRelocationCounter = metricsRegistry.newCounter("line_tcp_writer_relocations");
     }
 
     public LongGauge connectionCountGauge() {
         return connectionCountGauge;
     }
+
+    public LongGaugeWithOneLabel writerQueueDepthGauge() {
+        return writerQueueDepthGauge;
+    }
+
+    public Counter writerRelocationCounter() {
+        return writerRelocationCounter;
+    }
 }
@@ -0,0 +1,294 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.http;
+
+import io.questdb.ClientTlsConfiguration;
+import io.questdb.HttpClientConfiguration;
+import io.questdb.client.Sender;
+import io.questdb.cutlass.line.LineSenderException;
+import io.questdb.std.Misc;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * HTTP sender that keeps up to {@code inFlightWindow} requests in flight. It owns {@code inFlightWindow + 1}
+ * {@link LineHttpSender}s, each with its own connection and request buffer. Rows are appended to the current
+ * sender, while flushing hands it over to an I/O thread and switches to an idle sender, so that appending rows
+ * continues while previous batches are on the wire. Flushing blocks only when all requests of the window
+ * are in flight.
+ * <p>
+ * Since {@link #flush()} doesn't wait for the response, errors are reported to the {@link Sender.ErrorHandler}
+ * on the I/O thread. Without an error handler, the first error is thrown by the next {@link #flush()}
+ * or {@link #close()} call. {@link #close()} waits for all in-flight requests to complete.
+ */
+public final class LineHttpAsyncSender implements Sender {
+    private final int autoFlushRows;
+    private final AtomicReference<LineSenderException> error = new AtomicReference<>();
+    private final Sender.ErrorHandler errorHandler;
+    private final ExecutorService executor;
+    private final long flushIntervalNanos;
+    private final ArrayBlockingQueue<LineHttpSender> idleSenders;
+    private final LineHttpSender[] senders;
+    private boolean closed;
+    private LineHttpSender current;
+    private long flushAfterNanos = Long.MAX_VALUE;
+    private long pendingRows;
+    private boolean rowInProgress;
+
+    public LineHttpAsyncSender(String host,
+                               int port,
+                               HttpClientConfiguration clientConfiguration,
+                               ClientTlsConfiguration tlsConfig,
+                               int autoFlushRows,
+                               String authToken,
+                               String username,
+                               String password,
+                               long maxRetriesNanos,
+                               long minRequestThroughput,
+                               long flushIntervalNanos,
+                               boolean columnar,
+                               int inFlightWindow,
+                               Sender.ErrorHandler errorHandler
+    ) {
+        assert inFlightWindow > 0;
+        this.autoFlushRows = autoFlushRows;
+        this.flushIntervalNanos = flushIntervalNanos;
+        this.errorHandler = errorHandler;
+        this.senders = new LineHttpSender[inFlightWindow + 1];
+        this.idleSenders = new ArrayBlockingQueue<>(inFlightWindow);
+        try {
+            for (int i = 0; i < senders.length; i++) {
+                // auto-flush is driven by this sender
+                senders[i] = new LineHttpSender(host, port, clientConfiguration, tlsConfig, 0, authToken, username, password, maxRetriesNanos, minRequestThroughput, Long.MAX_VALUE, columnar);
+                if (i > 0) {
+                    idleSenders.add(senders[i]);
+                }
+            }
+        } catch (Throwable th) {
+            Misc.free(senders);
+            throw th;
+        }
+        this.current = senders[0];
+        this.executor = Executors.newFixedThreadPool(inFlightWindow, r -> {
+            Thread thread = new Thread(r, "questdb-ilp-http-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void at(long timestamp, ChronoUnit unit) {
+        validateNotClosed();
+        current.at(timestamp, unit);
+        rowCompleted();
+    }
+
+    @Override
+    public void at(Instant timestamp) {
+        validateNotClosed();
+        current.at(timestamp);
+        rowCompleted();
+    }
+
+    @Override
+    public void atNow() {
+        validateNotClosed();
+        current.atNow();
+        rowCompleted();
+    }
+
+    @Override
+    public Sender boolColumn(CharSequence name, boolean value) {
+        current.boolColumn(name, value);
+        return this;
+    }
+
+    @Override
+    public void cancelRow() {
+        validateNotClosed();
+        current.cancelRow();
+        rowInProgress = false;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        try {
+            if (autoFlushRows != 0 || flushIntervalNanos != Long.MAX_VALUE) {
+                // either row-based or time-based auto flushing is enabled
+                // => let's auto-flush on close, a row in progress is not sent
+                if (rowInProgress) {
+                    current.cancelRow();
+                    rowInProgress = false;
+                }
+                flush0();
+            }
+        } finally {
+            closed = true;
+            executor.shutdown();
+            try {
+                while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                    // wait for in-flight requests, they are bounded by the request timeout and retries
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            Misc.free(senders);
+        }
+        throwOnError();
+    }
+
+    @Override
+    public Sender doubleColumn(CharSequence name, double value) {
+        current.doubleColumn(name, value);
+        return this;
+    }
+
+    /**
+     * Sends buffered rows asynchronously. Returns as soon as the batch is handed over to an I/O thread,
+     * blocks when all requests of the in-flight window are pending.
+     */
+    @Override
+    public void flush() {
+        validateNotClosed();
+        if (rowInProgress) {
+            throw new LineSenderException("Cannot flush buffer while row is in progress. Use sender.at() or sender.atNow() to finish the current row first.");
+        }
+        flush0();
+        throwOnError();
+    }
+
+    @Override
+    public Sender longColumn(CharSequence name, long value) {
+        current.longColumn(name, value);
+        return this;
+    }
+
+    @Override
+    public Sender stringColumn(CharSequence name, CharSequence value) {
+        current.stringColumn(name, value);
+        return this;
+    }
+
+    @Override
+    public Sender symbol(CharSequence name, CharSequence value) {
+        current.symbol(name, value);
+        return this;
+    }
+
+    @Override
+    public Sender table(CharSequence table) {
+        validateNotClosed();
+        current.table(table);
+        rowInProgress = true;
+        return this;
+    }
+
+    @Override
+    public Sender timestampColumn(CharSequence name, long value, ChronoUnit unit) {
+        current.timestampColumn(name, value, unit);
+        return this;
+    }
+
+    @Override
+    public Sender timestampColumn(CharSequence name, Instant value) {
+        current.timestampColumn(name, value);
+        return this;
+    }
+
+    private void flush0() {
+        if (pendingRows == 0) {
+            return;
+        }
+        final LineHttpSender sender = current;
+        final LineHttpSender next;
+        try {
+            next = idleSenders.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LineSenderException("interrupted while waiting for an in-flight request to complete");
+        }
+        current = next;
+        pendingRows = 0;
+        flushAfterNanos = System.nanoTime() + flushIntervalNanos;
+        executor.execute(() -> {
+            try {
+                sender.flush();
+            } catch (LineSenderException e) {
+                onError(e);
+            } catch (Throwable th) {
+                onError(new LineSenderException(th));
+            } finally {
+                idleSenders.add(sender);
+            }
+        });
+    }
+
+    private void onError(LineSenderException e) {
+        if (errorHandler != null) {
+            errorHandler.onError(e);
+        } else {
+            error.compareAndSet(null, e);
+        }
+    }
+
+    private void rowCompleted() {
+        rowInProgress = false;
+        pendingRows++;
+        long nowNanos = System.nanoTime();
+        if (flushAfterNanos == Long.MAX_VALUE) {
+            flushAfterNanos = nowNanos + flushIntervalNanos;
+        } else if (flushAfterNanos - nowNanos < 0) {
+            flush0();
+            return;
+        }
+        if (pendingRows == autoFlushRows) {
+            flush0();
+        }
+    }
+
+    private void throwOnError() {
+        final LineSenderException e = error.getAndSet(null);
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    private void validateNotClosed() {
+        if (closed) {
+            throw new LineSenderException("sender already closed");
+        }
+    }
+}
@@ -0,0 +1,406 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.http;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.cutlass.http.client.HttpClient;
+import io.questdb.cutlass.line.LineSenderException;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectUtf8Sink;
+import io.questdb.std.str.Utf8String;
+
+/**
+ * Buffers rows column by column and encodes them into blocks of the columnar binary
+ * ILP format, see {@link io.questdb.cutlass.line.tcp.LineWalBatchAppender} for the layout.
+ * Columns a row does not have are padded with nulls.
+ */
+final class LineHttpColumnarBuffer implements QuietCloseable {
+    // Default of the server's line.http.columnar.max.block.size, larger blocks are rejected.
+    private static final int MAX_BLOCK_SIZE = 512 * 1024;
+    private static final long PAGE_SIZE = 64 * 1024;
+    private final ObjList<TableBuffer> tableList = new ObjList<>();
+    private final CharSequenceObjHashMap<TableBuffer> tables = new CharSequenceObjHashMap<>();
+    private final DirectUtf8Sink utf8Sink = new DirectUtf8Sink(64);
+    private TableBuffer table;
+
+    public void at(long timestampMicros) {
+        table.timestamp.data.putLong(timestampMicros);
+        table.rowCount++;
+    }
+
+    public void cancelRow() {
+        if (table != null) {
+            table.cancelRow();
+        }
+    }
+
+    public void clear() {
+        for (int i = 0, n = tableList.size(); i < n; i++) {
+            tableList.getQuick(i).clear();
+        }
+        table = null;
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjListAndClear(tableList);
+        tables.clear();
+        Misc.free(utf8Sink);
+    }
+
+    /**
+     * Appends blocks with all buffered rows to the request.
+     */
+    public void encode(HttpClient.Request request) {
+        for (int i = 0, n = tableList.size(); i < n; i++) {
+            final TableBuffer table = tableList.getQuick(i);
+            if (table.rowCount > 0) {
+                table.encode(request);
+            }
+        }
+    }
+
+    public void putBool(CharSequence name, boolean value) {
+        table.column(name, ColumnType.BOOLEAN).data.putBool(value);
+    }
+
+    public void putBools(CharSequence name, boolean[] values, int count) {
+        final MemoryCARW data = table.column(name, ColumnType.BOOLEAN).data;
+        for (int i = 0; i < count; i++) {
+            data.putBool(values[i]);
+        }
+    }
+
+    public void putDouble(CharSequence name, double value) {
+        table.column(name, ColumnType.DOUBLE).data.putDouble(value);
+    }
+
+    /**
+     * Appends values of a column for the next count rows, either from the array or,
+     * when the array is null, from the off-heap address.
+     */
+    public void putDoubles(CharSequence name, double[] values, long address, int count) {
+        final MemoryCARW data = table.column(name, ColumnType.DOUBLE).data;
+        if (values == null) {
+            data.putBlockOfBytes(address, (long) count * Double.BYTES);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            data.putDouble(values[i]);
+        }
+    }
+
+    public void putLong(CharSequence name, long value) {
+        table.column(name, ColumnType.LONG).data.putLong(value);
+    }
+
+    public void putLongs(CharSequence name, long[] values, long address, int count) {
+        final MemoryCARW data = table.column(name, ColumnType.LONG).data;
+        if (values == null) {
+            data.putBlockOfBytes(address, (long) count * Long.BYTES);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            data.putLong(values[i]);
+        }
+    }
+
+    public void putString(CharSequence name, CharSequence value) {
+        table.column(name, ColumnType.VARCHAR).putUtf8(value, utf8Sink);
+    }
+
+    public void putStrings(CharSequence name, CharSequence[] values, int count) {
+        final ColumnBuffer column = table.column(name, ColumnType.VARCHAR);
+        for (int i = 0; i < count; i++) {
+            column.putUtf8(values[i], utf8Sink);
+        }
+    }
+
+    public void putSymbol(CharSequence name, CharSequence value) {
+        table.column(name, ColumnType.SYMBOL).putUtf8(value, utf8Sink);
+    }
+
+    public void putSymbols(CharSequence name, CharSequence[] values, int count) {
+        final ColumnBuffer column = table.column(name, ColumnType.SYMBOL);
+        for (int i = 0; i < count; i++) {
+            column.putUtf8(values[i], utf8Sink);
+        }
+    }
+
+    public void putTimestamp(CharSequence name, long valueMicros) {
+        table.column(name, ColumnType.TIMESTAMP).data.putLong(valueMicros);
+    }
+
+    public void putTimestamps(CharSequence name, long[] values, long unitNanos, int count) {
+        final MemoryCARW data = table.column(name, ColumnType.TIMESTAMP).data;
+        for (int i = 0; i < count; i++) {
+            data.putLong(values[i] * unitNanos / 1000);
+        }
+    }
+
+    public void table(CharSequence name) {
+        table = tables.get(name);
+        if (table == null) {
+            table = new TableBuffer(Chars.toString(name));
+            tables.put(table.name, table);
+            tableList.add(table);
+        }
+    }
+
+    private static void putInt(HttpClient.Request request, int value) {
+        request.put((byte) value).put((byte) (value >> 8)).put((byte) (value >> 16)).put((byte) (value >> 24));
+    }
+
+    private static void putShort(HttpClient.Request request, int value) {
+        request.put((byte) value).put((byte) (value >> 8));
+    }
+
+    private static class ColumnBuffer implements QuietCloseable {
+        private final MemoryCARW data = Vm.getCARWInstance(PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_ILP_RSS);
+        private final Utf8String name;
+        // value sizes of var-size columns, null for fixed-size columns
+        private final MemoryCARW sizes;
+        private final int type;
+        // offset of the first value of the block being encoded
+        private long encodeOffset;
+        // whether the column has values in the current batch
+        private boolean used;
+
+        private ColumnBuffer(Utf8String name, int type) {
+            this.name = name;
+            this.type = type;
+            this.sizes = ColumnType.isFixedSize(type) ? null : Vm.getCARWInstance(PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_ILP_RSS);
+        }
+
+        @Override
+        public void close() {
+            Misc.free(data);
+            Misc.free(sizes);
+        }
+
+        private void clear() {
+            data.jumpTo(0);
+            if (sizes != null) {
+                sizes.jumpTo(0);
+            }
+            used = false;
+        }
+
+        private long getRowSize(long row) {
+            return sizes == null ? ColumnType.sizeOf(type) : Integer.BYTES + getValueSize(row);
+        }
+
+        private int getValueSize(long row) {
+            return Math.max(sizes.getInt(row * Integer.BYTES), 0);
+        }
+
+        private long getValueCount() {
+            return sizes == null ? data.getAppendOffset() / ColumnType.sizeOf(type) : sizes.getAppendOffset() / Integer.BYTES;
+        }
+
+        private void padNulls(long rowCount) {
+            for (long r = getValueCount(); r < rowCount; r++) {
+                switch (type) {
+                    case ColumnType.BOOLEAN:
+                        data.putBool(false);
+                        break;
+                    case ColumnType.DOUBLE:
+                        data.putDouble(Double.NaN);
+                        break;
+                    case ColumnType.LONG:
+                    case ColumnType.TIMESTAMP:
+                        data.putLong(Numbers.LONG_NULL);
+                        break;
+                    default:
+                        sizes.putInt(-1);
+                        break;
+                }
+            }
+        }
+
+        private void putUtf8(CharSequence value, DirectUtf8Sink utf8Sink) {
+            if (value == null) {
+                sizes.putInt(-1);
+                return;
+            }
+            utf8Sink.clear();
+            utf8Sink.put(value);
+            sizes.putInt(utf8Sink.size());
+            data.putBlockOfBytes(utf8Sink.ptr(), utf8Sink.size());
+        }
+
+        private void removeLast() {
+            final long row = getValueCount() - 1;
+            if (sizes == null) {
+                data.jumpTo(row * ColumnType.sizeOf(type));
+            } else {
+                data.jumpTo(data.getAppendOffset() - getValueSize(row));
+                sizes.jumpTo(row * Integer.BYTES);
+            }
+        }
+
+        private void writeTo(HttpClient.Request request, long rowLo, long rowHi) {
+            putShort(request, name.size());
+            request.put(name);
+            request.put((byte) type);
+            if (sizes == null) {
+                final long size = ColumnType.sizeOf(type);
+                request.putNonAscii(data.getAddress() + rowLo * size, data.getAddress() + rowHi * size);
+                return;
+            }
+            if (rowLo == 0) {
+                encodeOffset = 0;
+            }
+            long dataSize = 0;
+            for (long r = rowLo; r < rowHi; r++) {
+                dataSize += getValueSize(r);
+            }
+            request.putNonAscii(sizes.getAddress() + rowLo * Integer.BYTES, sizes.getAddress() + rowHi * Integer.BYTES);
+            putInt(request, (int) dataSize);
+            request.putNonAscii(data.getAddress() + encodeOffset, data.getAddress() + encodeOffset + dataSize);
+            encodeOffset += dataSize;
+        }
+    }
+
+    private static class TableBuffer implements QuietCloseable {
+        private final ObjList<ColumnBuffer> columnList = new ObjList<>();
+        private final CharSequenceObjHashMap<ColumnBuffer> columns = new CharSequenceObjHashMap<>();
+        // columns used in the current batch
+        private final ObjList<ColumnBuffer> usedColumns = new ObjList<>();
+        private final String name;
+        private final Utf8String nameUtf8;
+        // designated timestamp, written with an empty name
+        private final ColumnBuffer timestamp = new ColumnBuffer(new Utf8String(""), ColumnType.TIMESTAMP);
+        private long rowCount;
+
+        private TableBuffer(String name) {
+            this.name = name;
+            this.nameUtf8 = new Utf8String(name);
+        }
+
+        @Override
+        public void close() {
+            Misc.freeObjListAndClear(columnList);
+            Misc.free(timestamp);
+        }
+
+        // drops values past the last finished row, which may be a partially appended batch of rows
+        private void cancelRow() {
+            for (int i = 0, n = usedColumns.size(); i < n; i++) {
+                final ColumnBuffer column = usedColumns.getQuick(i);
+                while (column.getValueCount() > rowCount) {
+                    column.removeLast();
+                }
+            }
+        }
+
+        private void clear() {
+            for (int i = 0, n = columnList.size(); i < n; i++) {
+                columnList.getQuick(i).clear();
+            }
+            usedColumns.clear();
+            timestamp.clear();
+            rowCount = 0;
+        }
+
+        private ColumnBuffer column(CharSequence name, int type) {
+            ColumnBuffer column = columns.get(name);
+            if (column != null && !column.used && column.type != type) {
+                // the column had another type in one of the previous batches
+                columnList.remove(column);
+                columns.remove(name);
+                column = Misc.free(column);
+            }
+            if (column == null) {
+                column = new ColumnBuffer(new Utf8String(name), type);
+                columns.put(Chars.toString(name), column);
+                columnList.add(column);
+            }
+            if (!column.used) {
+                column.used = true;
+                usedColumns.add(column);
+            } else if (column.type != type) {
+                throw new LineSenderException("column type cannot change within a batch [table=").put(this.name)
+                        .put(", column=").put(name)
+                        .put(", type=").put(ColumnType.nameOf(column.type))
+                        .put(", newType=").put(ColumnType.nameOf(type))
+                        .put(']');
+            } else if (column.getValueCount() > rowCount) {
+                throw new LineSenderException("duplicate column [table=").put(this.name).put(", column=").put(name).put(']');
+            }
+            column.padNulls(rowCount);
+            return column;
+        }
+
+        private void encode(HttpClient.Request request) {
+            for (int i = 0, n = usedColumns.size(); i < n; i++) {
+                usedColumns.getQuick(i).padNulls(rowCount);
+            }
+            final long headerSize = Short.BYTES + nameUtf8.size() + Integer.BYTES + Short.BYTES;
+            long columnHeadersSize = Short.BYTES + Byte.BYTES;
+            for (int i = 0, n = usedColumns.size(); i < n; i++) {
+                columnHeadersSize += Short.BYTES + usedColumns.getQuick(i).name.size() + Byte.BYTES;
+            }
+
+            long rowLo = 0;
+            while (rowLo < rowCount) {
+                // take as many rows as fit into a block
+                long blockSize = headerSize + columnHeadersSize;
+                long rowHi = rowLo;
+                while (rowHi < rowCount) {
+                    long rowSize = timestamp.getRowSize(rowHi);
+                    for (int i = 0, n = usedColumns.size(); i < n; i++) {
+                        final ColumnBuffer column = usedColumns.getQuick(i);
+                        rowSize += column.getRowSize(rowHi) + (column.sizes != null && rowHi == rowLo ? Integer.BYTES : 0);
+                    }
+                    if (blockSize + rowSize > MAX_BLOCK_SIZE) {
+                        break;
+                    }
+                    blockSize += rowSize;
+                    rowHi++;
+                }
+                if (rowHi == rowLo) {
+                    throw new LineSenderException("row does not fit columnar block [table=").put(name)
+                            .put(", maxBlockSize=").put(MAX_BLOCK_SIZE)
+                            .put(']');
+                }
+
+                putInt(request, (int) blockSize);
+                putShort(request, nameUtf8.size());
+                request.put(nameUtf8);
+                putInt(request, (int) (rowHi - rowLo));
+                putShort(request, usedColumns.size() + 1);
+                timestamp.writeTo(request, rowLo, rowHi);
+                for (int i = 0, n = usedColumns.size(); i < n; i++) {
+                    usedColumns.getQuick(i).writeTo(request, rowLo, rowHi);
+                }
+                rowLo = rowHi;
+            }
+        }
+    }
+}
@@ -0,0 +1,339 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.http;
+
+import io.questdb.ClientTlsConfiguration;
+import io.questdb.HttpClientConfiguration;
+import io.questdb.client.Sender;
+import io.questdb.cutlass.line.LineSenderException;
+import io.questdb.std.Misc;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe HTTP sender. Rows are buffered in stripes, each thread is assigned a stripe on its first row.
+ * A thread owns its stripe from {@link #table(CharSequence)} until the row is finished with {@code at()}
+ * or {@link #cancelRow()}, so appending a row takes a single uncontended lock as long as there are no more
+ * threads than stripes. Threads that share a stripe park until the row in progress is finished.
+ * <p>
+ * Stripes are flushed over a small pool of connections. A stripe is flushed by the thread finishing a row
+ * once the stripe reaches the row count or the byte size limit. Stripes are locked only to move their rows to
+ * a connection, waiting for a connection and sending the request happen without a stripe lock. Once the flush interval elapses, the thread
+ * finishing a row merges all stripes that have no row in progress into a single request. {@link #flush()}
+ * does the same, so that rows of stripes with a row in progress by other threads are sent by a later flush.
+ * <p>
+ * Flushing is synchronous, errors are thrown to the flushing thread. {@link #close()} must not be called
+ * concurrently with other methods.
+ */
+public final class LineHttpConcurrentSender implements Sender {
+    private final int autoFlushBytes;
+    private final int autoFlushRows;
+    private final ArrayBlockingQueue<LineHttpSender> connections;
+    private final AtomicLong flushAfterNanos = new AtomicLong(Long.MAX_VALUE);
+    private final long flushIntervalNanos;
+    private final AtomicInteger nextStripe = new AtomicInteger();
+    private final LineHttpSender[] senders;
+    private final ThreadLocal<Stripe> threadStripe;
+    private final Stripe[] stripes;
+    private volatile boolean closed;
+
+    public LineHttpConcurrentSender(String host,
+                                    int port,
+                                    HttpClientConfiguration clientConfiguration,
+                                    ClientTlsConfiguration tlsConfig,
+                                    int autoFlushRows,
+                                    int autoFlushBytes,
+                                    String authToken,
+                                    String username,
+                                    String password,
+                                    long maxRetriesNanos,
+                                    long minRequestThroughput,
+                                    long flushIntervalNanos,
+                                    boolean columnar,
+                                    int stripeCount,
+                                    int connectionCount
+    ) {
+        assert stripeCount > 0 && connectionCount > 0;
+        this.autoFlushRows = autoFlushRows;
+        this.autoFlushBytes = autoFlushBytes;
+        this.flushIntervalNanos = flushIntervalNanos;
+        this.stripes = new Stripe[stripeCount];
+        this.senders = new LineHttpSender[stripeCount + connectionCount];
+        this.connections = new ArrayBlockingQueue<>(connectionCount);
+        try {
+            // auto-flush is driven by this sender, stripe senders never send anything
+            for (int i = 0; i < senders.length; i++) {
+                senders[i] = new LineHttpSender(host, port, clientConfiguration, tlsConfig, 0, authToken, username, password, maxRetriesNanos, minRequestThroughput, Long.MAX_VALUE, columnar);
+                if (i < stripeCount) {
+                    stripes[i] = new Stripe(senders[i]);
+                } else {
+                    connections.add(senders[i]);
+                }
+            }
+        } catch (Throwable th) {
+            Misc.free(senders);
+            throw th;
+        }
+        this.threadStripe = ThreadLocal.withInitial(() -> stripes[(nextStripe.getAndIncrement() & Integer.MAX_VALUE) % stripes.length]);
+    }
+
+    @Override
+    public void at(long timestamp, ChronoUnit unit) {
+        final Stripe stripe = ownedStripe();
+        stripe.sender.at(timestamp, unit);
+        rowCompleted(stripe);
+    }
+
+    @Override
+    public void at(Instant timestamp) {
+        final Stripe stripe = ownedStripe();
+        stripe.sender.at(timestamp);
+        rowCompleted(stripe);
+    }
+
+    @Override
+    public void atNow() {
+        final Stripe stripe = ownedStripe();
+        stripe.sender.atNow();
+        rowCompleted(stripe);
+    }
+
+    @Override
+    public Sender boolColumn(CharSequence name, boolean value) {
+        ownedStripe().sender.boolColumn(name, value);
+        return this;
+    }
+
+    @Override
+    public void cancelRow() {
+        validateNotClosed();
+        final Stripe stripe = threadStripe.get();
+        if (stripe.isOwnedByCurrentThread()) {
+            stripe.sender.cancelRow();
+            stripe.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (autoFlushRows != 0 || autoFlushBytes != 0 || flushIntervalNanos != Long.MAX_VALUE) {
+                // either row-based, size-based or time-based auto flushing is enabled
+                // => let's auto-flush on close, rows in progress are not sent
+                flushStripes(true);
+            }
+        } finally {
+            Misc.free(senders);
+        }
+    }
+
+    @Override
+    public Sender doubleColumn(CharSequence name, double value) {
+        ownedStripe().sender.doubleColumn(name, value);
+        return this;
+    }
+
+    /**
+     * Sends rows of all stripes that have no row in progress by other threads.
+     */
+    @Override
+    public void flush() {
+        validateNotClosed();
+        if (threadStripe.get().isOwnedByCurrentThread()) {
+            throw new LineSenderException("Cannot flush buffer while row is in progress. Use sender.at() or sender.atNow() to finish the current row first.");
+        }
+        flushStripes(false);
+    }
+
+    @Override
+    public Sender longColumn(CharSequence name, long value) {
+        ownedStripe().sender.longColumn(name, value);
+        return this;
+    }
+
+    @Override
+    public Sender stringColumn(CharSequence name, CharSequence value) {
+        ownedStripe().sender.stringColumn(name, value);
+        return this;
+    }
+
+    @Override
+    public Sender symbol(CharSequence name, CharSequence value) {
+        ownedStripe().sender.symbol(name, value);
+        return this;
+    }
+
+    @Override
+    public Sender table(CharSequence table) {
+        validateNotClosed();
+        final Stripe stripe = threadStripe.get();
+        if (!stripe.isOwnedByCurrentThread()) {
+            stripe.lock();
+            try {
+                stripe.sender.table(table);
+            } catch (Throwable th) {
+                stripe.unlock();
+                throw th;
+            }
+            return this;
+        }
+        // the sender throws on duplicated table
+        stripe.sender.table(table);
+        return this;
+    }
+
+    @Override
+    public Sender timestampColumn(CharSequence name, long value, ChronoUnit unit) {
+        ownedStripe().sender.timestampColumn(name, value, unit);
+        return this;
+    }
+
+    @Override
+    public Sender timestampColumn(CharSequence name, Instant value) {
+        ownedStripe().sender.timestampColumn(name, value);
+        return this;
+    }
+
+    private void flushStripes(boolean closing) {
+        final LineHttpSender connection = takeConnection();
+        try {
+            for (Stripe stripe : stripes) {
+                // the closing thread may have a row in progress
+                if (stripe.tryLock() || (closing && stripe.isOwnedByCurrentThread())) {
+                    try {
+                        if (closing) {
+                            stripe.sender.cancelRow();
+                        }
+                        stripe.sender.drainTo(connection);
+                        stripe.rows = 0;
+                    } finally {
+                        stripe.unlock();
+                    }
+                }
+            }
+            flushAfterNanos.set(Long.MAX_VALUE);
+            connection.flush();
+        } finally {
+            connections.add(connection);
+        }
+    }
+
+    private Stripe ownedStripe() {
+        final Stripe stripe = threadStripe.get();
+        if (!stripe.isOwnedByCurrentThread()) {
+            validateNotClosed();
+            throw new LineSenderException("table name must be set first");
+        }
+        return stripe;
+    }
+
+    private void rowCompleted(Stripe stripe) {
+        stripe.rows++;
+        final long nowNanos = System.nanoTime();
+        final long deadline = flushAfterNanos.get();
+        if (deadline == Long.MAX_VALUE) {
+            flushAfterNanos.compareAndSet(Long.MAX_VALUE, nowNanos + flushIntervalNanos);
+        } else if (deadline - nowNanos < 0 && flushAfterNanos.compareAndSet(deadline, Long.MAX_VALUE)) {
+            // one thread merges all stripes once the interval elapses
+            stripe.unlock();
+            flushStripes(false);
+            return;
+        }
+
+        final boolean full = (autoFlushRows > 0 && stripe.rows >= autoFlushRows)
+                || (autoFlushBytes > 0 && stripe.sender.getBufferedBytes() >= autoFlushBytes);
+        stripe.unlock();
+        if (!full) {
+            return;
+        }
+
+        // other threads of the stripe keep appending while this one waits for a connection
+        final LineHttpSender connection = takeConnection();
+        try {
+            stripe.lock();
+            try {
+                stripe.sender.drainTo(connection);
+                stripe.rows = 0;
+            } finally {
+                stripe.unlock();
+            }
+            connection.flush();
+        } finally {
+            connections.add(connection);
+        }
+    }
+
+    private LineHttpSender takeConnection() {
+        try {
+            return connections.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LineSenderException("interrupted while waiting for a connection");
+        }
+    }
+
+    private void validateNotClosed() {
+        if (closed) {
+            throw new LineSenderException("sender already closed");
+        }
+    }
+
+    private static class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LineHttpSender sender;
+        // Completed rows, accessed by the owner only.
+        private long rows;
+
+        private Stripe(LineHttpSender sender) {
+            this.sender = sender;
+        }
+
+        private boolean isOwnedByCurrentThread() {
+            return lock.isHeldByCurrentThread();
+        }
+
+        private void lock() {
+            lock.lock();
+        }
+
+        private boolean tryLock() {
+            return lock.tryLock();
+        }
+
+        private void unlock() {
+            lock.unlock();
+        }
+    }
+}
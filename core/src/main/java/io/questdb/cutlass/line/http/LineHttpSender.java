@@ -34,12 +34,15 @@ import io.questdb.cutlass.http.client.*;
 import io.questdb.cutlass.json.JsonException;
 import io.questdb.cutlass.json.JsonLexer;
 import io.questdb.cutlass.json.JsonParser;
+import io.questdb.cutlass.line.LineColumnBatch;
 import io.questdb.cutlass.line.LineSenderException;
 import io.questdb.std.*;
 import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
 import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.std.str.DirectUtf8Sequence;
 import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8Sink;
+import io.questdb.std.str.Utf8StringSink;
 import io.questdb.std.str.Utf8s;
 import org.jetbrains.annotations.TestOnly;
 
@@ -56,6 +59,9 @@ public final class LineHttpSender implements Sender {
     private final String authToken;
     private final int autoFlushRows;
     private final int baseTimeoutMillis;
+    // Buffers rows in the columnar binary format, null when rows are sent as text ILP.
+    private final HttpColumnBatch columnBatch = new HttpColumnBatch();
+    private final LineHttpColumnarBuffer columnarBuffer;
     private final long flushIntervalNanos;
     private final String host;
     private final long maxRetriesNanos;
@@ -87,6 +93,22 @@ public final class LineHttpSender implements Sender {
                           long maxRetriesNanos,
                           long minRequestThroughput,
                           long flushIntervalNanos
+    ) {
+        this(host, port, clientConfiguration, tlsConfig, autoFlushRows, authToken, username, password, maxRetriesNanos, minRequestThroughput, flushIntervalNanos, false);
+    }
+
+    public LineHttpSender(String host,
+                          int port,
+                          HttpClientConfiguration clientConfiguration,
+                          ClientTlsConfiguration tlsConfig,
+                          int autoFlushRows,
+                          String authToken,
+                          String username,
+                          String password,
+                          long maxRetriesNanos,
+                          long minRequestThroughput,
+                          long flushIntervalNanos,
+                          boolean columnar
     ) {
         assert authToken == null || (username == null && password == null);
         this.maxRetriesNanos = maxRetriesNanos;
@@ -107,11 +129,16 @@ public final class LineHttpSender implements Sender {
             this.url = "http://" + host + ":" + port + PATH;
         }
         this.questdbVersion = new BuildInformationHolder().getSwVersion();
+        this.columnarBuffer = columnar ? new LineHttpColumnarBuffer() : null;
         this.request = newRequest();
     }
 
     @Override
     public void at(long timestamp, ChronoUnit unit) {
+        if (columnarBuffer != null) {
+            atColumnar(timestamp * unitToNanos(unit) / 1000);
+            return;
+        }
         request.putAscii(' ').put(timestamp * unitToNanos(unit));
         atNow();
     }
@@ -119,12 +146,21 @@ public final class LineHttpSender implements Sender {
     @Override
     public void at(Instant timestamp) {
         long nanos = timestamp.getEpochSecond() * Timestamps.SECOND_NANOS + timestamp.getNano();
+        if (columnarBuffer != null) {
+            atColumnar(nanos / 1000);
+            return;
+        }
         request.putAscii(' ').put(nanos);
         atNow();
     }
 
     @Override
     public void atNow() {
+        if (columnarBuffer != null) {
+            // the columnar format has no server-assigned timestamps
+            atColumnar(MicrosecondClockImpl.INSTANCE.getTicks());
+            return;
+        }
         switch (state) {
             case EMPTY:
                 throw new LineSenderException("no table name was provided");
@@ -136,14 +172,24 @@ public final class LineHttpSender implements Sender {
                 state = RequestState.EMPTY;
                 break;
         }
-        if (rowAdded()) {
+        if (rowsAdded(1)) {
             flush();
         }
         rowBookmark = request.getContentLength();
     }
 
+    @Override
+    public ColumnBatch batch(CharSequence table, int rowCount) {
+        validateNotClosed();
+        return columnBatch.of(table, rowCount);
+    }
+
     @Override
     public Sender boolColumn(CharSequence name, boolean value) {
+        if (columnarBuffer != null) {
+            columnarBuffer.putBool(addColumnarField(name), value);
+            return this;
+        }
         writeFieldName(name);
         request.put(value ? 't' : 'f');
         return this;
@@ -152,6 +198,9 @@ public final class LineHttpSender implements Sender {
     @Override
     public void cancelRow() {
         validateNotClosed();
+        if (columnarBuffer != null) {
+            columnarBuffer.cancelRow();
+        }
         request.trimContentToLen(rowBookmark);
         state = RequestState.EMPTY;
     }
@@ -169,6 +218,7 @@ public final class LineHttpSender implements Sender {
             }
         } finally {
             Misc.free(jsonErrorParser);
+            Misc.free(columnarBuffer);
             closed = true;
             client = Misc.free(client);
         }
@@ -176,6 +226,10 @@ public final class LineHttpSender implements Sender {
 
     @Override
     public Sender doubleColumn(CharSequence name, double value) {
+        if (columnarBuffer != null) {
+            columnarBuffer.putDouble(addColumnarField(name), value);
+            return this;
+        }
         writeFieldName(name);
         request.put(value);
         return this;
@@ -188,6 +242,10 @@ public final class LineHttpSender implements Sender {
 
     @Override
     public Sender longColumn(CharSequence name, long value) {
+        if (columnarBuffer != null) {
+            columnarBuffer.putLong(addColumnarField(name), value);
+            return this;
+        }
         writeFieldName(name);
         request.put(value);
         request.put('i');
@@ -198,13 +256,17 @@ public final class LineHttpSender implements Sender {
     public void putRawMessage(CharSequence msg) {
         request.put(msg); // message must include trailing \n
         state = RequestState.EMPTY;
-        if (rowAdded()) {
+        if (rowsAdded(1)) {
             flush();
         }
     }
 
     @Override
     public Sender stringColumn(CharSequence name, CharSequence value) {
+        if (columnarBuffer != null) {
+            columnarBuffer.putString(addColumnarField(name), value);
+            return this;
+        }
         writeFieldName(name);
         request.put('"');
         escapeString(value);
@@ -224,11 +286,15 @@ public final class LineHttpSender implements Sender {
                 // fall through
             case ADDING_SYMBOLS:
                 validateColumnName(name);
+                state = RequestState.ADDING_SYMBOLS;
+                if (columnarBuffer != null) {
+                    columnarBuffer.putSymbol(name, value);
+                    break;
+                }
                 request.putAscii(',');
                 escapeQuotedString(name);
                 request.putAscii('=');
                 escapeQuotedString(value);
-                state = RequestState.ADDING_SYMBOLS;
                 break;
             default:
                 throw new LineSenderException("unexpected state: ").put(state.name());
@@ -248,12 +314,20 @@ public final class LineHttpSender implements Sender {
             throw new LineSenderException("table name cannot be empty");
         }
         state = RequestState.TABLE_NAME_SET;
-        escapeQuotedString(table);
+        if (columnarBuffer != null) {
+            columnarBuffer.table(table);
+        } else {
+            escapeQuotedString(table);
+        }
         return this;
     }
 
     @Override
     public Sender timestampColumn(CharSequence name, long value, ChronoUnit unit) {
+        if (columnarBuffer != null) {
+            columnarBuffer.putTimestamp(addColumnarField(name), value * unitToNanos(unit) / 1000);
+            return this;
+        }
         // micros
         writeFieldName(name).put(value * unitToNanos(unit) / 1000).put('t');
         return this;
@@ -261,11 +335,41 @@ public final class LineHttpSender implements Sender {
 
     @Override
     public Sender timestampColumn(CharSequence name, Instant value) {
+        if (columnarBuffer != null) {
+            columnarBuffer.putTimestamp(addColumnarField(name), (value.getEpochSecond() * Timestamps.SECOND_NANOS + value.getNano()) / 1000);
+            return this;
+        }
         // micros
         writeFieldName(name).put((value.getEpochSecond() * Timestamps.SECOND_NANOS + value.getNano()) / 1000).put('t');
         return this;
     }
 
+    /**
+     * Moves buffered rows to the request of the target sender, which must use the same format.
+     * Must not be called while a row is in progress.
+     */
+    void drainTo(LineHttpSender target) {
+        if (pendingRows == 0) {
+            return;
+        }
+        if (columnarBuffer != null) {
+            encodeColumnarBuffer();
+        }
+        final long lo = request.getContentStart();
+        target.request.putNonAscii(lo, lo + request.getContentLength());
+        target.pendingRows += pendingRows;
+        pendingRows = 0;
+        flushAfterNanos = Long.MAX_VALUE;
+        request = newRequest();
+    }
+
+    /**
+     * Returns size of buffered text rows, rows buffered in the columnar format are not accounted.
+     */
+    int getBufferedBytes() {
+        return request.getContentLength();
+    }
+
     private static void chunkedResponseToSink(HttpClient.ResponseHeaders response, StringSink sink) {
         if (!response.isChunked()) {
             return;
@@ -286,6 +390,25 @@ public final class LineHttpSender implements Sender {
         return connectionHeader != null && Utf8s.equalsAscii("close", connectionHeader);
     }
 
+    private static void escapeQuotedString(Utf8Sink sink, CharSequence name) {
+        for (int i = 0, n = name.length(); i < n; i++) {
+            char c = name.charAt(i);
+            switch (c) {
+                case ' ':
+                case ',':
+                case '=':
+                case '\n':
+                case '\r':
+                case '\\':
+                    sink.put((byte) '\\').put((byte) c);
+                    break;
+                default:
+                    sink.put(c);
+                    break;
+            }
+        }
+    }
+
     private static long unitToNanos(ChronoUnit unit) {
         switch (unit) {
             case NANOS:
@@ -301,6 +424,29 @@ public final class LineHttpSender implements Sender {
         }
     }
 
+    private CharSequence addColumnarField(CharSequence name) {
+        validateColumnName(name);
+        if (state == RequestState.EMPTY) {
+            throw new LineSenderException("table name must be set first");
+        }
+        state = RequestState.ADDING_COLUMNS;
+        return name;
+    }
+
+    private void atColumnar(long timestampMicros) {
+        switch (state) {
+            case EMPTY:
+                throw new LineSenderException("no table name was provided");
+            case TABLE_NAME_SET:
+                throw new LineSenderException("no symbols or columns were provided");
+        }
+        columnarBuffer.at(timestampMicros);
+        state = RequestState.EMPTY;
+        if (rowsAdded(1)) {
+            flush();
+        }
+    }
+
     private int backoff(int retryBackoff) {
         int jitter = rnd.nextInt(RETRY_MAX_JITTER_MS);
         int backoff = retryBackoff + jitter;
@@ -318,25 +464,23 @@ public final class LineHttpSender implements Sender {
         }
     }
 
-    private void escapeQuotedString(CharSequence name) {
-        for (int i = 0, n = name.length(); i < n; i++) {
-            char c = name.charAt(i);
-            switch (c) {
-                case ' ':
-                case ',':
-                case '=':
-                case '\n':
-                case '\r':
-                case '\\':
-                    request.put((byte) '\\').put((byte) c);
-                    break;
-                default:
-                    request.put(c);
-                    break;
-            }
+    private void encodeColumnarBuffer() {
+        // a row in progress is not sent when closing
+        columnarBuffer.cancelRow();
+        try {
+            columnarBuffer.encode(request);
+        } catch (Throwable th) {
+            pendingRows = 0;
+            flushAfterNanos = Long.MAX_VALUE;
+            request = newRequest();
+            throw th;
         }
     }
 
+    private void escapeQuotedString(CharSequence name) {
+        escapeQuotedString(request, name);
+    }
+
     private void escapeString(CharSequence value) {
         for (int i = 0, n = value.length(); i < n; i++) {
             char c = value.charAt(i);
@@ -361,6 +505,9 @@ public final class LineHttpSender implements Sender {
         if (pendingRows == 0) {
             return;
         }
+        if (columnarBuffer != null) {
+            encodeColumnarBuffer();
+        }
 
         long retryingDeadlineNanos = Long.MIN_VALUE;
         int retryBackoff = RETRY_INITIAL_BACKOFF_MS;
@@ -458,6 +605,10 @@ public final class LineHttpSender implements Sender {
                 .POST()
                 .url(PATH)
                 .header("User-Agent", "QuestDB/java/" + questdbVersion);
+        if (columnarBuffer != null) {
+            r.header("Content-Type", HttpConstants.CONTENT_TYPE_ILP_COLUMNAR);
+            columnarBuffer.clear();
+        }
         if (username != null) {
             r.authBasic(username, password);
         } else if (authToken != null) {
@@ -471,15 +622,15 @@ public final class LineHttpSender implements Sender {
     /**
      * @return true if flush is required
      */
-    private boolean rowAdded() {
-        pendingRows++;
+    private boolean rowsAdded(int rows) {
+        pendingRows += rows;
         long nowNanos = System.nanoTime();
         if (flushAfterNanos == Long.MAX_VALUE) {
             flushAfterNanos = nowNanos + flushIntervalNanos;
         } else if (flushAfterNanos - nowNanos < 0) {
             return true;
         }
-        return pendingRows == autoFlushRows;
+        return autoFlushRows > 0 && pendingRows >= autoFlushRows;
     }
 
     private void throwOnHttpErrorResponse(DirectUtf8Sequence statusCode, HttpClient.ResponseHeaders response) {
@@ -571,6 +722,169 @@ public final class LineHttpSender implements Sender {
         ADDING_COLUMNS,
     }
 
+    /**
+     * Encodes a batch straight into the request, table and column names are escaped once per batch.
+     */
+    private class HttpColumnBatch extends LineColumnBatch {
+        private final ObjList<Utf8StringSink> names = new ObjList<>();
+
+        private HttpColumnBatch() {
+            super(LineHttpSender.this);
+        }
+
+        @Override
+        protected void send(ChronoUnit unit) {
+            validateNotClosed();
+            if (state != RequestState.EMPTY) {
+                throw new LineSenderException("duplicated table. call sender.at() or sender.atNow() to finish the current row first");
+            }
+            final CharSequence table = getTable();
+            validateTableName(table);
+            if (table.length() == 0) {
+                throw new LineSenderException("table name cannot be empty");
+            }
+            final ObjList<Column> symbols = getSymbols();
+            final ObjList<Column> columns = getColumns();
+            for (int i = 0, n = symbols.size(); i < n; i++) {
+                validateColumnName(symbols.getQuick(i).getName());
+            }
+            for (int i = 0, n = columns.size(); i < n; i++) {
+                validateColumnName(columns.getQuick(i).getName());
+            }
+            if (columnarBuffer != null) {
+                sendColumnar(table, symbols, columns, unit);
+            } else {
+                sendText(table, symbols, columns, unit);
+            }
+        }
+
+        private Utf8StringSink escapeName(int index, CharSequence name) {
+            Utf8StringSink sink = names.getQuiet(index);
+            if (sink == null) {
+                sink = new Utf8StringSink();
+                names.extendAndSet(index, sink);
+            }
+            sink.clear();
+            escapeQuotedString(sink, name);
+            return sink;
+        }
+
+        private void sendColumnar(CharSequence table, ObjList<Column> symbols, ObjList<Column> columns, ChronoUnit unit) {
+            final int rowCount = getRowCount();
+            columnarBuffer.table(table);
+            try {
+                for (int i = 0, n = symbols.size(); i < n; i++) {
+                    final Column symbol = symbols.getQuick(i);
+                    columnarBuffer.putSymbols(symbol.getName(), symbol.getStrings(), rowCount);
+                }
+                for (int i = 0, n = columns.size(); i < n; i++) {
+                    final Column column = columns.getQuick(i);
+                    switch (column.getType()) {
+                        case TYPE_BOOL:
+                            columnarBuffer.putBools(column.getName(), column.getBools(), rowCount);
+                            break;
+                        case TYPE_DOUBLE:
+                            columnarBuffer.putDoubles(column.getName(), column.getDoubles(), column.getAddress(), rowCount);
+                            break;
+                        case TYPE_LONG:
+                            columnarBuffer.putLongs(column.getName(), column.getLongs(), column.getAddress(), rowCount);
+                            break;
+                        case TYPE_STRING:
+                            columnarBuffer.putStrings(column.getName(), column.getStrings(), rowCount);
+                            break;
+                        default:
+                            columnarBuffer.putTimestamps(column.getName(), column.getLongs(), unitToNanos(column.getUnit()), rowCount);
+                            break;
+                    }
+                }
+            } catch (Throwable th) {
+                columnarBuffer.cancelRow();
+                throw th;
+            }
+            if (unit != null) {
+                final long unitNanos = unitToNanos(unit);
+                for (int row = 0; row < rowCount; row++) {
+                    columnarBuffer.at(getTimestamp(row) * unitNanos / 1000);
+                }
+            } else {
+                // the columnar format has no server-assigned timestamps
+                final long now = MicrosecondClockImpl.INSTANCE.getTicks();
+                for (int row = 0; row < rowCount; row++) {
+                    columnarBuffer.at(now);
+                }
+            }
+            if (rowsAdded(rowCount)) {
+                flush();
+            }
+        }
+
+        private void sendText(CharSequence table, ObjList<Column> symbols, ObjList<Column> columns, ChronoUnit unit) {
+            final Utf8StringSink tableName = escapeName(0, table);
+            for (int i = 0, n = symbols.size(); i < n; i++) {
+                escapeName(i + 1, symbols.getQuick(i).getName());
+            }
+            final int columnNameOffset = symbols.size() + 1;
+            for (int i = 0, n = columns.size(); i < n; i++) {
+                escapeName(i + columnNameOffset, columns.getQuick(i).getName());
+            }
+            final long unitNanos = unit != null ? unitToNanos(unit) : 0;
+
+            for (int row = 0, rowCount = getRowCount(); row < rowCount; row++) {
+                request.put(tableName);
+                for (int i = 0, n = symbols.size(); i < n; i++) {
+                    final CharSequence value = symbols.getQuick(i).getString(row);
+                    if (value != null) {
+                        request.putAscii(',').put(names.getQuick(i + 1)).putAscii('=');
+                        escapeQuotedString(value);
+                    }
+                }
+                char separator = ' ';
+                for (int i = 0, n = columns.size(); i < n; i++) {
+                    final Column column = columns.getQuick(i);
+                    final int type = column.getType();
+                    final CharSequence value = type == TYPE_STRING ? column.getString(row) : null;
+                    if (type == TYPE_STRING && value == null) {
+                        continue;
+                    }
+                    request.putAscii(separator).put(names.getQuick(i + columnNameOffset)).putAscii('=');
+                    separator = ',';
+                    switch (type) {
+                        case TYPE_BOOL:
+                            request.put(column.getBool(row) ? 't' : 'f');
+                            break;
+                        case TYPE_DOUBLE:
+                            request.put(column.getDouble(row));
+                            break;
+                        case TYPE_LONG:
+                            request.put(column.getLong(row)).put('i');
+                            break;
+                        case TYPE_STRING:
+                            request.put('"');
+                            escapeString(value);
+                            request.put('"');
+                            break;
+                        default:
+                            request.put(column.getLong(row) * unitToNanos(column.getUnit()) / 1000).put('t');
+                            break;
+                    }
+                }
+                if (separator == ' ') {
+                    // all fields of the row are null, a line with symbols only is not valid ILP
+                    request.trimContentToLen(rowBookmark);
+                    continue;
+                }
+                if (unit != null) {
+                    request.putAscii(' ').put(getTimestamp(row) * unitNanos);
+                }
+                request.put('\n');
+                if (rowsAdded(1)) {
+                    flush();
+                }
+                rowBookmark = request.getContentLength();
+            }
+        }
+    }
+
     private static class JsonErrorParser implements JsonParser, Closeable {
         private final StringSink codeSink = new StringSink();
         private final StringSink errorIdSink = new StringSink();
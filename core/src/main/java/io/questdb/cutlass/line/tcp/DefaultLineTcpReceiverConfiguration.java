@@ -188,6 +188,11 @@ public class DefaultLineTcpReceiverConfiguration implements LineTcpReceiverConfi
         return 64;
     }
 
+    @Override
+    public long getWriterRelocationInterval() {
+        return 1000;
+    }
+
     @Override
     public WorkerPoolConfiguration getWriterWorkerPoolConfiguration() {
         return SHARED_CONFIGURATION;
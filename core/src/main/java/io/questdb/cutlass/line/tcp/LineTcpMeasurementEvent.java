@@ -279,9 +279,10 @@ class LineTcpMeasurementEvent implements Closeable {
             SecurityContext securityContext,
             TableUpdateDetails tud,
             LineTcpParser parser,
-            int workerId
+            int workerId,
+            int writerWorkerId
     ) {
-        writerWorkerId = LineTcpMeasurementEventType.ALL_WRITERS_INCOMPLETE_EVENT;
+        this.writerWorkerId = LineTcpMeasurementEventType.ALL_WRITERS_INCOMPLETE_EVENT;
         final TableUpdateDetails.ThreadLocalDetails localDetails = tud.getThreadLocalDetails(workerId);
         localDetails.resetStateIfNecessary();
         tableUpdateDetails = tud;
@@ -573,7 +574,9 @@ class LineTcpMeasurementEvent implements Closeable {
         }
         buffer.addDesignatedTimestamp(buffer.getAddress() + Long.BYTES, timestamp);
         buffer.addNumOfColumns(buffer.getAddress() + 2 * Long.BYTES, entitiesWritten);
-        writerWorkerId = tud.getWriterThreadId();
+        // the table may have been relocated since the queue was chosen,
+        // the event belongs to the writer thread of the queue
+        this.writerWorkerId = writerWorkerId;
     }
 
     void createWriterReleaseEvent(TableUpdateDetails tableUpdateDetails, boolean commitOnWriterClose) {
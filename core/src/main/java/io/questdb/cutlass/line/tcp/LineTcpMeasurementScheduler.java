@@ -46,6 +46,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.io.Closeable;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReadWriteLock;
 
 public class LineTcpMeasurementScheduler implements Closeable {
@@ -65,13 +66,23 @@ public class LineTcpMeasurementScheduler implements Closeable {
     private final Path path = new Path();
     private final MPSequence[] pubSeq;
     private final RingQueue<LineTcpMeasurementEvent>[] queue;
+    // Only one table is relocated at a time, so that a writer thread waiting for
+    // a relocated table never waits for a writer thread that waits for it.
+    private final AtomicBoolean relocationInProgress = new AtomicBoolean();
+    private final long relocationInterval;
     private final long spinLockTimeoutMs;
+    private final SCSequence[] subSeq;
     private final StringSink[] tableNameSinks;
     private final TableStructureAdapter tableStructureAdapter;
     private final ReadWriteLock tableUpdateDetailsLock = new SimpleReadWriteLock();
     private final LowerCaseCharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf16;
     private final Telemetry<TelemetryTask> telemetry;
     private final long writerIdleTimeout;
+    // Publisher cursor of the relocated table's previous writer queue once no event can be
+    // published to it for the table anymore, -1 until then.
+    private long relocationCursor;
+    private int relocationFromThreadId;
+    private volatile TableUpdateDetails relocationTable;
 
     public LineTcpMeasurementScheduler(
             LineTcpReceiverConfiguration lineConfiguration,
@@ -106,11 +117,13 @@ public class LineTcpMeasurementScheduler implements Closeable {
             loadByWriterThread = new long[writerWorkerPool.getWorkerCount()];
             autoCreateNewTables = lineConfiguration.getAutoCreateNewTables();
             autoCreateNewColumns = lineConfiguration.getAutoCreateNewColumns();
+            relocationInterval = lineConfiguration.getWriterRelocationInterval();
             int maxMeasurementSize = lineConfiguration.getMaxMeasurementSize();
             int queueSize = lineConfiguration.getWriterQueueCapacity();
             long commitInterval = configuration.getCommitInterval();
             int nWriterThreads = writerWorkerPool.getWorkerCount();
             pubSeq = new MPSequence[nWriterThreads];
+            subSeq = new SCSequence[nWriterThreads];
             //noinspection unchecked
             queue = new RingQueue[nWriterThreads];
             //noinspection unchecked
@@ -136,15 +149,16 @@ public class LineTcpMeasurementScheduler implements Closeable {
                 );
 
                 queue[i] = q;
-                SCSequence subSeq = new SCSequence();
-                ps.then(subSeq).then(ps);
+                SCSequence ss = new SCSequence();
+                ps.then(ss).then(ps);
+                subSeq[i] = ss;
 
                 assignedTables[i] = new ObjList<>();
 
                 final LineTcpWriterJob lineTcpWriterJob = new LineTcpWriterJob(
                         i,
                         q,
-                        subSeq,
+                        ss,
                         clock,
                         commitInterval, this, engine.getMetrics(), assignedTables[i]
                 );
@@ -196,6 +210,22 @@ public class LineTcpMeasurementScheduler implements Closeable {
         }
     }
 
+    /**
+     * Hands the relocated table over to its new writer thread. Called by the previous writer
+     * thread of the table after it has stopped tracking the table.
+     */
+    public void completeRelocation(TableUpdateDetails tud) {
+        assert relocationTable == tud;
+        LOG.info().$("relocated table [tableName=").$(tud.getTableToken())
+                .$(", fromThreadId=").$(relocationFromThreadId)
+                .$(", toThreadId=").$(tud.getWriterThreadId())
+                .I$();
+        engine.getMetrics().line().writerRelocationCounter().inc();
+        relocationTable = null;
+        tud.completeRelocation();
+        relocationInProgress.set(false);
+    }
+
     public boolean doMaintenance(
             Utf8StringObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf8,
             int readerWorkerId,
@@ -209,18 +239,23 @@ public class LineTcpMeasurementScheduler implements Closeable {
                 tableUpdateDetailsLock.writeLock().lock();
                 try {
                     if (tud.getNetworkIOOwnerCount() == 1) {
-                        final int writerWorkerId = tud.getWriterThreadId();
-                        final long seq = getNextPublisherEventSequence(writerWorkerId);
-                        if (seq > -1) {
-                            LineTcpMeasurementEvent event = queue[writerWorkerId].get(seq);
-                            event.createWriterReleaseEvent(tud, true);
-                            tableUpdateDetailsUtf8.remove(tableNameUtf8);
-                            final CharSequence tableNameUtf16 = tud.getTableNameUtf16();
-                            tableUpdateDetailsUtf16.remove(tableNameUtf16);
-                            idleTableUpdateDetailsUtf16.put(tableNameUtf16, tud);
-                            tud.removeReference(readerWorkerId);
-                            pubSeq[writerWorkerId].done(seq);
-                            LOG.info().$("active table going idle [tableName=").$(tableNameUtf16).I$();
+                        tud.beginDispatch();
+                        try {
+                            final int writerWorkerId = tud.getWriterThreadId();
+                            final long seq = getNextPublisherEventSequence(writerWorkerId);
+                            if (seq > -1) {
+                                LineTcpMeasurementEvent event = queue[writerWorkerId].get(seq);
+                                event.createWriterReleaseEvent(tud, true);
+                                tableUpdateDetailsUtf8.remove(tableNameUtf8);
+                                final CharSequence tableNameUtf16 = tud.getTableNameUtf16();
+                                tableUpdateDetailsUtf16.remove(tableNameUtf16);
+                                idleTableUpdateDetailsUtf16.put(tableNameUtf16, tud);
+                                tud.removeReference(readerWorkerId);
+                                pubSeq[writerWorkerId].done(seq);
+                                LOG.info().$("active table going idle [tableName=").$(tableNameUtf16).I$();
+                            }
+                        } finally {
+                            tud.endDispatch();
                         }
                         return true;
                     } else {
@@ -236,11 +271,41 @@ public class LineTcpMeasurementScheduler implements Closeable {
         return false;
     }
 
+    /**
+     * Returns the table being relocated away from the given writer thread once the writer
+     * thread has consumed all events published to its queue before the relocation.
+     *
+     * @param workerId writer thread id
+     * @param cursor   last consumed cursor of the writer thread's queue
+     * @return relocated table or null
+     */
+    public TableUpdateDetails getCompletedRelocation(int workerId, long cursor) {
+        final TableUpdateDetails tud = relocationTable;
+        if (tud != null && relocationFromThreadId == workerId) {
+            if (relocationCursor < 0) {
+                if (tud.hasPendingDispatches()) {
+                    // network IO threads may still be publishing to this queue
+                    // with the previous writer thread id, check on a later run
+                    return null;
+                }
+                relocationCursor = pubSeq[workerId].current();
+            }
+            if (cursor >= relocationCursor) {
+                return tud;
+            }
+        }
+        return null;
+    }
+
+    public long getQueueDepth(int workerId) {
+        return Math.max(pubSeq[workerId].current() - subSeq[workerId].current(), 0);
+    }
+
     public void processWriterReleaseEvent(LineTcpMeasurementEvent event, int workerId) {
         tableUpdateDetailsLock.readLock().lock();
         try {
             final TableUpdateDetails tub = event.getTableUpdateDetails();
-            if (tub.getWriterThreadId() != workerId) {
+            if (tub.getOwnerThreadId() != workerId) {
                 return;
             }
             if (!event.getTableUpdateDetails().isWriterInError() && tableUpdateDetailsUtf16.keyIndex(tub.getTableNameUtf16()) < 0) {
@@ -361,20 +426,28 @@ public class LineTcpMeasurementScheduler implements Closeable {
             LineTcpParser parser,
             TableUpdateDetails tud
     ) {
-        final int writerThreadId = tud.getWriterThreadId();
-        long seq = getNextPublisherEventSequence(writerThreadId);
-        if (seq > -1) {
-            try {
-                if (tud.isWriterInError()) {
-                    throw CairoException.critical(0).put("writer is in error, aborting ILP pipeline");
+        final int writerThreadId;
+        tud.beginDispatch();
+        try {
+            writerThreadId = tud.getWriterThreadId();
+            long seq = getNextPublisherEventSequence(writerThreadId);
+            if (seq > -1) {
+                try {
+                    if (tud.isWriterInError()) {
+                        throw CairoException.critical(0).put("writer is in error, aborting ILP pipeline");
+                    }
+                    queue[writerThreadId].get(seq).createMeasurementEvent(securityContext, tud, parser, netIoJob.getWorkerId(), writerThreadId);
+                } finally {
+                    pubSeq[writerThreadId].done(seq);
                 }
-                queue[writerThreadId].get(seq).createMeasurementEvent(securityContext, tud, parser, netIoJob.getWorkerId());
-            } finally {
-                pubSeq[writerThreadId].done(seq);
+                tud.incrementEventsProcessedSinceReshuffle();
+                return false;
             }
-            tud.incrementEventsProcessedSinceReshuffle();
-            return false;
+        } finally {
+            tud.endDispatch();
         }
+        // the queue of the writer thread is full
+        relocateIfRequired(tud, writerThreadId);
         return true;
     }
 
@@ -489,6 +562,46 @@ public class LineTcpMeasurementScheduler implements Closeable {
         return null != pubSeq;
     }
 
+    private void relocateIfRequired(TableUpdateDetails tud, int fromThreadId) {
+        if (relocationInterval < 0 || pubSeq.length < 2 || tud.isRelocating() || tud.isWriterInError()) {
+            return;
+        }
+        final long millis = clock.getTicks();
+        if (millis - tud.getLastRelocationMillis() < relocationInterval) {
+            return;
+        }
+
+        // pick the least busy writer thread, relocating to a queue that
+        // is more than half full would not help much
+        int toThreadId = -1;
+        long minDepth = queue[fromThreadId].getCycle() / 2 + 1;
+        for (int i = 0, n = pubSeq.length; i < n; i++) {
+            if (i != fromThreadId) {
+                final long depth = getQueueDepth(i);
+                if (depth < minDepth) {
+                    minDepth = depth;
+                    toThreadId = i;
+                }
+            }
+        }
+
+        if (toThreadId == -1 || !relocationInProgress.compareAndSet(false, true)) {
+            return;
+        }
+        if (tud.getWriterThreadId() != fromThreadId) {
+            relocationInProgress.set(false);
+            return;
+        }
+        // New events are published to the new writer thread's queue from now on. It waits
+        // for the previous writer thread to process the events already in its queue. The
+        // previous writer thread takes the cursor of its queue once in-flight dispatches
+        // are done, this thread doesn't wait for them.
+        tud.relocate(toThreadId, millis);
+        relocationCursor = -1;
+        relocationFromThreadId = fromThreadId;
+        relocationTable = tud;
+    }
+
     @NotNull
     private TableUpdateDetails unsafeAssignTableToWriterThread(
             int tudKeyIndex,
@@ -93,6 +93,15 @@ public interface LineTcpReceiverConfiguration {
 
     int getWriterQueueCapacity();
 
+    /**
+     * Minimum time in milliseconds a non-WAL table stays with its writer thread before it can be
+     * relocated to a less busy writer thread. Tables are relocated when the queue of their writer
+     * thread is full. Negative value disables relocation.
+     *
+     * @return interval in milliseconds
+     */
+    long getWriterRelocationInterval();
+
     WorkerPoolConfiguration getWriterWorkerPoolConfiguration();
 
     boolean isEnabled();
@@ -47,7 +47,9 @@ class LineTcpWriterJob implements Job, Closeable {
     private final LineTcpMeasurementScheduler scheduler;
     private final Sequence sequence;
     private final int workerId;
+    private final String workerIdLabel;
     private long nextCommitTime;
+    private long queueDepth = -1;
 
     LineTcpWriterJob(
             int workerId,
@@ -68,6 +70,7 @@ class LineTcpWriterJob implements Job, Closeable {
         this.scheduler = scheduler;
         this.metrics = metrics;
         this.assignedTables = assignedTables;
+        this.workerIdLabel = String.valueOf(workerId);
     }
 
     @Override
@@ -91,12 +94,22 @@ class LineTcpWriterJob implements Job, Closeable {
         // idea is to store the tables in a heap data structure being the tables most
         // desperately need a commit on the top
         if (!busy) {
+            completeRelocation(sequence.current());
             commitTables();
             tickWriters();
         }
+        updateQueueDepth();
         return busy;
     }
 
+    private void awaitOwnership(TableUpdateDetails tud) {
+        // the table is relocated to this thread, its previous writer
+        // thread may still be processing the table's events
+        while (tud.getOwnerThreadId() != workerId && tud.getWriterThreadId() == workerId) {
+            Os.pause();
+        }
+    }
+
     private void commitTables() {
         long wallClockMillis = millisecondClock.getTicks();
         if (wallClockMillis > nextCommitTime) {
@@ -126,6 +139,18 @@ class LineTcpWriterJob implements Job, Closeable {
         }
     }
 
+    private void completeRelocation(long cursor) {
+        final TableUpdateDetails tud = scheduler.getCompletedRelocation(workerId, cursor);
+        if (tud != null) {
+            if (tud.isAssignedToJob()) {
+                assignedTables.remove(tud);
+                tud.setAssignedToJob(false);
+                nextCommitTime = millisecondClock.getTicks();
+            }
+            scheduler.completeRelocation(tud);
+        }
+    }
+
     private boolean drainQueue() {
         boolean busy = false;
         while (true) {
@@ -146,6 +171,7 @@ class LineTcpWriterJob implements Job, Closeable {
                 final TableUpdateDetails tud = event.getTableUpdateDetails();
                 boolean closeWriter = false;
                 if (event.getWriterWorkerId() == workerId) {
+                    awaitOwnership(tud);
                     try {
                         if (tud.isWriterInError()) {
                             closeWriter = true;
@@ -174,6 +200,7 @@ class LineTcpWriterJob implements Job, Closeable {
                     }
                 } else {
                     if (event.getWriterWorkerId() == LineTcpMeasurementEventType.ALL_WRITERS_RELEASE_WRITER) {
+                        awaitOwnership(tud);
                         closeWriter = true;
                     }
                 }
@@ -189,6 +216,7 @@ class LineTcpWriterJob implements Job, Closeable {
             }
 
             sequence.done(cursor);
+            completeRelocation(cursor);
         }
     }
 
@@ -197,4 +225,12 @@ class LineTcpWriterJob implements Job, Closeable {
             assignedTables.getQuick(n).tick();
         }
     }
+
+    private void updateQueueDepth() {
+        final long depth = scheduler.getQueueDepth(workerId);
+        if (depth != queueDepth) {
+            queueDepth = depth;
+            metrics.line().writerQueueDepthGauge().setValue(workerIdLabel, depth);
+        }
+    }
 }
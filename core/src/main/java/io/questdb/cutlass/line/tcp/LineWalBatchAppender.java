@@ -0,0 +1,215 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableWriterAPI;
+import io.questdb.cairo.sql.TableRecordMetadata;
+import io.questdb.cairo.wal.WalWriter;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.DirectUtf8Sequence;
+import io.questdb.std.str.DirectUtf8String;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8s;
+
+/**
+ * Appends blocks of the columnar binary ILP format to WAL tables. A block holds rows of a single
+ * table with values of each column laid out contiguously, so fixed-size columns are copied to
+ * WAL column files in bulk and no text parsing is involved. Numbers are little-endian:
+ * <pre>
+ * int   block size in bytes, excluding this field
+ * short table name size, followed by UTF-8 table name
+ * int   row count
+ * short column count, followed by the columns:
+ *   short column name size, followed by UTF-8 column name, empty name stands for the designated timestamp
+ *   byte  column type tag, see {@link ColumnType}
+ *   fixed-size types: row count values as stored by the column, nulls are encoded as the type's null sentinel
+ *   VARCHAR, STRING and SYMBOL: row count int value sizes, -1 stands for null,
+ *     followed by int data size and UTF-8 value bytes
+ * </pre>
+ * The table and its columns must exist. Fixed-size column types must match table column types,
+ * while VARCHAR, STRING and SYMBOL values can be written to a column of any of these three types.
+ * Columns missing in a block are filled with nulls, the designated timestamp is mandatory.
+ */
+public class LineWalBatchAppender {
+    private final StringSink columnName = new StringSink();
+    private final DirectUtf8String tableName = new DirectUtf8String();
+
+    /**
+     * Appends the block to the table's WAL, the rows are committed along with the rest of the transaction.
+     *
+     * @param tud table to append to
+     * @param lo  address of the block, right after the block size
+     * @param hi  address of the block end
+     */
+    public void appendBlock(TableUpdateDetails tud, long lo, long hi) {
+        final TableWriterAPI writer = tud.getWriter();
+        assert writer instanceof WalWriter;
+        appendBlock0((WalWriter) writer, lo, hi);
+    }
+
+    /**
+     * Returns name of the table the block is written to, the name is a flyweight over the block.
+     *
+     * @param lo address of the block, right after the block size
+     * @param hi address of the block end
+     * @return table name
+     */
+    public DirectUtf8Sequence getTableName(long lo, long hi) {
+        checkBounds(lo, Short.BYTES, hi);
+        final int size = Unsafe.getUnsafe().getShort(lo);
+        checkBounds(lo + Short.BYTES, size, hi);
+        final long nameLo = lo + Short.BYTES;
+        return tableName.of(nameLo, nameLo + size, Utf8s.isAscii(nameLo, size));
+    }
+
+    private static CairoException castError(TableRecordMetadata metadata, int columnIndex, int protocolType) {
+        return CairoException.nonCritical()
+                .put("cast error from protocol type: ").put(ColumnType.nameOf(protocolType))
+                .put(" to column type: ").put(ColumnType.nameOf(metadata.getColumnType(columnIndex)))
+                .put(" [column=").put(metadata.getColumnName(columnIndex)).put(']');
+    }
+
+    private static void checkBounds(long p, long size, long hi) {
+        if (size < 0 || p + size > hi) {
+            throw malformed().put("unexpected end of block");
+        }
+    }
+
+    private static CairoException malformed() {
+        return CairoException.nonCritical().put("malformed columnar block: ");
+    }
+
+    private void appendBlock0(WalWriter writer, long lo, long hi) {
+        long p = lo + Short.BYTES + Unsafe.getUnsafe().getShort(lo);
+        checkBounds(p, Integer.BYTES + Short.BYTES, hi);
+        final int rowCount = Unsafe.getUnsafe().getInt(p);
+        p += Integer.BYTES;
+        final int columnCount = Unsafe.getUnsafe().getShort(p);
+        p += Short.BYTES;
+        if (rowCount < 0 || columnCount < 0) {
+            throw malformed().put("negative row or column count");
+        }
+        if (rowCount == 0) {
+            return;
+        }
+
+        final TableRecordMetadata metadata = writer.getMetadata();
+        final int timestampIndex = metadata.getTimestampIndex();
+        writer.beginBatch();
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                checkBounds(p, Short.BYTES, hi);
+                final int nameSize = Unsafe.getUnsafe().getShort(p);
+                p += Short.BYTES;
+                checkBounds(p, nameSize + Byte.BYTES, hi);
+                final int columnIndex;
+                if (nameSize == 0) {
+                    columnIndex = timestampIndex;
+                } else {
+                    columnName.clear();
+                    if (!Utf8s.utf8ToUtf16(p, p + nameSize, columnName)) {
+                        throw malformed().put("invalid UTF-8 column name");
+                    }
+                    columnIndex = metadata.getColumnIndexQuiet(columnName);
+                    if (columnIndex < 0 || metadata.getColumnType(columnIndex) < 0) {
+                        throw CairoException.nonCritical().put("column does not exist [column=").put(columnName).put(']');
+                    }
+                }
+                p += nameSize;
+                final int protocolType = Unsafe.getUnsafe().getByte(p++);
+                final int columnType = metadata.getColumnType(columnIndex);
+                switch (protocolType) {
+                    case ColumnType.VARCHAR:
+                    case ColumnType.STRING:
+                    case ColumnType.SYMBOL:
+                        p = appendVarSizeColumn(writer, metadata, columnIndex, columnType, rowCount, p, hi);
+                        break;
+                    default:
+                        if (columnType != protocolType || !ColumnType.isFixedSize(columnType)) {
+                            throw castError(metadata, columnIndex, protocolType);
+                        }
+                        final long size = (long) rowCount * ColumnType.sizeOf(columnType);
+                        checkBounds(p, size, hi);
+                        if (columnIndex == timestampIndex) {
+                            writer.putBatchTimestamp(p, rowCount);
+                        } else {
+                            writer.putBatch(columnIndex, p, rowCount);
+                        }
+                        p += size;
+                        break;
+                }
+            }
+            if (p != hi) {
+                throw malformed().put("unexpected bytes after the last column");
+            }
+            writer.appendBatch(rowCount);
+        } catch (Throwable th) {
+            writer.cancelBatch();
+            throw th;
+        }
+    }
+
+    private long appendVarSizeColumn(
+            WalWriter writer,
+            TableRecordMetadata metadata,
+            int columnIndex,
+            int columnType,
+            int rowCount,
+            long p,
+            long hi
+    ) {
+        final long sizesAddress = p;
+        checkBounds(p, (long) rowCount * Integer.BYTES + Integer.BYTES, hi);
+        p += (long) rowCount * Integer.BYTES;
+        final int dataSize = Unsafe.getUnsafe().getInt(p);
+        p += Integer.BYTES;
+        checkBounds(p, dataSize, hi);
+        // value sizes must add up to the data size, otherwise we would read past the block
+        long totalSize = 0;
+        for (long lo = sizesAddress; lo < sizesAddress + (long) rowCount * Integer.BYTES; lo += Integer.BYTES) {
+            totalSize += Math.max(Unsafe.getUnsafe().getInt(lo), 0);
+        }
+        if (totalSize != dataSize) {
+            throw malformed().put("value sizes do not match data size [column=").put(metadata.getColumnName(columnIndex)).put(']');
+        }
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.VARCHAR:
+                writer.putBatchVarchar(columnIndex, sizesAddress, p, rowCount);
+                break;
+            case ColumnType.STRING:
+                writer.putBatchStrUtf8(columnIndex, sizesAddress, p, rowCount);
+                break;
+            case ColumnType.SYMBOL:
+                writer.putBatchSymUtf8(columnIndex, sizesAddress, p, rowCount);
+                break;
+            default:
+                throw castError(metadata, columnIndex, ColumnType.VARCHAR);
+        }
+        return p + dataSize;
+    }
+}
@@ -39,6 +39,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static io.questdb.cairo.TableUtils.ANY_TABLE_VERSION;
 import static io.questdb.cairo.TableUtils.TXN_FILE_NAME;
@@ -55,6 +56,8 @@ public class TableUpdateDetails implements Closeable {
     private final MillisecondClock millisecondClock;
     // Set only for WAL tables, i.e. when writerThreadId == -1.
     private final SecurityContext ownSecurityContext;
+    // Number of network IO threads publishing events for the table at the moment.
+    private final AtomicInteger pendingDispatchCount = new AtomicInteger();
     private final Utf8String tableNameUtf8;
     private final TableToken tableToken;
     private final int timestampIndex;
@@ -66,12 +69,16 @@ public class TableUpdateDetails implements Closeable {
     private long eventsProcessedSinceReshuffle = 0;
     private boolean isDropped;
     private long lastMeasurementMillis = Long.MAX_VALUE;
+    private long lastRelocationMillis;
     private long latestKnownMetadataVersion;
     private MetadataService metadataService;
     private int networkIOOwnerCount = 0;
     private long nextCommitTime;
+    // Writer thread that appends to the table. It lags behind writerThreadId while the
+    // table is being relocated to another writer thread.
+    private volatile int ownerThreadId;
     private volatile boolean writerInError;
-    private int writerThreadId;
+    private volatile int writerThreadId;
 
     public TableUpdateDetails(
             LineTcpReceiverConfiguration configuration,
@@ -84,6 +91,7 @@ public class TableUpdateDetails implements Closeable {
             Utf8String tableNameUtf8
     ) {
         this.writerThreadId = writerThreadId;
+        this.ownerThreadId = writerThreadId;
         this.engine = engine;
         this.ownSecurityContext = ownSecurityContext;
         this.defaultColumnTypes = defaultColumnTypes;
@@ -97,6 +105,7 @@ public class TableUpdateDetails implements Closeable {
         this.metadataService = writer.supportsMultipleWriters() ? null : (MetadataService) writer;
         this.commitInterval = configuration.getCommitInterval();
         this.nextCommitTime = millisecondClock.getTicks() + commitInterval;
+        this.lastRelocationMillis = millisecondClock.getTicks();
 
         final int n = netIoJobs.length;
         this.localDetailsArray = new ThreadLocalDetails[n];
@@ -121,6 +130,7 @@ public class TableUpdateDetails implements Closeable {
             long maxUncommittedRows
     ) {
         this.writerThreadId = writerThreadId;
+        this.ownerThreadId = writerThreadId;
         this.engine = engine;
         this.ownSecurityContext = ownSecurityContext;
         this.defaultColumnTypes = defaultColumnTypes;
@@ -190,6 +200,13 @@ public class TableUpdateDetails implements Closeable {
         }
     }
 
+    /**
+     * Must be called before reading the writer thread id to publish an event for the table.
+     */
+    public void beginDispatch() {
+        pendingDispatchCount.incrementAndGet();
+    }
+
     public void commit(boolean withLag) throws CommitFailedException {
         if (writerAPI.getUncommittedRowCount() > 0) {
             try {
@@ -214,6 +231,18 @@ public class TableUpdateDetails implements Closeable {
         }
     }
 
+    /**
+     * Completes relocation of the table, called by the writer thread that was appending to
+     * the table once it has processed all of the table's events published before the relocation.
+     */
+    public void completeRelocation() {
+        ownerThreadId = writerThreadId;
+    }
+
+    public void endDispatch() {
+        pendingDispatchCount.decrementAndGet();
+    }
+
     public long getEventsProcessedSinceReshuffle() {
         return eventsProcessedSinceReshuffle;
     }
@@ -222,6 +251,10 @@ public class TableUpdateDetails implements Closeable {
         return lastMeasurementMillis;
     }
 
+    public long getLastRelocationMillis() {
+        return lastRelocationMillis;
+    }
+
     public MillisecondClock getMillisecondClock() {
         return millisecondClock;
     }
@@ -230,6 +263,10 @@ public class TableUpdateDetails implements Closeable {
         return networkIOOwnerCount;
     }
 
+    public int getOwnerThreadId() {
+        return ownerThreadId;
+    }
+
     public String getTableNameUtf16() {
         return tableToken.getTableName();
     }
@@ -246,6 +283,14 @@ public class TableUpdateDetails implements Closeable {
         return writerThreadId;
     }
 
+    /**
+     * Returns true while network IO threads publish events for the table. Once it returns false
+     * after {@link #relocate(int, long)}, no event can be published to the previous writer thread.
+     */
+    public boolean hasPendingDispatches() {
+        return pendingDispatchCount.get() > 0;
+    }
+
     public void incrementEventsProcessedSinceReshuffle() {
         ++eventsProcessedSinceReshuffle;
     }
@@ -258,6 +303,10 @@ public class TableUpdateDetails implements Closeable {
         return this.isDropped;
     }
 
+    public boolean isRelocating() {
+        return ownerThreadId != writerThreadId;
+    }
+
     public boolean isWal() {
         return writerThreadId == -1;
     }
@@ -266,6 +315,15 @@ public class TableUpdateDetails implements Closeable {
         return writerInError;
     }
 
+    /**
+     * Routes new events of the table to another writer thread. The writer thread that appends to
+     * the table remains the same until {@link #completeRelocation()} is called.
+     */
+    public void relocate(int writerThreadId, long millis) {
+        this.writerThreadId = writerThreadId;
+        this.lastRelocationMillis = millis;
+    }
+
     public void removeReference(int workerId) {
         if (!isWal()) {
             networkIOOwnerCount--;
@@ -45,6 +45,7 @@ import io.questdb.griffin.engine.groupby.vect.*;
 import io.questdb.griffin.engine.join.*;
 import io.questdb.griffin.engine.orderby.*;
 import io.questdb.griffin.engine.table.*;
+import io.questdb.griffin.engine.table.parquet.ParquetRowGroupFilter;
 import io.questdb.griffin.engine.union.*;
 import io.questdb.griffin.engine.window.CachedWindowRecordCursorFactory;
 import io.questdb.griffin.engine.window.WindowFunction;
@@ -57,6 +58,8 @@ import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
 import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8String;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -130,6 +133,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     private static final IntObjHashMap<VectorAggregateFunctionConstructor> sumConstructors = new IntObjHashMap<>();
     private final ArrayColumnTypes arrayColumnTypes = new ArrayColumnTypes();
     private final BytecodeAssembler asm = new BytecodeAssembler();
+    private final LongList bloomFilterHashes = new LongList();
+    private final ObjList<CharSequence> bloomFilterSymbols = new ObjList<>();
     private final CairoConfiguration configuration;
     private final ObjList<TableColumnMetadata> deferredWindowMetadata = new ObjList<>();
     private final boolean enableJitDebug;
@@ -289,6 +294,92 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return new ExplainPlanFactory(recordCursorFactory, format);
     }
 
+    // Adds hash or, for symbols, value of the constant to the lists of Bloom filter predicate values.
+    // Returns false if the constant can't be compared with the column values as is.
+    private static boolean addParquetBloomFilterValue(int columnType, Function valueFunc, LongList hashes, ObjList<CharSequence> symbols) {
+        final int valueTag = ColumnType.tagOf(valueFunc.getType());
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.LONG:
+                final long value = getParquetRowGroupFilterLongValue(columnType, valueFunc);
+                if (value == Numbers.LONG_NULL) {
+                    return false;
+                }
+                hashes.add(PartitionBloomFilter.hashLong(value));
+                return true;
+            case ColumnType.SYMBOL:
+                if (valueTag == ColumnType.CHAR) {
+                    final char ch = valueFunc.getChar(null);
+                    if (ch == 0) {
+                        return false;
+                    }
+                    symbols.add(String.valueOf(ch));
+                    return true;
+                }
+                if (valueTag == ColumnType.STRING || valueTag == ColumnType.SYMBOL || valueTag == ColumnType.VARCHAR) {
+                    final CharSequence str = valueFunc.getStrA(null);
+                    if (str == null) {
+                        return false;
+                    }
+                    symbols.add(Chars.toString(str));
+                    return true;
+                }
+                return false;
+            case ColumnType.VARCHAR:
+                if (valueTag == ColumnType.VARCHAR) {
+                    final Utf8Sequence utf8Value = valueFunc.getVarcharA(null);
+                    if (utf8Value == null) {
+                        return false;
+                    }
+                    hashes.add(PartitionBloomFilter.hashUtf8(utf8Value));
+                    return true;
+                }
+                if (valueTag == ColumnType.CHAR) {
+                    final char ch = valueFunc.getChar(null);
+                    if (ch == 0) {
+                        return false;
+                    }
+                    hashes.add(PartitionBloomFilter.hashUtf8(new Utf8String(ch)));
+                    return true;
+                }
+                if (valueTag == ColumnType.STRING || valueTag == ColumnType.SYMBOL) {
+                    final CharSequence str = valueFunc.getStrA(null);
+                    if (str == null) {
+                        return false;
+                    }
+                    hashes.add(PartitionBloomFilter.hashUtf8(new Utf8String(str)));
+                    return true;
+                }
+                return false;
+            case ColumnType.UUID:
+                if (valueTag == ColumnType.UUID) {
+                    final long lo = valueFunc.getLong128Lo(null);
+                    final long hi = valueFunc.getLong128Hi(null);
+                    if (Uuid.isNull(lo, hi)) {
+                        return false;
+                    }
+                    hashes.add(PartitionBloomFilter.hashUuid(lo, hi));
+                    return true;
+                }
+                if (valueTag == ColumnType.STRING || valueTag == ColumnType.VARCHAR) {
+                    final CharSequence str = valueFunc.getStrA(null);
+                    if (str == null) {
+                        return false;
+                    }
+                    try {
+                        Uuid.checkDashesAndLength(str);
+                        hashes.add(PartitionBloomFilter.hashUuid(Uuid.parseLo(str), Uuid.parseHi(str)));
+                        return true;
+                    } catch (NumericException ignore) {
+                        // the filter will take care of the error
+                        return false;
+                    }
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
     private static boolean allGroupsFirstLastWithSingleSymbolFilter(QueryModel model, RecordMetadata metadata) {
         final ObjList<QueryColumn> columns = model.getColumns();
         CharSequence symbolToken = null;
@@ -414,6 +505,67 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return model.getOrderByDirectionAdvice().getQuick(index);
     }
 
+    // Returns the constant as a value of the integer, date or timestamp column
+    // or null if the constant can't be compared with the column values as is.
+    private static long getParquetRowGroupFilterLongValue(int columnType, Function valueFunc) {
+        final int valueTag = ColumnType.tagOf(valueFunc.getType());
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+                if (valueTag == ColumnType.BYTE || valueTag == ColumnType.SHORT || valueTag == ColumnType.INT || valueTag == ColumnType.LONG) {
+                    return valueFunc.getLong(null);
+                }
+                return Numbers.LONG_NULL;
+            case ColumnType.DATE:
+                return valueTag == ColumnType.DATE ? valueFunc.getDate(null) : Numbers.LONG_NULL;
+            case ColumnType.TIMESTAMP:
+                if (valueTag == ColumnType.TIMESTAMP) {
+                    return valueFunc.getTimestamp(null);
+                }
+                if (valueTag == ColumnType.STRING || valueTag == ColumnType.VARCHAR || valueTag == ColumnType.SYMBOL) {
+                    final CharSequence str = valueFunc.getStrA(null);
+                    if (str != null) {
+                        try {
+                            return SqlUtil.implicitCastStrAsTimestamp(str);
+                        } catch (ImplicitCastException ignore) {
+                            // the filter will take care of the error
+                        }
+                    }
+                }
+                return Numbers.LONG_NULL;
+            default:
+                return Numbers.LONG_NULL;
+        }
+    }
+
+    // Returns true if the expression consists of constants only, e.g. "-42" or "'abc'".
+    private static boolean isConstantExpression(ExpressionNode node) {
+        switch (node.type) {
+            case ExpressionNode.CONSTANT:
+                return true;
+            case ExpressionNode.OPERATION:
+            case ExpressionNode.FUNCTION:
+                if (node.paramCount == 0) {
+                    // functions with no args, e.g. now(), are never constant
+                    return false;
+                }
+                if (node.paramCount < 3) {
+                    return (node.lhs == null || isConstantExpression(node.lhs))
+                            && (node.rhs == null || isConstantExpression(node.rhs));
+                }
+                for (int i = 0, n = node.args.size(); i < n; i++) {
+                    if (!isConstantExpression(node.args.getQuick(i))) {
+                        return false;
+                    }
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
     private static boolean isSingleColumnFunction(ExpressionNode ast, CharSequence name) {
         return ast.type == FUNCTION && ast.paramCount == 1 && Chars.equalsIgnoreCase(ast.token, name) && ast.rhs.type == LITERAL;
     }
@@ -436,6 +588,14 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return metadata;
     }
 
+    private void addParquetBloomFilterPredicate(ParquetRowGroupFilter rowGroupFilter, int columnIndex, int columnType) {
+        if (ColumnType.isSymbol(columnType)) {
+            rowGroupFilter.addBloomFilterSymbols(columnIndex, bloomFilterSymbols);
+        } else {
+            rowGroupFilter.addBloomFilterHashes(columnIndex, bloomFilterHashes);
+        }
+    }
+
     private VectorAggregateFunctionConstructor assembleFunctionReference(RecordMetadata metadata, ExpressionNode ast) {
         int columnIndex;
         if (ast.type == FUNCTION && ast.paramCount == 1 && SqlKeywords.isSumKeyword(ast.token) && ast.rhs.type == LITERAL) {
@@ -825,7 +985,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             RecordCursorFactory slave,
             int joinType,
             Function filter,
-            JoinContext context
+            JoinContext context,
+            SqlExecutionContext executionContext
     ) {
         /*
          * JoinContext provides the following information:
@@ -840,6 +1001,37 @@ public class SqlCodeGenerator implements Mutable, Closeable {
          */
         final RecordMetadata masterMetadata = master.getMetadata();
         final RecordMetadata slaveMetadata = slave.getMetadata();
+        // spilling requires slave records to be copied, so only the full fat inner join supports it
+        final boolean spillEnabled = joinType == JOIN_INNER && configuration.getSqlHashSpillThreshold() > 0;
+        if (joinType == JOIN_INNER
+                && !fullFatJoins
+                && !spillEnabled
+                && configuration.isSqlParallelHashJoinEnabled()
+                && keyTypes.getColumnCount() == 1
+                && master.supportsPageFrameCursor()
+                && slave.supportsPageFrameCursor()
+                && master.getScanDirection() == RecordCursorFactory.SCAN_DIRECTION_FORWARD) {
+            final int masterKeyColumnIndex = listColumnFilterB.getColumnIndexFactored(0);
+            final int slaveKeyColumnIndex = listColumnFilterA.getColumnIndexFactored(0);
+            final int keyType = masterMetadata.getColumnType(masterKeyColumnIndex);
+            if (AsyncHashJoinBuildAtom.isSupportedKeyType(keyType)
+                    && ColumnType.tagOf(keyType) == ColumnType.tagOf(slaveMetadata.getColumnType(slaveKeyColumnIndex))) {
+                return new AsyncHashJoinRecordCursorFactory(
+                        configuration,
+                        executionContext.getMessageBus(),
+                        metadata,
+                        master,
+                        slave,
+                        masterKeyColumnIndex,
+                        slaveKeyColumnIndex,
+                        masterMetadata.getColumnCount(),
+                        context,
+                        reduceTaskFactory,
+                        executionContext.getSharedWorkerCount()
+                );
+            }
+        }
+
         final RecordSink masterKeySink = RecordSinkFactory.getInstance(
                 asm,
                 masterMetadata,
@@ -856,7 +1048,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 writeStringAsVarcharA
         );
 
-        if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
+        if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins && !spillEnabled) {
             valueTypes.clear();
             valueTypes.add(ColumnType.INT); // chain tail offset
 
@@ -917,6 +1109,11 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         RecordSink slaveSink = RecordSinkFactory.getInstance(asm, slaveMetadata, entityColumnFilter);
 
         if (joinType == JOIN_INNER) {
+            RecordSink masterSink = null;
+            if (spillEnabled) {
+                entityColumnFilter.of(masterMetadata.getColumnCount());
+                masterSink = RecordSinkFactory.getInstance(asm, masterMetadata, entityColumnFilter);
+            }
             return new HashJoinRecordCursorFactory(
                     configuration,
                     metadata,
@@ -927,6 +1124,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     masterKeySink,
                     slaveKeySink,
                     slaveSink,
+                    masterSink,
                     masterMetadata.getColumnCount(),
                     context
             );
@@ -1842,6 +2040,19 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             }
         }
 
+        if (factory.supportsParquetRowGroupFilter()) {
+            try {
+                final ParquetRowGroupFilter rowGroupFilter = generateParquetRowGroupFilter(filterExpr, factory.getMetadata(), executionContext);
+                if (rowGroupFilter != null) {
+                    factory.setParquetRowGroupFilter(rowGroupFilter);
+                }
+            } catch (Throwable e) {
+                Misc.free(filter);
+                Misc.free(factory);
+                throw e;
+            }
+        }
+
         final boolean enableParallelFilter = executionContext.isParallelFilterEnabled();
         final boolean preTouchColumns = configuration.isSqlParallelFilterPreTouchEnabled();
         if (enableParallelFilter && factory.supportsPageFrameCursor()) {
@@ -2275,7 +2486,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                         slave,
                                         joinType,
                                         filter,
-                                        slaveModel.getContext()
+                                        slaveModel.getContext(),
+                                        executionContext
                                 );
                                 masterAlias = null;
                                 break;
@@ -2849,6 +3061,14 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     if (canSortAndLimitBeOptimized(model, executionContext, loFunc, hiFunc)) {
                         model.setLimitImplemented(true);
                         int baseCursorTimestampIndex = preSortedByTs ? timestampIndex : -1;
+                        if (configuration.isSqlParallelOrderByEnabled()
+                                && orderByColumnNames.size() == 1
+                                && LongSortedLightRecordCursorFactory.isSupportedColumnType(orderedMetadata.getColumnType(firstOrderByColumnIndex))) {
+                            final RecordCursorFactory parallelFactory = generateParallelSort(recordCursorFactory, orderedMetadata, loFunc, hiFunc, executionContext);
+                            if (parallelFactory != null) {
+                                return parallelFactory;
+                            }
+                        }
                         return new LimitedSizeSortedLightRecordCursorFactory(
                                 configuration,
                                 orderedMetadata,
@@ -2864,6 +3084,12 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                         if (configuration.isSqlOrderBySortEnabled()
                                 && orderByColumnNames.size() == 1
                                 && LongSortedLightRecordCursorFactory.isSupportedColumnType(columnType)) {
+                            if (configuration.isSqlParallelOrderByEnabled()) {
+                                final RecordCursorFactory parallelFactory = generateParallelSort(recordCursorFactory, orderedMetadata, null, null, executionContext);
+                                if (parallelFactory != null) {
+                                    return parallelFactory;
+                                }
+                            }
                             return new LongSortedLightRecordCursorFactory(
                                     configuration,
                                     orderedMetadata,
@@ -2903,6 +3129,274 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         }
     }
 
+    // Returns null when the base factory can't be scanned in parallel. Non-null lo function
+    // means that the sort is limited, so that only top K rows have to be kept.
+    private @Nullable RecordCursorFactory generateParallelSort(
+            RecordCursorFactory factory,
+            RecordMetadata orderedMetadata,
+            @Nullable Function loFunc,
+            @Nullable Function hiFunc,
+            SqlExecutionContext executionContext
+    ) {
+        CompiledFilter compiledFilter = null;
+        MemoryCARW bindVarMemory = null;
+        ObjList<Function> bindVarFunctions = null;
+        Function filter = null;
+        if (!factory.supportsPageFrameCursor()) {
+            // Try to steal the filter from the nested factory, if possible. Filters that are
+            // not thread-safe would require per-worker copies, so we leave them to the base factory.
+            if (!factory.supportsFilterStealing() || !factory.getFilter().isThreadSafe()) {
+                return null;
+            }
+            final RecordCursorFactory filterFactory = factory;
+            factory = factory.getBaseFactory();
+            assert factory.supportsPageFrameCursor();
+            compiledFilter = filterFactory.getCompiledFilter();
+            bindVarMemory = filterFactory.getBindVarMemory();
+            bindVarFunctions = filterFactory.getBindVarFunctions();
+            filter = filterFactory.getFilter();
+            filterFactory.halfClose();
+        }
+        if (loFunc != null) {
+            return new AsyncTopKRecordCursorFactory(
+                    configuration,
+                    executionContext.getMessageBus(),
+                    orderedMetadata,
+                    factory,
+                    listColumnFilterA.copy(),
+                    loFunc,
+                    hiFunc,
+                    compiledFilter,
+                    bindVarMemory,
+                    bindVarFunctions,
+                    filter,
+                    reduceTaskFactory,
+                    null,
+                    executionContext.getSharedWorkerCount()
+            );
+        }
+        return new AsyncSortedLightRecordCursorFactory(
+                configuration,
+                executionContext.getMessageBus(),
+                orderedMetadata,
+                factory,
+                listColumnFilterA.copy(),
+                compiledFilter,
+                bindVarMemory,
+                bindVarFunctions,
+                filter,
+                reduceTaskFactory,
+                null,
+                executionContext.getSharedWorkerCount()
+        );
+    }
+
+    // Extracts "column op constant" predicates from the top-level conjunction of the filter,
+    // so that the factories scanning Parquet data could skip row groups using column statistics.
+    private @Nullable ParquetRowGroupFilter generateParquetRowGroupFilter(
+            ExpressionNode filterExpr,
+            RecordMetadata metadata,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final ParquetRowGroupFilter rowGroupFilter = new ParquetRowGroupFilter();
+        generateParquetRowGroupFilter0(rowGroupFilter, filterExpr, metadata, executionContext);
+        return rowGroupFilter.isEmpty() ? null : rowGroupFilter;
+    }
+
+    // "column BETWEEN lo AND hi" is evaluated over timestamps, so only the columns that read
+    // as timestamps with no conversion are supported.
+    private void generateParquetRowGroupFilterBetween(
+            ParquetRowGroupFilter rowGroupFilter,
+            ExpressionNode node,
+            RecordMetadata metadata,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final ExpressionNode columnNode = node.args.getQuick(2);
+        final ExpressionNode loNode = node.args.getQuick(1);
+        final ExpressionNode hiNode = node.args.getQuick(0);
+        if (columnNode.type != ExpressionNode.LITERAL || !isConstantExpression(loNode) || !isConstantExpression(hiNode)) {
+            return;
+        }
+        final int columnIndex = metadata.getColumnIndexQuiet(columnNode.token);
+        if (columnIndex < 0) {
+            return;
+        }
+        final int columnType = metadata.getColumnType(columnIndex);
+        final short columnTag = ColumnType.tagOf(columnType);
+        if (columnTag != ColumnType.INT && columnTag != ColumnType.LONG && columnTag != ColumnType.TIMESTAMP) {
+            return;
+        }
+
+        Function loFunc = null;
+        Function hiFunc = null;
+        try {
+            loFunc = functionParser.parseFunction(loNode, metadata, executionContext);
+            hiFunc = functionParser.parseFunction(hiNode, metadata, executionContext);
+            if (!loFunc.isConstant() || !hiFunc.isConstant()) {
+                return;
+            }
+            final long lo = getParquetRowGroupFilterLongValue(columnType, loFunc);
+            final long hi = getParquetRowGroupFilterLongValue(columnType, hiFunc);
+            if (lo != Numbers.LONG_NULL && hi != Numbers.LONG_NULL) {
+                // bounds are swapped when lo > hi
+                rowGroupFilter.addLong(columnIndex, columnType, ParquetRowGroupFilter.OP_GE, Math.min(lo, hi));
+                rowGroupFilter.addLong(columnIndex, columnType, ParquetRowGroupFilter.OP_LE, Math.max(lo, hi));
+            }
+        } finally {
+            Misc.free(loFunc);
+            Misc.free(hiFunc);
+        }
+    }
+
+    // "column IN (constants)" is used for Bloom filter checks only.
+    private void generateParquetRowGroupFilterIn(
+            ParquetRowGroupFilter rowGroupFilter,
+            ExpressionNode node,
+            RecordMetadata metadata,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final ExpressionNode columnNode = node.paramCount == 2 ? node.lhs : node.args.getLast();
+        if (columnNode.type != ExpressionNode.LITERAL) {
+            return;
+        }
+        final int columnIndex = metadata.getColumnIndexQuiet(columnNode.token);
+        if (columnIndex < 0) {
+            return;
+        }
+        final int columnType = metadata.getColumnType(columnIndex);
+        if (!PartitionBloomFilter.isSupported(columnType)) {
+            return;
+        }
+
+        bloomFilterHashes.clear();
+        bloomFilterSymbols.clear();
+        final int valueCount = node.paramCount - 1;
+        for (int i = 0; i < valueCount; i++) {
+            final ExpressionNode valueNode = node.paramCount == 2 ? node.rhs : node.args.getQuick(i);
+            if (!isConstantExpression(valueNode)) {
+                return;
+            }
+            final Function valueFunc = functionParser.parseFunction(valueNode, metadata, executionContext);
+            try {
+                if (!valueFunc.isConstant() || !addParquetBloomFilterValue(columnType, valueFunc, bloomFilterHashes, bloomFilterSymbols)) {
+                    return;
+                }
+            } finally {
+                Misc.free(valueFunc);
+            }
+        }
+        addParquetBloomFilterPredicate(rowGroupFilter, columnIndex, columnType);
+    }
+
+    private void generateParquetRowGroupFilter0(
+            ParquetRowGroupFilter rowGroupFilter,
+            ExpressionNode node,
+            RecordMetadata metadata,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        if (node.type == ExpressionNode.SET_OPERATION && node.paramCount == 3 && SqlKeywords.isBetweenKeyword(node.token)) {
+            generateParquetRowGroupFilterBetween(rowGroupFilter, node, metadata, executionContext);
+            return;
+        }
+        if (node.type == ExpressionNode.SET_OPERATION && SqlKeywords.isInKeyword(node.token)) {
+            generateParquetRowGroupFilterIn(rowGroupFilter, node, metadata, executionContext);
+            return;
+        }
+        if (node.type != ExpressionNode.OPERATION || node.paramCount != 2) {
+            return;
+        }
+        if (SqlKeywords.isAndKeyword(node.token)) {
+            generateParquetRowGroupFilter0(rowGroupFilter, node.lhs, metadata, executionContext);
+            generateParquetRowGroupFilter0(rowGroupFilter, node.rhs, metadata, executionContext);
+            return;
+        }
+
+        int op = ParquetRowGroupFilter.op(node.token);
+        if (op == -1) {
+            return;
+        }
+        ExpressionNode columnNode = node.lhs;
+        ExpressionNode valueNode = node.rhs;
+        if (columnNode.type != ExpressionNode.LITERAL) {
+            columnNode = node.rhs;
+            valueNode = node.lhs;
+            op = ParquetRowGroupFilter.swap(op);
+        }
+        // bind variables are left alone, so that we don't define their types here
+        if (columnNode.type != ExpressionNode.LITERAL || !isConstantExpression(valueNode)) {
+            return;
+        }
+        final int columnIndex = metadata.getColumnIndexQuiet(columnNode.token);
+        if (columnIndex < 0) {
+            return;
+        }
+
+        final int columnType = metadata.getColumnType(columnIndex);
+        final Function valueFunc = functionParser.parseFunction(valueNode, metadata, executionContext);
+        try {
+            if (!valueFunc.isConstant()) {
+                return;
+            }
+            final int valueTag = ColumnType.tagOf(valueFunc.getType());
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.BYTE:
+                case ColumnType.SHORT:
+                case ColumnType.INT:
+                case ColumnType.LONG:
+                case ColumnType.DATE:
+                case ColumnType.TIMESTAMP:
+                    final long value = getParquetRowGroupFilterLongValue(columnType, valueFunc);
+                    if (value != Numbers.LONG_NULL) {
+                        rowGroupFilter.addLong(columnIndex, columnType, op, value);
+                    }
+                    break;
+                case ColumnType.FLOAT:
+                case ColumnType.DOUBLE:
+                    if (valueTag == ColumnType.BYTE || valueTag == ColumnType.SHORT || valueTag == ColumnType.INT
+                            || valueTag == ColumnType.LONG || valueTag == ColumnType.FLOAT || valueTag == ColumnType.DOUBLE) {
+                        final double doubleValue = valueFunc.getDouble(null);
+                        if (!Numbers.isNull(doubleValue)) {
+                            rowGroupFilter.addDouble(columnIndex, columnType, op, doubleValue);
+                        }
+                    }
+                    break;
+                case ColumnType.SYMBOL:
+                case ColumnType.STRING:
+                case ColumnType.VARCHAR:
+                    if (op == ParquetRowGroupFilter.OP_EQ) {
+                        if (valueTag == ColumnType.VARCHAR) {
+                            final Utf8Sequence utf8Value = valueFunc.getVarcharA(null);
+                            if (utf8Value != null) {
+                                rowGroupFilter.addUtf8(columnIndex, columnType, utf8Value);
+                            }
+                        } else if (valueTag == ColumnType.CHAR) {
+                            final char ch = valueFunc.getChar(null);
+                            if (ch != 0) {
+                                rowGroupFilter.addUtf8(columnIndex, columnType, new Utf8String(ch));
+                            }
+                        } else if (valueTag == ColumnType.STRING || valueTag == ColumnType.SYMBOL) {
+                            final CharSequence str = valueFunc.getStrA(null);
+                            if (str != null) {
+                                rowGroupFilter.addUtf8(columnIndex, columnType, new Utf8String(str));
+                            }
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+            if (op == ParquetRowGroupFilter.OP_EQ && PartitionBloomFilter.isSupported(columnType)) {
+                bloomFilterHashes.clear();
+                bloomFilterSymbols.clear();
+                if (addParquetBloomFilterValue(columnType, valueFunc, bloomFilterHashes, bloomFilterSymbols)) {
+                    addParquetBloomFilterPredicate(rowGroupFilter, columnIndex, columnType);
+                }
+            }
+        } finally {
+            Misc.free(valueFunc);
+        }
+    }
+
     private RecordCursorFactory generateQuery(QueryModel model, SqlExecutionContext executionContext, boolean processJoins) throws SqlException {
         RecordCursorFactory factory = generateQuery0(model, executionContext, processJoins);
         if (model.getUnionModel() != null) {
@@ -382,6 +382,22 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         }
     }
 
+    private static boolean isBloomFilterClause(GenericLexer lexer) throws SqlException {
+        final CharSequence tok = SqlUtil.fetchNext(lexer);
+        if (tok != null && SqlKeywords.isBloomKeyword(tok)) {
+            expectKeyword(lexer, "filter");
+            final CharSequence next = SqlUtil.fetchNext(lexer);
+            if (next != null && !isSemicolon(next)) {
+                throw SqlException.$(lexer.lastTokenPosition(), "unexpected token [").put(next).put("] while trying to alter bloom filter");
+            }
+            return true;
+        }
+        if (tok != null) {
+            lexer.unparseLast();
+        }
+        return false;
+    }
+
     private static boolean isCompatibleCase(int from, int to) {
         if (isIPv4Cast(from, to)) {
             return true;
@@ -615,6 +631,19 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
 
                     tok = expectToken(lexer, "'add index' or 'drop index' or 'type' or 'cache' or 'nocache'");
                     if (SqlKeywords.isAddKeyword(tok)) {
+                        if (isBloomFilterClause(lexer)) {
+                            // alter table <table name> alter column <column name> add bloom filter
+                            alterTableColumnBloomFilter(
+                                    securityContext,
+                                    tableNamePosition,
+                                    tableToken,
+                                    columnNamePosition,
+                                    columnName,
+                                    tableMetadata,
+                                    true
+                            );
+                            return;
+                        }
                         expectKeyword(lexer, "index");
                         tok = SqlUtil.fetchNext(lexer);
                         int indexValueCapacity = -1;
@@ -645,6 +674,19 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                                 indexValueCapacity
                         );
                     } else if (SqlKeywords.isDropKeyword(tok)) {
+                        if (isBloomFilterClause(lexer)) {
+                            // alter table <table name> alter column <column name> drop bloom filter
+                            alterTableColumnBloomFilter(
+                                    securityContext,
+                                    tableNamePosition,
+                                    tableToken,
+                                    columnNamePosition,
+                                    columnName,
+                                    tableMetadata,
+                                    false
+                            );
+                            return;
+                        }
                         // alter table <table name> alter column drop index
                         expectKeyword(lexer, "index");
                         tok = SqlUtil.fetchNext(lexer);
@@ -967,6 +1009,38 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         compiledQuery.ofAlter(alterOperationBuilder.build());
     }
 
+    private void alterTableColumnBloomFilter(
+            SecurityContext securityContext,
+            int tableNamePosition,
+            TableToken tableToken,
+            int columnNamePosition,
+            CharSequence columnName,
+            TableRecordMetadata metadata,
+            boolean add
+    ) throws SqlException {
+        final int columnIndex = metadata.getColumnIndexQuiet(columnName);
+        if (columnIndex == -1) {
+            throw SqlException.invalidColumn(columnNamePosition, columnName);
+        }
+
+        final int type = metadata.getColumnType(columnIndex);
+        if (!PartitionBloomFilter.isSupported(type)) {
+            throw SqlException.position(columnNamePosition)
+                    .put("bloom filters are only supported for LONG, SYMBOL, UUID and VARCHAR types [column=").put(columnName)
+                    .put(", type=").put(ColumnType.nameOf(type)).put(']');
+        }
+
+        // Bloom filters are a kind of index, so they share index permissions
+        if (add) {
+            alterOperationBuilder.ofAddBloomFilter(tableNamePosition, tableToken, metadata.getTableId(), columnName, columnNamePosition);
+            securityContext.authorizeAlterTableAddIndex(tableToken, alterOperationBuilder.getExtraStrInfo());
+        } else {
+            alterOperationBuilder.ofDropBloomFilter(tableNamePosition, tableToken, metadata.getTableId(), columnName, columnNamePosition);
+            securityContext.authorizeAlterTableDropIndex(tableToken, alterOperationBuilder.getExtraStrInfo());
+        }
+        compiledQuery.ofAlter(alterOperationBuilder.build());
+    }
+
     private void alterTableColumnCacheFlag(
             SecurityContext securityContext,
             int tableNamePosition,
@@ -1368,6 +1442,12 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                 throw SqlException.$(paramNamePosition, "o3MaxLag must be non negative");
             }
             compiledQuery.ofAlter(alterOperationBuilder.ofSetO3MaxLag(tableNamePosition, tableToken, tableId, o3MaxLag).build());
+        } else if (isParquetConversionAgeKeyword(paramName)) {
+            long parquetConversionAge = SqlUtil.expectMicros(value, paramNamePosition);
+            if (parquetConversionAge < 0) {
+                throw SqlException.$(paramNamePosition, "parquetConversionAge must be non negative");
+            }
+            compiledQuery.ofAlter(alterOperationBuilder.ofSetParquetConversionAge(tableNamePosition, tableToken, tableId, parquetConversionAge).build());
         } else {
             throw SqlException.$(paramNamePosition, "unknown parameter '").put(paramName).put('\'');
         }
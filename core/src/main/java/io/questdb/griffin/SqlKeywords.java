@@ -134,6 +134,15 @@ public class SqlKeywords {
                 && (tok.charAt(6) | 32) == 'n';
     }
 
+    public static boolean isBloomKeyword(CharSequence tok) {
+        return tok.length() == 5
+                && (tok.charAt(0) | 32) == 'b'
+                && (tok.charAt(1) | 32) == 'l'
+                && (tok.charAt(2) | 32) == 'o'
+                && (tok.charAt(3) | 32) == 'o'
+                && (tok.charAt(4) | 32) == 'm';
+    }
+
     public static boolean isByKeyword(CharSequence tok) {
         return tok.length() == 2
                 && (tok.charAt(0) | 32) == 'b'
@@ -600,6 +609,16 @@ public class SqlKeywords {
                 && (tok.charAt(3) | 32) == 'l';
     }
 
+    public static boolean isFilterKeyword(CharSequence tok) {
+        return tok.length() == 6
+                && (tok.charAt(0) | 32) == 'f'
+                && (tok.charAt(1) | 32) == 'i'
+                && (tok.charAt(2) | 32) == 'l'
+                && (tok.charAt(3) | 32) == 't'
+                && (tok.charAt(4) | 32) == 'e'
+                && (tok.charAt(5) | 32) == 'r';
+    }
+
     public static boolean isFirstKeyword(CharSequence tok) {
         return tok.length() == 5
                 && (tok.charAt(0) | 32) == 'f'
@@ -1291,6 +1310,30 @@ public class SqlKeywords {
                 && (tok.charAt(i) | 32) == 's';
     }
 
+    public static boolean isParquetConversionAgeKeyword(CharSequence tok) {
+        return tok.length() == 20
+                && (tok.charAt(0) | 32) == 'p'
+                && (tok.charAt(1) | 32) == 'a'
+                && (tok.charAt(2) | 32) == 'r'
+                && (tok.charAt(3) | 32) == 'q'
+                && (tok.charAt(4) | 32) == 'u'
+                && (tok.charAt(5) | 32) == 'e'
+                && (tok.charAt(6) | 32) == 't'
+                && (tok.charAt(7) | 32) == 'c'
+                && (tok.charAt(8) | 32) == 'o'
+                && (tok.charAt(9) | 32) == 'n'
+                && (tok.charAt(10) | 32) == 'v'
+                && (tok.charAt(11) | 32) == 'e'
+                && (tok.charAt(12) | 32) == 'r'
+                && (tok.charAt(13) | 32) == 's'
+                && (tok.charAt(14) | 32) == 'i'
+                && (tok.charAt(15) | 32) == 'o'
+                && (tok.charAt(16) | 32) == 'n'
+                && (tok.charAt(17) | 32) == 'a'
+                && (tok.charAt(18) | 32) == 'g'
+                && (tok.charAt(19) | 32) == 'e';
+    }
+
     public static boolean isParquetKeyword(CharSequence tok) {
         return tok.length() == 7
                 && (tok.charAt(0) | 32) == 'p'
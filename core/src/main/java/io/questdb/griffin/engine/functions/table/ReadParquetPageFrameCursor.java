@@ -0,0 +1,252 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.table;
+
+import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.engine.table.parquet.ParquetRowGroupFilter;
+import io.questdb.griffin.engine.table.parquet.PartitionDecoder;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.Rows;
+import io.questdb.std.str.LPSZ;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Page frame cursor over a standalone Parquet file. Each row group makes a single
+ * {@link PageFrame#PARQUET_FORMAT} frame, so that filters and GROUP BY applied on top
+ * of <code>read_parquet()</code> can be executed by the shared worker pool. The file acts
+ * as a table with a single partition; row groups are decoded by {@link PageFrameMemoryPool}.
+ */
+public class ReadParquetPageFrameCursor implements PageFrameCursor {
+    private final IntList columnSizeShifts = new IntList();
+    private final PartitionDecoder decoder;
+    private final ReadParquetPageFrame frame = new ReadParquetPageFrame();
+    private final RecordMetadata metadata;
+    private boolean forward;
+    private int rowGroup;
+    // Used to skip row groups that can't match the filter applied on top of this cursor.
+    private ParquetRowGroupFilter rowGroupFilter;
+    // Low row of the current row group for forward scan, high row for backward scan.
+    private long rowGroupRowLo;
+
+    public ReadParquetPageFrameCursor(FilesFacade ff, RecordMetadata metadata) {
+        this.metadata = metadata;
+        this.decoder = new PartitionDecoder(ff);
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            final int columnType = metadata.getColumnType(i);
+            columnSizeShifts.add(ColumnType.isVarSize(columnType) ? 0 : ColumnType.pow2SizeOf(columnType));
+        }
+    }
+
+    @Override
+    public void calculateSize(RecordCursor.Counter counter) {
+        counter.add(size());
+    }
+
+    @Override
+    public void close() {
+        Misc.free(decoder);
+    }
+
+    @Override
+    public StaticSymbolTable getSymbolTable(int columnIndex) {
+        // Parquet files are read with no symbol tables.
+        return null;
+    }
+
+    @Override
+    public TableReader getTableReader() {
+        return null;
+    }
+
+    @Override
+    public long getUpdateRowId(long rowIndex) {
+        return Rows.toRowID(frame.getPartitionIndex(), frame.getPartitionLo() + rowIndex);
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return null;
+    }
+
+    @Override
+    public @Nullable PageFrame next() {
+        final PartitionDecoder.Metadata parquetMetadata = decoder.getMetadata();
+        final int rowGroupCount = parquetMetadata.rowGroupCount();
+        while (true) {
+            if (forward) {
+                if (rowGroup >= 0) {
+                    rowGroupRowLo += parquetMetadata.rowGroupSize(rowGroup);
+                }
+                if (++rowGroup >= rowGroupCount) {
+                    return null;
+                }
+            } else {
+                if (--rowGroup < 0) {
+                    return null;
+                }
+                rowGroupRowLo -= parquetMetadata.rowGroupSize(rowGroup);
+            }
+
+            final int rowGroupSize = parquetMetadata.rowGroupSize(rowGroup);
+            if (rowGroupSize == 0 || (rowGroupFilter != null && rowGroupFilter.canSkip(decoder, rowGroup, null))) {
+                continue;
+            }
+
+            frame.partitionLo = rowGroupRowLo;
+            frame.partitionHi = rowGroupRowLo + rowGroupSize;
+            frame.rowGroup = rowGroup;
+            frame.rowGroupSize = rowGroupSize;
+            return frame;
+        }
+    }
+
+    @Override
+    public PageFrameCursor of(PartitionFrameCursor partitionFrameCursor) {
+        throw new UnsupportedOperationException();
+    }
+
+    public ReadParquetPageFrameCursor of(LPSZ path, int order) {
+        // Reopen the file, it could have changed
+        decoder.of(path);
+        ReadParquetRecordCursor.assertMetadataSame(metadata, decoder);
+        forward = order != PartitionFrameCursorFactory.ORDER_DESC;
+        toTop();
+        return this;
+    }
+
+    public void setRowGroupFilter(ParquetRowGroupFilter rowGroupFilter) {
+        this.rowGroupFilter = rowGroupFilter;
+    }
+
+    @Override
+    public long size() {
+        return decoder.getMetadata().rowCount();
+    }
+
+    @Override
+    public boolean supportsSizeCalculation() {
+        return true;
+    }
+
+    @Override
+    public void toTop() {
+        if (forward) {
+            rowGroup = -1;
+            rowGroupRowLo = 0;
+        } else {
+            rowGroup = decoder.getMetadata().rowGroupCount();
+            rowGroupRowLo = decoder.getMetadata().rowCount();
+        }
+    }
+
+    private class ReadParquetPageFrame implements PageFrame {
+        private long partitionHi;
+        private long partitionLo;
+        private int rowGroup;
+        private int rowGroupSize;
+
+        @Override
+        public long getAuxPageAddress(int columnIndex) {
+            return 0;
+        }
+
+        @Override
+        public long getAuxPageSize(int columnIndex) {
+            return 0;
+        }
+
+        @Override
+        public BitmapIndexReader getBitmapIndexReader(int columnIndex, int direction) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columnSizeShifts.size();
+        }
+
+        @Override
+        public byte getFormat() {
+            return PageFrame.PARQUET_FORMAT;
+        }
+
+        @Override
+        public long getPageAddress(int columnIndex) {
+            return 0;
+        }
+
+        @Override
+        public long getPageSize(int columnIndex) {
+            // page sizes serve as size hints only, the data is decoded by PageFrameMemoryPool
+            return (long) rowGroupSize << columnSizeShifts.getQuick(columnIndex);
+        }
+
+        @Override
+        public int getParquetColumnIndex(int columnIndex) {
+            // read_parquet() exposes all columns of the file in the file's order
+            return columnIndex;
+        }
+
+        @Override
+        public PartitionDecoder getParquetDecoder() {
+            return decoder;
+        }
+
+        @Override
+        public int getParquetRowGroup() {
+            return rowGroup;
+        }
+
+        @Override
+        public int getParquetRowGroupHi() {
+            return rowGroupSize;
+        }
+
+        @Override
+        public int getParquetRowGroupLo() {
+            return 0;
+        }
+
+        @Override
+        public long getPartitionHi() {
+            return partitionHi;
+        }
+
+        @Override
+        public int getPartitionIndex() {
+            return 0;
+        }
+
+        @Override
+        public long getPartitionLo() {
+            return partitionLo;
+        }
+    }
+}
@@ -33,6 +33,7 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.parquet.ParquetRowGroupFilter;
 import io.questdb.griffin.engine.table.parquet.PartitionDecoder;
 import io.questdb.std.*;
 import io.questdb.std.str.*;
@@ -47,6 +48,8 @@ public class ReadParquetRecordCursor implements NoRandomAccessRecordCursor {
     private final ParquetRecord record;
     private int currentRowInRowGroup;
     private int rowGroup;
+    // Used to skip row groups that can't match the filter applied on top of this cursor.
+    private ParquetRowGroupFilter rowGroupFilter;
     private long rowGroupRowCount;
 
     public ReadParquetRecordCursor(FilesFacade ff, RecordMetadata metadata) {
@@ -88,6 +91,10 @@ public class ReadParquetRecordCursor implements NoRandomAccessRecordCursor {
         }
     }
 
+    public void setRowGroupFilter(ParquetRowGroupFilter rowGroupFilter) {
+        this.rowGroupFilter = rowGroupFilter;
+    }
+
     @Override
     public long size() throws DataUnavailableException {
         return decoder.getMetadata().rowCount();
@@ -100,7 +107,7 @@ public class ReadParquetRecordCursor implements NoRandomAccessRecordCursor {
         currentRowInRowGroup = -1;
     }
 
-    private void assertMetadataSame(RecordMetadata metadata, PartitionDecoder decoder) {
+    static void assertMetadataSame(RecordMetadata metadata, PartitionDecoder decoder) {
         if (metadata.getColumnCount() != decoder.getMetadata().columnCount()) {
             throw CairoException.nonCritical().put("parquet file mismatch vs. the schema read earlier");
         }
@@ -123,7 +130,11 @@ public class ReadParquetRecordCursor implements NoRandomAccessRecordCursor {
         columnChunkBufferPtrs.clear();
         dataPtrs.clear();
         auxPtrs.clear();
-        if (++rowGroup < decoder.getMetadata().rowGroupCount()) {
+        final int rowGroupCount = decoder.getMetadata().rowGroupCount();
+        while (++rowGroup < rowGroupCount && rowGroupFilter != null && rowGroupFilter.canSkip(decoder, rowGroup, null)) {
+            // skip row groups that can't match the filter
+        }
+        if (rowGroup < rowGroupCount) {
             rowGroupRowCount = -1;
             for (int columnIndex = 0, n = metadata.getColumnCount(); columnIndex < n; columnIndex++) {
                 int columnType = metadata.getColumnType(columnIndex);
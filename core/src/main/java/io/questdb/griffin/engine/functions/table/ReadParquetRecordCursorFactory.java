@@ -25,23 +25,35 @@
 package io.questdb.griffin.engine.functions.table;
 
 import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.PageFrameCursor;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.parquet.ParquetRowGroupFilter;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
 import io.questdb.std.str.Path;
 
 public class ReadParquetRecordCursorFactory extends AbstractRecordCursorFactory {
+    // Symbol columns are decoded with no symbol tables, so such files can't be read in page frames.
+    private final boolean supportsPageFrameCursor;
     private ReadParquetRecordCursor cursor;
+    private ReadParquetPageFrameCursor pageFrameCursor;
     private Path path;
 
     public ReadParquetRecordCursorFactory(@Transient Path path, RecordMetadata metadata, FilesFacade ff) {
         super(metadata);
         this.path = new Path().of(path);
         this.cursor = new ReadParquetRecordCursor(ff, metadata);
+        this.pageFrameCursor = new ReadParquetPageFrameCursor(ff, metadata);
+        boolean hasSymbols = false;
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            hasSymbols |= ColumnType.isSymbol(metadata.getColumnType(i));
+        }
+        this.supportsPageFrameCursor = !hasSymbols;
     }
 
     @Override
@@ -50,14 +62,36 @@ public class ReadParquetRecordCursorFactory extends AbstractRecordCursorFactory
         return cursor;
     }
 
+    @Override
+    public PageFrameCursor getPageFrameCursor(SqlExecutionContext executionContext, int order) {
+        return pageFrameCursor.of(path.$(), order);
+    }
+
     @Override
     public boolean recordCursorSupportsRandomAccess() {
         return false;
     }
 
+    @Override
+    public void setParquetRowGroupFilter(ParquetRowGroupFilter rowGroupFilter) {
+        cursor.setRowGroupFilter(rowGroupFilter);
+        pageFrameCursor.setRowGroupFilter(rowGroupFilter);
+    }
+
+    @Override
+    public boolean supportsPageFrameCursor() {
+        return supportsPageFrameCursor;
+    }
+
+    @Override
+    public boolean supportsParquetRowGroupFilter() {
+        return true;
+    }
+
     @Override
     protected void _close() {
         cursor = Misc.free(cursor);
+        pageFrameCursor = Misc.free(pageFrameCursor);
         path = Misc.free(path);
     }
 
@@ -29,6 +29,7 @@ import io.questdb.cairo.map.Map;
 import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.map.Unordered2Map;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.PlanSink;
@@ -36,10 +37,12 @@ import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.IntList;
 import io.questdb.std.Misc;
 import io.questdb.std.ObjList;
 import io.questdb.std.Transient;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
 
@@ -72,7 +75,20 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             // sink will be storing record columns to map key
             this.mapSink = RecordSinkFactory.getInstance(asm, base.getMetadata(), listColumnFilter, keyFunctions, null);
             final GroupByFunctionsUpdater updater = GroupByFunctionsUpdaterFactory.getInstance(asm, groupByFunctions);
-            this.cursor = new GroupByRecordCursor(configuration, recordFunctions, groupByFunctions, updater, keyTypes, valueTypes);
+            SpillPartitions spillPartitions = null;
+            if (configuration.getSqlHashSpillThreshold() > 0) {
+                final RecordMetadata baseMetadata = base.getMetadata();
+                final EntityColumnFilter entityColumnFilter = new EntityColumnFilter();
+                entityColumnFilter.of(baseMetadata.getColumnCount());
+                spillPartitions = new SpillPartitions(
+                        configuration,
+                        baseMetadata,
+                        RecordSinkFactory.getInstance(asm, baseMetadata, entityColumnFilter),
+                        configuration.getSqlSortValuePageSize(),
+                        configuration.getSqlHashSpillPartitions()
+                );
+            }
+            this.cursor = new GroupByRecordCursor(configuration, recordFunctions, groupByFunctions, updater, keyTypes, valueTypes, spillPartitions);
         } catch (Throwable e) {
             close();
             throw e;
@@ -119,7 +135,8 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
 
     @Override
     public boolean recordCursorSupportsRandomAccess() {
-        return true;
+        // once spilled, the map holds a single partition at a time
+        return cursor.spillPartitions == null;
     }
 
     @Override
@@ -153,9 +170,16 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
         private final GroupByAllocator allocator;
         private final Map dataMap;
         private final GroupByFunctionsUpdater groupByFunctionsUpdater;
+        // index of the partition being aggregated at each level of spill partitions
+        private final IntList partitionIndexes = new IntList();
+        // null when spilling is disabled
+        private SpillPartitions spillPartitions;
+        private long spillThreshold;
         private SqlExecutionCircuitBreaker circuitBreaker;
+        private int depth;
         private boolean isDataMapBuilt;
         private boolean isOpen;
+        private boolean isSpilled;
         private long rowId;
 
         public GroupByRecordCursor(
@@ -164,12 +188,19 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                 ObjList<GroupByFunction> groupByFunctions,
                 GroupByFunctionsUpdater groupByFunctionsUpdater,
                 @Transient @NotNull ArrayColumnTypes keyTypes,
-                @Transient @NotNull ArrayColumnTypes valueTypes
+                @Transient @NotNull ArrayColumnTypes valueTypes,
+                @Nullable SpillPartitions spillPartitions
         ) {
             super(functions);
             try {
                 this.isOpen = true;
+                this.spillPartitions = spillPartitions;
                 this.dataMap = MapFactory.createUnorderedMap(configuration, keyTypes, valueTypes);
+                // the look-up table for 2-byte keys doesn't hash them and never grows, so there is nothing to spill
+                if (dataMap instanceof Unordered2Map) {
+                    this.spillPartitions = Misc.free(spillPartitions);
+                }
+                this.spillThreshold = this.spillPartitions != null ? configuration.getSqlHashSpillThreshold() : Long.MAX_VALUE;
                 this.groupByFunctionsUpdater = groupByFunctionsUpdater;
                 this.allocator = GroupByAllocatorFactory.createAllocator(configuration);
                 GroupByUtils.setAllocator(groupByFunctions, allocator);
@@ -185,6 +216,11 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                 buildDataMap();
             }
             baseCursor.calculateSize(circuitBreaker, counter);
+            if (isSpilled) {
+                while (nextPartition()) {
+                    baseCursor.calculateSize(circuitBreaker, counter);
+                }
+            }
         }
 
         @Override
@@ -193,6 +229,7 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                 isOpen = false;
                 Misc.free(dataMap);
                 Misc.free(allocator);
+                Misc.free(spillPartitions);
                 Misc.clearObjList(groupByFunctions);
                 super.close();
             }
@@ -203,7 +240,10 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             if (!isDataMapBuilt) {
                 buildDataMap();
             }
-            return super.hasNext();
+            if (super.hasNext()) {
+                return true;
+            }
+            return isSpilled && nextPartition() && super.hasNext();
         }
 
         public void of(RecordCursor managedCursor, SqlExecutionContext executionContext) throws SqlException {
@@ -214,32 +254,117 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             }
             this.circuitBreaker = executionContext.getCircuitBreaker();
             Function.init(keyFunctions, managedCursor, executionContext);
+            if (spillPartitions != null) {
+                spillPartitions.clear();
+                spillPartitions.setSymbolTableResolver(managedCursor);
+            }
             isDataMapBuilt = false;
+            isSpilled = false;
+            resetPartitionIndexes();
             rowId = 0;
         }
 
+        @Override
+        public long size() {
+            return isSpilled ? -1 : super.size();
+        }
+
         @Override
         public void toTop() {
             super.toTop();
+            if (isSpilled) {
+                // the map no longer holds the groups of the first pass, so we aggregate from scratch
+                managedCursor.toTop();
+                dataMap.clear();
+                allocator.close();
+                spillPartitions.clear();
+                isSpilled = false;
+            }
             isDataMapBuilt = false;
+            resetPartitionIndexes();
             rowId = 0;
         }
 
-        private void buildDataMap() {
-            final Record baseRecord = managedCursor.getRecord();
-            while (managedCursor.hasNext()) {
+        // once the map outgrows the memory budget, rows of new groups go to the partitions, if any;
+        // returns true if any of the rows were spilled
+        private boolean aggregate(RecordCursor cursor, @Nullable SpillPartitions partitions) {
+            final Record record = cursor.getRecord();
+            boolean isOverBudget = false;
+            boolean spilled = false;
+            while (cursor.hasNext()) {
                 circuitBreaker.statefulThrowExceptionIfTripped();
                 final MapKey key = dataMap.withKey();
-                mapSink.copy(baseRecord, key);
+                mapSink.copy(record, key);
+                if (isOverBudget) {
+                    // groups that are already in the map keep being aggregated in place,
+                    // rows of the new ones go to the partitions that are aggregated later
+                    final MapValue value = key.findValue();
+                    if (value != null) {
+                        groupByFunctionsUpdater.updateExisting(value, record, rowId++);
+                    } else {
+                        partitions.put(key.hash(), record);
+                        spilled = true;
+                    }
+                    continue;
+                }
                 MapValue value = key.createValue();
                 if (value.isNew()) {
-                    groupByFunctionsUpdater.updateNew(value, baseRecord, rowId++);
+                    groupByFunctionsUpdater.updateNew(value, record, rowId++);
                 } else {
-                    groupByFunctionsUpdater.updateExisting(value, baseRecord, rowId++);
+                    groupByFunctionsUpdater.updateExisting(value, record, rowId++);
                 }
+                isOverBudget = partitions != null && dataMap.getMemorySize() + allocator.allocated() > spillThreshold;
             }
+            return spilled;
+        }
+
+        private void buildDataMap() {
+            isSpilled = aggregate(managedCursor, spillPartitions);
             super.of(dataMap.getCursor());
             isDataMapBuilt = true;
         }
+
+        private SpillPartitions getLevel(int depth) {
+            SpillPartitions partitions = spillPartitions;
+            for (int i = 0; i < depth; i++) {
+                partitions = partitions.nextLevel();
+            }
+            return partitions;
+        }
+
+        private boolean nextPartition() {
+            while (depth > -1) {
+                final SpillPartitions partitions = getLevel(depth);
+                final int partitionIndex = partitionIndexes.getQuick(depth) + 1;
+                if (partitionIndex == partitions.getPartitionCount()) {
+                    depth--;
+                    continue;
+                }
+                partitionIndexes.setQuick(depth, partitionIndex);
+                final RecordChain partition = partitions.getPartition(partitionIndex);
+                if (partition != null) {
+                    // groups of a partition are disjoint with the groups of the other partitions
+                    dataMap.clear();
+                    allocator.close();
+                    final SpillPartitions nextLevel = partitions.nextLevel();
+                    if (nextLevel != null) {
+                        nextLevel.clear();
+                    }
+                    if (aggregate(partition, nextLevel)) {
+                        // the partition doesn't fit the budget either, its new groups are
+                        // split by the next level and aggregated after the map is emitted
+                        partitionIndexes.extendAndSet(++depth, -1);
+                    }
+                    super.of(dataMap.getCursor());
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void resetPartitionIndexes() {
+            depth = 0;
+            partitionIndexes.setAll(1, -1);
+        }
     }
 }
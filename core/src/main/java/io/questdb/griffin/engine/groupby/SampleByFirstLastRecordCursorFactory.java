@@ -396,7 +396,7 @@ public class SampleByFirstLastRecordCursorFactory extends AbstractRecordCursorFa
             crossRowState = NONE;
             frameCursor.toTop();
             frameAddressCache.clear();
-            frameMemoryPool.of(frameAddressCache);
+            frameMemoryPool.of(frameAddressCache, frameCursor);
             frameMemory = null;
         }
 
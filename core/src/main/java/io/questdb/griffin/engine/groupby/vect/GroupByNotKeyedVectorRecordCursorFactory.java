@@ -226,7 +226,7 @@ public class GroupByNotKeyedVectorRecordCursorFactory extends AbstractRecordCurs
             this.circuitBreaker = circuitBreaker;
             frameAddressCache.of(metadata);
             for (int i = 0; i < workerCount; i++) {
-                frameMemoryPools.getQuick(i).of(frameAddressCache);
+                frameMemoryPools.getQuick(i).of(frameAddressCache, frameCursor);
             }
             frameCount = 0;
             areFunctionsBuilt = false;
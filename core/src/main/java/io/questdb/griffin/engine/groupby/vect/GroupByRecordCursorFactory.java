@@ -353,7 +353,7 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             this.circuitBreaker = circuitBreaker;
             frameAddressCache.of(metadata);
             for (int i = 0; i < workerCount; i++) {
-                frameMemoryPools.getQuick(i).of(frameAddressCache);
+                frameMemoryPools.getQuick(i).of(frameAddressCache, frameCursor);
             }
             frameCount = 0;
             isRostiBuilt = false;
@@ -0,0 +1,261 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.std.*;
+
+/**
+ * Hash table of the parallel hash join over a single int/long/timestamp/date key column.
+ * <p>
+ * Page frames of the build side are inserted concurrently: a worker claims an empty slot
+ * for a new key with a CAS and increments the row count of an existing key the same way.
+ * Once all frames are inserted, the query owner thread lays out row ids of each key
+ * contiguously and in the scan order, so that the probe side can read the table from
+ * any number of threads without synchronization.
+ * <p>
+ * The table is sized for all rows of the build side up front. It is subject to the limits
+ * of the other hash joins: row ids to the hash join value memory limit and the hash table
+ * to the maximum number of map resizes.
+ */
+public class AsyncHashJoinBuildAtom implements StatefulAtom {
+    // row count of a slot that was claimed, but whose key is not written yet
+    private static final long BUSY = -1;
+    private static final long EMPTY = 0;
+    // ordinal of the first row of each page frame
+    private final LongList frameOrdinals = new LongList();
+    private final int keyColumnIndex;
+    private final int keyColumnType;
+    private final int maxResizes;
+    private final long maxRowIdsSize;
+    // slot count of a hash table that hasn't been resized yet
+    private final long minSlotCount;
+    // slot of each row, by ordinal
+    private final DirectLongList rowSlots = new DirectLongList(16, MemoryTag.NATIVE_JOIN_MAP);
+    // row ids grouped by slot once the table is built, rows of each slot keep the scan order
+    private final DirectLongList slotRowIds = new DirectLongList(16, MemoryTag.NATIVE_JOIN_MAP);
+    private final DirectLongList slotKeys = new DirectLongList(16, MemoryTag.NATIVE_JOIN_MAP);
+    // offset of the first row id of each slot in slotRowIds
+    private final DirectLongList slotOffsets = new DirectLongList(16, MemoryTag.NATIVE_JOIN_MAP);
+    private final DirectLongList slotRowCounts = new DirectLongList(16, MemoryTag.NATIVE_JOIN_MAP);
+    // row ids by ordinal, used to group them by slot
+    private final DirectLongList unorderedRowIds = new DirectLongList(16, MemoryTag.NATIVE_JOIN_MAP);
+    private long rowCount;
+    private long slotMask;
+
+    public AsyncHashJoinBuildAtom(CairoConfiguration configuration, int keyColumnIndex, int keyColumnType) {
+        this.keyColumnIndex = keyColumnIndex;
+        this.keyColumnType = ColumnType.tagOf(keyColumnType);
+        this.maxRowIdsSize = (long) configuration.getSqlHashJoinValuePageSize() * configuration.getSqlHashJoinValueMaxPages();
+        this.maxResizes = configuration.getSqlMapMaxResizes();
+        this.minSlotCount = Numbers.ceilPow2(Math.max((long) configuration.getSqlSmallMapKeyCapacity(), 8) << 1);
+    }
+
+    public static long getKey(Record record, int columnIndex, int columnTag) {
+        // null keys are equal to each other, just like in the map-based hash joins
+        if (columnTag == ColumnType.INT) {
+            return record.getInt(columnIndex);
+        }
+        return record.getLong(columnIndex);
+    }
+
+    public static boolean isSupportedKeyType(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.DATE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Groups row ids by slot. Must be called by a single thread once all page frames are inserted.
+     */
+    public void build() {
+        final long slotCount = slotMask + 1;
+        final long countsAddr = slotRowCounts.getAddress();
+        final long offsetsAddr = slotOffsets.getAddress();
+        long offset = 0;
+        for (long slot = 0; slot < slotCount; slot++) {
+            offset += Unsafe.getUnsafe().getLong(countsAddr + (slot << 3));
+            // end offset for now, the backward pass below turns it into the start one
+            Unsafe.getUnsafe().putLong(offsetsAddr + (slot << 3), offset);
+        }
+        assert offset == rowCount;
+
+        final long rowSlotsAddr = rowSlots.getAddress();
+        final long unorderedAddr = unorderedRowIds.getAddress();
+        final long rowIdsAddr = slotRowIds.getAddress();
+        for (long ordinal = rowCount - 1; ordinal > -1; ordinal--) {
+            final long slotOffsetAddr = offsetsAddr + (Unsafe.getUnsafe().getLong(rowSlotsAddr + (ordinal << 3)) << 3);
+            final long pos = Unsafe.getUnsafe().getLong(slotOffsetAddr) - 1;
+            Unsafe.getUnsafe().putLong(slotOffsetAddr, pos);
+            Unsafe.getUnsafe().putLong(rowIdsAddr + (pos << 3), Unsafe.getUnsafe().getLong(unorderedAddr + (ordinal << 3)));
+        }
+        // the per-row lists are no longer needed
+        Misc.free(rowSlots);
+        Misc.free(unorderedRowIds);
+    }
+
+    @Override
+    public void clear() {
+        frameOrdinals.clear();
+        Misc.free(rowSlots);
+        Misc.free(slotRowIds);
+        Misc.free(slotKeys);
+        Misc.free(slotOffsets);
+        Misc.free(slotRowCounts);
+        Misc.free(unorderedRowIds);
+        rowCount = 0;
+        slotMask = 0;
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    /**
+     * Returns slot of the key or -1 if the key is not in the table.
+     */
+    public long find(long key) {
+        if (rowCount == 0) {
+            return -1;
+        }
+        final long countsAddr = slotRowCounts.getAddress();
+        final long keysAddr = slotKeys.getAddress();
+        long slot = Hash.hashLong64(key) & slotMask;
+        while (Unsafe.getUnsafe().getLong(countsAddr + (slot << 3)) != EMPTY) {
+            if (Unsafe.getUnsafe().getLong(keysAddr + (slot << 3)) == key) {
+                return slot;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+        return -1;
+    }
+
+    public long getFrameOrdinal(int frameIndex) {
+        return frameOrdinals.getQuick(frameIndex);
+    }
+
+    public long getKey(Record record) {
+        return getKey(record, keyColumnIndex, keyColumnType);
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getRowId(long index) {
+        return slotRowIds.get(index);
+    }
+
+    public long getSlotOffset(long slot) {
+        return slotOffsets.get(slot);
+    }
+
+    public long getSlotRowCount(long slot) {
+        return slotRowCounts.get(slot);
+    }
+
+    /**
+     * Inserts a row of the build side. Thread-safe.
+     */
+    public void insert(long key, long ordinal, long rowId) {
+        final long countsAddr = slotRowCounts.getAddress();
+        final long keysAddr = slotKeys.getAddress();
+        long slot = Hash.hashLong64(key) & slotMask;
+        while (true) {
+            final long countAddr = countsAddr + (slot << 3);
+            final long count = Unsafe.getUnsafe().getLongVolatile(null, countAddr);
+            if (count == EMPTY) {
+                if (!Unsafe.cas(null, countAddr, EMPTY, BUSY)) {
+                    // another thread has claimed the slot, check its key again
+                    continue;
+                }
+                Unsafe.getUnsafe().putLong(keysAddr + (slot << 3), key);
+                Unsafe.getUnsafe().putLongVolatile(null, countAddr, 1);
+                break;
+            }
+            if (count == BUSY) {
+                Os.pause();
+                continue;
+            }
+            if (Unsafe.getUnsafe().getLong(keysAddr + (slot << 3)) == key) {
+                if (Unsafe.cas(null, countAddr, count, count + 1)) {
+                    break;
+                }
+                continue;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+        Unsafe.getUnsafe().putLong(rowSlots.getAddress() + (ordinal << 3), slot);
+        Unsafe.getUnsafe().putLong(unorderedRowIds.getAddress() + (ordinal << 3), rowId);
+    }
+
+    /**
+     * Allocates the table for all rows of the frame sequence. Must be called before the frames are dispatched.
+     */
+    public void of(PageFrameSequence<?> frameSequence) {
+        frameOrdinals.clear();
+        rowCount = 0;
+        for (int i = 0, n = frameSequence.getFrameCount(); i < n; i++) {
+            frameOrdinals.add(rowCount);
+            rowCount += frameSequence.getFrameRowCount(i);
+        }
+        final long capacity = Math.max(rowCount, 1);
+        if (capacity * Long.BYTES > maxRowIdsSize) {
+            throw LimitOverflowException.instance().put("limit of ").put(maxRowIdsSize).put(" memory exceeded in parallel hash join");
+        }
+        // keep the load factor at or below 0.5
+        final long slotCount = Numbers.ceilPow2(Math.max(rowCount, 8) << 1);
+        // a map would have been resized this many times to hold as many keys as there are rows
+        if (Numbers.msb(slotCount) - Numbers.msb(minSlotCount) > maxResizes) {
+            throw LimitOverflowException.instance().put("limit of ").put(maxResizes).put(" resizes exceeded in parallel hash join");
+        }
+        slotMask = slotCount - 1;
+        allocate(slotKeys, slotCount);
+        allocate(slotOffsets, slotCount);
+        allocate(slotRowCounts, slotCount);
+        slotRowCounts.zero(0);
+        allocate(rowSlots, capacity);
+        allocate(slotRowIds, capacity);
+        allocate(unorderedRowIds, capacity);
+    }
+
+    private static void allocate(DirectLongList list, long size) {
+        list.clear();
+        list.setCapacity(size);
+        list.setPos(size);
+    }
+}
@@ -0,0 +1,53 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.StatefulAtom;
+
+/**
+ * Probe side of the parallel hash join. The hash table is owned by the build side
+ * frame sequence, so this atom only refers to it.
+ */
+public class AsyncHashJoinProbeAtom implements StatefulAtom {
+    private final AsyncHashJoinBuildAtom buildAtom;
+    private final int keyColumnIndex;
+    private final int keyColumnType;
+
+    public AsyncHashJoinProbeAtom(AsyncHashJoinBuildAtom buildAtom, int keyColumnIndex, int keyColumnType) {
+        this.buildAtom = buildAtom;
+        this.keyColumnIndex = keyColumnIndex;
+        this.keyColumnType = ColumnType.tagOf(keyColumnType);
+    }
+
+    public AsyncHashJoinBuildAtom getBuildAtom() {
+        return buildAtom;
+    }
+
+    public long getKey(Record record) {
+        return AsyncHashJoinBuildAtom.getKey(record, keyColumnIndex, keyColumnType);
+    }
+}
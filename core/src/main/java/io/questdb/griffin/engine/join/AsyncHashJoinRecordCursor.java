@@ -0,0 +1,337 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Os;
+import io.questdb.std.Rows;
+
+/**
+ * Builds the hash table from all page frames of the slave side first and then streams
+ * &lt;master row index, slave row id&gt; pairs produced by the probe of each master page frame.
+ * Master frames are collected in order, so the master scan order is preserved.
+ */
+class AsyncHashJoinRecordCursor implements NoRandomAccessRecordCursor {
+    private static final Log LOG = LogFactory.getLog(AsyncHashJoinRecordCursor.class);
+    private final int columnSplit;
+    private final PageFrameMemoryRecord masterRecord = new PageFrameMemoryRecord();
+    private final JoinRecord record;
+    // Used to access slave rows: we may have to deserialize Parquet page frame.
+    private final PageFrameMemoryPool slaveFrameMemoryPool = new PageFrameMemoryPool();
+    private final PageFrameMemoryRecord slaveRecord = new PageFrameMemoryRecord();
+    private boolean allFramesActive;
+    private AsyncHashJoinBuildAtom buildAtom;
+    private int buildFrameLimit;
+    private PageFrameSequence<AsyncHashJoinBuildAtom> buildSequence;
+    private long cursor = -1;
+    private boolean isBuilt;
+    private boolean isOpen;
+    private long pairCount;
+    private long pairIndex;
+    private DirectLongList pairs;
+    private int probeFrameIndex;
+    private int probeFrameLimit;
+    private PageFrameSequence<AsyncHashJoinProbeAtom> probeSequence;
+
+    public AsyncHashJoinRecordCursor(int columnSplit) {
+        this.columnSplit = columnSplit;
+        this.record = new JoinRecord(columnSplit);
+        record.of(masterRecord, slaveRecord);
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            isOpen = false;
+            LOG.debug()
+                    .$("closing [probeShard=").$(probeSequence.getShard())
+                    .$(", probeFrameIndex=").$(probeFrameIndex)
+                    .$(", probeFrameCount=").$(probeFrameLimit)
+                    .$(", buildShard=").$(buildSequence.getShard())
+                    .$(", buildFrameCount=").$(buildFrameLimit)
+                    .I$();
+
+            collectCursor(true);
+            if (probeFrameLimit > -1) {
+                probeSequence.await();
+            }
+            probeSequence.clear();
+            if (buildFrameLimit > -1) {
+                buildSequence.await();
+            }
+            // clears the hash table, so the probe must be done by now
+            buildSequence.clear();
+            Misc.free(slaveFrameMemoryPool);
+        }
+    }
+
+    public void freeRecords() {
+        Misc.free(masterRecord);
+        Misc.free(slaveRecord);
+        Misc.free(slaveFrameMemoryPool);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        if (columnIndex < columnSplit) {
+            return probeSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+        }
+        return buildSequence.getSymbolTableSource().getSymbolTable(columnIndex - columnSplit);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!isBuilt) {
+            buildTable();
+            isBuilt = true;
+        }
+        if (buildAtom.getRowCount() == 0) {
+            return false;
+        }
+
+        // Check for the first hasNext call.
+        if (probeFrameIndex == -1) {
+            fetchNextProbeFrame();
+        }
+
+        if (pairIndex < pairCount) {
+            nextPair();
+            return true;
+        }
+
+        // Release the previous queue item.
+        collectCursor(false);
+
+        if (probeFrameIndex < probeFrameLimit) {
+            fetchNextProbeFrame();
+            if (pairIndex < pairCount) {
+                nextPair();
+                return true;
+            }
+        }
+
+        if (!allFramesActive) {
+            throwTimeoutException(probeSequence);
+        }
+        return false;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        if (columnIndex < columnSplit) {
+            return probeSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+        }
+        return buildSequence.getSymbolTableSource().newSymbolTable(columnIndex - columnSplit);
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        // the hash table is kept, only the probe side is re-run
+        collectCursor(false);
+        probeSequence.toTop();
+        probeFrameIndex = -1;
+        pairIndex = 0;
+        pairCount = 0;
+        allFramesActive = true;
+    }
+
+    private static void throwTimeoutException(PageFrameSequence<?> frameSequence) {
+        if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
+            throw CairoException.queryCancelled();
+        } else {
+            throw CairoException.queryTimedOut();
+        }
+    }
+
+    private void buildTable() {
+        buildSequence.prepareForDispatch();
+        buildFrameLimit = buildSequence.getFrameCount() - 1;
+        buildAtom.of(buildSequence);
+
+        int frameIndex = -1;
+        boolean allBuildFramesActive = true;
+        try {
+            do {
+                final long cursor = buildSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = buildSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(buildSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(buildSequence.getFrameCount())
+                            .$(", active=").$(buildSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+                    if (task.hasError()) {
+                        throw CairoException.nonCritical()
+                                .position(task.getErrorMessagePosition())
+                                .put(task.getErrorMsg());
+                    }
+
+                    allBuildFramesActive &= buildSequence.isActive();
+                    frameIndex = task.getFrameIndex();
+
+                    buildSequence.collect(cursor, false);
+                } else if (cursor == -2) {
+                    break; // No frames to build the table from.
+                } else {
+                    Os.pause();
+                }
+            } while (frameIndex < buildFrameLimit);
+        } catch (Throwable e) {
+            LOG.error().$("hash join build error [ex=").$(e).I$();
+            if (e instanceof CairoException) {
+                CairoException ce = (CairoException) e;
+                if (ce.isInterruption()) {
+                    throwTimeoutException(buildSequence);
+                } else {
+                    throw ce;
+                }
+            }
+            throw CairoException.nonCritical().put(e.getMessage());
+        }
+
+        if (!allBuildFramesActive) {
+            throwTimeoutException(buildSequence);
+        }
+        buildAtom.build();
+    }
+
+    private void collectCursor(boolean forceCollect) {
+        if (cursor > -1) {
+            probeSequence.collect(cursor, forceCollect);
+            // It is necessary to clear 'cursor' value
+            // because we updated probeFrameIndex and loop can exit due to lack of frames.
+            // Non-update of 'cursor' could cause double-free.
+            cursor = -1;
+        }
+    }
+
+    private void fetchNextProbeFrame() {
+        if (probeFrameLimit == -1) {
+            probeSequence.prepareForDispatch();
+            probeFrameLimit = probeSequence.getFrameCount() - 1;
+        }
+
+        try {
+            do {
+                cursor = probeSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = probeSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(probeSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(probeSequence.getFrameCount())
+                            .$(", frameId=").$(probeSequence.getId())
+                            .$(", active=").$(probeSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+
+                    if (task.hasError()) {
+                        throw CairoException.nonCritical()
+                                .position(task.getErrorMessagePosition())
+                                .put(task.getErrorMsg())
+                                .setCancellation(task.isCancelled())
+                                .setInterruption(task.isCancelled());
+                    }
+
+                    allFramesActive &= probeSequence.isActive();
+                    pairs = task.getFilteredRows();
+                    pairCount = pairs.size() >>> 1;
+                    probeFrameIndex = task.getFrameIndex();
+                    pairIndex = 0;
+                    if (pairCount > 0 && probeSequence.isActive()) {
+                        masterRecord.init(task.getFrameMemory());
+                        break;
+                    } else {
+                        // Force reset pair count if probeSequence was canceled or failed.
+                        pairCount = 0;
+                        collectCursor(false);
+                    }
+                } else if (cursor == -2) {
+                    break; // No frames to probe.
+                } else {
+                    Os.pause();
+                }
+            } while (probeFrameIndex < probeFrameLimit);
+        } catch (Throwable e) {
+            if (e instanceof CairoException) {
+                CairoException ce = (CairoException) e;
+                if (ce.isInterruption() || ce.isCancellation()) {
+                    LOG.error().$("hash join probe error [ex=").$(ce.getFlyweightMessage()).I$();
+                    throwTimeoutException(probeSequence);
+                } else {
+                    LOG.error().$("hash join probe error [ex=").$(e).I$();
+                    throw ce;
+                }
+            }
+            LOG.error().$("hash join probe error [ex=").$(e).I$();
+            throw CairoException.nonCritical().put(e.getMessage());
+        }
+    }
+
+    private void nextPair() {
+        masterRecord.setRowIndex(pairs.get(pairIndex << 1));
+        final long slaveRowId = pairs.get((pairIndex << 1) + 1);
+        slaveFrameMemoryPool.navigateTo(Rows.toPartitionIndex(slaveRowId), slaveRecord);
+        slaveRecord.setRowIndex(Rows.toLocalRowID(slaveRowId));
+        pairIndex++;
+    }
+
+    void of(PageFrameSequence<AsyncHashJoinBuildAtom> buildSequence, PageFrameSequence<AsyncHashJoinProbeAtom> probeSequence) {
+        isOpen = true;
+        this.buildSequence = buildSequence;
+        this.probeSequence = probeSequence;
+        buildAtom = buildSequence.getAtom();
+        buildFrameLimit = -1;
+        probeFrameLimit = -1;
+        probeFrameIndex = -1;
+        pairIndex = 0;
+        pairCount = 0;
+        isBuilt = false;
+        allFramesActive = true;
+        slaveFrameMemoryPool.of(buildSequence.getPageFrameAddressCache(), buildSequence.getSymbolTableSource());
+        masterRecord.of(probeSequence.getSymbolTableSource());
+        slaveRecord.of(buildSequence.getSymbolTableSource());
+    }
+}
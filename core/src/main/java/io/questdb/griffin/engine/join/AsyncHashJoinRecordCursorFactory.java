@@ -0,0 +1,226 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.model.JoinContext;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.PartitionFrameCursorFactory.ORDER_ASC;
+
+/**
+ * Parallel inner hash join over a single int/long/timestamp/date key column. Page frames of
+ * the slave side are inserted into a shared hash table on worker threads, then page frames
+ * of the master side are probed against the table, also on worker threads. Matches of each
+ * master frame are returned in the master scan order.
+ */
+public class AsyncHashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory {
+    private static final PageFrameReducer BUILD_REDUCER = AsyncHashJoinRecordCursorFactory::buildFrame;
+    private static final PageFrameReducer PROBE_REDUCER = AsyncHashJoinRecordCursorFactory::probeFrame;
+    private final SCSequence buildCollectSubSeq = new SCSequence();
+    private final PageFrameSequence<AsyncHashJoinBuildAtom> buildSequence;
+    private final AsyncHashJoinRecordCursor cursor;
+    private final SCSequence probeCollectSubSeq = new SCSequence();
+    private final PageFrameSequence<AsyncHashJoinProbeAtom> probeSequence;
+    private final int workerCount;
+
+    public AsyncHashJoinRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory masterFactory,
+            @NotNull RecordCursorFactory slaveFactory,
+            int masterKeyColumnIndex,
+            int slaveKeyColumnIndex,
+            int columnSplit,
+            @NotNull JoinContext joinContext,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            int workerCount
+    ) {
+        super(metadata, joinContext, masterFactory, slaveFactory);
+        try {
+            final AsyncHashJoinBuildAtom buildAtom = new AsyncHashJoinBuildAtom(
+                    configuration,
+                    slaveKeyColumnIndex,
+                    slaveFactory.getMetadata().getColumnType(slaveKeyColumnIndex)
+            );
+            this.buildSequence = new PageFrameSequence<>(
+                    configuration,
+                    messageBus,
+                    buildAtom,
+                    BUILD_REDUCER,
+                    reduceTaskFactory,
+                    workerCount,
+                    PageFrameReduceTask.TYPE_HASH_JOIN
+            );
+            final AsyncHashJoinProbeAtom probeAtom = new AsyncHashJoinProbeAtom(
+                    buildAtom,
+                    masterKeyColumnIndex,
+                    masterFactory.getMetadata().getColumnType(masterKeyColumnIndex)
+            );
+            this.probeSequence = new PageFrameSequence<>(
+                    configuration,
+                    messageBus,
+                    probeAtom,
+                    PROBE_REDUCER,
+                    reduceTaskFactory,
+                    workerCount,
+                    PageFrameReduceTask.TYPE_HASH_JOIN
+            );
+            this.cursor = new AsyncHashJoinRecordCursor(columnSplit);
+            this.workerCount = workerCount;
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return masterFactory.followedOrderByAdvice();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        buildSequence.of(slaveFactory, executionContext, buildCollectSubSeq, ORDER_ASC);
+        try {
+            probeSequence.of(masterFactory, executionContext, probeCollectSubSeq, ORDER_ASC);
+        } catch (Throwable th) {
+            buildSequence.clear();
+            throw th;
+        }
+        cursor.of(buildSequence, probeSequence);
+        return cursor;
+    }
+
+    @Override
+    public int getScanDirection() {
+        return masterFactory.getScanDirection();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsUpdateRowId(TableToken tableToken) {
+        return masterFactory.supportsUpdateRowId(tableToken);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Hash Join");
+        sink.meta("workers").val(workerCount);
+        sink.attr("condition").val(joinContext);
+        sink.child(masterFactory);
+        sink.child("Hash", slaveFactory);
+    }
+
+    private static void buildFrame(
+            int workerId,
+            @NotNull PageFrameMemoryRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final AsyncHashJoinBuildAtom atom = task.getFrameSequence(AsyncHashJoinBuildAtom.class).getAtom();
+
+        final long frameRowCount = task.getFrameRowCount();
+        assert frameRowCount > 0;
+
+        final PageFrameMemory frameMemory = task.populateFrameMemory();
+        record.init(frameMemory);
+        try {
+            record.setRowIndex(0);
+            final long baseRowId = record.getRowId();
+            final long baseOrdinal = atom.getFrameOrdinal(task.getFrameIndex());
+            for (long r = 0; r < frameRowCount; r++) {
+                record.setRowIndex(r);
+                atom.insert(atom.getKey(record), baseOrdinal + r, baseRowId + r);
+            }
+        } finally {
+            task.releaseFrameMemory();
+        }
+    }
+
+    private static void probeFrame(
+            int workerId,
+            @NotNull PageFrameMemoryRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final AsyncHashJoinProbeAtom atom = task.getFrameSequence(AsyncHashJoinProbeAtom.class).getAtom();
+        final AsyncHashJoinBuildAtom buildAtom = atom.getBuildAtom();
+        final DirectLongList pairs = task.getFilteredRows();
+        final long frameRowCount = task.getFrameRowCount();
+
+        // the frame memory is used by the cursor to read master rows
+        final PageFrameMemory frameMemory = task.populateFrameMemory();
+        record.init(frameMemory);
+
+        pairs.clear();
+        for (long r = 0; r < frameRowCount; r++) {
+            record.setRowIndex(r);
+            final long slot = buildAtom.find(atom.getKey(record));
+            if (slot > -1) {
+                final long offset = buildAtom.getSlotOffset(slot);
+                for (long i = offset, n = offset + buildAtom.getSlotRowCount(slot); i < n; i++) {
+                    pairs.add(r);
+                    pairs.add(buildAtom.getRowId(i));
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.freeIfCloseable(getMetadata());
+        Misc.free(masterFactory);
+        Misc.free(slaveFactory);
+        Misc.free(cursor);
+        if (cursor != null) {
+            cursor.freeRecords();
+        }
+        // the probe atom refers to the table owned by the build atom
+        Misc.free(probeSequence);
+        Misc.free(buildSequence);
+    }
+}
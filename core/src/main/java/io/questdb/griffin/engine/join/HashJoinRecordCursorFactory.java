@@ -29,14 +29,19 @@ import io.questdb.cairo.map.Map;
 import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.map.Unordered2Map;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.model.JoinContext;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
 import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
 import io.questdb.std.Transient;
+import org.jetbrains.annotations.Nullable;
 
 public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory {
     private final HashJoinRecordCursor cursor;
@@ -53,21 +58,42 @@ public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory
             RecordSink masterSink,
             RecordSink slaveKeySink,
             RecordSink slaveChainSink,
+            @Nullable RecordSink masterChainSink, // copies master records to spill partitions, null disables spilling
             int columnSplit,
             JoinContext joinContext
     ) {
         super(metadata, joinContext, masterFactory, slaveFactory);
         Map joinKeyMap = null;
         RecordChain slaveChain = null;
+        SpillPartitions masterPartitions = null;
+        SpillPartitions slavePartitions = null;
         try {
             joinKeyMap = MapFactory.createUnorderedMap(configuration, joinColumnTypes, valueTypes);
             slaveChain = new RecordChain(slaveFactory.getMetadata(), slaveChainSink, configuration.getSqlHashJoinValuePageSize(), configuration.getSqlHashJoinValueMaxPages());
+            // the look-up table for 2-byte keys doesn't hash them and never grows, so there is nothing to spill
+            if (masterChainSink != null && !(joinKeyMap instanceof Unordered2Map)) {
+                final long pageSize = configuration.getSqlHashJoinValuePageSize();
+                final int partitionCount = configuration.getSqlHashSpillPartitions();
+                masterPartitions = new SpillPartitions(configuration, masterFactory.getMetadata(), masterChainSink, pageSize, partitionCount);
+                slavePartitions = new SpillPartitions(configuration, slaveFactory.getMetadata(), slaveChainSink, pageSize, partitionCount);
+            }
             this.masterSink = masterSink;
             this.slaveKeySink = slaveKeySink;
-            cursor = new HashJoinRecordCursor(columnSplit, joinKeyMap, slaveChain);
+            cursor = new HashJoinRecordCursor(
+                    configuration,
+                    columnSplit,
+                    joinKeyMap,
+                    slaveChain,
+                    masterPartitions,
+                    slavePartitions,
+                    masterChainSink,
+                    slaveChainSink
+            );
         } catch (Throwable th) {
             Misc.free(joinKeyMap);
             Misc.free(slaveChain);
+            Misc.free(masterPartitions);
+            Misc.free(slavePartitions);
             close();
             throw th;
         }
@@ -75,7 +101,8 @@ public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory
 
     @Override
     public boolean followedOrderByAdvice() {
-        return masterFactory.followedOrderByAdvice();
+        // spilled partitions are joined in hash order
+        return cursor.slavePartitions == null && masterFactory.followedOrderByAdvice();
     }
 
     @Override
@@ -95,7 +122,8 @@ public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory
 
     @Override
     public int getScanDirection() {
-        return masterFactory.getScanDirection();
+        // spilled partitions of a master ordered by timestamp are merged back in timestamp order
+        return cursor.slavePartitions == null || cursor.isOrdered ? masterFactory.getScanDirection() : SCAN_DIRECTION_OTHER;
     }
 
     @Override
@@ -144,21 +172,67 @@ public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory
     }
 
     private class HashJoinRecordCursor extends AbstractJoinCursor {
+        // indexes of the runs that still have records to merge
+        private final IntList activeRuns = new IntList();
+        private final CairoConfiguration configuration;
+        private final boolean isDescending;
+        // true when the master is ordered by a designated timestamp, the joined partitions are then
+        // written to runs, which are merged back in timestamp order
+        private final boolean isOrdered;
         private final Map joinKeyMap;
+        private final RecordSink masterChainSink;
+        // null when spilling is disabled
+        private final SpillPartitions masterPartitions;
+        private final ObjList<RecordChain> masterRuns = new ObjList<>();
+        private final int masterTimestampIndex;
+        // index of the partition being joined at each level of spill partitions
+        private final IntList partitionIndexes = new IntList();
         private final JoinRecord recordA;
+        // timestamps of the master records at the heads of the runs
+        private final LongList runTimestamps = new LongList();
         private final RecordChain slaveChain;
+        private final RecordSink slaveChainSink;
+        // null when spilling is disabled
+        private final SpillPartitions slavePartitions;
+        private final ObjList<RecordChain> slaveRuns = new ObjList<>();
+        private final long spillThreshold;
         private SqlExecutionCircuitBreaker circuitBreaker;
+        private int depth;
         private boolean isMapBuilt;
         private boolean isOpen;
+        private boolean isSpilled;
+        // partition of master records being joined when spilled
+        private RecordChain masterPartition;
         private Record masterRecord;
+        private int runCount;
+        // run of the last merged record, -1 before the first one
+        private int runIndex;
         private long size = -1;
         private boolean useSlaveCursor;
 
-        public HashJoinRecordCursor(int columnSplit, Map joinKeyMap, RecordChain slaveChain) {
+        public HashJoinRecordCursor(
+                CairoConfiguration configuration,
+                int columnSplit,
+                Map joinKeyMap,
+                RecordChain slaveChain,
+                @Nullable SpillPartitions masterPartitions,
+                @Nullable SpillPartitions slavePartitions,
+                @Nullable RecordSink masterChainSink,
+                RecordSink slaveChainSink
+        ) {
             super(columnSplit);
+            this.configuration = configuration;
             this.recordA = new JoinRecord(columnSplit);
             this.joinKeyMap = joinKeyMap;
             this.slaveChain = slaveChain;
+            this.masterPartitions = masterPartitions;
+            this.slavePartitions = slavePartitions;
+            this.masterChainSink = masterChainSink;
+            this.slaveChainSink = slaveChainSink;
+            this.spillThreshold = slavePartitions != null ? configuration.getSqlHashSpillThreshold() : Long.MAX_VALUE;
+            this.masterTimestampIndex = masterFactory.getMetadata().getTimestampIndex();
+            this.isOrdered = masterTimestampIndex != -1;
+            this.isDescending = masterFactory.getScanDirection() == SCAN_DIRECTION_BACKWARD;
             this.isOpen = true;
         }
 
@@ -168,6 +242,12 @@ public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory
                 isOpen = false;
                 joinKeyMap.close();
                 slaveChain.close();
+                Misc.free(masterPartitions);
+                Misc.free(slavePartitions);
+                Misc.freeObjListAndClear(masterRuns);
+                Misc.freeObjListAndClear(slaveRuns);
+                runCount = 0;
+                masterPartition = null;
                 super.close();
             }
         }
@@ -181,23 +261,30 @@ public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory
         public boolean hasNext() {
             buildMapOfSlaveRecords();
 
+            if (isSpilled && isOrdered) {
+                return nextMergedRecord();
+            }
+
             if (useSlaveCursor && slaveChain.hasNext()) {
                 return true;
             }
 
-            while (masterCursor.hasNext()) {
-                MapKey key = joinKeyMap.withKey();
-                key.put(masterRecord, masterSink);
-                MapValue value = key.findValue();
-                if (value != null) {
-                    slaveChain.of(value.getInt(0));
-                    // we know cursor has values
-                    // advance to get first value
-                    slaveChain.hasNext();
-                    useSlaveCursor = true;
-                    return true;
+            do {
+                final RecordCursor probeCursor = isSpilled ? masterPartition : masterCursor;
+                while (probeCursor != null && probeCursor.hasNext()) {
+                    MapKey key = joinKeyMap.withKey();
+                    key.put(masterRecord, masterSink);
+                    MapValue value = key.findValue();
+                    if (value != null) {
+                        slaveChain.of(value.getLong(0));
+                        // we know cursor has values
+                        // advance to get first value
+                        slaveChain.hasNext();
+                        useSlaveCursor = true;
+                        return true;
+                    }
                 }
-            }
+            } while (isSpilled && nextPartition());
             return false;
         }
 
@@ -207,6 +294,9 @@ public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory
                 return size;
             }
             buildMapOfSlaveRecords();
+            if (isSpilled) {
+                return -1;
+            }
             return size = computeCursorSizeFromMap(masterCursor, joinKeyMap, masterSink);
         }
 
@@ -214,7 +304,16 @@ public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory
         public void toTop() {
             masterCursor.toTop();
             useSlaveCursor = false;
-            if (!isMapBuilt) {
+            if (isSpilled) {
+                if (isOrdered) {
+                    // runs stay on disk, so we merge them once again
+                    startMerge();
+                } else {
+                    // partitions stay on disk, so we join them once again
+                    resetPartitionIndexes();
+                    masterPartition = null;
+                }
+            } else if (!isMapBuilt) {
                 slaveCursor.toTop();
                 joinKeyMap.clear();
                 slaveChain.clear();
@@ -223,11 +322,143 @@ public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory
 
         private void buildMapOfSlaveRecords() {
             if (!isMapBuilt) {
-                TableUtils.populateRecordHashMap(circuitBreaker, slaveCursor, joinKeyMap, slaveKeySink, slaveChain);
+                if (!populateMap(slaveCursor, spillThreshold)) {
+                    spill();
+                }
                 isMapBuilt = true;
             }
         }
 
+        private SpillPartitions getLevel(SpillPartitions partitions, int depth) {
+            for (int i = 0; i < depth; i++) {
+                partitions = partitions.nextLevel();
+            }
+            return partitions;
+        }
+
+        // joins all partitions and writes the joined records of each to a run of its own,
+        // the runs keep the order of the master records
+        private void joinPartitionsToRuns() {
+            final Record slaveRecord = slaveChain.getRecord();
+            while (nextPartition()) {
+                RecordChain masterRun = null;
+                RecordChain slaveRun = null;
+                long masterOffset = -1;
+                long slaveOffset = -1;
+                while (masterPartition.hasNext()) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    MapKey key = joinKeyMap.withKey();
+                    key.put(masterRecord, masterSink);
+                    MapValue value = key.findValue();
+                    if (value != null) {
+                        if (masterRun == null) {
+                            final int run = nextRun();
+                            masterRun = masterRuns.getQuick(run);
+                            slaveRun = slaveRuns.getQuick(run);
+                        }
+                        slaveChain.of(value.getLong(0));
+                        while (slaveChain.hasNext()) {
+                            masterOffset = masterRun.put(masterRecord, masterOffset);
+                            slaveOffset = slaveRun.put(slaveRecord, slaveOffset);
+                        }
+                    }
+                }
+            }
+            joinKeyMap.clear();
+            slaveChain.clear();
+        }
+
+        private RecordChain newRun(ColumnTypes columnTypes, RecordSink recordSink) {
+            final long pageSize = configuration.getSqlHashJoinValuePageSize();
+            return new RecordChain(columnTypes, recordSink, pageSize, Integer.MAX_VALUE, new SpillFiles(configuration, pageSize), 0);
+        }
+
+        private boolean nextMergedRecord() {
+            if (runIndex != -1) {
+                // move past the record returned last
+                final RecordChain masterRun = masterRuns.getQuick(runIndex);
+                if (masterRun.hasNext()) {
+                    slaveRuns.getQuick(runIndex).hasNext();
+                    runTimestamps.setQuick(runIndex, masterRun.getRecord().getTimestamp(masterTimestampIndex));
+                } else {
+                    activeRuns.remove(runIndex);
+                }
+                runIndex = -1;
+            }
+            for (int i = 0, n = activeRuns.size(); i < n; i++) {
+                final int run = activeRuns.getQuick(i);
+                if (runIndex == -1) {
+                    runIndex = run;
+                    continue;
+                }
+                final long timestamp = runTimestamps.getQuick(run);
+                final long bestTimestamp = runTimestamps.getQuick(runIndex);
+                if (isDescending ? timestamp > bestTimestamp : timestamp < bestTimestamp) {
+                    runIndex = run;
+                }
+            }
+            if (runIndex == -1) {
+                return false;
+            }
+            recordA.of(masterRuns.getQuick(runIndex).getRecord(), slaveRuns.getQuick(runIndex).getRecord());
+            return true;
+        }
+
+        private boolean nextPartition() {
+            while (depth > -1) {
+                final SpillPartitions slaveLevel = getLevel(slavePartitions, depth);
+                final SpillPartitions masterLevel = getLevel(masterPartitions, depth);
+                final int partitionIndex = partitionIndexes.getQuick(depth) + 1;
+                if (partitionIndex == slaveLevel.getPartitionCount()) {
+                    depth--;
+                    continue;
+                }
+                partitionIndexes.setQuick(depth, partitionIndex);
+                final RecordChain slaveRecords = slaveLevel.getPartition(partitionIndex);
+                final RecordChain masterRecords = masterLevel.getPartition(partitionIndex);
+                // inner join produces no rows for a partition that is empty on either side
+                if (slaveRecords == null || masterRecords == null) {
+                    continue;
+                }
+                joinKeyMap.clear();
+                slaveChain.clear();
+                final SpillPartitions nextSlaveLevel = slaveLevel.nextLevel();
+                // once the hash bits are exhausted, the partition is joined in memory whatever its size
+                if (populateMap(slaveRecords, nextSlaveLevel != null ? spillThreshold : Long.MAX_VALUE)) {
+                    masterPartition = masterRecords;
+                    masterRecord = masterPartition.getRecord();
+                    recordA.of(masterRecord, slaveChain.getRecord());
+                    useSlaveCursor = false;
+                    return true;
+                }
+                // the partition doesn't fit the budget either, so both sides of it
+                // are split by the next level and joined partition by partition
+                joinKeyMap.clear();
+                slaveChain.clear();
+                final SpillPartitions nextMasterLevel = masterLevel.nextLevel();
+                nextSlaveLevel.clear();
+                nextMasterLevel.clear();
+                slaveRecords.toTop();
+                partition(slaveRecords, slaveKeySink, nextSlaveLevel);
+                masterRecords.toTop();
+                partition(masterRecords, masterSink, nextMasterLevel);
+                partitionIndexes.extendAndSet(++depth, -1);
+            }
+            masterPartition = null;
+            return false;
+        }
+
+        private int nextRun() {
+            final int run = runCount++;
+            if (run == masterRuns.size()) {
+                masterRuns.add(newRun(masterFactory.getMetadata(), masterChainSink));
+                slaveRuns.add(newRun(slaveFactory.getMetadata(), slaveChainSink));
+            }
+            masterRuns.getQuick(run).setSymbolTableResolver(masterCursor);
+            slaveRuns.getQuick(run).setSymbolTableResolver(slaveCursor);
+            return run;
+        }
+
         private void of(RecordCursor masterCursor, RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
             if (!isOpen) {
                 isOpen = true;
@@ -241,9 +472,99 @@ public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory
             Record slaveRecord = slaveChain.getRecord();
             recordA.of(masterRecord, slaveRecord);
             slaveChain.setSymbolTableResolver(slaveCursor);
+            if (slavePartitions != null) {
+                masterPartitions.clear();
+                masterPartitions.setSymbolTableResolver(masterCursor);
+                slavePartitions.clear();
+                slavePartitions.setSymbolTableResolver(slaveCursor);
+                for (int i = 0; i < runCount; i++) {
+                    masterRuns.getQuick(i).clear();
+                    slaveRuns.getQuick(i).clear();
+                }
+                runCount = 0;
+            }
             useSlaveCursor = false;
             size = -1;
             isMapBuilt = false;
+            isSpilled = false;
+            resetPartitionIndexes();
+            masterPartition = null;
+        }
+
+        private void partition(RecordCursor cursor, RecordSink keySink, SpillPartitions partitions) {
+            final Record record = cursor.getRecord();
+            while (cursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                final MapKey key = joinKeyMap.withKey();
+                key.put(record, keySink);
+                key.commit();
+                partitions.put(key.hash(), record);
+            }
+        }
+
+        // returns false, leaving the rest of the records unread, once the map and the chain outgrow the budget;
+        // records of a single key can't be split by hash, so they are kept in memory whatever their size
+        private boolean populateMap(RecordCursor cursor, long budget) {
+            final Record record = cursor.getRecord();
+            while (cursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+
+                MapKey key = joinKeyMap.withKey();
+                key.put(record, slaveKeySink);
+                MapValue value = key.createValue();
+                if (value.isNew()) {
+                    long offset = slaveChain.put(record, -1);
+                    value.putLong(0, offset);
+                    value.putLong(1, offset);
+                    value.putLong(2, 1);
+                } else {
+                    value.putLong(1, slaveChain.put(record, value.getLong(1)));
+                    value.addLong(2, 1);
+                }
+                if (joinKeyMap.size() > 1 && joinKeyMap.getMemorySize() + slaveChain.getDataSize() > budget) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void resetPartitionIndexes() {
+            depth = 0;
+            partitionIndexes.setAll(1, -1);
+        }
+
+        private void spill() {
+            // the hash table has outgrown the budget, so both sides get hash-partitioned
+            // to disk and then joined partition by partition
+            joinKeyMap.clear();
+            slaveChain.clear();
+            slaveCursor.toTop();
+            partition(slaveCursor, slaveKeySink, slavePartitions);
+            masterCursor.toTop();
+            partition(masterCursor, masterSink, masterPartitions);
+            isSpilled = true;
+            resetPartitionIndexes();
+            masterPartition = null;
+            if (isOrdered) {
+                joinPartitionsToRuns();
+                startMerge();
+            }
+        }
+
+        private void startMerge() {
+            activeRuns.clear();
+            for (int i = 0; i < runCount; i++) {
+                final RecordChain masterRun = masterRuns.getQuick(i);
+                final RecordChain slaveRun = slaveRuns.getQuick(i);
+                masterRun.toTop();
+                slaveRun.toTop();
+                if (masterRun.hasNext()) {
+                    slaveRun.hasNext();
+                    runTimestamps.extendAndSet(i, masterRun.getRecord().getTimestamp(masterTimestampIndex));
+                    activeRuns.add(i);
+                }
+            }
+            runIndex = -1;
         }
     }
 }
@@ -61,6 +61,9 @@ public class AlterOperation extends AbstractOperation implements Mutable {
     public final static short SET_DEDUP_DISABLE = SET_DEDUP_ENABLE + 1; // 16
     public final static short CHANGE_COLUMN_TYPE = SET_DEDUP_DISABLE + 1; // 17
     public final static short CONVERT_PARTITION = CHANGE_COLUMN_TYPE + 1; // 18
+    public final static short SET_PARAM_PARQUET_CONVERSION_AGE = CONVERT_PARTITION + 1; // 19
+    public final static short ADD_BLOOM_FILTER = SET_PARAM_PARQUET_CONVERSION_AGE + 1; // 20
+    public final static short DROP_BLOOM_FILTER = ADD_BLOOM_FILTER + 1; // 21
     private static final long BIT_INDEXED = 0x1L;
     private static final long BIT_DEDUP_KEY = BIT_INDEXED << 1;
     private final static Log LOG = LogFactory.getLog(AlterOperation.class);
@@ -138,6 +141,12 @@ public class AlterOperation extends AbstractOperation implements Mutable {
                 case DROP_INDEX:
                     applyDropIndex(svc);
                     break;
+                case ADD_BLOOM_FILTER:
+                    applyAddBloomFilter(svc);
+                    break;
+                case DROP_BLOOM_FILTER:
+                    applyDropBloomFilter(svc);
+                    break;
                 case ADD_SYMBOL_CACHE:
                     applySetSymbolCache(svc, true);
                     break;
@@ -150,6 +159,9 @@ public class AlterOperation extends AbstractOperation implements Mutable {
                 case SET_PARAM_COMMIT_LAG:
                     applyParamO3MaxLag(svc);
                     break;
+                case SET_PARAM_PARQUET_CONVERSION_AGE:
+                    applyParamParquetConversionAge(svc);
+                    break;
                 case RENAME_TABLE:
                     applyRenameTable(svc);
                     break;
@@ -385,6 +397,17 @@ public class AlterOperation extends AbstractOperation implements Mutable {
         }
     }
 
+    private void applyAddBloomFilter(MetadataService svc) {
+        final CharSequence columnName = activeExtraStrInfo.getStrA(0);
+        final int columnNamePosition = (int) extraInfo.get(0);
+        try {
+            svc.addBloomFilter(columnName);
+        } catch (CairoException e) {
+            e.position(columnNamePosition);
+            throw e;
+        }
+    }
+
     private void applyAddIndex(MetadataService svc) {
         final CharSequence columnName = activeExtraStrInfo.getStrA(0);
         try {
@@ -449,6 +472,17 @@ public class AlterOperation extends AbstractOperation implements Mutable {
         }
     }
 
+    private void applyDropBloomFilter(MetadataService svc) {
+        final CharSequence columnName = activeExtraStrInfo.getStrA(0);
+        final int columnNamePosition = (int) extraInfo.get(0);
+        try {
+            svc.dropBloomFilter(columnName);
+        } catch (CairoException e) {
+            e.position(columnNamePosition);
+            throw e;
+        }
+    }
+
     private void applyDropIndex(MetadataService svc) {
         final CharSequence columnName = activeExtraStrInfo.getStrA(0);
         final int columnNamePosition = (int) extraInfo.get(0);
@@ -488,6 +522,19 @@ public class AlterOperation extends AbstractOperation implements Mutable {
         }
     }
 
+    private void applyParamParquetConversionAge(MetadataService svc) {
+        long parquetConversionAge = extraInfo.get(0);
+        try {
+            svc.setMetaParquetConversionAge(parquetConversionAge);
+        } catch (CairoException e) {
+            LOG.error().$("could not change parquetConversionAge [table=").utf8(tableToken != null ? tableToken.getTableName() : "<null>")
+                    .$(", errno=").$(e.getErrno())
+                    .$(", error=").$(e.getFlyweightMessage())
+                    .I$();
+            throw e;
+        }
+    }
+
     private void applyParamUncommittedRows(MetadataService svc) {
         int maxUncommittedRows = (int) extraInfo.get(0);
         try {
@@ -87,6 +87,15 @@ public class AlterOperationBuilder {
         return extraStrInfo;
     }
 
+    public void ofAddBloomFilter(int tableNamePosition, TableToken tableToken, int tableId, CharSequence columnName, int columnNamePosition) {
+        this.command = ADD_BLOOM_FILTER;
+        this.tableNamePosition = tableNamePosition;
+        this.tableToken = tableToken;
+        this.tableId = tableId;
+        this.extraStrInfo.add(columnName);
+        this.extraInfo.add(columnNamePosition);
+    }
+
     public AlterOperationBuilder ofAddColumn(int tableNamePosition, TableToken tableToken, int tableId) {
         this.command = ADD_COLUMN;
         this.tableNamePosition = tableNamePosition;
@@ -191,6 +200,15 @@ public class AlterOperationBuilder {
         return this;
     }
 
+    public void ofDropBloomFilter(int tableNamePosition, TableToken tableToken, int tableId, CharSequence columnName, int columnNamePosition) {
+        this.command = DROP_BLOOM_FILTER;
+        this.tableNamePosition = tableNamePosition;
+        this.tableToken = tableToken;
+        this.tableId = tableId;
+        this.extraStrInfo.add(columnName);
+        this.extraInfo.add(columnNamePosition);
+    }
+
     public void ofDropIndex(int tableNamePosition, TableToken tableToken, int tableId, CharSequence columnName, int columnNamePosition) {
         this.command = DROP_INDEX;
         this.tableNamePosition = tableNamePosition;
@@ -247,6 +265,15 @@ public class AlterOperationBuilder {
         return this;
     }
 
+    public AlterOperationBuilder ofSetParquetConversionAge(int tableNamePosition, TableToken tableToken, int tableId, long parquetConversionAge) {
+        this.command = SET_PARAM_PARQUET_CONVERSION_AGE;
+        this.tableNamePosition = tableNamePosition;
+        this.tableToken = tableToken;
+        this.extraInfo.add(parquetConversionAge);
+        this.tableId = tableId;
+        return this;
+    }
+
     public AlterOperationBuilder ofSetParamUncommittedRows(int tableNamePosition, TableToken tableToken, int tableId, int maxUncommittedRows) {
         this.command = SET_PARAM_MAX_UNCOMMITTED_ROWS;
         this.tableNamePosition = tableNamePosition;
@@ -0,0 +1,310 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordChain;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.SpillFiles;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Rows;
+
+/**
+ * Same as SortedRecordCursor, but once the tree chain reaches the spill threshold, its records
+ * are written in sorted order to a run, i.e. a record chain stored in a memory-mapped file, and
+ * the tree chain is cleared. When the base cursor is exhausted, the remaining records form the last
+ * run and the runs are merged with a binary heap as rows are fetched.
+ * <p>
+ * Row ids of the spilled records are composed of the run index and the record offset within the run.
+ */
+class ExternalSortedRecordCursor implements DelegatingRecordCursor {
+    private final RecordTreeChain chain;
+    private final ColumnTypes columnTypes;
+    private final RecordComparator comparator;
+    private final CairoConfiguration configuration;
+    // indexes of runs that have records left, ordered as a binary heap by their current records
+    private final IntList heap = new IntList();
+    private final RunRecord recordA = new RunRecord();
+    private final RunRecord recordB = new RunRecord();
+    private final RecordSink recordSink;
+    private final ObjList<RecordChain> runs = new ObjList<>();
+    private final long spillThreshold;
+    private RecordCursor baseCursor;
+    private RecordTreeChain.TreeCursor chainCursor;
+    private SqlExecutionCircuitBreaker circuitBreaker;
+    private int heapSize;
+    private boolean isChainBuilt;
+    // true when the record of the heap's top run has been returned and the run has to be advanced
+    private boolean isHeadReturned;
+    private boolean isOpen;
+    private int runCount;
+
+    public ExternalSortedRecordCursor(
+            CairoConfiguration configuration,
+            ColumnTypes columnTypes,
+            RecordTreeChain chain,
+            RecordSink recordSink,
+            RecordComparator comparator,
+            long spillThreshold
+    ) {
+        this.configuration = configuration;
+        this.columnTypes = columnTypes;
+        this.chain = chain;
+        this.recordSink = recordSink;
+        this.comparator = comparator;
+        this.spillThreshold = spillThreshold;
+        this.isOpen = true;
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            isOpen = false;
+            chainCursor = Misc.free(chainCursor);
+            baseCursor = Misc.free(baseCursor);
+            Misc.free(chain);
+            // closing the runs removes their files
+            Misc.freeObjListAndKeepObjects(runs);
+            runCount = 0;
+            heapSize = 0;
+        }
+    }
+
+    @Override
+    public Record getRecord() {
+        return recordA;
+    }
+
+    @Override
+    public Record getRecordB() {
+        return recordB;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return baseCursor.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!isChainBuilt) {
+            buildChain();
+            isChainBuilt = true;
+        }
+        if (runCount == 0) {
+            return chainCursor.hasNext();
+        }
+
+        if (isHeadReturned) {
+            isHeadReturned = false;
+            if (!runs.getQuick(heap.getQuick(0)).hasNext()) {
+                // the run is exhausted
+                heap.setQuick(0, heap.getQuick(--heapSize));
+            }
+            if (heapSize > 1) {
+                siftDown(0);
+            }
+        }
+        if (heapSize == 0) {
+            return false;
+        }
+        final int runIndex = heap.getQuick(0);
+        recordA.of(runs.getQuick(runIndex).getRecord(), runIndex);
+        isHeadReturned = true;
+        return true;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return baseCursor.newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public void of(RecordCursor baseCursor, SqlExecutionContext executionContext) {
+        this.baseCursor = baseCursor;
+        if (!isOpen) {
+            isOpen = true;
+            chain.reopen();
+        }
+        chainCursor = chain.getCursor(baseCursor);
+        recordA.of(chainCursor.getRecord(), -1);
+        recordB.of(chainCursor.getRecordB(), -1);
+        circuitBreaker = executionContext.getCircuitBreaker();
+        isChainBuilt = false;
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        final RunRecord runRecord = (RunRecord) record;
+        if (runCount == 0) {
+            chainCursor.recordAt(runRecord.getBase(), atRowId);
+            return;
+        }
+        final int runIndex = Rows.toPartitionIndex(atRowId);
+        final RecordChain run = runs.getQuick(runIndex);
+        final long offset = Rows.toLocalRowID(atRowId);
+        if (runRecord == recordA) {
+            // the run's own record A is the merge position, so it must not be moved
+            runRecord.of(run.getRecordAt(offset), runIndex);
+        } else {
+            final Record runRecordB = run.getRecordB();
+            run.recordAt(runRecordB, offset);
+            runRecord.of(runRecordB, runIndex);
+        }
+    }
+
+    @Override
+    public long size() {
+        return baseCursor.size();
+    }
+
+    @Override
+    public void toTop() {
+        if (runCount == 0) {
+            chainCursor.toTop();
+            return;
+        }
+
+        heap.clear();
+        heapSize = 0;
+        isHeadReturned = false;
+        for (int i = 0; i < runCount; i++) {
+            final RecordChain run = runs.getQuick(i);
+            run.toTop();
+            if (run.hasNext()) {
+                heap.add(i);
+                heapSize++;
+            }
+        }
+        for (int i = (heapSize >>> 1) - 1; i > -1; i--) {
+            siftDown(i);
+        }
+    }
+
+    private void buildChain() {
+        final Record record = baseCursor.getRecord();
+        while (baseCursor.hasNext()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            // Tree chain is liable to re-position record to
+            // other rows to do record comparison. We must use our
+            // own record instance in case base cursor keeps
+            // state in the record it returns.
+            chain.put(record);
+            if (chain.getDataSize() >= spillThreshold) {
+                spill();
+            }
+        }
+        if (runCount > 0) {
+            chainCursor.toTop();
+            if (chainCursor.hasNext()) {
+                spill();
+            }
+        }
+        toTop();
+    }
+
+    private boolean less(int runA, int runB) {
+        comparator.setLeft(runs.getQuick(runA).getRecord());
+        final int cmp = comparator.compare(runs.getQuick(runB).getRecord());
+        // equal records keep the input order
+        return cmp < 0 || (cmp == 0 && runA < runB);
+    }
+
+    private void siftDown(int index) {
+        final int runIndex = heap.getQuick(index);
+        while (true) {
+            int child = (index << 1) + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && less(heap.getQuick(child + 1), heap.getQuick(child))) {
+                child++;
+            }
+            if (!less(heap.getQuick(child), runIndex)) {
+                break;
+            }
+            heap.setQuick(index, heap.getQuick(child));
+            index = child;
+        }
+        heap.setQuick(index, runIndex);
+    }
+
+    private void spill() {
+        final RecordChain run;
+        if (runCount < runs.size()) {
+            run = runs.getQuick(runCount);
+            run.clear();
+        } else {
+            run = new RecordChain(
+                    columnTypes,
+                    recordSink,
+                    configuration.getSqlSortValuePageSize(),
+                    configuration.getSqlSortValueMaxPages(),
+                    new SpillFiles(configuration, configuration.getSqlSortValuePageSize()),
+                    0
+            );
+            runs.add(run);
+        }
+        runCount++;
+        run.setSymbolTableResolver(baseCursor);
+
+        final Record record = chainCursor.getRecord();
+        long offset = -1;
+        chainCursor.toTop();
+        while (chainCursor.hasNext()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            offset = run.put(record, offset);
+        }
+        chain.clear();
+        chainCursor.toTop();
+    }
+
+    private static class RunRecord extends DelegatingRecord {
+        // -1 when the record belongs to the tree chain
+        private int runIndex;
+
+        @Override
+        public long getRowId() {
+            return runIndex == -1 ? base.getRowId() : Rows.toRowID(runIndex, base.getRowId());
+        }
+
+        Record getBase() {
+            return base;
+        }
+
+        void of(Record base, int runIndex) {
+            of(base);
+            this.runIndex = runIndex;
+        }
+    }
+}
@@ -92,6 +92,13 @@ public class RecordTreeChain implements Closeable, Mutable, Reopenable {
         Misc.free(cursor);
     }
 
+    /**
+     * Returns size of the tree and the stored records in bytes.
+     */
+    public long getDataSize() {
+        return mem.size() + recordChain.getDataSize();
+    }
+
     public TreeCursor getCursor(RecordCursor base) {
         cursor.of(base);
         return cursor;
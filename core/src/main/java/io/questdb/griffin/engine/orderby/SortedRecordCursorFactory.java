@@ -28,6 +28,7 @@ import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ListColumnFilter;
 import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.sql.DelegatingRecordCursor;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
@@ -39,7 +40,7 @@ import org.jetbrains.annotations.NotNull;
 
 public class SortedRecordCursorFactory extends AbstractRecordCursorFactory {
     private final RecordCursorFactory base;
-    private final SortedRecordCursor cursor;
+    private final DelegatingRecordCursor cursor;
 
     private final ListColumnFilter sortColumnFilter;
 
@@ -62,10 +63,21 @@ public class SortedRecordCursorFactory extends AbstractRecordCursorFactory {
                 configuration.getSqlSortValueMaxPages()
         );
         this.base = base;
-        this.cursor = new SortedRecordCursor(chain);
+        final long spillThreshold = configuration.getSqlSortSpillThreshold();
+        if (spillThreshold > 0) {
+            this.cursor = new ExternalSortedRecordCursor(configuration, metadata, chain, recordSink, comparator, spillThreshold);
+        } else {
+            this.cursor = new SortedRecordCursor(chain);
+        }
         this.sortColumnFilter = sortColumnFilter;
     }
 
+    public static int getScanDirection(ListColumnFilter sortColumnFilter) {
+        assert sortColumnFilter.size() > 0;
+
+        return toOrder(sortColumnFilter.get(0));
+    }
+
     @Override
     public RecordCursorFactory getBaseFactory() {
         return base;
@@ -118,12 +130,6 @@ public class SortedRecordCursorFactory extends AbstractRecordCursorFactory {
         }
     }
 
-    static int getScanDirection(ListColumnFilter sortColumnFilter) {
-        assert sortColumnFilter.size() > 0;
-
-        return toOrder(sortColumnFilter.get(0));
-    }
-
     @Override
     protected void _close() {
         base.close();
@@ -97,7 +97,7 @@ public abstract class AbstractPageFrameRecordCursor implements PageFrameRecordCu
 
     protected void init() {
         frameAddressCache.clear();
-        frameMemoryPool.of(frameAddressCache);
+        frameMemoryPool.of(frameAddressCache, frameCursor);
         frameCount = 0;
         frameCursor.toTop();
     }
@@ -30,6 +30,7 @@ import io.questdb.cairo.TableToken;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.parquet.ParquetRowGroupFilter;
 import io.questdb.std.IntList;
 import io.questdb.std.Misc;
 import org.jetbrains.annotations.NotNull;
@@ -44,6 +45,7 @@ abstract class AbstractPageFrameRecordCursorFactory extends AbstractRecordCursor
     protected final int pageFrameMinRows;
     protected final PartitionFrameCursorFactory partitionFrameCursorFactory;
     protected PageFrameCursor pageFrameCursor;
+    protected ParquetRowGroupFilter rowGroupFilter;
 
     public AbstractPageFrameRecordCursorFactory(
             @NotNull CairoConfiguration configuration,
@@ -101,7 +103,8 @@ abstract class AbstractPageFrameRecordCursorFactory extends AbstractRecordCursor
                         columnSizeShifts,
                         1, // used for single-threaded exec plans
                         pageFrameMinRows,
-                        pageFrameMaxRows
+                        pageFrameMaxRows,
+                        rowGroupFilter
                 );
             } else {
                 pageFrameCursor = new BwdTableReaderPageFrameCursor(
@@ -109,7 +112,8 @@ abstract class AbstractPageFrameRecordCursorFactory extends AbstractRecordCursor
                         columnSizeShifts,
                         1, // used for single-threaded exec plans
                         pageFrameMinRows,
-                        pageFrameMaxRows
+                        pageFrameMaxRows,
+                        rowGroupFilter
                 );
             }
         }
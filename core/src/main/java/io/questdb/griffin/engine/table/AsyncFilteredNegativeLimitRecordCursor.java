@@ -247,7 +247,7 @@ class AsyncFilteredNegativeLimitRecordCursor implements RecordCursor {
         rows = negativeLimitRows;
         rowIndex = negativeLimitRows.getCapacity();
         rowCount = 0;
-        frameMemoryPool.of(frameSequence.getPageFrameAddressCache());
+        frameMemoryPool.of(frameSequence.getPageFrameAddressCache(), frameSequence.getSymbolTableSource());
         record.of(frameSequence.getSymbolTableSource());
         if (recordB != null) {
             recordB.of(frameSequence.getSymbolTableSource());
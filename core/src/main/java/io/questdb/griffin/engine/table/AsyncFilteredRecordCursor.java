@@ -386,7 +386,7 @@ class AsyncFilteredRecordCursor implements RecordCursor {
         frameIndex = -1;
         frameLimit = -1;
         allFramesActive = true;
-        frameMemoryPool.of(frameSequence.getPageFrameAddressCache());
+        frameMemoryPool.of(frameSequence.getPageFrameAddressCache(), frameSequence.getSymbolTableSource());
         record.of(frameSequence.getSymbolTableSource());
         if (recordB != null) {
             recordB.of(frameSequence.getSymbolTableSource());
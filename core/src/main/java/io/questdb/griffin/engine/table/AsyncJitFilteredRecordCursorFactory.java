@@ -298,7 +298,7 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
 
         rows.clear();
 
-        if (frameSequence.getPageFrameAddressCache().hasColumnTops(task.getFrameIndex())) {
+        if (frameMemory.hasColumnTops()) {
             // Use Java-based filter in case of a page frame with column tops.
             final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
             final int filterId = atom.maybeAcquireFilter(workerId, owner, circuitBreaker);
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.Plannable;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+import static io.questdb.griffin.engine.table.AsyncJitFilteredRecordCursorFactory.prepareBindVarMemory;
+
+/**
+ * Shared state of the parallel ORDER BY over a single int/ipv4/long/timestamp/date column.
+ * Each page frame is sorted into its own run of &lt;value, rowId&gt; pairs, so that
+ * the runs can be merged by the query owner thread once all frames are reduced.
+ */
+public class AsyncSortAtom implements StatefulAtom, Closeable, Plannable {
+    private static final int RUN_INITIAL_CAPACITY = 16;
+    private final ObjList<Function> bindVarFunctions;
+    private final MemoryCARW bindVarMemory;
+    private final CompiledFilter compiledFilter;
+    private final int keyColumnIndex;
+    private final int keyColumnType;
+    private final Function ownerFilter;
+    private final DirectLongList ownerSortBuffer;
+    private final ObjList<Function> perWorkerFilters;
+    private final PerWorkerLocks perWorkerLocks;
+    private final ObjList<DirectLongList> perWorkerSortBuffers;
+    private final long radixSortThreshold;
+    // <value, rowId> pairs of each page frame, sorted in ascending order of values
+    private final ObjList<DirectLongList> runs = new ObjList<>();
+    private int runCount;
+
+    public AsyncSortAtom(
+            @NotNull CairoConfiguration configuration,
+            int keyColumnIndex,
+            int keyColumnType,
+            @Nullable CompiledFilter compiledFilter,
+            @Nullable MemoryCARW bindVarMemory,
+            @Nullable ObjList<Function> bindVarFunctions,
+            @Nullable Function ownerFilter,
+            @Nullable ObjList<Function> perWorkerFilters,
+            int workerCount
+    ) {
+        assert perWorkerFilters == null || perWorkerFilters.size() == workerCount;
+
+        final int slotCount = Math.min(workerCount, configuration.getPageFrameReduceQueueCapacity());
+        this.keyColumnIndex = keyColumnIndex;
+        this.keyColumnType = ColumnType.tagOf(keyColumnType);
+        this.compiledFilter = compiledFilter;
+        this.bindVarMemory = bindVarMemory;
+        this.bindVarFunctions = bindVarFunctions;
+        this.ownerFilter = ownerFilter;
+        this.perWorkerFilters = perWorkerFilters;
+        this.radixSortThreshold = configuration.getSqlOrderByRadixSortThreshold();
+        this.perWorkerSortBuffers = new ObjList<>(slotCount);
+        try {
+            perWorkerLocks = new PerWorkerLocks(configuration, slotCount);
+            ownerSortBuffer = new DirectLongList(configuration.getSqlSortLightValuePageSize() / 16, MemoryTag.NATIVE_DEFAULT);
+            for (int i = 0; i < slotCount; i++) {
+                perWorkerSortBuffers.extendAndSet(i, new DirectLongList(configuration.getSqlSortLightValuePageSize() / 16, MemoryTag.NATIVE_DEFAULT));
+            }
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public void clear() {
+        Misc.freeObjListAndKeepObjects(runs);
+        runCount = 0;
+        Misc.free(ownerSortBuffer);
+        Misc.freeObjListAndKeepObjects(perWorkerSortBuffers);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(compiledFilter);
+        Misc.free(bindVarMemory);
+        Misc.freeObjList(bindVarFunctions);
+        Misc.free(ownerFilter);
+        Misc.freeObjList(perWorkerFilters);
+        Misc.freeObjListAndClear(runs);
+        Misc.free(ownerSortBuffer);
+        Misc.freeObjList(perWorkerSortBuffers);
+    }
+
+    public ObjList<Function> getBindVarFunctions() {
+        return bindVarFunctions;
+    }
+
+    public MemoryCARW getBindVarMemory() {
+        return bindVarMemory;
+    }
+
+    public CompiledFilter getCompiledFilter() {
+        return compiledFilter;
+    }
+
+    public Function getFilter(int slotId) {
+        if (slotId == -1 || perWorkerFilters == null) {
+            return ownerFilter;
+        }
+        return perWorkerFilters.getQuick(slotId);
+    }
+
+    /**
+     * Returns sort key of the record mapped to an unsigned 64-bit integer, so that nulls come first.
+     */
+    public long getKey(Record record) {
+        return getKey(record, keyColumnIndex, keyColumnType);
+    }
+
+    public DirectLongList getRun(int frameIndex) {
+        return runs.getQuick(frameIndex);
+    }
+
+    // Thread-unsafe, should be used by query owner thread only.
+    public int getRunCount() {
+        return runCount;
+    }
+
+    public boolean hasFilter() {
+        return ownerFilter != null;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (ownerFilter != null) {
+            ownerFilter.init(symbolTableSource, executionContext);
+        }
+
+        if (perWorkerFilters != null) {
+            final boolean current = executionContext.getCloneSymbolTables();
+            executionContext.setCloneSymbolTables(true);
+            try {
+                Function.init(perWorkerFilters, symbolTableSource, executionContext);
+            } finally {
+                executionContext.setCloneSymbolTables(current);
+            }
+        }
+
+        if (bindVarFunctions != null) {
+            Function.init(bindVarFunctions, symbolTableSource, executionContext);
+            prepareBindVarMemory(executionContext, symbolTableSource, bindVarFunctions, bindVarMemory);
+        }
+    }
+
+    @Override
+    public void initCursor() {
+        if (ownerFilter != null) {
+            ownerFilter.initCursor();
+        }
+        if (perWorkerFilters != null) {
+            // Initialize all per-worker filters on the query owner thread to avoid
+            // DataUnavailableException thrown on worker threads when filtering.
+            Function.initCursor(perWorkerFilters);
+        }
+    }
+
+    public int maybeAcquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own private filter, sort buffer, etc. anytime.
+            return -1;
+        }
+        // All other threads, e.g. worker or work stealing threads, must always acquire a lock
+        // to use shared resources.
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    /**
+     * Creates a run per page frame. Must be called by the query owner thread before
+     * the frames are dispatched.
+     */
+    public void prepareRuns(int frameCount) {
+        for (int i = runs.size(); i < frameCount; i++) {
+            runs.add(new DirectLongList(RUN_INITIAL_CAPACITY, MemoryTag.NATIVE_DEFAULT));
+        }
+        for (int i = 0; i < frameCount; i++) {
+            final DirectLongList run = runs.getQuick(i);
+            run.reopen();
+            run.clear();
+        }
+        runCount = frameCount;
+    }
+
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    /**
+     * Sorts &lt;value, rowId&gt; pairs of the run in ascending order of unsigned values.
+     */
+    public void sortRun(DirectLongList run, int slotId) {
+        final long size = run.size() >>> 1;
+        if (size > radixSortThreshold) {
+            final DirectLongList sortBuffer = slotId == -1 ? ownerSortBuffer : perWorkerSortBuffers.getQuick(slotId);
+            sortBuffer.reopen();
+            if (sortBuffer.getCapacity() < run.size()) {
+                sortBuffer.setCapacity(run.size());
+            }
+            Vect.radixSortLongIndexAscInPlace(run.getAddress(), size, sortBuffer.getAddress());
+        } else if (size > 1) {
+            Vect.quickSortLongIndexAscInPlace(run.getAddress(), size);
+        }
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(ownerFilter);
+    }
+
+    static long getKey(Record record, int columnIndex, int columnTag) {
+        switch (columnTag) {
+            case ColumnType.INT:
+                final int value = record.getInt(columnIndex);
+                return (value != Numbers.INT_NULL ? value : Numbers.LONG_NULL) ^ Long.MIN_VALUE;
+            case ColumnType.IPv4:
+                return record.getLongIPv4(columnIndex) ^ Long.MIN_VALUE;
+            default:
+                return record.getLong(columnIndex) ^ Long.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+
+/**
+ * Merges sorted per-frame runs with a binary heap, so that rows are returned
+ * without copying the runs into a single sorted list.
+ */
+class AsyncSortedLightRecordCursor implements RecordCursor {
+    private static final Log LOG = LogFactory.getLog(AsyncSortedLightRecordCursor.class);
+    private final boolean ascending;
+    // Used for random access: we may have to deserialize Parquet page frame.
+    private final PageFrameMemoryPool frameMemoryPool = new PageFrameMemoryPool();
+    // indexes of runs that have pairs left, ordered as a binary heap by their current values
+    private final IntList heap = new IntList();
+    // index of the current pair in each run
+    private final LongList positions = new LongList();
+    private final PageFrameMemoryRecord record = new PageFrameMemoryRecord();
+    private AsyncSortAtom atom;
+    private int frameLimit;
+    private PageFrameSequence<AsyncSortAtom> frameSequence;
+    private int heapSize;
+    private boolean isOpen;
+    private boolean isSorted;
+    private PageFrameMemoryRecord recordB;
+    private long rowCount;
+
+    public AsyncSortedLightRecordCursor(boolean ascending) {
+        this.ascending = ascending;
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            isOpen = false;
+            if (frameSequence != null) {
+                LOG.debug()
+                        .$("closing [shard=").$(frameSequence.getShard())
+                        .$(", frameCount=").$(frameLimit)
+                        .I$();
+
+                if (frameLimit > -1) {
+                    frameSequence.await();
+                }
+                frameSequence.clear();
+            }
+            Misc.free(frameMemoryPool);
+        }
+    }
+
+    public void freeRecords() {
+        Misc.free(record);
+        Misc.free(recordB);
+        Misc.free(frameMemoryPool);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public Record getRecordB() {
+        if (recordB != null) {
+            return recordB;
+        }
+        recordB = new PageFrameMemoryRecord(record);
+        return recordB;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!isSorted) {
+            sortFrames();
+            isSorted = true;
+            initMerge();
+        }
+        if (heapSize == 0) {
+            return false;
+        }
+
+        final int runIndex = heap.getQuick(0);
+        final DirectLongList run = atom.getRun(runIndex);
+        final long pos = positions.getQuick(runIndex);
+        final long rowId = run.get((pos << 1) + 1);
+        final long nextPos = ascending ? pos + 1 : pos - 1;
+        if (nextPos > -1 && nextPos < (run.size() >>> 1)) {
+            positions.setQuick(runIndex, nextPos);
+        } else {
+            // the run is exhausted
+            heap.setQuick(0, heap.getQuick(--heapSize));
+        }
+        if (heapSize > 1) {
+            siftDown(0);
+        }
+        recordAt(record, rowId);
+        return true;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        final PageFrameMemoryRecord frameMemoryRecord = (PageFrameMemoryRecord) record;
+        frameMemoryPool.navigateTo(Rows.toPartitionIndex(atRowId), frameMemoryRecord);
+        frameMemoryRecord.setRowIndex(Rows.toLocalRowID(atRowId));
+    }
+
+    @Override
+    public long size() {
+        return isSorted ? rowCount : -1;
+    }
+
+    @Override
+    public void toTop() {
+        if (isSorted) {
+            initMerge();
+        }
+    }
+
+    private void initMerge() {
+        heap.clear();
+        heapSize = 0;
+        rowCount = 0;
+        for (int i = 0, n = atom.getRunCount(); i < n; i++) {
+            final long pairCount = atom.getRun(i).size() >>> 1;
+            positions.extendAndSet(i, ascending ? 0 : pairCount - 1);
+            if (pairCount > 0) {
+                heap.add(i);
+                heapSize++;
+                rowCount += pairCount;
+            }
+        }
+        for (int i = (heapSize >>> 1) - 1; i > -1; i--) {
+            siftDown(i);
+        }
+    }
+
+    private boolean less(int runA, int runB) {
+        final long valueA = atom.getRun(runA).get(positions.getQuick(runA) << 1);
+        final long valueB = atom.getRun(runB).get(positions.getQuick(runB) << 1);
+        if (valueA != valueB) {
+            return (Long.compareUnsigned(valueA, valueB) < 0) == ascending;
+        }
+        // equal values keep the frame order
+        return (runA < runB) == ascending;
+    }
+
+    private void siftDown(int index) {
+        final int runIndex = heap.getQuick(index);
+        while (true) {
+            int child = (index << 1) + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && less(heap.getQuick(child + 1), heap.getQuick(child))) {
+                child++;
+            }
+            if (!less(heap.getQuick(child), runIndex)) {
+                break;
+            }
+            heap.setQuick(index, heap.getQuick(child));
+            index = child;
+        }
+        heap.setQuick(index, runIndex);
+    }
+
+    private void sortFrames() {
+        if (frameLimit == -1) {
+            frameSequence.prepareForDispatch();
+            frameLimit = frameSequence.getFrameCount() - 1;
+            atom.prepareRuns(frameSequence.getFrameCount());
+        }
+
+        int frameIndex = -1;
+        boolean allFramesActive = true;
+        try {
+            do {
+                final long cursor = frameSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameSequence.getFrameCount())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+                    if (task.hasError()) {
+                        throw CairoException.nonCritical()
+                                .position(task.getErrorMessagePosition())
+                                .put(task.getErrorMsg());
+                    }
+
+                    allFramesActive &= frameSequence.isActive();
+                    frameIndex = task.getFrameIndex();
+
+                    frameSequence.collect(cursor, false);
+                } else if (cursor == -2) {
+                    break; // No frames to sort.
+                } else {
+                    Os.pause();
+                }
+            } while (frameIndex < frameLimit);
+        } catch (Throwable e) {
+            LOG.error().$("sort error [ex=").$(e).I$();
+            if (e instanceof CairoException) {
+                CairoException ce = (CairoException) e;
+                if (ce.isInterruption()) {
+                    throwTimeoutException();
+                } else {
+                    throw ce;
+                }
+            }
+            throw CairoException.nonCritical().put(e.getMessage());
+        }
+
+        if (!allFramesActive) {
+            throwTimeoutException();
+        }
+    }
+
+    private void throwTimeoutException() {
+        if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
+            throw CairoException.queryCancelled();
+        } else {
+            throw CairoException.queryTimedOut();
+        }
+    }
+
+    void of(PageFrameSequence<AsyncSortAtom> frameSequence) {
+        isOpen = true;
+        this.frameSequence = frameSequence;
+        this.atom = frameSequence.getAtom();
+        frameLimit = -1;
+        isSorted = false;
+        heapSize = 0;
+        frameMemoryPool.of(frameSequence.getPageFrameAddressCache(), frameSequence.getSymbolTableSource());
+        record.of(frameSequence.getSymbolTableSource());
+        if (recordB != null) {
+            recordB.of(frameSequence.getSymbolTableSource());
+        }
+    }
+}
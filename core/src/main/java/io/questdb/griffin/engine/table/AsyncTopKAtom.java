@@ -0,0 +1,342 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.Plannable;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+import static io.questdb.griffin.engine.table.AsyncJitFilteredRecordCursorFactory.prepareBindVarMemory;
+
+/**
+ * Shared state of the parallel ORDER BY ... LIMIT over a single int/ipv4/long/timestamp/date column.
+ * Each worker slot keeps a bounded binary heap of &lt;key, rowId&gt; pairs across all page frames
+ * it reduces. The root of the heap is the worst kept pair, so that a better pair replaces it
+ * once the heap is full. The heaps are merged by the query owner thread when all frames are reduced.
+ * <p>
+ * Pairs are ordered by unsigned keys, then by row ids, which makes the result independent of
+ * the way frames are distributed between the workers.
+ */
+public class AsyncTopKAtom implements StatefulAtom, Closeable, Plannable {
+    private static final int HEAP_INITIAL_CAPACITY = 16;
+    private final boolean ascending;
+    private final ObjList<Function> bindVarFunctions;
+    private final MemoryCARW bindVarMemory;
+    private final CompiledFilter compiledFilter;
+    private final int keyColumnIndex;
+    private final int keyColumnType;
+    private final DirectLongList mergedRows;
+    private final Function ownerFilter;
+    private final DirectLongList ownerHeap;
+    private final ObjList<Function> perWorkerFilters;
+    private final ObjList<DirectLongList> perWorkerHeaps;
+    private final PerWorkerLocks perWorkerLocks;
+    // true - keep first N pairs; false - keep last N pairs
+    private boolean keepFirst;
+    // <0 - keep all pairs; >=0 - max number of pairs to keep
+    private long limit;
+
+    public AsyncTopKAtom(
+            @NotNull CairoConfiguration configuration,
+            int keyColumnIndex,
+            int keyColumnType,
+            boolean ascending,
+            @Nullable CompiledFilter compiledFilter,
+            @Nullable MemoryCARW bindVarMemory,
+            @Nullable ObjList<Function> bindVarFunctions,
+            @Nullable Function ownerFilter,
+            @Nullable ObjList<Function> perWorkerFilters,
+            int workerCount
+    ) {
+        assert perWorkerFilters == null || perWorkerFilters.size() == workerCount;
+
+        final int slotCount = Math.min(workerCount, configuration.getPageFrameReduceQueueCapacity());
+        this.keyColumnIndex = keyColumnIndex;
+        this.keyColumnType = ColumnType.tagOf(keyColumnType);
+        this.ascending = ascending;
+        this.compiledFilter = compiledFilter;
+        this.bindVarMemory = bindVarMemory;
+        this.bindVarFunctions = bindVarFunctions;
+        this.ownerFilter = ownerFilter;
+        this.perWorkerFilters = perWorkerFilters;
+        this.perWorkerHeaps = new ObjList<>(slotCount);
+        try {
+            perWorkerLocks = new PerWorkerLocks(configuration, slotCount);
+            mergedRows = new DirectLongList(HEAP_INITIAL_CAPACITY, MemoryTag.NATIVE_DEFAULT);
+            ownerHeap = new DirectLongList(HEAP_INITIAL_CAPACITY, MemoryTag.NATIVE_DEFAULT);
+            for (int i = 0; i < slotCount; i++) {
+                perWorkerHeaps.extendAndSet(i, new DirectLongList(HEAP_INITIAL_CAPACITY, MemoryTag.NATIVE_DEFAULT));
+            }
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public void clear() {
+        Misc.free(mergedRows);
+        Misc.free(ownerHeap);
+        Misc.freeObjListAndKeepObjects(perWorkerHeaps);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(compiledFilter);
+        Misc.free(bindVarMemory);
+        Misc.freeObjList(bindVarFunctions);
+        Misc.free(ownerFilter);
+        Misc.freeObjList(perWorkerFilters);
+        Misc.free(mergedRows);
+        Misc.free(ownerHeap);
+        Misc.freeObjList(perWorkerHeaps);
+    }
+
+    public ObjList<Function> getBindVarFunctions() {
+        return bindVarFunctions;
+    }
+
+    public MemoryCARW getBindVarMemory() {
+        return bindVarMemory;
+    }
+
+    public CompiledFilter getCompiledFilter() {
+        return compiledFilter;
+    }
+
+    public Function getFilter(int slotId) {
+        if (slotId == -1 || perWorkerFilters == null) {
+            return ownerFilter;
+        }
+        return perWorkerFilters.getQuick(slotId);
+    }
+
+    public DirectLongList getHeap(int slotId) {
+        return slotId == -1 ? ownerHeap : perWorkerHeaps.getQuick(slotId);
+    }
+
+    /**
+     * Returns sort key of the record, so that the pairs with smaller unsigned keys come first.
+     */
+    public long getKey(Record record) {
+        final long key = AsyncSortAtom.getKey(record, keyColumnIndex, keyColumnType);
+        return ascending ? key : ~key;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    public boolean hasFilter() {
+        return ownerFilter != null;
+    }
+
+    public boolean isKeepFirst() {
+        return keepFirst;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (ownerFilter != null) {
+            ownerFilter.init(symbolTableSource, executionContext);
+        }
+
+        if (perWorkerFilters != null) {
+            final boolean current = executionContext.getCloneSymbolTables();
+            executionContext.setCloneSymbolTables(true);
+            try {
+                Function.init(perWorkerFilters, symbolTableSource, executionContext);
+            } finally {
+                executionContext.setCloneSymbolTables(current);
+            }
+        }
+
+        if (bindVarFunctions != null) {
+            Function.init(bindVarFunctions, symbolTableSource, executionContext);
+            prepareBindVarMemory(executionContext, symbolTableSource, bindVarFunctions, bindVarMemory);
+        }
+    }
+
+    @Override
+    public void initCursor() {
+        if (ownerFilter != null) {
+            ownerFilter.initCursor();
+        }
+        if (perWorkerFilters != null) {
+            // Initialize all per-worker filters on the query owner thread to avoid
+            // DataUnavailableException thrown on worker threads when filtering.
+            Function.initCursor(perWorkerFilters);
+        }
+    }
+
+    public int maybeAcquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own private filter, heap, etc. anytime.
+            return -1;
+        }
+        // All other threads, e.g. worker or work stealing threads, must always acquire a lock
+        // to use shared resources.
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    /**
+     * Merges the heaps of all slots into a single list of pairs sorted in ascending order.
+     * Thread-unsafe, should be used by query owner thread only.
+     *
+     * @return sorted pairs, may contain more than limit pairs
+     */
+    public DirectLongList mergeHeaps() {
+        mergedRows.reopen();
+        mergedRows.clear();
+        mergedRows.addAll(ownerHeap);
+        for (int i = 0, n = perWorkerHeaps.size(); i < n; i++) {
+            mergedRows.addAll(perWorkerHeaps.getQuick(i));
+        }
+        final long size = mergedRows.size() >>> 1;
+        for (long i = (size >>> 1) - 1; i > -1; i--) {
+            siftDown(mergedRows, i, size, true);
+        }
+        for (long n = size - 1; n > 0; n--) {
+            swap(mergedRows, 0, n);
+            siftDown(mergedRows, 0, n, true);
+        }
+        return mergedRows;
+    }
+
+    /**
+     * Adds the pair to the heap if it's among the pairs to be kept.
+     */
+    public void offer(DirectLongList heap, long key, long rowId) {
+        final long size = heap.size() >>> 1;
+        if (limit < 0 || size < limit) {
+            heap.add(key);
+            heap.add(rowId);
+            if (limit > 0) {
+                siftUp(heap, size, keepFirst);
+            }
+        } else if (limit > 0) {
+            final int cmp = compare(key, rowId, heap.get(0), heap.get(1));
+            if (keepFirst ? cmp < 0 : cmp > 0) {
+                heap.set(0, key);
+                heap.set(1, rowId);
+                siftDown(heap, 0, size, keepFirst);
+            }
+        }
+    }
+
+    /**
+     * Resets the heaps. Must be called by the query owner thread before the frames are dispatched.
+     *
+     * @param limit     max number of pairs to keep, negative value means all pairs
+     * @param keepFirst true to keep the first pairs in the sort order, false to keep the last ones
+     */
+    public void of(long limit, boolean keepFirst) {
+        this.limit = limit;
+        this.keepFirst = keepFirst;
+        ownerHeap.reopen();
+        ownerHeap.clear();
+        for (int i = 0, n = perWorkerHeaps.size(); i < n; i++) {
+            final DirectLongList heap = perWorkerHeaps.getQuick(i);
+            heap.reopen();
+            heap.clear();
+        }
+    }
+
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(ownerFilter);
+    }
+
+    private static int compare(long keyA, long rowIdA, long keyB, long rowIdB) {
+        if (keyA != keyB) {
+            return Long.compareUnsigned(keyA, keyB);
+        }
+        return Long.compare(rowIdA, rowIdB);
+    }
+
+    // true when pair i should be closer to the heap root than pair j
+    private static boolean isAbove(DirectLongList heap, long i, long j, boolean maxHeap) {
+        final int cmp = compare(heap.get(i << 1), heap.get((i << 1) + 1), heap.get(j << 1), heap.get((j << 1) + 1));
+        return maxHeap ? cmp > 0 : cmp < 0;
+    }
+
+    private static void siftDown(DirectLongList heap, long index, long size, boolean maxHeap) {
+        while (true) {
+            long child = (index << 1) + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && isAbove(heap, child + 1, child, maxHeap)) {
+                child++;
+            }
+            if (!isAbove(heap, child, index, maxHeap)) {
+                break;
+            }
+            swap(heap, index, child);
+            index = child;
+        }
+    }
+
+    private static void siftUp(DirectLongList heap, long index, boolean maxHeap) {
+        while (index > 0) {
+            final long parent = (index - 1) >>> 1;
+            if (!isAbove(heap, index, parent, maxHeap)) {
+                break;
+            }
+            swap(heap, index, parent);
+            index = parent;
+        }
+    }
+
+    private static void swap(DirectLongList list, long i, long j) {
+        final long key = list.get(i << 1);
+        final long rowId = list.get((i << 1) + 1);
+        list.set(i << 1, list.get(j << 1));
+        list.set((i << 1) + 1, list.get((j << 1) + 1));
+        list.set(j << 1, key);
+        list.set((j << 1) + 1, rowId);
+    }
+}
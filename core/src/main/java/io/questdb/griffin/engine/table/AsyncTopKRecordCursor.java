@@ -0,0 +1,290 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Os;
+import io.questdb.std.Rows;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Returns the pairs kept by the per-worker heaps of {@link AsyncTopKAtom} once
+ * all page frames are reduced and the heaps are merged.
+ */
+class AsyncTopKRecordCursor implements RecordCursor {
+    private static final Log LOG = LogFactory.getLog(AsyncTopKRecordCursor.class);
+    // Used for random access: we may have to deserialize Parquet page frame.
+    private final PageFrameMemoryPool frameMemoryPool = new PageFrameMemoryPool();
+    private final Function hiFunction;
+    private final Function loFunction;
+    private final PageFrameMemoryRecord record = new PageFrameMemoryRecord();
+    private AsyncTopKAtom atom;
+    private int frameLimit;
+    private PageFrameSequence<AsyncTopKAtom> frameSequence;
+    private boolean isOpen;
+    private boolean isSorted;
+    private long position;
+    private PageFrameMemoryRecord recordB;
+    private DirectLongList rows;
+    private long rowsHi;
+    private long rowsLo;
+    private long skipFirst;
+    private long skipLast;
+
+    public AsyncTopKRecordCursor(Function loFunction, @Nullable Function hiFunction) {
+        this.loFunction = loFunction;
+        this.hiFunction = hiFunction;
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            isOpen = false;
+            if (frameSequence != null) {
+                LOG.debug()
+                        .$("closing [shard=").$(frameSequence.getShard())
+                        .$(", frameCount=").$(frameLimit)
+                        .I$();
+
+                if (frameLimit > -1) {
+                    frameSequence.await();
+                }
+                frameSequence.clear();
+            }
+            rows = null;
+            Misc.free(frameMemoryPool);
+        }
+    }
+
+    public void freeRecords() {
+        Misc.free(record);
+        Misc.free(recordB);
+        Misc.free(frameMemoryPool);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public Record getRecordB() {
+        if (recordB != null) {
+            return recordB;
+        }
+        recordB = new PageFrameMemoryRecord(record);
+        return recordB;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!isSorted) {
+            reduceFrames();
+            isSorted = true;
+            initRows();
+        }
+        if (position < rowsHi) {
+            recordAt(record, rows.get((position++ << 1) + 1));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        final PageFrameMemoryRecord frameMemoryRecord = (PageFrameMemoryRecord) record;
+        frameMemoryPool.navigateTo(Rows.toPartitionIndex(atRowId), frameMemoryRecord);
+        frameMemoryRecord.setRowIndex(Rows.toLocalRowID(atRowId));
+    }
+
+    @Override
+    public long size() {
+        return isSorted ? rowsHi - rowsLo : -1;
+    }
+
+    @Override
+    public void toTop() {
+        position = rowsLo;
+    }
+
+    /**
+     * Same as {@link io.questdb.griffin.engine.orderby.LimitedSizeSortedLightRecordCursorFactory},
+     * "limit L" keeps first L rows when L >= 0 and last -L rows otherwise, while "limit L, H"
+     * skips rows on either end. When L >= 0 and H < 0, the size of the result can't be
+     * estimated, so all rows are kept.
+     */
+    private void initLimit() {
+        long limit;
+        boolean keepFirst = false;
+        skipFirst = skipLast = 0;
+
+        final long lo = loFunction.getLong(null);
+        if (hiFunction == null) {
+            keepFirst = lo > -1;
+            limit = keepFirst ? lo : -lo;
+        } else {
+            final long hi = hiFunction.getLong(null);
+            if (lo < 0) {
+                // e.g. -10,-5 is five rows away from the tail; -3,-10 is an invalid range
+                limit = lo < hi ? -lo : 0;
+                skipLast = Math.max(-hi, 0);
+            } else if (hi < 0) {
+                limit = -1;
+                skipFirst = lo;
+                skipLast = -hi;
+            } else if (hi <= lo) {
+                limit = 0;
+            } else {
+                keepFirst = true;
+                limit = hi;
+                skipFirst = lo;
+            }
+        }
+        atom.of(limit, keepFirst);
+    }
+
+    private void initRows() {
+        rows = atom.mergeHeaps();
+        final long limit = atom.getLimit();
+        final long size = rows.size() >>> 1;
+        long lo = 0;
+        long hi = size;
+        if (limit > -1) {
+            if (hi > limit) {
+                if (atom.isKeepFirst()) {
+                    hi = limit;
+                } else {
+                    lo = size - limit;
+                }
+            }
+        }
+        rowsLo = lo + skipFirst;
+        rowsHi = Math.max(hi - skipLast, rowsLo);
+        position = rowsLo;
+    }
+
+    private void reduceFrames() {
+        if (frameLimit == -1) {
+            frameSequence.prepareForDispatch();
+            frameLimit = frameSequence.getFrameCount() - 1;
+        }
+
+        int frameIndex = -1;
+        boolean allFramesActive = true;
+        try {
+            do {
+                final long cursor = frameSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameSequence.getFrameCount())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+                    if (task.hasError()) {
+                        throw CairoException.nonCritical()
+                                .position(task.getErrorMessagePosition())
+                                .put(task.getErrorMsg());
+                    }
+
+                    allFramesActive &= frameSequence.isActive();
+                    frameIndex = task.getFrameIndex();
+
+                    frameSequence.collect(cursor, false);
+                } else if (cursor == -2) {
+                    break; // No frames to reduce.
+                } else {
+                    Os.pause();
+                }
+            } while (frameIndex < frameLimit);
+        } catch (Throwable e) {
+            LOG.error().$("top k error [ex=").$(e).I$();
+            if (e instanceof CairoException) {
+                CairoException ce = (CairoException) e;
+                if (ce.isInterruption()) {
+                    throwTimeoutException();
+                } else {
+                    throw ce;
+                }
+            }
+            throw CairoException.nonCritical().put(e.getMessage());
+        }
+
+        if (!allFramesActive) {
+            throwTimeoutException();
+        }
+    }
+
+    private void throwTimeoutException() {
+        if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
+            throw CairoException.queryCancelled();
+        } else {
+            throw CairoException.queryTimedOut();
+        }
+    }
+
+    void of(PageFrameSequence<AsyncTopKAtom> frameSequence, SqlExecutionContext executionContext) throws SqlException {
+        isOpen = true;
+        this.frameSequence = frameSequence;
+        this.atom = frameSequence.getAtom();
+        frameLimit = -1;
+        isSorted = false;
+        rowsLo = rowsHi = position = 0;
+        final SymbolTableSource symbolTableSource = frameSequence.getSymbolTableSource();
+        loFunction.init(symbolTableSource, executionContext);
+        if (hiFunction != null) {
+            hiFunction.init(symbolTableSource, executionContext);
+        }
+        initLimit();
+        frameMemoryPool.of(frameSequence.getPageFrameAddressCache(), symbolTableSource);
+        record.of(symbolTableSource);
+        if (recordB != null) {
+            recordB.of(symbolTableSource);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ListColumnFilter;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.orderby.SortedLightRecordCursorFactory;
+import io.questdb.griffin.engine.orderby.SortedRecordCursorFactory;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.PartitionFrameCursorFactory.ORDER_ASC;
+import static io.questdb.cairo.sql.PartitionFrameCursorFactory.ORDER_DESC;
+import static io.questdb.griffin.engine.table.AsyncGroupByNotKeyedRecordCursorFactory.applyCompiledFilter;
+import static io.questdb.griffin.engine.table.AsyncGroupByNotKeyedRecordCursorFactory.applyFilter;
+
+/**
+ * Parallel variant of {@link io.questdb.griffin.engine.orderby.LimitedSizeSortedLightRecordCursorFactory}
+ * for ORDER BY ... LIMIT over a single int/ipv4/long/timestamp/date column. Page frames, optionally
+ * filtered, are reduced into bounded per-worker heaps, so that only the heaps have to be merged
+ * once the scan is over.
+ */
+public class AsyncTopKRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final PageFrameReducer REDUCER = AsyncTopKRecordCursorFactory::topK;
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncTopKRecordCursor cursor;
+    private final PageFrameSequence<AsyncTopKAtom> frameSequence;
+    private final Function hiFunction;
+    private final Function loFunction;
+    private final ListColumnFilter sortColumnFilter;
+    private final int workerCount;
+
+    public AsyncTopKRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory base,
+            @NotNull ListColumnFilter sortColumnFilter,
+            @NotNull Function loFunction,
+            @Nullable Function hiFunction,
+            @Nullable CompiledFilter compiledFilter,
+            @Nullable MemoryCARW bindVarMemory,
+            @Nullable ObjList<Function> bindVarFunctions,
+            @Nullable Function filter,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            @Nullable ObjList<Function> perWorkerFilters,
+            int workerCount
+    ) {
+        super(metadata);
+        try {
+            this.base = base;
+            this.sortColumnFilter = sortColumnFilter;
+            this.loFunction = loFunction;
+            this.hiFunction = hiFunction;
+            final int columnIndex = sortColumnFilter.getColumnIndexFactored(0);
+            final AsyncTopKAtom atom = new AsyncTopKAtom(
+                    configuration,
+                    columnIndex,
+                    metadata.getColumnType(columnIndex),
+                    sortColumnFilter.getColumnIndex(0) > 0,
+                    compiledFilter,
+                    bindVarMemory,
+                    bindVarFunctions,
+                    filter,
+                    perWorkerFilters,
+                    workerCount
+            );
+            this.frameSequence = new PageFrameSequence<>(
+                    configuration,
+                    messageBus,
+                    atom,
+                    REDUCER,
+                    reduceTaskFactory,
+                    workerCount,
+                    PageFrameReduceTask.TYPE_ORDER_BY
+            );
+            this.cursor = new AsyncTopKRecordCursor(loFunction, hiFunction);
+            this.workerCount = workerCount;
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public PageFrameSequence<AsyncTopKAtom> execute(SqlExecutionContext executionContext, SCSequence collectSubSeq, int order) throws SqlException {
+        return frameSequence.of(base, executionContext, collectSubSeq, order);
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final int order = base.getScanDirection() == SCAN_DIRECTION_BACKWARD ? ORDER_DESC : ORDER_ASC;
+        try {
+            cursor.of(execute(executionContext, collectSubSeq, order), executionContext);
+        } catch (Throwable th) {
+            Misc.free(cursor);
+            throw th;
+        }
+        return cursor;
+    }
+
+    @Override
+    public int getScanDirection() {
+        return SortedRecordCursorFactory.getScanDirection(sortColumnFilter);
+    }
+
+    @Override
+    public boolean implementsLimit() {
+        return true;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Top K");
+        sink.meta("lo").val(loFunction);
+        if (hiFunction != null) {
+            sink.meta("hi").val(hiFunction);
+        }
+        sink.meta("workers").val(workerCount);
+        SortedLightRecordCursorFactory.addSortKeys(sink, sortColumnFilter);
+        sink.optAttr("filter", frameSequence.getAtom(), true);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return frameSequence.getAtom().getCompiledFilter() != null;
+    }
+
+    @Override
+    public boolean usesIndex() {
+        return base.usesIndex();
+    }
+
+    private static void topK(
+            int workerId,
+            @NotNull PageFrameMemoryRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final PageFrameSequence<AsyncTopKAtom> frameSequence = task.getFrameSequence(AsyncTopKAtom.class);
+        final AsyncTopKAtom atom = frameSequence.getAtom();
+
+        final long frameRowCount = task.getFrameRowCount();
+        assert frameRowCount > 0;
+        if (atom.getLimit() == 0) {
+            return;
+        }
+
+        final PageFrameMemory frameMemory = task.populateFrameMemory();
+        record.init(frameMemory);
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == frameSequence;
+        final int slotId = atom.maybeAcquire(workerId, owner, circuitBreaker);
+        try {
+            final DirectLongList heap = atom.getHeap(slotId);
+            record.setRowIndex(0);
+            final long baseRowId = record.getRowId();
+            if (atom.hasFilter()) {
+                final DirectLongList rows = task.getFilteredRows();
+                rows.clear();
+                final CompiledFilter compiledFilter = atom.getCompiledFilter();
+                if (compiledFilter == null || frameMemory.hasColumnTops()) {
+                    // Use Java-based filter when there is no compiled filter or in case of a page frame with column tops.
+                    applyFilter(atom.getFilter(slotId), rows, record, frameRowCount);
+                } else {
+                    applyCompiledFilter(compiledFilter, atom.getBindVarMemory(), atom.getBindVarFunctions(), task);
+                }
+                for (long p = 0, n = rows.size(); p < n; p++) {
+                    final long r = rows.get(p);
+                    record.setRowIndex(r);
+                    atom.offer(heap, atom.getKey(record), baseRowId + r);
+                }
+            } else {
+                for (long r = 0; r < frameRowCount; r++) {
+                    record.setRowIndex(r);
+                    atom.offer(heap, atom.getKey(record), baseRowId + r);
+                }
+            }
+        } finally {
+            atom.release(slotId);
+            task.releaseFrameMemory();
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(base);
+        Misc.free(cursor);
+        if (cursor != null) {
+            cursor.freeRecords();
+        }
+        Misc.free(frameSequence);
+    }
+}
@@ -26,11 +26,16 @@ package io.questdb.griffin.engine.table;
 
 import io.questdb.cairo.BitmapIndexReader;
 import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.CairoException;
 import io.questdb.cairo.ColumnTypeDriver;
+import io.questdb.cairo.PartitionFormat;
+import io.questdb.cairo.PartitionZoneMap;
 import io.questdb.cairo.TableReader;
 import io.questdb.cairo.sql.*;
 import io.questdb.cairo.vm.NullMemoryCMR;
 import io.questdb.cairo.vm.api.MemoryR;
+import io.questdb.griffin.engine.table.parquet.ParquetRowGroupFilter;
+import io.questdb.griffin.engine.table.parquet.PartitionDecoder;
 import io.questdb.std.*;
 import org.jetbrains.annotations.Nullable;
 
@@ -48,9 +53,18 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
     private final LongList pageRowsRemaining = new LongList();
     private final LongList pageSizes = new LongList();
     private final IntList pages = new IntList();
+    // Parquet file column index per each projected column; -1 means that the column is missing in the file.
+    private final IntList parquetColumnIndexes = new IntList();
+    // Used to skip Parquet row groups that can't match the filter applied on top of this cursor.
+    private final ParquetRowGroupFilter rowGroupFilter;
     private final LongList topsRemaining = new LongList();
     private final int workerCount;
     private long currentPageFrameRowLimit;
+    private int parquetColumnsPartitionIndex = -1;
+    // Index and low row of the last visited row group; used to avoid scanning
+    // row groups from the beginning of the partition for each frame.
+    private int parquetRowGroup;
+    private long parquetRowGroupLo;
     private PartitionFrameCursor partitionFrameCursor;
     private TableReader reader;
     private boolean reenterPartitionFrame = false;
@@ -63,7 +77,8 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
             IntList columnSizeShifts,
             int workerCount,
             int pageFrameMinRows,
-            int pageFrameMaxRows
+            int pageFrameMaxRows,
+            @Nullable ParquetRowGroupFilter rowGroupFilter
     ) {
         this.columnIndexes = columnIndexes;
         this.columnSizeShifts = columnSizeShifts;
@@ -71,6 +86,7 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
         this.workerCount = workerCount;
         this.pageFrameMinRows = pageFrameMinRows;
         this.pageFrameMaxRows = pageFrameMaxRows;
+        this.rowGroupFilter = rowGroupFilter;
     }
 
     @Override
@@ -83,6 +99,11 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
         partitionFrameCursor = Misc.free(partitionFrameCursor);
     }
 
+    @Override
+    public int getReaderColumnIndex(int columnIndex) {
+        return columnIndexes.getQuick(columnIndex);
+    }
+
     @Override
     public StaticSymbolTable getSymbolTable(int columnIndex) {
         return reader.getSymbolTable(columnIndexes.getQuick(columnIndex));
@@ -105,21 +126,31 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
 
     @Override
     public @Nullable PageFrame next() {
-        if (reenterPartitionFrame) {
-            return computeFrame(reenterPartitionLo, reenterPartitionHi);
-        }
-        PartitionFrame partitionFrame = partitionFrameCursor.next();
-        if (partitionFrame != null) {
-            reenterPartitionIndex = partitionFrame.getPartitionIndex();
-            final long lo = partitionFrame.getRowLo();
-            final long hi = partitionFrame.getRowHi();
-            currentPageFrameRowLimit = Math.min(
-                    pageFrameMaxRows,
-                    Math.max(pageFrameMinRows, (hi - lo) / workerCount)
-            );
-            return computeFrame(lo, hi);
-        }
-        return null;
+        TableReaderPageFrame frame;
+        do {
+            if (reenterPartitionFrame) {
+                frame = computeFrame(reenterPartitionLo, reenterPartitionHi);
+            } else {
+                final PartitionFrame partitionFrame = partitionFrameCursor.next();
+                if (partitionFrame == null) {
+                    return null;
+                }
+                reenterPartitionIndex = partitionFrame.getPartitionIndex();
+                if (canSkipPartition(reenterPartitionIndex)) {
+                    frame = null;
+                    continue;
+                }
+                final long lo = partitionFrame.getRowLo();
+                final long hi = partitionFrame.getRowHi();
+                currentPageFrameRowLimit = Math.min(
+                        pageFrameMaxRows,
+                        Math.max(pageFrameMinRows, (hi - lo) / workerCount)
+                );
+                frame = computeFrame(lo, hi);
+            }
+            // null frame means that the row group or the partition was pruned, so we move on to the next one
+        } while (frame == null);
+        return frame;
     }
 
     @Override
@@ -152,9 +183,26 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
         formats.setAll(formats.size(), (byte) -1);
         formats.clear();
         reenterPartitionFrame = false;
+        parquetColumnsPartitionIndex = -1;
+    }
+
+    // Checks if none of the native partition rows can match the filter, based on the partition zone map.
+    private boolean canSkipPartition(int partitionIndex) {
+        if (rowGroupFilter == null || reader.getPartitionFormat(partitionIndex) != PartitionFormat.NATIVE) {
+            return false;
+        }
+        final PartitionZoneMap zoneMap = reader.getZoneMap(partitionIndex);
+        if (zoneMap != null && rowGroupFilter.canSkip(zoneMap, columnIndexes)) {
+            return true;
+        }
+        return rowGroupFilter.canSkipByBloomFilters(reader, partitionIndex, columnIndexes);
     }
 
-    private TableReaderPageFrame computeFrame(final long partitionLo, final long partitionHi) {
+    private @Nullable TableReaderPageFrame computeFrame(final long partitionLo, final long partitionHi) {
+        if (reader.getPartitionFormat(reenterPartitionIndex) == PartitionFormat.PARQUET) {
+            return computeParquetFrame(partitionLo, partitionHi);
+        }
+
         final int base = reader.getColumnBase(reenterPartitionIndex);
 
         // we may need to split this partition frame either along "top" lines, or along
@@ -216,7 +264,6 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
             }
         }
 
-        // TODO(puzpuzpuz): we should get the format from table reader
         formats.extendAndSet(reenterPartitionIndex, PageFrame.NATIVE_FORMAT);
 
         // it is possible that all columns in partition frame are empty, but it doesn't mean
@@ -235,7 +282,92 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
         return frame;
     }
 
+    // Returns null if the row group is pruned by the row group filter.
+    private @Nullable TableReaderPageFrame computeParquetFrame(final long partitionLo, final long partitionHi) {
+        final PartitionDecoder decoder = reader.getParquetDecoder(reenterPartitionIndex);
+        assert decoder != null;
+        final PartitionDecoder.Metadata parquetMetadata = decoder.getMetadata();
+        if (parquetColumnsPartitionIndex != reenterPartitionIndex) {
+            mapParquetColumns(parquetMetadata);
+            parquetRowGroup = 0;
+            parquetRowGroupLo = 0;
+        }
+
+        // frames never span multiple row groups, so we find the row group
+        // holding the last frame row and cut the frame at the row group boundary
+        final int rowGroupCount = parquetMetadata.rowGroupCount();
+        final long lastRow = partitionHi - 1;
+        while (lastRow < parquetRowGroupLo) {
+            parquetRowGroupLo -= parquetMetadata.rowGroupSize(--parquetRowGroup);
+        }
+        long rowGroupHi = parquetRowGroupLo + parquetMetadata.rowGroupSize(parquetRowGroup);
+        while (lastRow >= rowGroupHi) {
+            if (++parquetRowGroup >= rowGroupCount) {
+                throw CairoException.critical(0).put("parquet partition has fewer rows than expected [path=")
+                        .put(decoder.getPath())
+                        .put(", rowHi=").put(partitionHi)
+                        .put(", rowCount=").put(rowGroupHi)
+                        .put(']');
+            }
+            parquetRowGroupLo = rowGroupHi;
+            rowGroupHi += parquetMetadata.rowGroupSize(parquetRowGroup);
+        }
+        final long adjustedLo = Math.max(partitionLo, parquetRowGroupLo);
+
+        if (partitionLo < adjustedLo) {
+            this.reenterPartitionLo = partitionLo;
+            this.reenterPartitionHi = adjustedLo;
+            this.reenterPartitionFrame = true;
+        } else {
+            this.reenterPartitionFrame = false;
+        }
+
+        if (rowGroupFilter != null && rowGroupFilter.canSkip(decoder, parquetRowGroup, parquetColumnIndexes)) {
+            return null;
+        }
+
+        for (int i = 0; i < columnCount; i++) {
+            final int sh = columnSizeShifts.getQuick(i);
+            columnPageAddress.setQuick(2 * i, 0);
+            columnPageAddress.setQuick(2 * i + 1, 0);
+            // page sizes serve as size hints only, the data is decoded by PageFrameMemoryPool
+            pageSizes.setQuick(2 * i, (partitionHi - adjustedLo) << (sh > -1 ? sh : 0));
+            pageSizes.setQuick(2 * i + 1, 0);
+        }
+
+        formats.extendAndSet(reenterPartitionIndex, PageFrame.PARQUET_FORMAT);
+
+        frame.partitionLo = adjustedLo;
+        frame.partitionHi = partitionHi;
+        frame.partitionIndex = reenterPartitionIndex;
+        frame.parquetDecoder = decoder;
+        frame.parquetRowGroup = parquetRowGroup;
+        frame.parquetRowGroupLo = (int) (adjustedLo - parquetRowGroupLo);
+        frame.parquetRowGroupHi = (int) (partitionHi - parquetRowGroupLo);
+        return frame;
+    }
+
+    private void mapParquetColumns(PartitionDecoder.Metadata parquetMetadata) {
+        // Parquet partitions store column writer index as the field id
+        final int parquetColumnCount = parquetMetadata.columnCount();
+        parquetColumnIndexes.setAll(columnCount, -1);
+        for (int i = 0; i < columnCount; i++) {
+            final int writerIndex = reader.getMetadata().getWriterIndex(columnIndexes.getQuick(i));
+            for (int j = 0; j < parquetColumnCount; j++) {
+                if (parquetMetadata.fieldId(j) == writerIndex) {
+                    parquetColumnIndexes.setQuick(i, j);
+                    break;
+                }
+            }
+        }
+        parquetColumnsPartitionIndex = reenterPartitionIndex;
+    }
+
     private class TableReaderPageFrame implements PageFrame {
+        private PartitionDecoder parquetDecoder;
+        private int parquetRowGroup;
+        private int parquetRowGroupHi;
+        private int parquetRowGroupLo;
         private long partitionHi;
         private int partitionIndex;
         private long partitionLo;
@@ -275,6 +407,31 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
             return pageSizes.getQuick(2 * columnIndex);
         }
 
+        @Override
+        public int getParquetColumnIndex(int columnIndex) {
+            return parquetColumnIndexes.getQuick(columnIndex);
+        }
+
+        @Override
+        public PartitionDecoder getParquetDecoder() {
+            return parquetDecoder;
+        }
+
+        @Override
+        public int getParquetRowGroup() {
+            return parquetRowGroup;
+        }
+
+        @Override
+        public int getParquetRowGroupHi() {
+            return parquetRowGroupHi;
+        }
+
+        @Override
+        public int getParquetRowGroupLo() {
+            return parquetRowGroupLo;
+        }
+
         @Override
         public long getPartitionHi() {
             return partitionHi;
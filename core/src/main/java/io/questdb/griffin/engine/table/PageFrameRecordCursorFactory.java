@@ -30,6 +30,7 @@ import io.questdb.cairo.sql.*;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.parquet.ParquetRowGroupFilter;
 import io.questdb.std.IntList;
 import io.questdb.std.Misc;
 import io.questdb.std.str.CharSink;
@@ -126,11 +127,22 @@ public class PageFrameRecordCursorFactory extends AbstractPageFrameRecordCursorF
         return supportsRandomAccess;
     }
 
+    @Override
+    public void setParquetRowGroupFilter(ParquetRowGroupFilter rowGroupFilter) {
+        assert pageFrameCursor == null && fwdPageFrameCursor == null && bwdPageFrameCursor == null;
+        this.rowGroupFilter = rowGroupFilter;
+    }
+
     @Override
     public boolean supportsPageFrameCursor() {
         return framingSupported;
     }
 
+    @Override
+    public boolean supportsParquetRowGroupFilter() {
+        return framingSupported;
+    }
+
     @Override
     public boolean supportsTimeFrameCursor() {
         // Time frames are supported only for full table scan cursors, i.e. "x" queries.
@@ -178,7 +190,8 @@ public class PageFrameRecordCursorFactory extends AbstractPageFrameRecordCursorF
                     columnSizeShifts,
                     executionContext.getSharedWorkerCount(),
                     pageFrameMinRows,
-                    pageFrameMaxRows
+                    pageFrameMaxRows,
+                    rowGroupFilter
             );
         }
         return bwdPageFrameCursor.of(partitionFrameCursor);
@@ -194,7 +207,8 @@ public class PageFrameRecordCursorFactory extends AbstractPageFrameRecordCursorF
                     columnSizeShifts,
                     executionContext.getSharedWorkerCount(),
                     pageFrameMinRows,
-                    pageFrameMaxRows
+                    pageFrameMaxRows,
+                    rowGroupFilter
             );
         }
         return fwdPageFrameCursor.of(partitionFrameCursor);
@@ -33,6 +33,7 @@ import io.questdb.cairo.vm.api.MemoryCARW;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.parquet.PartitionDecoder;
 import io.questdb.jit.CompiledFilter;
 import io.questdb.std.IntList;
 import io.questdb.std.ObjList;
@@ -207,6 +208,31 @@ public class SelectedRecordCursorFactory extends AbstractRecordCursorFactory {
             return baseFrame.getPageSize(columnCrossIndex.getQuick(columnIndex));
         }
 
+        @Override
+        public int getParquetColumnIndex(int columnIndex) {
+            return baseFrame.getParquetColumnIndex(columnCrossIndex.getQuick(columnIndex));
+        }
+
+        @Override
+        public PartitionDecoder getParquetDecoder() {
+            return baseFrame.getParquetDecoder();
+        }
+
+        @Override
+        public int getParquetRowGroup() {
+            return baseFrame.getParquetRowGroup();
+        }
+
+        @Override
+        public int getParquetRowGroupHi() {
+            return baseFrame.getParquetRowGroupHi();
+        }
+
+        @Override
+        public int getParquetRowGroupLo() {
+            return baseFrame.getParquetRowGroupLo();
+        }
+
         @Override
         public long getPartitionHi() {
             return baseFrame.getPartitionHi();
@@ -248,6 +274,11 @@ public class SelectedRecordCursorFactory extends AbstractRecordCursorFactory {
             baseCursor.close();
         }
 
+        @Override
+        public int getReaderColumnIndex(int columnIndex) {
+            return baseCursor.getReaderColumnIndex(columnCrossIndex.getQuick(columnIndex));
+        }
+
         @Override
         public StaticSymbolTable getSymbolTable(int columnIndex) {
             return baseCursor.getSymbolTable(columnCrossIndex.getQuick(columnIndex));
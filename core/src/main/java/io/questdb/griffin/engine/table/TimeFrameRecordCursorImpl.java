@@ -125,7 +125,7 @@ public class TimeFrameRecordCursorImpl implements TimeFrameRecordCursor {
     public TimeFrameRecordCursor of(PageFrameCursor frameCursor) {
         this.frameCursor = frameCursor;
         frameAddressCache.clear();
-        frameMemoryPool.of(frameAddressCache);
+        frameMemoryPool.of(frameAddressCache, frameCursor);
         reader = frameCursor.getTableReader();
         recordA.of(frameCursor);
         recordB.of(frameCursor);
@@ -0,0 +1,337 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table.parquet;
+
+import io.questdb.std.*;
+import io.questdb.std.str.Utf8String;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Engine-wide LRU cache of decoded Parquet column chunks. A chunk is identified by
+ * table id, file path, file size, row group, column index and column type. The file
+ * path includes partition name txn, while the file size changes with each in-place
+ * update of the partition, so together they act as the partition version.
+ * <p>
+ * Decoded data is copied to off-heap memory accounted under
+ * {@link MemoryTag#NATIVE_PARQUET_CHUNK_CACHE}. Chunks returned by {@link #acquire(PartitionDecoder, int, int, int)}
+ * and {@link #put(PartitionDecoder, int, int, int, long)} are pinned and stay valid until
+ * {@link #release(Chunk)} is called. Once the size limit is reached, the least recently
+ * used chunks that are not pinned get evicted. Chunks that don't fit are not cached.
+ * <p>
+ * This class is thread-safe.
+ */
+public class ParquetChunkCache implements QuietCloseable, Mutable {
+    private final long capacity;
+    private final Utf8SequenceObjHashMap<FileChunks> files = new Utf8SequenceObjHashMap<>();
+    // Most recently used chunk.
+    private Chunk head;
+    // Size of cached chunks, including reserved memory for chunks being copied.
+    private long size;
+    // Least recently used chunk.
+    private Chunk tail;
+
+    /**
+     * @param capacity maximum size of cached chunks in bytes; 0 disables the cache
+     */
+    public ParquetChunkCache(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns pinned chunk decoded from the decoder's file or null if the chunk is not cached.
+     *
+     * @param decoder     decoder of the file
+     * @param rowGroup    row group index
+     * @param columnIndex column index within the Parquet file
+     * @param columnType  column type the chunk was decoded as
+     * @return pinned chunk or null
+     */
+    @Nullable
+    public synchronized Chunk acquire(PartitionDecoder decoder, int rowGroup, int columnIndex, int columnType) {
+        if (capacity == 0) {
+            return null;
+        }
+        final FileChunks file = getFile(decoder, false);
+        if (file == null) {
+            return null;
+        }
+        final Chunk chunk = file.chunks.get(Numbers.encodeLowHighInts(columnIndex, rowGroup));
+        if (chunk == null || chunk.columnType != columnType) {
+            return null;
+        }
+        chunk.refCount++;
+        unlink(chunk);
+        linkFirst(chunk);
+        return chunk;
+    }
+
+    /**
+     * Evicts all chunks that are not pinned.
+     */
+    @Override
+    public synchronized void clear() {
+        Chunk chunk = tail;
+        while (chunk != null) {
+            final Chunk prev = chunk.prev;
+            if (chunk.refCount == 0) {
+                detach(chunk);
+            }
+            chunk = prev;
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Copies the chunk decoded by the decoder into the cache and returns it pinned.
+     *
+     * @param decoder     decoder the chunk was decoded with
+     * @param rowGroup    row group index
+     * @param columnIndex column index within the Parquet file
+     * @param columnType  column type the chunk was decoded as
+     * @param chunkPtr    pointer to the decoded chunk as returned by {@link PartitionDecoder#decodeColumnChunk(long, long, int)}
+     * @return pinned chunk or null if the chunk doesn't fit into the cache
+     */
+    @Nullable
+    public Chunk put(PartitionDecoder decoder, int rowGroup, int columnIndex, int columnType, long chunkPtr) {
+        if (capacity == 0) {
+            return null;
+        }
+        final long dataPtr = PartitionDecoder.getChunkDataPtr(chunkPtr);
+        final long dataSize = PartitionDecoder.getChunkDataSize(chunkPtr);
+        final long auxPtr = PartitionDecoder.getChunkAuxPtr(chunkPtr);
+        final long auxSize = PartitionDecoder.getChunkAuxSize(chunkPtr);
+        // Aux vectors hold offsets, so we keep them 8-byte aligned.
+        final long auxOffset = (dataSize + 7) & ~7L;
+        final long allocSize = Math.max(auxOffset + auxSize, 8);
+        if (!reserve(allocSize)) {
+            return null;
+        }
+
+        final Chunk chunk = new Chunk();
+        try {
+            chunk.ptr = Unsafe.malloc(allocSize, MemoryTag.NATIVE_PARQUET_CHUNK_CACHE);
+        } catch (Throwable th) {
+            unreserve(allocSize);
+            throw th;
+        }
+        chunk.allocSize = allocSize;
+        chunk.columnType = columnType;
+        chunk.key = Numbers.encodeLowHighInts(columnIndex, rowGroup);
+        chunk.dataSize = dataSize;
+        chunk.auxSize = auxSize;
+        chunk.auxPtr = auxSize > 0 ? chunk.ptr + auxOffset : 0;
+        Vect.memcpy(chunk.ptr, dataPtr, dataSize);
+        if (auxSize > 0) {
+            Vect.memcpy(chunk.auxPtr, auxPtr, auxSize);
+        }
+
+        synchronized (this) {
+            FileChunks file = getFile(decoder, true);
+            final int index = file.chunks.keyIndex(chunk.key);
+            if (index < 0) {
+                final Chunk existing = file.chunks.valueAtQuick(index);
+                if (existing.columnType == columnType) {
+                    // Another thread has decoded the same chunk in the meantime.
+                    freeChunk(chunk);
+                    existing.refCount++;
+                    unlink(existing);
+                    linkFirst(existing);
+                    return existing;
+                }
+                detach(existing);
+                // Detaching the last chunk of the file removes the file.
+                file = getFile(decoder, true);
+            }
+            chunk.file = file;
+            chunk.refCount = 1;
+            file.chunks.put(chunk.key, chunk);
+            linkFirst(chunk);
+            return chunk;
+        }
+    }
+
+    /**
+     * Unpins the chunk. The chunk must not be accessed after this call.
+     */
+    public synchronized void release(Chunk chunk) {
+        assert chunk.refCount > 0;
+        if (--chunk.refCount == 0 && chunk.file == null) {
+            // The chunk was detached while pinned.
+            freeChunk(chunk);
+        }
+    }
+
+    private void detach(Chunk chunk) {
+        final FileChunks file = chunk.file;
+        file.chunks.remove(chunk.key);
+        chunk.file = null;
+        unlink(chunk);
+        if (chunk.refCount == 0) {
+            freeChunk(chunk);
+        }
+        if (file.chunks.size() == 0) {
+            files.removeAt(files.keyIndex(file.path));
+        }
+    }
+
+    private void freeChunk(Chunk chunk) {
+        chunk.ptr = Unsafe.free(chunk.ptr, chunk.allocSize, MemoryTag.NATIVE_PARQUET_CHUNK_CACHE);
+        chunk.auxPtr = 0;
+        size -= chunk.allocSize;
+    }
+
+    private FileChunks getFile(PartitionDecoder decoder, boolean create) {
+        final int index = files.keyIndex(decoder.getPath());
+        if (index < 0) {
+            final FileChunks file = files.valueAtQuick(index);
+            if (file.tableId == decoder.getTableId() && file.fileSize == decoder.getFileSize()) {
+                return file;
+            }
+            // The file was rewritten, so its chunks are stale.
+            Chunk chunk = head;
+            while (chunk != null) {
+                final Chunk next = chunk.next;
+                if (chunk.file == file) {
+                    detach(chunk);
+                }
+                chunk = next;
+            }
+        }
+        if (!create) {
+            return null;
+        }
+        final FileChunks file = new FileChunks(Utf8String.newInstance(decoder.getPath()), decoder.getTableId(), decoder.getFileSize());
+        files.put(file.path, file);
+        return file;
+    }
+
+    private void linkFirst(Chunk chunk) {
+        chunk.prev = null;
+        chunk.next = head;
+        if (head != null) {
+            head.prev = chunk;
+        } else {
+            tail = chunk;
+        }
+        head = chunk;
+    }
+
+    private synchronized boolean reserve(long allocSize) {
+        if (allocSize > capacity) {
+            return false;
+        }
+        Chunk chunk = tail;
+        while (size + allocSize > capacity && chunk != null) {
+            final Chunk prev = chunk.prev;
+            if (chunk.refCount == 0) {
+                detach(chunk);
+            }
+            chunk = prev;
+        }
+        if (size + allocSize > capacity) {
+            return false;
+        }
+        size += allocSize;
+        return true;
+    }
+
+    private void unlink(Chunk chunk) {
+        if (chunk.prev != null) {
+            chunk.prev.next = chunk.next;
+        } else if (head == chunk) {
+            head = chunk.next;
+        }
+        if (chunk.next != null) {
+            chunk.next.prev = chunk.prev;
+        } else if (tail == chunk) {
+            tail = chunk.prev;
+        }
+        chunk.prev = null;
+        chunk.next = null;
+    }
+
+    private synchronized void unreserve(long allocSize) {
+        size -= allocSize;
+    }
+
+    private static class FileChunks {
+        private final LongObjHashMap<Chunk> chunks = new LongObjHashMap<>();
+        private final long fileSize;
+        private final Utf8String path;
+        private final long tableId;
+
+        private FileChunks(Utf8String path, long tableId, long fileSize) {
+            this.path = path;
+            this.tableId = tableId;
+            this.fileSize = fileSize;
+        }
+    }
+
+    /**
+     * Decoded column chunk in the same layout as returned by {@link PartitionDecoder#decodeColumnChunk(long, long, int)}.
+     */
+    public static class Chunk {
+        private long allocSize;
+        private long auxPtr;
+        private long auxSize;
+        private int columnType;
+        private long dataSize;
+        // Owning file or null if the chunk is no longer in the cache.
+        private FileChunks file;
+        private long key;
+        private Chunk next;
+        private Chunk prev;
+        private long ptr;
+        private int refCount;
+
+        public long getAuxPtr() {
+            return auxPtr;
+        }
+
+        public long getAuxSize() {
+            return auxSize;
+        }
+
+        public long getDataPtr() {
+            return ptr;
+        }
+
+        public long getDataSize() {
+            return dataSize;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table.parquet;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.PartitionBloomFilter;
+import io.questdb.cairo.PartitionZoneMap;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectUtf8String;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8String;
+import io.questdb.std.str.Utf8s;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Conjunction of simple "column op constant" predicates extracted from a WHERE clause.
+ * Used to skip Parquet row groups that cannot contain matching rows based on the column
+ * chunk min/max/null count statistics, as well as native partitions based on their zone maps.
+ * <p>
+ * Equality and IN predicates on the columns supported by {@link PartitionBloomFilter} are also
+ * kept as lists of values, so that native partitions could be skipped using Bloom filters.
+ * <p>
+ * Pruning is conservative: a row group is skipped only when one of the predicates
+ * can't match any row of the row group. The filter itself must still be applied to
+ * the rows of the remaining row groups. None of the supported predicates match
+ * nulls since the constants are never null.
+ */
+public class ParquetRowGroupFilter {
+    public static final int OP_EQ = 0;
+    public static final int OP_GE = 1;
+    public static final int OP_GT = 2;
+    public static final int OP_LE = 3;
+    public static final int OP_LT = 4;
+    private static final int KIND_DOUBLE = 1;
+    private static final int KIND_LONG = 0;
+    private static final int KIND_UTF8 = 2;
+    private final IntList bloomColumnIndexes = new IntList();
+    // Hashes of LONG, UUID and VARCHAR values; unused for SYMBOL values.
+    private final LongList bloomHashes = new LongList();
+    // Index of the first value of each Bloom filter predicate in bloomHashes and bloomSymbols.
+    private final IntList bloomLos = new IntList();
+    // SYMBOL values, resolved to keys per table reader; null for the other types.
+    private final ObjList<String> bloomSymbols = new ObjList<>();
+    private final IntList columnIndexes = new IntList();
+    private final IntList columnTypes = new IntList();
+    private final DoubleList doubleValues = new DoubleList();
+    private final IntList kinds = new IntList();
+    private final LongList longValues = new LongList();
+    private final DirectUtf8String maxView = new DirectUtf8String();
+    private final DirectUtf8String minView = new DirectUtf8String();
+    private final IntList ops = new IntList();
+    private final ObjList<Utf8String> utf8Values = new ObjList<>();
+
+    /**
+     * Returns the operation for the given SQL operator or -1 if the operator is not supported.
+     */
+    public static int op(CharSequence token) {
+        if (Chars.equals(token, '=')) {
+            return OP_EQ;
+        }
+        if (Chars.equals(token, '<')) {
+            return OP_LT;
+        }
+        if (Chars.equals(token, "<=")) {
+            return OP_LE;
+        }
+        if (Chars.equals(token, '>')) {
+            return OP_GT;
+        }
+        if (Chars.equals(token, ">=")) {
+            return OP_GE;
+        }
+        return -1;
+    }
+
+    /**
+     * Swaps operands of the operation, i.e. "const op column" becomes "column op' const".
+     */
+    public static int swap(int op) {
+        switch (op) {
+            case OP_GE:
+                return OP_LE;
+            case OP_GT:
+                return OP_LT;
+            case OP_LE:
+                return OP_GE;
+            case OP_LT:
+                return OP_GT;
+            default:
+                return op;
+        }
+    }
+
+    /**
+     * Adds "column IN (values)" predicate over value hashes, see {@link PartitionBloomFilter}.
+     * The predicate is used only for Bloom filter checks.
+     */
+    public void addBloomFilterHashes(int columnIndex, LongList hashes) {
+        bloomColumnIndexes.add(columnIndex);
+        bloomLos.add(bloomHashes.size());
+        for (int i = 0, n = hashes.size(); i < n; i++) {
+            bloomHashes.add(hashes.getQuick(i));
+            bloomSymbols.add(null);
+        }
+    }
+
+    /**
+     * Adds "symbol_column IN (values)" predicate. The predicate is used only for Bloom filter checks.
+     */
+    public void addBloomFilterSymbols(int columnIndex, ObjList<CharSequence> symbols) {
+        bloomColumnIndexes.add(columnIndex);
+        bloomLos.add(bloomHashes.size());
+        for (int i = 0, n = symbols.size(); i < n; i++) {
+            bloomHashes.add(0);
+            bloomSymbols.add(Chars.toString(symbols.getQuick(i)));
+        }
+    }
+
+    public void addDouble(int columnIndex, int columnType, int op, double value) {
+        add(columnIndex, columnType, op, KIND_DOUBLE, 0, value, null);
+    }
+
+    public void addLong(int columnIndex, int columnType, int op, long value) {
+        add(columnIndex, columnType, op, KIND_LONG, value, 0, null);
+    }
+
+    public void addUtf8(int columnIndex, int columnType, Utf8Sequence value) {
+        add(columnIndex, columnType, OP_EQ, KIND_UTF8, 0, 0, Utf8String.newInstance(value));
+    }
+
+    /**
+     * Checks if the given row group can be skipped.
+     *
+     * @param decoder              decoder of the Parquet file
+     * @param rowGroup             row group index
+     * @param parquetColumnIndexes maps predicate column indexes to decoder column indexes, -1 stands for
+     *                             columns missing in the file; null means that the indexes are the same
+     * @return true if none of the row group rows can match the predicates
+     */
+    public boolean canSkip(PartitionDecoder decoder, int rowGroup, @Nullable IntList parquetColumnIndexes) {
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            final int columnIndex = columnIndexes.getQuick(i);
+            final int parquetColumnIndex = parquetColumnIndexes != null ? parquetColumnIndexes.getQuick(columnIndex) : columnIndex;
+            final int columnType = columnTypes.getQuick(i);
+            if (parquetColumnIndex == -1) {
+                // The column was added after the file had been written, so it's a column top.
+                // Columns of types with no null value read as zeros; the rest read as nulls.
+                if (isZeroNull(columnType)) {
+                    if (canSkipLong(i, 0, 0)) {
+                        return true;
+                    }
+                    continue;
+                }
+                return true;
+            }
+
+            final long statsPtr = decoder.getColumnChunkStats(rowGroup, parquetColumnIndex);
+            final long nullCount = PartitionDecoder.getChunkStatsNullCount(statsPtr);
+            if (nullCount > 0 && nullCount == decoder.getMetadata().rowGroupSize(rowGroup) && !isZeroNull(columnType)) {
+                return true;
+            }
+
+            final long minPtr = PartitionDecoder.getChunkStatsMinValuePtr(statsPtr);
+            final long minSize = PartitionDecoder.getChunkStatsMinValueSize(statsPtr);
+            final long maxPtr = PartitionDecoder.getChunkStatsMaxValuePtr(statsPtr);
+            final long maxSize = PartitionDecoder.getChunkStatsMaxValueSize(statsPtr);
+            if (maxSize == 0) {
+                // no statistics or, for strings, all values are empty
+                continue;
+            }
+
+            switch (kinds.getQuick(i)) {
+                case KIND_LONG:
+                    if (minSize != maxSize || (minSize != Integer.BYTES && minSize != Long.BYTES)) {
+                        continue;
+                    }
+                    final long minLong = minSize == Integer.BYTES ? Unsafe.getUnsafe().getInt(minPtr) : Unsafe.getUnsafe().getLong(minPtr);
+                    final long maxLong = maxSize == Integer.BYTES ? Unsafe.getUnsafe().getInt(maxPtr) : Unsafe.getUnsafe().getLong(maxPtr);
+                    if (canSkipLong(i, minLong, maxLong)) {
+                        return true;
+                    }
+                    break;
+                case KIND_DOUBLE:
+                    if (minSize != maxSize || (minSize != Float.BYTES && minSize != Double.BYTES)) {
+                        continue;
+                    }
+                    final double minDouble = minSize == Float.BYTES ? Unsafe.getUnsafe().getFloat(minPtr) : Unsafe.getUnsafe().getDouble(minPtr);
+                    final double maxDouble = maxSize == Float.BYTES ? Unsafe.getUnsafe().getFloat(maxPtr) : Unsafe.getUnsafe().getDouble(maxPtr);
+                    if (canSkipDouble(i, minDouble, maxDouble)) {
+                        return true;
+                    }
+                    break;
+                default:
+                    final Utf8String value = utf8Values.getQuick(i);
+                    if (Utf8s.compare(value, minView.of(minPtr, minPtr + minSize)) < 0
+                            || Utf8s.compare(value, maxView.of(maxPtr, maxPtr + maxSize)) > 0) {
+                        return true;
+                    }
+                    break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the native partition can be skipped.
+     *
+     * @param zoneMap             zone map of the partition
+     * @param readerColumnIndexes maps predicate column indexes to table reader column indexes
+     * @return true if none of the partition rows can match the predicates
+     */
+    public boolean canSkip(PartitionZoneMap zoneMap, IntList readerColumnIndexes) {
+        final long rowCount = zoneMap.getRowCount();
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            final int kind = kinds.getQuick(i);
+            final int columnIndex = readerColumnIndexes.getQuick(columnIndexes.getQuick(i));
+            if (kind == KIND_UTF8 || !zoneMap.hasStats(columnIndex)) {
+                continue;
+            }
+            final long nullCount = zoneMap.getNullCount(columnIndex);
+            if (nullCount == rowCount) {
+                if (!isZeroNull(columnTypes.getQuick(i))) {
+                    return true;
+                }
+                continue;
+            }
+            if (kind == KIND_LONG) {
+                if (canSkipLong(i, zoneMap.getMinLong(columnIndex), zoneMap.getMaxLong(columnIndex))) {
+                    return true;
+                }
+            } else if (canSkipDouble(i, zoneMap.getMinDouble(columnIndex), zoneMap.getMaxDouble(columnIndex))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the native partition can be skipped based on Bloom filters of the columns.
+     *
+     * @param reader              table reader
+     * @param partitionIndex      open partition index
+     * @param readerColumnIndexes maps predicate column indexes to table reader column indexes
+     * @return true if none of the partition rows can match the predicates
+     */
+    public boolean canSkipByBloomFilters(TableReader reader, int partitionIndex, IntList readerColumnIndexes) {
+        for (int i = 0, n = bloomColumnIndexes.size(); i < n; i++) {
+            final int columnIndex = readerColumnIndexes.getQuick(bloomColumnIndexes.getQuick(i));
+            final PartitionBloomFilter filter = reader.getBloomFilter(partitionIndex, columnIndex);
+            if (filter == null) {
+                continue;
+            }
+            final int lo = bloomLos.getQuick(i);
+            final int hi = i + 1 < n ? bloomLos.getQuick(i + 1) : bloomHashes.size();
+            boolean mightMatch = false;
+            for (int j = lo; j < hi; j++) {
+                final String symbol = bloomSymbols.getQuick(j);
+                long hash = bloomHashes.getQuick(j);
+                if (symbol != null) {
+                    final int key = reader.getSymbolMapReader(columnIndex).keyOf(symbol);
+                    if (key == SymbolTable.VALUE_NOT_FOUND) {
+                        // the value is not in the table at all
+                        continue;
+                    }
+                    hash = PartitionBloomFilter.hashInt(key);
+                }
+                if (filter.mightContain(hash)) {
+                    mightMatch = true;
+                    break;
+                }
+            }
+            if (!mightMatch) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isEmpty() {
+        return ops.size() == 0 && bloomColumnIndexes.size() == 0;
+    }
+
+    private static boolean isZeroNull(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void add(int columnIndex, int columnType, int op, int kind, long longValue, double doubleValue, Utf8String utf8Value) {
+        columnIndexes.add(columnIndex);
+        columnTypes.add(columnType);
+        ops.add(op);
+        kinds.add(kind);
+        longValues.add(longValue);
+        doubleValues.add(doubleValue);
+        utf8Values.add(utf8Value);
+    }
+
+    private boolean canSkipDouble(int index, double min, double max) {
+        if (Double.isNaN(min) || Double.isNaN(max)) {
+            return false;
+        }
+        // mimic the tolerance of double comparison functions
+        final double value = doubleValues.getQuick(index);
+        switch (ops.getQuick(index)) {
+            case OP_EQ:
+                return value < min - Numbers.DOUBLE_TOLERANCE || value > max + Numbers.DOUBLE_TOLERANCE;
+            case OP_LT:
+                return min >= value;
+            case OP_LE:
+                return min > value + Numbers.DOUBLE_TOLERANCE;
+            case OP_GT:
+                return max <= value;
+            case OP_GE:
+                return max < value - Numbers.DOUBLE_TOLERANCE;
+            default:
+                return false;
+        }
+    }
+
+    private boolean canSkipLong(int index, long min, long max) {
+        final long value = longValues.getQuick(index);
+        switch (ops.getQuick(index)) {
+            case OP_EQ:
+                return value < min || value > max;
+            case OP_LT:
+                return min >= value;
+            case OP_LE:
+                return min > value;
+            case OP_GT:
+                return max <= value;
+            case OP_GE:
+                return max < value;
+            default:
+                return false;
+        }
+    }
+}
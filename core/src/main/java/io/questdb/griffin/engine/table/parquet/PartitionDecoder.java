@@ -30,16 +30,25 @@ import io.questdb.log.LogFactory;
 import io.questdb.std.*;
 import io.questdb.std.str.DirectString;
 import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8StringSink;
+import org.jetbrains.annotations.Nullable;
 
 public class PartitionDecoder implements QuietCloseable {
     private static final long CHUNK_AUX_PTR_OFFSET;
+    private static final long CHUNK_AUX_SIZE_OFFSET;
     private static final long CHUNK_DATA_PTR_OFFSET;
+    private static final long CHUNK_DATA_SIZE_OFFSET;
     private static final long CHUNK_ROW_GROUP_COUNT_PTR_OFFSET;
+    private static final long CHUNK_STATS_MAX_VALUE_PTR_OFFSET;
+    private static final long CHUNK_STATS_MAX_VALUE_SIZE_OFFSET;
     private static final long CHUNK_STATS_MIN_VALUE_PTR_OFFSET;
     private static final long CHUNK_STATS_MIN_VALUE_SIZE_OFFSET;
+    private static final long CHUNK_STATS_NULL_COUNT_OFFSET;
     private static final long COLUMNS_PTR_OFFSET;
     private static final long COLUMN_COUNT_OFFSET;
     private final static long COLUMN_IDS_OFFSET;
+    private static final long COLUMN_RECORD_FIELD_ID_OFFSET;
     private static final long COLUMN_RECORD_NAME_PTR_OFFSET;
     private static final long COLUMN_RECORD_NAME_SIZE_OFFSET;
     private static final long COLUMN_RECORD_SIZE;
@@ -47,25 +56,60 @@ public class PartitionDecoder implements QuietCloseable {
     private static final Log LOG = LogFactory.getLog(PartitionDecoder.class);
     private static final long ROW_COUNT_OFFSET;
     private static final long ROW_GROUP_COUNT_OFFSET;
+    private static final long ROW_GROUP_SIZES_PTR_OFFSET;
+    private final ParquetChunkCache chunkCache;
     private final ObjectPool<DirectString> directStringPool = new ObjectPool<>(DirectString::new, 16);
     private final FilesFacade ff;
     private final Metadata metadata = new Metadata();
+    private final Utf8StringSink path = new Utf8StringSink();
+    private final long tableId;
     private long columnsPtr;
     private long fd;
+    private long fileSize;
     private long ptr;
 
     public PartitionDecoder(FilesFacade ff) {
+        this(ff, null, -1);
+    }
+
+    /**
+     * Creates decoder for files of the given table. Column chunks decoded from such files
+     * may be kept in the chunk cache and shared between queries.
+     *
+     * @param ff         files facade
+     * @param chunkCache cache of decoded column chunks or null if chunks shouldn't be cached
+     * @param tableId    id of the table the decoded files belong to
+     */
+    public PartitionDecoder(FilesFacade ff, @Nullable ParquetChunkCache chunkCache, long tableId) {
         this.ff = ff;
+        this.chunkCache = chunkCache;
+        this.tableId = tableId;
     }
 
     public static long getChunkAuxPtr(long chunkPtr) {
         return Unsafe.getUnsafe().getLong(chunkPtr + CHUNK_AUX_PTR_OFFSET);
     }
 
+    public static long getChunkAuxSize(long chunkPtr) {
+        return Unsafe.getUnsafe().getLong(chunkPtr + CHUNK_AUX_SIZE_OFFSET);
+    }
+
     public static long getChunkDataPtr(long chunkPtr) {
         return Unsafe.getUnsafe().getLong(chunkPtr + CHUNK_DATA_PTR_OFFSET);
     }
 
+    public static long getChunkDataSize(long chunkPtr) {
+        return Unsafe.getUnsafe().getLong(chunkPtr + CHUNK_DATA_SIZE_OFFSET);
+    }
+
+    public static long getChunkStatsMaxValuePtr(long chunkStatsPtr) {
+        return Unsafe.getUnsafe().getLong(chunkStatsPtr + CHUNK_STATS_MAX_VALUE_PTR_OFFSET);
+    }
+
+    public static long getChunkStatsMaxValueSize(long chunkStatsPtr) {
+        return Unsafe.getUnsafe().getLong(chunkStatsPtr + CHUNK_STATS_MAX_VALUE_SIZE_OFFSET);
+    }
+
     public static long getChunkStatsMinValuePtr(long chunkStatsPtr) {
         return Unsafe.getUnsafe().getLong(chunkStatsPtr + CHUNK_STATS_MIN_VALUE_PTR_OFFSET);
     }
@@ -74,6 +118,13 @@ public class PartitionDecoder implements QuietCloseable {
         return Unsafe.getUnsafe().getLong(chunkStatsPtr + CHUNK_STATS_MIN_VALUE_SIZE_OFFSET);
     }
 
+    /**
+     * Returns number of nulls in the column chunk or -1 if the file has no null count statistics.
+     */
+    public static long getChunkStatsNullCount(long chunkStatsPtr) {
+        return Unsafe.getUnsafe().getLong(chunkStatsPtr + CHUNK_STATS_NULL_COUNT_OFFSET);
+    }
+
     public static long getRowGroupRowCount(long chunkPtr) {
         return Unsafe.getUnsafe().getLong(chunkPtr + CHUNK_ROW_GROUP_COUNT_PTR_OFFSET);
     }
@@ -83,6 +134,7 @@ public class PartitionDecoder implements QuietCloseable {
         destroy();
         // parquet decoder will close the FD
         fd = -1;
+        path.clear();
     }
 
     public long decodeColumnChunk(
@@ -137,16 +189,57 @@ public class PartitionDecoder implements QuietCloseable {
         }
     }
 
+    /**
+     * Returns cache of decoded column chunks for the decoder's file or null if the chunks
+     * shouldn't be cached.
+     */
+    public ParquetChunkCache getChunkCache() {
+        return chunkCache;
+    }
+
+    /**
+     * Returns size of the currently open file.
+     */
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public FilesFacade getFilesFacade() {
+        return ff;
+    }
+
     public Metadata getMetadata() {
         assert ptr != 0;
         return metadata;
     }
 
+    /**
+     * Returns path of the currently open file or an empty sequence if the decoder is closed.
+     * The path can be used to open another decoder over the same file, e.g. on a different thread.
+     */
+    public Utf8Sequence getPath() {
+        return path;
+    }
+
+    /**
+     * Returns id of the table the decoder's files belong to or -1 if the decoder is not bound to a table.
+     */
+    public long getTableId() {
+        return tableId;
+    }
+
+    public boolean isOpen() {
+        return ptr != 0;
+    }
+
     public void of(@Transient LPSZ srcPath) {
         destroy();
+        path.clear();
         this.fd = TableUtils.openRO(ff, srcPath, LOG);
+        this.fileSize = ff.length(fd);
         try {
             ptr = create(Files.detach(fd));
+            path.put(srcPath);
             columnsPtr = Unsafe.getUnsafe().getLong(ptr + COLUMNS_PTR_OFFSET);
             metadata.init();
         } catch (Throwable th) {
@@ -158,18 +251,30 @@ public class PartitionDecoder implements QuietCloseable {
 
     private static native long chunkAuxPtrOffset();
 
+    private static native long chunkAuxSizeOffset();
+
     private static native long chunkDataPtrOffset();
 
+    private static native long chunkDataSizeOffset();
+
     private static native long chunkRowGroupCountPtrOffset();
 
+    private static native long chunkStatMaxValuePtrOffset();
+
+    private static native long chunkStatMaxValueSizeOffset();
+
     private static native long chunkStatMinValuePtrOffset();
 
     private static native long chunkStatMinValueSizeOffset();
 
+    private static native long chunkStatNullCountOffset();
+
     private static native long columnCountOffset();
 
     private static native long columnIdsOffset();
 
+    private static native long columnRecordFieldIdOffset();
+
     private static native long columnRecordNamePtrOffset();
 
     private static native long columnRecordNameSizeOffset();
@@ -197,6 +302,8 @@ public class PartitionDecoder implements QuietCloseable {
 
     private static native long rowGroupCountOffset();
 
+    private static native long rowGroupSizesPtrOffset();
+
     private void destroy() {
         if (ptr != 0) {
             destroy(ptr);
@@ -233,6 +340,15 @@ public class PartitionDecoder implements QuietCloseable {
             }
         }
 
+        /**
+         * Returns Parquet field id of the column. For files written by {@link PartitionEncoder}
+         * the field id is the column's writer index in the source table. Returns -1 if the
+         * file has no field id for the column.
+         */
+        public int fieldId(int index) {
+            return Unsafe.getUnsafe().getInt(columnsPtr + index * COLUMN_RECORD_SIZE + COLUMN_RECORD_FIELD_ID_OFFSET);
+        }
+
         public int getColumnType(int index) {
             return Unsafe.getUnsafe().getInt(columnsPtr + index * COLUMN_RECORD_SIZE + COLUMN_RECORD_TYPE_OFFSET);
         }
@@ -245,6 +361,11 @@ public class PartitionDecoder implements QuietCloseable {
             return Unsafe.getUnsafe().getInt(ptr + ROW_GROUP_COUNT_OFFSET);
         }
 
+        public int rowGroupSize(int rowGroup) {
+            final long rowGroupSizesPtr = Unsafe.getUnsafe().getLong(ptr + ROW_GROUP_SIZES_PTR_OFFSET);
+            return Unsafe.getUnsafe().getInt(rowGroupSizesPtr + 4L * rowGroup);
+        }
+
         private void init() {
             columnNames.clear();
             directStringPool.clear();
@@ -274,10 +395,17 @@ public class PartitionDecoder implements QuietCloseable {
         COLUMN_RECORD_NAME_PTR_OFFSET = columnRecordNamePtrOffset();
         ROW_GROUP_COUNT_OFFSET = rowGroupCountOffset();
         COLUMN_IDS_OFFSET = columnIdsOffset();
+        COLUMN_RECORD_FIELD_ID_OFFSET = columnRecordFieldIdOffset();
+        ROW_GROUP_SIZES_PTR_OFFSET = rowGroupSizesPtrOffset();
         CHUNK_DATA_PTR_OFFSET = chunkDataPtrOffset();
+        CHUNK_DATA_SIZE_OFFSET = chunkDataSizeOffset();
         CHUNK_AUX_PTR_OFFSET = chunkAuxPtrOffset();
+        CHUNK_AUX_SIZE_OFFSET = chunkAuxSizeOffset();
         CHUNK_ROW_GROUP_COUNT_PTR_OFFSET = chunkRowGroupCountPtrOffset();
         CHUNK_STATS_MIN_VALUE_PTR_OFFSET = chunkStatMinValuePtrOffset();
         CHUNK_STATS_MIN_VALUE_SIZE_OFFSET = chunkStatMinValueSizeOffset();
+        CHUNK_STATS_MAX_VALUE_PTR_OFFSET = chunkStatMaxValuePtrOffset();
+        CHUNK_STATS_MAX_VALUE_SIZE_OFFSET = chunkStatMaxValueSizeOffset();
+        CHUNK_STATS_NULL_COUNT_OFFSET = chunkStatNullCountOffset();
     }
 }
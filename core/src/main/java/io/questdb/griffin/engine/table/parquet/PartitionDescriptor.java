@@ -24,6 +24,8 @@
 
 package io.questdb.griffin.engine.table.parquet;
 
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypeDriver;
 import io.questdb.std.DirectLongList;
 import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
@@ -132,4 +134,52 @@ public class PartitionDescriptor implements QuietCloseable {
         this.timestampIndex = timestampIndex;
         return this;
     }
+
+    /**
+     * Points this descriptor at the [rowLo, rowHi) slice of the source partition. Column memory
+     * is shared with the source, which must stay open while the slice is in use.
+     */
+    public PartitionDescriptor ofRows(PartitionDescriptor source, long rowLo, long rowHi) {
+        this.clear();
+        this.tableName.put(source.tableName);
+        this.columnNames.put(source.columnNames);
+        this.partitionRowCount = rowHi - rowLo;
+        this.timestampIndex = source.timestampIndex;
+
+        final long sliceRowCount = rowHi - rowLo;
+        for (long rawIndex = 0, n = source.getColumnDataLen(); rawIndex < n; rawIndex += COLUMN_ENTRY_SIZE) {
+            final long columnIdAndType = source.columnData.get(rawIndex + COLUMN_ID_AND_TYPE_OFFSET);
+            final int columnType = (int) columnIdAndType;
+            final long columnTop = source.columnData.get(rawIndex + COLUMN_TOP_OFFSET);
+            final long sliceColumnTop = Math.min(Math.max(columnTop - rowLo, 0), sliceRowCount);
+            final long dataRowLo = Math.max(rowLo - columnTop, 0);
+            final long dataRowCount = sliceRowCount - sliceColumnTop;
+
+            long columnAddr = source.columnData.get(rawIndex + COLUMN_ADDR_OFFSET);
+            long columnSize = source.columnData.get(rawIndex + COLUMN_SIZE_OFFSET);
+            long columnSecondaryAddr = source.columnData.get(rawIndex + COLUMN_SECONDARY_ADDR_OFFSET);
+            long columnSecondarySize = source.columnData.get(rawIndex + COLUMN_SECONDARY_SIZE_OFFSET);
+            if (ColumnType.isVarSize(columnType)) {
+                // aux entries hold offsets into the whole data vector, so only the aux vector is sliced
+                final ColumnTypeDriver columnTypeDriver = ColumnType.getDriver(columnType);
+                columnSecondaryAddr += columnTypeDriver.getAuxVectorOffset(dataRowLo);
+                columnSecondarySize = dataRowCount > 0 ? columnTypeDriver.getAuxVectorSize(dataRowCount) : 0;
+            } else {
+                final int size = ColumnType.sizeOf(columnType);
+                columnAddr += dataRowLo * size;
+                columnSize = dataRowCount * size;
+            }
+
+            columnData.add(source.columnData.get(rawIndex + COLUMN_NAME_SIZE_OFFSET));
+            columnData.add(columnIdAndType);
+            columnData.add(sliceColumnTop);
+            columnData.add(columnAddr);
+            columnData.add(columnSize);
+            columnData.add(columnSecondaryAddr);
+            columnData.add(columnSecondarySize);
+            columnData.add(source.columnData.get(rawIndex + SYMBOL_OFFSET_ADDR_OFFSET));
+            columnData.add(source.columnData.get(rawIndex + SYMBOL_OFFSET_SIZE_OFFSET));
+        }
+        return this;
+    }
 }
\ No newline at end of file
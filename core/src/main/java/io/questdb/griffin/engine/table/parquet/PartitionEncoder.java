@@ -54,6 +54,25 @@ public class PartitionEncoder {
             long rowGroupSize,
             long dataPageSize,
             int version
+    ) {
+        encodeWithOptions(descriptor, destPath, compressionCodec, statisticsEnabled, rowGroupSize, dataPageSize, version, false);
+    }
+
+    /**
+     * Encodes the partition to a Parquet file.
+     *
+     * @param parallel when true, row groups and their column chunks are encoded and compressed
+     *                 concurrently on the native encoder thread pool; the file is the same either way
+     */
+    public static void encodeWithOptions(
+            PartitionDescriptor descriptor,
+            Path destPath,
+            long compressionCodec,
+            boolean statisticsEnabled,
+            long rowGroupSize,
+            long dataPageSize,
+            int version,
+            boolean parallel
     ) {
         final Utf8Sequence tableName = descriptor.getTableName();
         final int columnCount = descriptor.getColumnCount();
@@ -76,7 +95,8 @@ public class PartitionEncoder {
                     statisticsEnabled,
                     rowGroupSize,
                     dataPageSize,
-                    version
+                    version,
+                    parallel
             );
         } catch (Throwable th) {
             throw CairoException.critical(0).put("Could not encode partition: [table=").put(tableName)
@@ -171,7 +191,8 @@ public class PartitionEncoder {
             boolean statisticsEnabled,
             long rowGroupSize,
             long dataPageSize,
-            int version
+            int version,
+            boolean parallel
     );
 
     static {
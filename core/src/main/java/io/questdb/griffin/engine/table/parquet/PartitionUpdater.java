@@ -40,6 +40,13 @@ public class PartitionUpdater implements QuietCloseable {
         this.ff = ff;
     }
 
+    /**
+     * Appends the descriptor's rows as a new row group at the end of the file.
+     */
+    public void appendRowGroup(PartitionDescriptor descriptor) {
+        updateRowGroup((short) -1, descriptor);
+    }
+
     @Override
     public void close() {
         destroy();
@@ -113,6 +120,7 @@ public class PartitionUpdater implements QuietCloseable {
 
     private static native void finish(long impl);
 
+    // negative rowGroupId appends a new row group
     private static native void updateRowGroup(
             long impl,
             short rowGroupId,
@@ -75,11 +75,15 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
             assert orderedGroupCount == orderedFunctions.size();
             this.orderedFunctions = orderedFunctions;
             this.comparators = comparators;
+            // once the window store grows beyond the sort spill threshold, it's moved to disk
+            final long spillThreshold = configuration.getSqlSortSpillThreshold();
             RecordChain recordChain = new RecordChain(
                     chainTypes,
                     recordSink,
                     configuration.getSqlWindowStorePageSize(),
-                    configuration.getSqlWindowStoreMaxPages()
+                    configuration.getSqlWindowStoreMaxPages(),
+                    spillThreshold > 0 ? new SpillFiles(configuration, configuration.getSqlWindowStorePageSize()) : null,
+                    spillThreshold
             );
             this.sortKeys = sortKeys;
             this.chainMetadata = chainMetadata;
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.metrics;
+
+import io.questdb.std.Chars;
+import io.questdb.std.ConcurrentHashMap;
+import io.questdb.std.str.BorrowableUtf8Sink;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LongGaugeWithOneLabelImpl implements LongGaugeWithOneLabel {
+    private final CharSequence labelName0;
+    private final CharSequence name;
+    private final ConcurrentHashMap<AtomicLong> values = new ConcurrentHashMap<>();
+
+    LongGaugeWithOneLabelImpl(CharSequence name, CharSequence labelName0) {
+        this.name = name;
+        this.labelName0 = labelName0;
+    }
+
+    @Override
+    public void remove(CharSequence labelValue0) {
+        values.remove(labelValue0);
+    }
+
+    @Override
+    public void scrapeIntoPrometheus(@NotNull BorrowableUtf8Sink sink) {
+        sink.putAscii(PrometheusFormatUtils.TYPE_PREFIX);
+        sink.put(name);
+        sink.putAscii(" gauge\n");
+        for (Map.Entry<CharSequence, AtomicLong> e : values.entrySet()) {
+            sink.putAscii(PrometheusFormatUtils.METRIC_NAME_PREFIX);
+            sink.put(name);
+            sink.putAscii('{');
+            PrometheusFormatUtils.appendLabel(sink, labelName0, e.getKey());
+            sink.putAscii('}');
+            PrometheusFormatUtils.appendSampleLineSuffix(sink, e.getValue().get());
+        }
+        PrometheusFormatUtils.appendNewLine(sink);
+    }
+
+    @Override
+    public void setValue(CharSequence labelValue0, long value) {
+        AtomicLong gauge = values.get(labelValue0);
+        if (gauge == null) {
+            // label value may be a mutable sequence, so keep an immutable copy
+            gauge = values.computeIfAbsent(Chars.toString(labelValue0), k -> new AtomicLong());
+        }
+        gauge.set(value);
+    }
+}
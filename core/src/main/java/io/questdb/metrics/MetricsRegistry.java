@@ -42,5 +42,7 @@ public interface MetricsRegistry extends Scrapable {
 
     LongGauge newLongGauge(int memoryTag);
 
+    LongGaugeWithOneLabel newLongGauge(CharSequence name, CharSequence labelName0);
+
     LongGauge newVirtualGauge(CharSequence name, VirtualLongGauge.StatProvider provider);
 }
@@ -57,6 +57,8 @@ public final class Files {
     // wasted disk read ops.
     public static final int POSIX_MADV_RANDOM;
     public static final int POSIX_MADV_SEQUENTIAL;
+    // false when the native library predates punchHole()
+    public static final boolean PUNCH_HOLE_AVAILABLE;
     public static final char SEPARATOR;
     public static final Charset UTF_8;
     public static final int WINDOWS_ERROR_FILE_EXISTS = 0x50;
@@ -418,6 +420,15 @@ public final class Files {
         return createUniqueFd(openRWOpts(lpsz.ptr(), opts));
     }
 
+    /**
+     * Deallocates the given range of the file without changing its size. Subsequent
+     * reads of the range return zeros. Returns false when the OS or the file system
+     * doesn't support hole punching, in which case the range stays intact.
+     */
+    public static boolean punchHole(long fd, long offset, long len) {
+        return PUNCH_HOLE_AVAILABLE && punchHole(toOsFd(fd), offset, len);
+    }
+
     public static long read(long fd, long address, long len, long offset) {
         return read(toOsFd(fd), address, len, offset);
     }
@@ -710,6 +721,18 @@ public final class Files {
 
     private native static int openRWOpts(long lpszName, long opts);
 
+    private static boolean probePunchHole() {
+        try {
+            // invalid fd, the call fails without side effects when the symbol is present
+            punchHole(-1, 0, 0);
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            return false;
+        }
+    }
+
+    private native static boolean punchHole(int fd, long offset, long len);
+
     private native static long read(int fd, long address, long len, long offset);
 
     private native static long readIntAsUnsignedLong(int fd, long offset);
@@ -752,5 +775,6 @@ public final class Files {
             POSIX_MADV_SEQUENTIAL = -1;
             POSIX_MADV_RANDOM = -1;
         }
+        PUNCH_HOLE_AVAILABLE = probePunchHole();
     }
 }
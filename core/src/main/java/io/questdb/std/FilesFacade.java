@@ -136,6 +136,8 @@ public interface FilesFacade {
 
     long openRW(LPSZ name, long opts);
 
+    boolean punchHole(long fd, long offset, long len);
+
     long read(long fd, long buf, long size, long offset);
 
     long readIntAsUnsignedLong(long fd, long offset);
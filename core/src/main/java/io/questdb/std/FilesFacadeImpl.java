@@ -374,6 +374,11 @@ public class FilesFacadeImpl implements FilesFacade {
         return Files.openRW(name, opts);
     }
 
+    @Override
+    public boolean punchHole(long fd, long offset, long len) {
+        return Files.punchHole(fd, offset, len);
+    }
+
     @Override
     public long read(long fd, long buf, long len, long offset) {
         return Files.read(fd, buf, len, offset);
@@ -0,0 +1,255 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.std;
+
+import java.util.Arrays;
+
+/**
+ * LZ4 block format codec working on native memory. There are no frame headers or checksums,
+ * callers store the compressed and the raw sizes next to the block.
+ * <p>
+ * The compressor is the single-pass greedy one of the reference implementation: a hash table of
+ * the last positions of 4-byte sequences, no match chains. It trades ratio for speed, which is
+ * what the write path needs.
+ */
+public final class Lz4 {
+    // a hash table size in entries, callers pass int arrays of this length to the compressor
+    public static final int HASH_TABLE_SIZE = 1 << 12;
+    private static final int HASH_SHIFT = 32 - 12;
+    // the last 5 bytes of a block are always literals
+    private static final int LAST_LITERALS = 5;
+    private static final int MAX_OFFSET = 0xffff;
+    // a match can't start within the last 12 bytes of a block
+    private static final int MF_LIMIT = 12;
+    private static final int MIN_MATCH = 4;
+    private static final int RUN_MASK = 0x0f;
+    private static final int SKIP_TRIGGER = 6;
+
+    private Lz4() {
+    }
+
+    /**
+     * Compresses the source range into the destination buffer.
+     *
+     * @param src         address of the data to compress
+     * @param srcLen      size of the data
+     * @param dst         address of the destination buffer
+     * @param dstCapacity size of the destination buffer
+     * @param hashTable   scratch table of {@link #HASH_TABLE_SIZE} entries, overwritten
+     * @return size of the compressed block, or -1 when it doesn't fit the destination buffer
+     * or the data is larger than {@link Integer#MAX_VALUE}
+     */
+    public static long compress(long src, long srcLen, long dst, long dstCapacity, int[] hashTable) {
+        if (srcLen > Integer.MAX_VALUE) {
+            // the hash table keeps positions as ints
+            return -1;
+        }
+        final long dstLimit = dst + dstCapacity;
+        long op = dst;
+        long anchor = 0;
+        if (srcLen >= MF_LIMIT + 1) {
+            Arrays.fill(hashTable, -1);
+            final long matchLimit = srcLen - LAST_LITERALS;
+            final long mfLimit = srcLen - MF_LIMIT;
+            long ip = 0;
+            while (ip < mfLimit) {
+                final int sequence = Unsafe.getUnsafe().getInt(src + ip);
+                final int h = hash(sequence);
+                long ref = hashTable[h];
+                hashTable[h] = (int) ip;
+                if (ref < 0 || ip - ref > MAX_OFFSET || Unsafe.getUnsafe().getInt(src + ref) != sequence) {
+                    ip += 1 + ((ip - anchor) >>> SKIP_TRIGGER);
+                    continue;
+                }
+                while (ip > anchor && ref > 0 && Unsafe.getUnsafe().getByte(src + ip - 1) == Unsafe.getUnsafe().getByte(src + ref - 1)) {
+                    ip--;
+                    ref--;
+                }
+                final long matchLen = MIN_MATCH + commonBytes(src + ip + MIN_MATCH, src + ref + MIN_MATCH, matchLimit - ip - MIN_MATCH);
+                op = putSequence(src + anchor, ip - anchor, ip - ref, matchLen, op, dstLimit);
+                if (op < 0) {
+                    return -1;
+                }
+                ip += matchLen;
+                anchor = ip;
+                if (ip < mfLimit) {
+                    // let the next search find the bytes right before the current position
+                    hashTable[hash(Unsafe.getUnsafe().getInt(src + ip - 2))] = (int) (ip - 2);
+                }
+            }
+        }
+        op = putLastLiterals(src + anchor, srcLen - anchor, op, dstLimit);
+        return op < 0 ? -1 : op - dst;
+    }
+
+    /**
+     * Decompresses a block produced by {@link #compress(long, long, long, long, int[])}.
+     *
+     * @param src    address of the compressed block
+     * @param srcLen size of the compressed block
+     * @param dst    address of the destination buffer
+     * @param dstLen size of the destination buffer
+     * @return number of bytes decompressed, or -1 when the block is malformed or doesn't fit the destination buffer
+     */
+    public static long decompress(long src, long srcLen, long dst, long dstLen) {
+        final long srcLimit = src + srcLen;
+        final long dstLimit = dst + dstLen;
+        long ip = src;
+        long op = dst;
+        while (ip < srcLimit) {
+            final int token = Unsafe.getUnsafe().getByte(ip++) & 0xff;
+            long literalLen = token >>> 4;
+            if (literalLen == RUN_MASK) {
+                int b;
+                do {
+                    if (ip >= srcLimit) {
+                        return -1;
+                    }
+                    b = Unsafe.getUnsafe().getByte(ip++) & 0xff;
+                    literalLen += b;
+                } while (b == 0xff);
+            }
+            if (literalLen > srcLimit - ip || literalLen > dstLimit - op) {
+                return -1;
+            }
+            Unsafe.getUnsafe().copyMemory(ip, op, literalLen);
+            ip += literalLen;
+            op += literalLen;
+            if (ip == srcLimit) {
+                // the last sequence has no match
+                return op - dst;
+            }
+
+            if (srcLimit - ip < 2) {
+                return -1;
+            }
+            final long offset = Unsafe.getUnsafe().getShort(ip) & 0xffff;
+            ip += 2;
+            if (offset == 0 || offset > op - dst) {
+                return -1;
+            }
+            long matchLen = token & RUN_MASK;
+            if (matchLen == RUN_MASK) {
+                int b;
+                do {
+                    if (ip >= srcLimit) {
+                        return -1;
+                    }
+                    b = Unsafe.getUnsafe().getByte(ip++) & 0xff;
+                    matchLen += b;
+                } while (b == 0xff);
+            }
+            matchLen += MIN_MATCH;
+            if (matchLen > dstLimit - op) {
+                return -1;
+            }
+            copyMatch(op - offset, op, matchLen);
+            op += matchLen;
+        }
+        return -1;
+    }
+
+    // number of equal bytes at the two addresses, up to the limit
+    private static long commonBytes(long a, long b, long limit) {
+        long n = 0;
+        while (n + 8 <= limit) {
+            final long diff = Unsafe.getUnsafe().getLong(a + n) ^ Unsafe.getUnsafe().getLong(b + n);
+            if (diff != 0) {
+                return n + (Long.numberOfTrailingZeros(diff) >>> 3);
+            }
+            n += 8;
+        }
+        while (n < limit && Unsafe.getUnsafe().getByte(a + n) == Unsafe.getUnsafe().getByte(b + n)) {
+            n++;
+        }
+        return n;
+    }
+
+    // the match may overlap the bytes it produces, copies go forward in steps no longer than the offset
+    private static void copyMatch(long from, long to, long len) {
+        final long offset = to - from;
+        if (offset >= len) {
+            Unsafe.getUnsafe().copyMemory(from, to, len);
+            return;
+        }
+        long n = 0;
+        if (offset >= 8) {
+            for (; n + 8 <= len; n += 8) {
+                Unsafe.getUnsafe().putLong(to + n, Unsafe.getUnsafe().getLong(from + n));
+            }
+        }
+        for (; n < len; n++) {
+            Unsafe.getUnsafe().putByte(to + n, Unsafe.getUnsafe().getByte(from + n));
+        }
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> HASH_SHIFT;
+    }
+
+    private static long putLastLiterals(long literals, long literalLen, long op, long dstLimit) {
+        if (op + 1 + literalLen / 255 + 1 + literalLen > dstLimit) {
+            return -1;
+        }
+        op = putToken(op, literalLen, 0);
+        Unsafe.getUnsafe().copyMemory(literals, op, literalLen);
+        return op + literalLen;
+    }
+
+    private static long putLength(long op, long len) {
+        for (; len >= 0xff; len -= 0xff) {
+            Unsafe.getUnsafe().putByte(op++, (byte) 0xff);
+        }
+        Unsafe.getUnsafe().putByte(op++, (byte) len);
+        return op;
+    }
+
+    private static long putSequence(long literals, long literalLen, long offset, long matchLen, long op, long dstLimit) {
+        if (op + 1 + literalLen / 255 + 1 + literalLen + 2 + matchLen / 255 + 1 > dstLimit) {
+            return -1;
+        }
+        op = putToken(op, literalLen, matchLen - MIN_MATCH);
+        Unsafe.getUnsafe().copyMemory(literals, op, literalLen);
+        op += literalLen;
+        Unsafe.getUnsafe().putShort(op, (short) offset);
+        op += 2;
+        final long matchRun = matchLen - MIN_MATCH;
+        if (matchRun >= RUN_MASK) {
+            op = putLength(op, matchRun - RUN_MASK);
+        }
+        return op;
+    }
+
+    // writes the token and the extra literal length bytes
+    private static long putToken(long op, long literalLen, long matchRun) {
+        final int token = (int) ((Math.min(literalLen, RUN_MASK) << 4) | Math.min(matchRun, RUN_MASK));
+        Unsafe.getUnsafe().putByte(op++, (byte) token);
+        if (literalLen >= RUN_MASK) {
+            op = putLength(op, literalLen - RUN_MASK);
+        }
+        return op;
+    }
+}
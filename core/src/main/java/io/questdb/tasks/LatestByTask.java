@@ -68,7 +68,7 @@ public class LatestByTask {
             CountDownLatchSPI doneLatch,
             ExecutionCircuitBreaker circuitBreaker
     ) {
-        this.frameMemoryPool.of(addressCache);
+        this.frameMemoryPool.of(addressCache, null);
         this.keyBaseAddress = keyBaseAddress;
         this.keysMemorySize = keysMemorySize;
         this.valueBaseAddress = valueBaseAddress;
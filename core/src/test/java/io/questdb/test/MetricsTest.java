@@ -67,6 +67,30 @@ public class MetricsTest {
         Assert.assertTrue("Metrics with non-unique labels: " + metricsWithNotUniqueLabels, metricsWithNotUniqueLabels.isEmpty());
     }
 
+    @Test
+    public void testLongGaugeWithOneLabel() {
+        final MetricsRegistry metricsRegistry = new MetricsRegistryImpl();
+        final LongGaugeWithOneLabel gauge = metricsRegistry.newLongGauge("wal_apply_lag_micros", "table");
+        gauge.setValue("trades", 42);
+        gauge.setValue("quotes", 1);
+        gauge.setValue("quotes", 7);
+
+        try (DirectUtf8Sink sink = new DirectUtf8Sink(32)) {
+            metricsRegistry.scrapeIntoPrometheus(sink);
+            String encoded = sink.toString();
+            TestUtils.assertContains(encoded, "# TYPE questdb_wal_apply_lag_micros gauge\n");
+            TestUtils.assertContains(encoded, "questdb_wal_apply_lag_micros{table=\"trades\"} 42\n");
+            TestUtils.assertContains(encoded, "questdb_wal_apply_lag_micros{table=\"quotes\"} 7\n");
+
+            gauge.remove("trades");
+            sink.clear();
+            metricsRegistry.scrapeIntoPrometheus(sink);
+            encoded = sink.toString();
+            Assert.assertFalse(encoded.contains("trades"));
+            TestUtils.assertContains(encoded, "questdb_wal_apply_lag_micros{table=\"quotes\"} 7\n");
+        }
+    }
+
     @Test
     public void testMetricNames() {
         Pattern metricNamePattern = Pattern.compile("[a-zA-Z0-9_]*");
@@ -189,6 +213,13 @@ public class MetricsTest {
             return delegate.newLongGauge(memoryTag);
         }
 
+        @Override
+        public LongGaugeWithOneLabel newLongGauge(CharSequence name, CharSequence labelName0) {
+            addMetricName(name);
+            addLabelNames(name, Collections.singletonList(labelName0));
+            return delegate.newLongGauge(name, labelName0);
+        }
+
         @Override
         public LongGauge newVirtualGauge(CharSequence name, VirtualLongGauge.StatProvider provider) {
             addMetricName(name);
@@ -449,6 +449,7 @@ public class ServerMainTest extends AbstractBootstrapTest {
                                     "line.auto.create.new.tables\tQDB_LINE_AUTO_CREATE_NEW_TABLES\ttrue\tdefault\tfalse\tfalse\n" +
                                     "line.default.partition.by\tQDB_LINE_DEFAULT_PARTITION_BY\tDAY\tdefault\tfalse\tfalse\n" +
                                     "line.float.default.column.type\tQDB_LINE_FLOAT_DEFAULT_COLUMN_TYPE\tDOUBLE\tdefault\tfalse\tfalse\n" +
+                                    "line.http.columnar.max.block.size\tQDB_LINE_HTTP_COLUMNAR_MAX_BLOCK_SIZE\t524288\tdefault\tfalse\tfalse\n" +
                                     "line.http.enabled\tQDB_LINE_HTTP_ENABLED\ttrue\tdefault\tfalse\tfalse\n" +
                                     "line.http.ping.version\tQDB_LINE_HTTP_PING_VERSION\tv2.7.4\tdefault\tfalse\tfalse\n" +
                                     "line.integer.default.column.type\tQDB_LINE_INTEGER_DEFAULT_COLUMN_TYPE\tLONG\tdefault\tfalse\tfalse\n" +
@@ -484,6 +485,7 @@ public class ServerMainTest extends AbstractBootstrapTest {
                                     "line.tcp.undocumented.string.to.char.cast.allowed\tQDB_LINE_TCP_UNDOCUMENTED_STRING_TO_CHAR_CAST_ALLOWED\tfalse\tdefault\tfalse\tfalse\n" +
                                     "line.tcp.writer.halt.on.error\tQDB_LINE_TCP_WRITER_HALT_ON_ERROR\tfalse\tdefault\tfalse\tfalse\n" +
                                     "line.tcp.writer.queue.capacity\tQDB_LINE_TCP_WRITER_QUEUE_CAPACITY\t128\tdefault\tfalse\tfalse\n" +
+                                    "line.tcp.writer.relocation.interval\tQDB_LINE_TCP_WRITER_RELOCATION_INTERVAL\t1000\tdefault\tfalse\tfalse\n" +
                                     "line.tcp.writer.worker.affinity\tQDB_LINE_TCP_WRITER_WORKER_AFFINITY\t\tdefault\tfalse\tfalse\n" +
                                     "line.tcp.writer.worker.count\tQDB_LINE_TCP_WRITER_WORKER_COUNT\t1\tconf\tfalse\tfalse\n" +
                                     "line.tcp.writer.worker.sleep.threshold\tQDB_LINE_TCP_WRITER_WORKER_SLEEP_THRESHOLD\t10000\tdefault\tfalse\tfalse\n" +
@@ -580,7 +582,25 @@ public class ServerMainTest extends AbstractBootstrapTest {
                                     "cairo.partition.encoder.parquet.row.group.size\tQDB_CAIRO_PARTITION_ENCODER_PARQUET_ROW_GROUP_SIZE\t0\tdefault\tfalse\tfalse\n" +
                                     "cairo.partition.encoder.parquet.data.page.size\tQDB_CAIRO_PARTITION_ENCODER_PARQUET_DATA_PAGE_SIZE\t0\tdefault\tfalse\tfalse\n" +
                                     "cairo.partition.encoder.parquet.compression.codec\tQDB_CAIRO_PARTITION_ENCODER_PARQUET_COMPRESSION_CODEC\t0\tdefault\tfalse\tfalse\n" +
-                                    "cairo.partition.encoder.parquet.compression.level\tQDB_CAIRO_PARTITION_ENCODER_PARQUET_COMPRESSION_LEVEL\t0\tdefault\tfalse\tfalse\n"
+                                    "cairo.partition.encoder.parquet.compression.level\tQDB_CAIRO_PARTITION_ENCODER_PARQUET_COMPRESSION_LEVEL\t0\tdefault\tfalse\tfalse\n" +
+                                    "cairo.partition.decoder.parquet.cache.size\tQDB_CAIRO_PARTITION_DECODER_PARQUET_CACHE_SIZE\t67108864\tdefault\tfalse\tfalse\n" +
+                                    "cairo.parquet.tiering.check.interval\tQDB_CAIRO_PARQUET_TIERING_CHECK_INTERVAL\t60000\tdefault\tfalse\tfalse\n" +
+                                    "cairo.parquet.tiering.max.concurrent.conversions\tQDB_CAIRO_PARQUET_TIERING_MAX_CONCURRENT_CONVERSIONS\t1\tdefault\tfalse\tfalse\n" +
+                                    "cairo.parquet.tiering.max.bandwidth\tQDB_CAIRO_PARQUET_TIERING_MAX_BANDWIDTH\t67108864\tdefault\tfalse\tfalse\n" +
+                                    "cairo.partition.zone.maps.enabled\tQDB_CAIRO_PARTITION_ZONE_MAPS_ENABLED\ttrue\tdefault\tfalse\tfalse\n" +
+                                    "cairo.bloom.filter.fpp\tQDB_CAIRO_BLOOM_FILTER_FPP\t0.01\tdefault\tfalse\tfalse\n" +
+                                    "cairo.partition.encoder.parquet.parallel.enabled\tQDB_CAIRO_PARTITION_ENCODER_PARQUET_PARALLEL_ENABLED\ttrue\tdefault\tfalse\tfalse\n" +
+                                    "cairo.sql.page.frame.read.ahead.enabled\tQDB_CAIRO_SQL_PAGE_FRAME_READ_AHEAD_ENABLED\tfalse\tdefault\tfalse\tfalse\n" +
+                                    "cairo.sql.page.frame.read.ahead.frames\tQDB_CAIRO_SQL_PAGE_FRAME_READ_AHEAD_FRAMES\t4\tdefault\tfalse\tfalse\n" +
+                                    "cairo.wal.apply.scheduler.capacity\tQDB_CAIRO_WAL_APPLY_SCHEDULER_CAPACITY\t64\tdefault\tfalse\tfalse\n" +
+                                    "cairo.wal.segment.promotion.enabled\tQDB_CAIRO_WAL_SEGMENT_PROMOTION_ENABLED\tfalse\tdefault\tfalse\tfalse\n" +
+                                    "cairo.wal.compression.enabled\tQDB_CAIRO_WAL_COMPRESSION_ENABLED\tfalse\tdefault\tfalse\tfalse\n" +
+                                    "cairo.dedup.duplicate.row.filter.enabled\tQDB_CAIRO_DEDUP_DUPLICATE_ROW_FILTER_ENABLED\tfalse\tdefault\tfalse\tfalse\n" +
+                                    "cairo.sql.parallel.orderby.enabled\tQDB_CAIRO_SQL_PARALLEL_ORDERBY_ENABLED\tfalse\tdefault\tfalse\tfalse\n" +
+                                    "cairo.sql.sort.spill.threshold\tQDB_CAIRO_SQL_SORT_SPILL_THRESHOLD\t0\tdefault\tfalse\tfalse\n" +
+                                    "cairo.sql.hash.spill.threshold\tQDB_CAIRO_SQL_HASH_SPILL_THRESHOLD\t0\tdefault\tfalse\tfalse\n" +
+                                    "cairo.sql.hash.spill.partitions\tQDB_CAIRO_SQL_HASH_SPILL_PARTITIONS\t16\tdefault\tfalse\tfalse\n" +
+                                    "cairo.sql.parallel.hash.join.enabled\tQDB_CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED\tfalse\tdefault\tfalse\tfalse\n"
                             )
                                     .split("\n");
 
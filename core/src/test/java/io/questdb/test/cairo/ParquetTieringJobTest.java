@@ -0,0 +1,239 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.ParquetTieringJob;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.TxReader;
+import io.questdb.std.Numbers;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParquetTieringJobTest extends AbstractCairoTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        node1.setProperty(PropertyKey.CAIRO_PARQUET_TIERING_MAX_BANDWIDTH, 0);
+    }
+
+    @Test
+    public void testConcurrentConversionsLimitWal() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", true);
+            ddl("alter table x set param parquetConversionAge = 2d");
+            drainWalQueue();
+            currentMicros = TimestampFormatUtils.parseTimestamp("2024-06-15T00:00:00.000000Z");
+
+            try (ParquetTieringJob job = new ParquetTieringJob(engine)) {
+                Assert.assertTrue(job.convertPartitions());
+                // the conversion is not applied yet, so no more conversions are issued
+                Assert.assertFalse(job.convertPartitions());
+                drainWalQueue();
+                assertParquetPartitions("x", true, false, false, false, false, false);
+
+                Assert.assertTrue(job.convertPartitions());
+                drainWalQueue();
+                Assert.assertTrue(job.convertPartitions());
+                drainWalQueue();
+                Assert.assertFalse(job.convertPartitions());
+                assertParquetPartitions("x", true, true, true, false, false, false);
+            }
+            assertSql("count\n6\n", "select count() from x");
+        });
+    }
+
+    @Test
+    public void testConvertOldPartitions() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", false);
+            ddl("alter table x set param parquetConversionAge = 2d");
+            currentMicros = TimestampFormatUtils.parseTimestamp("2024-06-15T00:00:00.000000Z");
+
+            try (ParquetTieringJob job = new ParquetTieringJob(engine)) {
+                // one partition per run, the writer is released in between
+                Assert.assertTrue(job.convertPartitions());
+                assertParquetPartitions("x", true, false, false, false, false, false);
+                Assert.assertTrue(job.convertPartitions());
+                assertParquetPartitions("x", true, true, false, false, false, false);
+                Assert.assertTrue(job.convertPartitions());
+                assertParquetPartitions("x", true, true, true, false, false, false);
+                Assert.assertFalse(job.convertPartitions());
+
+                // the last partition is never converted
+                currentMicros = TimestampFormatUtils.parseTimestamp("2025-01-01T00:00:00.000000Z");
+                convertAll(job);
+                assertParquetPartitions("x", true, true, true, true, true, false);
+            }
+            assertSql("count\n6\n", "select count() from x");
+        });
+    }
+
+    @Test
+    public void testConversionSkippedWhenDisabled() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", false);
+            currentMicros = TimestampFormatUtils.parseTimestamp("2025-01-01T00:00:00.000000Z");
+            try (ParquetTieringJob job = new ParquetTieringJob(engine)) {
+                Assert.assertFalse(job.convertPartitions());
+                assertParquetPartitions("x", false, false, false, false, false, false);
+
+                ddl("alter table x set param parquetConversionAge = 2d");
+                ddl("alter table x set param parquetConversionAge = 0s");
+                Assert.assertFalse(job.convertPartitions());
+                assertParquetPartitions("x", false, false, false, false, false, false);
+            }
+        });
+    }
+
+    @Test
+    public void testConversionSkippedWhenWriterBusy() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", false);
+            ddl("alter table x set param parquetConversionAge = 1d");
+            currentMicros = TimestampFormatUtils.parseTimestamp("2025-01-01T00:00:00.000000Z");
+            try (ParquetTieringJob job = new ParquetTieringJob(engine)) {
+                try (TableWriter ignore = getWriter("x")) {
+                    Assert.assertFalse(job.convertPartitions());
+                }
+                assertParquetPartitions("x", false, false, false, false, false, false);
+                convertAll(job);
+                assertParquetPartitions("x", true, true, true, true, true, false);
+            }
+        });
+    }
+
+    @Test
+    public void testRoundRobinAcrossTables() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", false);
+            createTable("y", false);
+            ddl("alter table x set param parquetConversionAge = 2d");
+            ddl("alter table y set param parquetConversionAge = 2d");
+            currentMicros = TimestampFormatUtils.parseTimestamp("2024-06-15T00:00:00.000000Z");
+
+            try (ParquetTieringJob job = new ParquetTieringJob(engine)) {
+                // each run starts after the table converted by the previous one
+                Assert.assertTrue(job.convertPartitions());
+                Assert.assertTrue(job.convertPartitions());
+                assertParquetPartitions("x", true, false, false, false, false, false);
+                assertParquetPartitions("y", true, false, false, false, false, false);
+                Assert.assertTrue(job.convertPartitions());
+                Assert.assertTrue(job.convertPartitions());
+                assertParquetPartitions("x", true, true, false, false, false, false);
+                assertParquetPartitions("y", true, true, false, false, false, false);
+            }
+        });
+    }
+
+    @Test
+    public void testRowGroupsWrittenWithinBandwidth() throws Exception {
+        // the test configuration writes 1000-row row groups, so the partition is converted in three steps
+        node1.setProperty(PropertyKey.CAIRO_PARQUET_TIERING_MAX_BANDWIDTH, Numbers.SIZE_1GB);
+        assertMemoryLeak(() -> {
+            ddl("create table x as (" +
+                    "select x id, rnd_str(4, 8, 2) s, rnd_varchar(4, 8, 2) v, rnd_symbol('a', 'b', null) sym, " +
+                    "timestamp_sequence('2024-06-10', 30000000) ts from long_sequence(2500)" +
+                    ") timestamp(ts) partition by day bypass wal");
+            ddl("alter table x add column l long");
+            insert("insert into x select x, rnd_str(4, 8, 2), rnd_varchar(4, 8, 2), rnd_symbol('a', 'b', null), " +
+                    "timestamp_sequence('2024-06-10T21', 1000000), x from long_sequence(500)");
+            insert("insert into x values (0, 'a', 'b', 'c', '2024-06-15', 0)");
+            final String query = "select * from x where ts < '2024-06-11'";
+            final String expected = queryResult(query);
+
+            ddl("alter table x set param parquetConversionAge = 2d");
+            currentMicros = TimestampFormatUtils.parseTimestamp("2024-06-15T00:00:00.000000Z");
+            try (ParquetTieringJob job = new ParquetTieringJob(engine)) {
+                Assert.assertTrue(job.convertPartitions());
+            }
+            assertParquetPartitions("x", true, false);
+            assertSql(expected, query);
+        });
+    }
+
+    @Test
+    public void testSetParam() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", false);
+            try (TableReader reader = getReader("x")) {
+                Assert.assertEquals(0, reader.getMetadata().getParquetConversionAge());
+                ddl("alter table x set param parquetConversionAge = 30d");
+                reader.reload();
+                Assert.assertEquals(30 * Timestamps.DAY_MICROS, reader.getMetadata().getParquetConversionAge());
+            }
+            // structural changes keep the param
+            ddl("alter table x add column y int");
+            engine.releaseAllReaders();
+            try (TableReader reader = getReader("x")) {
+                Assert.assertEquals(30 * Timestamps.DAY_MICROS, reader.getMetadata().getParquetConversionAge());
+            }
+        });
+    }
+
+    private static void assertParquetPartitions(String tableName, boolean... expected) {
+        try (TableReader reader = getReader(tableName)) {
+            final TxReader txFile = reader.getTxFile();
+            Assert.assertEquals(expected.length, txFile.getPartitionCount());
+            for (int i = 0; i < expected.length; i++) {
+                Assert.assertEquals("partition " + i, expected[i], txFile.isPartitionParquet(i));
+            }
+        }
+    }
+
+    private static String queryResult(String query) throws Exception {
+        sink.clear();
+        printSql(query);
+        return sink.toString();
+    }
+
+    private static void convertAll(ParquetTieringJob job) {
+        Assert.assertTrue(job.convertPartitions());
+        //noinspection StatementWithEmptyBody
+        while (job.convertPartitions()) {
+        }
+    }
+
+    private static void createTable(String tableName, boolean wal) throws Exception {
+        ddl("create table " + tableName + " (id long, ts timestamp) timestamp(ts) partition by day" + (wal ? " wal" : " bypass wal"));
+        insert("insert into " + tableName + " values " +
+                "(1, '2024-06-10T00:00:00.000000Z'), " +
+                "(2, '2024-06-11T00:00:00.000000Z'), " +
+                "(3, '2024-06-12T00:00:00.000000Z'), " +
+                "(4, '2024-06-13T00:00:00.000000Z'), " +
+                "(5, '2024-06-14T00:00:00.000000Z'), " +
+                "(6, '2024-06-15T00:00:00.000000Z')");
+        if (wal) {
+            drainWalQueue();
+        }
+    }
+}
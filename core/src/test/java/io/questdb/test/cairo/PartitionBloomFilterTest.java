@@ -0,0 +1,187 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo;
+
+import io.questdb.cairo.PartitionBloomFilter;
+import io.questdb.cairo.TableReader;
+import io.questdb.std.Files;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.Utf8String;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PartitionBloomFilterTest extends AbstractCairoTest {
+
+    @Test
+    public void testAddBuildsFiltersOfSealedPartitions() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            addBloomFilters();
+            try (TableReader reader = getReader("x")) {
+                Assert.assertEquals(3, reader.getPartitionCount());
+                final int id = reader.getMetadata().getColumnIndex("id");
+                final int sym = reader.getMetadata().getColumnIndex("sym");
+                final int v = reader.getMetadata().getColumnIndex("v");
+                final int u = reader.getMetadata().getColumnIndex("u");
+                for (int day = 0; day < 2; day++) {
+                    final PartitionBloomFilter idFilter = reader.getBloomFilter(day, id);
+                    Assert.assertNotNull(idFilter);
+                    for (int i = 0; i < 1000; i++) {
+                        Assert.assertTrue(idFilter.mightContain(PartitionBloomFilter.hashLong(day * 1000L + i)));
+                    }
+                    int falsePositives = 0;
+                    for (int i = 0; i < 1000; i++) {
+                        if (idFilter.mightContain(PartitionBloomFilter.hashLong(10_000L + i))) {
+                            falsePositives++;
+                        }
+                    }
+                    Assert.assertTrue(falsePositives < 100);
+
+                    final PartitionBloomFilter symFilter = reader.getBloomFilter(day, sym);
+                    Assert.assertNotNull(symFilter);
+                    final int key = reader.getSymbolMapReader(sym).keyOf("s" + (day * 10 + 5));
+                    Assert.assertTrue(symFilter.mightContain(PartitionBloomFilter.hashInt(key)));
+
+                    final PartitionBloomFilter vFilter = reader.getBloomFilter(day, v);
+                    Assert.assertNotNull(vFilter);
+                    Assert.assertTrue(vFilter.mightContain(PartitionBloomFilter.hashUtf8(new Utf8String("v" + (day * 1000 + 42)))));
+
+                    Assert.assertNotNull(reader.getBloomFilter(day, u));
+                }
+                // the last partition is still being appended to
+                Assert.assertNull(reader.getBloomFilter(2, id));
+                // columns with no filter
+                Assert.assertNull(reader.getBloomFilter(0, reader.getMetadata().getColumnIndex("i")));
+            }
+        });
+    }
+
+    @Test
+    public void testBuiltOnCommit() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (id long, sym symbol, v varchar, u uuid, i int, ts timestamp) timestamp(ts) partition by day");
+            addBloomFilters();
+            createTable();
+            try (TableReader reader = getReader("x")) {
+                final int id = reader.getMetadata().getColumnIndex("id");
+                Assert.assertNotNull(reader.getBloomFilter(0, id));
+                Assert.assertNotNull(reader.getBloomFilter(1, id));
+                Assert.assertNull(reader.getBloomFilter(2, id));
+            }
+            assertQueries();
+        });
+    }
+
+    @Test
+    public void testDrop() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            addBloomFilters();
+            ddl("alter table x alter column id drop bloom filter");
+            try (TableReader reader = getReader("x")) {
+                Assert.assertNull(reader.getBloomFilter(0, reader.getMetadata().getColumnIndex("id")));
+                Assert.assertNotNull(reader.getBloomFilter(0, reader.getMetadata().getColumnIndex("sym")));
+            }
+            try (Path path = new Path()) {
+                path.of(root).concat(engine.verifyTableName("x")).concat("2024-01-01").concat("id.bf");
+                Assert.assertFalse(Files.exists(path.$()));
+            }
+            assertException("alter table x alter column id drop bloom filter", 27, "column has no bloom filter");
+            assertQueries();
+        });
+    }
+
+    @Test
+    public void testQueries() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            addBloomFilters();
+            assertQueries();
+        });
+    }
+
+    @Test
+    public void testSyntaxErrors() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertException("alter table x alter column id add bloom", 39, "'filter' expected");
+            assertException("alter table x alter column id add bloom filter x", 47, "unexpected token [x]");
+            assertException("alter table x alter column i add bloom filter", 27, "bloom filters are only supported for LONG, SYMBOL, UUID and VARCHAR types");
+            ddl("alter table x alter column id add bloom filter");
+            assertException("alter table x alter column id add bloom filter", 27, "column already has bloom filter");
+        });
+    }
+
+    @Test
+    public void testUpdateInvalidatesFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            addBloomFilters();
+            update("update x set id = 100000 where id = 5");
+            assertSql("id\tts\n100000\t2024-01-01T00:07:12.000000Z\n", "select id, ts from x where id = 100000");
+            assertSql("id\n", "select id from x where id = 5");
+            try (TableReader reader = getReader("x")) {
+                final PartitionBloomFilter filter = reader.getBloomFilter(0, reader.getMetadata().getColumnIndex("id"));
+                Assert.assertTrue(filter == null || filter.mightContain(PartitionBloomFilter.hashLong(100000)));
+            }
+        });
+    }
+
+    private static void addBloomFilters() throws Exception {
+        ddl("alter table x alter column id add bloom filter");
+        ddl("alter table x alter column sym add bloom filter");
+        ddl("alter table x alter column v add bloom filter");
+        ddl("alter table x alter column u add bloom filter");
+    }
+
+    private static void createTable() throws Exception {
+        ddl("create table if not exists x (id long, sym symbol, v varchar, u uuid, i int, ts timestamp) timestamp(ts) partition by day");
+        for (int day = 0; day < 3; day++) {
+            insert(
+                    "insert into x select " +
+                            "x - 1 + " + day * 1000 + ", " +
+                            "'s' || (x % 10 + " + day * 10 + "), " +
+                            "('v' || (x - 1 + " + day * 1000 + "))::varchar, " +
+                            "case when x = 1 then '11111111-1111-1111-1111-00000000000" + day + "'::uuid else rnd_uuid4() end, " +
+                            (day + 1) + ", " +
+                            "'2024-01-0" + (day + 1) + "'::timestamp + (x - 1) * 86400000L " +
+                            "from long_sequence(1000)"
+            );
+        }
+    }
+
+    private void assertQueries() throws Exception {
+        assertSql("count\n100\n", "select count() from x where sym = 's15'");
+        assertSql("count\n200\n", "select count() from x where sym in ('s5', 's25')");
+        assertSql("count\n0\n", "select count() from x where sym = 'missing'");
+        assertSql("id\n5\n1500\n", "select id from x where id in (5, 1500)");
+        assertSql("id\n", "select id from x where id = 10000");
+        assertSql("id\tv\n1500\tv1500\n", "select id, v from x where v = 'v1500'");
+        assertSql("id\n42\n2042\n", "select id from x where v in ('v42', 'v2042', 'v5000')");
+        assertSql("id\n1000\n", "select id from x where u = '11111111-1111-1111-1111-000000000001'");
+        assertSql("id\n", "select id from x where u = '11111111-1111-1111-1111-000000000009'");
+    }
+}
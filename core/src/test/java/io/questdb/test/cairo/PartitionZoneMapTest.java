@@ -0,0 +1,184 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.PartitionZoneMap;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableUtils;
+import io.questdb.std.Files;
+import io.questdb.std.str.Path;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PartitionZoneMapTest extends AbstractCairoTest {
+
+    @Test
+    public void testAddedColumnHasColumnTop() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table x add column k long");
+            insert("insert into x values (3000, 1.0, 1, 1, 42, '2024-01-03T01:00:00.000000Z')");
+            insert("insert into x values (3001, 1.0, 1, 1, 43, '2024-01-04T00:00:00.000000Z')");
+            // old partitions may need their zone maps rebuilt first
+            insert("insert into x values (3002, 1.0, 1, 1, 43, '2024-01-04T01:00:00.000000Z')");
+            insert("insert into x values (3003, 1.0, 1, 1, 43, '2024-01-04T02:00:00.000000Z')");
+
+            try (TableReader reader = getReader("x")) {
+                final PartitionZoneMap zoneMap = reader.getZoneMap(2);
+                Assert.assertNotNull(zoneMap);
+                final int k = reader.getMetadata().getColumnIndex("k");
+                Assert.assertTrue(zoneMap.hasStats(k));
+                Assert.assertEquals(42, zoneMap.getMinLong(k));
+                Assert.assertEquals(42, zoneMap.getMaxLong(k));
+                Assert.assertEquals(zoneMap.getRowCount() - 1, zoneMap.getNullCount(k));
+            }
+
+            assertSql("id\tk\n3000\t42\n", "select id, k from x where k = 42");
+            assertSql("id\tk\n", "select id, k from x where k > 43");
+        });
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_PARTITION_ZONE_MAPS_ENABLED, false);
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableReader reader = getReader("x")) {
+                for (int i = 0, n = reader.getPartitionCount(); i < n; i++) {
+                    Assert.assertNull(reader.getZoneMap(i));
+                }
+            }
+            try (Path path = new Path()) {
+                path.of(root).concat(engine.verifyTableName("x")).concat("2024-01-01").concat(TableUtils.ZONE_MAP_FILE_NAME);
+                Assert.assertFalse(Files.exists(path.$()));
+            }
+            assertSql("id\n1500\n", "select id from x where id = 1500");
+        });
+    }
+
+    @Test
+    public void testO3InsertInvalidatesZoneMap() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableReader reader = getReader("x")) {
+                Assert.assertNotNull(reader.getZoneMap(0));
+            }
+            insert("insert into x values (-5, 1.0, 1, 1, '2024-01-01T12:00:00.000000Z')");
+            try (TableReader reader = getReader("x")) {
+                final PartitionZoneMap zoneMap = reader.getZoneMap(0);
+                // the zone map is either stale or rebuilt with the new row
+                Assert.assertTrue(zoneMap == null || zoneMap.getMinLong(0) == -5);
+            }
+            assertSql("id\tts\n-5\t2024-01-01T12:00:00.000000Z\n", "select id, ts from x where id < 0");
+        });
+    }
+
+    @Test
+    public void testPruning() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSql("count\n1000\n", "select count() from x where id between 1000 and 1999");
+            assertSql("id\n", "select id from x where id > 5000");
+            assertSql("id\tprice\n9\tnull\n", "select id, price from x where id = 9");
+            assertSql("count\n53\n", "select count() from x where price > 2940.0");
+            assertSql("count\n0\n", "select count() from x where s > 1000");
+            assertSql("count\n2001\n", "select count() from x where i >= 2");
+        });
+    }
+
+    @Test
+    public void testStats() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableReader reader = getReader("x")) {
+                Assert.assertEquals(3, reader.getPartitionCount());
+                for (int i = 0; i < 2; i++) {
+                    final PartitionZoneMap zoneMap = reader.getZoneMap(i);
+                    Assert.assertNotNull(zoneMap);
+                    Assert.assertEquals(1000, zoneMap.getRowCount());
+
+                    // id
+                    Assert.assertTrue(zoneMap.hasStats(0));
+                    Assert.assertEquals(i * 1000L, zoneMap.getMinLong(0));
+                    Assert.assertEquals(i * 1000L + 999, zoneMap.getMaxLong(0));
+                    Assert.assertEquals(0, zoneMap.getNullCount(0));
+
+                    // price, every tenth value is null
+                    Assert.assertTrue(zoneMap.hasStats(1));
+                    Assert.assertEquals(i * 1000L, zoneMap.getMinDouble(1), 0.000001);
+                    Assert.assertEquals(i * 1000L + 998, zoneMap.getMaxDouble(1), 0.000001);
+                    Assert.assertEquals(100, zoneMap.getNullCount(1));
+
+                    // i
+                    Assert.assertTrue(zoneMap.hasStats(2));
+                    Assert.assertEquals(i + 1, zoneMap.getMinLong(2));
+                    Assert.assertEquals(i + 1, zoneMap.getMaxLong(2));
+
+                    // s
+                    Assert.assertTrue(zoneMap.hasStats(3));
+                    Assert.assertEquals(0, zoneMap.getMinLong(3));
+                    Assert.assertEquals(9, zoneMap.getMaxLong(3));
+
+                    // ts
+                    Assert.assertTrue(zoneMap.hasStats(4));
+                }
+                // the last partition is still being appended to
+                Assert.assertNull(reader.getZoneMap(2));
+            }
+        });
+    }
+
+    @Test
+    public void testUpdateInvalidatesZoneMap() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            update("update x set id = 100000 where id = 5");
+            assertSql("id\tts\n100000\t2024-01-01T00:07:12.000000Z\n", "select id, ts from x where id > 50000");
+            try (TableReader reader = getReader("x")) {
+                final PartitionZoneMap zoneMap = reader.getZoneMap(0);
+                Assert.assertTrue(zoneMap == null || zoneMap.getMaxLong(0) == 100000);
+            }
+        });
+    }
+
+    private static void createTable() throws Exception {
+        ddl("create table x (id long, price double, i int, s short, ts timestamp) timestamp(ts) partition by day");
+        for (int day = 0; day < 3; day++) {
+            // each commit builds zone map of one more partition
+            insert(
+                    "insert into x select " +
+                            "x - 1 + " + day * 1000 + ", " +
+                            "case when x % 10 = 0 then null else (x - 1 + " + day * 1000 + ")::double end, " +
+                            (day + 1) + ", " +
+                            "(x % 10)::short, " +
+                            "'2024-01-0" + (day + 1) + "'::timestamp + (x - 1) * 86400000L " +
+                            "from long_sequence(1000)"
+            );
+        }
+        insert("insert into x values (3000, 1.0, 3, 1, '2024-01-03T23:00:00.000000Z')");
+    }
+}
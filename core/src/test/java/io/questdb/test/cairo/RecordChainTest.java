@@ -193,6 +193,42 @@ public class RecordChainTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testSpill() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int N = 10000;
+            CreateTableTestUtils.createTestTable(N, new Rnd(), new TestRecord.ArrayBinarySequence());
+            try (TableReader reader = newOffPoolReader(configuration, "x")) {
+                entityColumnFilter.of(reader.getMetadata().getColumnCount());
+                RecordSink recordSink = RecordSinkFactory.getInstance(asm, reader.getMetadata(), entityColumnFilter);
+
+                try (
+                        RecordChain chain = new RecordChain(
+                                reader.getMetadata(),
+                                recordSink,
+                                SIZE_4M,
+                                Integer.MAX_VALUE,
+                                new SpillFiles(configuration, SIZE_4M),
+                                64 * 1024
+                        )
+                ) {
+                    populateChain(chain, reader);
+                    Assert.assertTrue(chain.isSpilled());
+                    assertChain(chain, N, reader);
+
+                    chain.clear();
+                    Assert.assertFalse(chain.isSpilled());
+                    final String[] spilled = new java.io.File(configuration.getRoot(), SpillFiles.SPILL_DIRECTORY).list();
+                    Assert.assertTrue(spilled == null || spilled.length == 0);
+
+                    populateChain(chain, reader);
+                    Assert.assertTrue(chain.isSpilled());
+                    assertChain(chain, N, reader);
+                }
+            }
+        });
+    }
+
     @Test
     public void testWriteAndRead() throws Exception {
         TestUtils.assertMemoryLeak(
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo.wal;
+
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.wal.ApplyWal2TableJob;
+import io.questdb.cairo.wal.WalApplyScheduler;
+import io.questdb.cairo.wal.seq.SeqTxnTracker;
+import io.questdb.cairo.wal.seq.TableSequencerAPI;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WalApplySchedulerTest extends AbstractCairoTest {
+    private static final long BASE_QUOTA = 1_000_000;
+    private static final long NOW = 10_000_000;
+
+    @Test
+    public void testDuplicateNotificationsAreMerged() throws Exception {
+        assertMemoryLeak(() -> {
+            final TableToken a = createTable("a");
+            final TableToken b = createTable("b");
+            final WalApplyScheduler scheduler = new WalApplyScheduler(engine.getTableSequencerAPI(), 2, BASE_QUOTA, true);
+            scheduler.add(a);
+            scheduler.add(a);
+            Assert.assertFalse(scheduler.isFull());
+            scheduler.add(b);
+            Assert.assertTrue(scheduler.isFull());
+
+            Assert.assertNotNull(scheduler.poll(NOW));
+            Assert.assertNotNull(scheduler.poll(NOW));
+            Assert.assertNull(scheduler.poll(NOW));
+            Assert.assertEquals(0, scheduler.size());
+        });
+    }
+
+    @Test
+    public void testJobsShareScheduler() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("a");
+            createTable("b");
+            drainWalQueue();
+            insert("insert into a values ('2024-01-01', 1)");
+            insert("insert into b values ('2024-01-01', 2)");
+
+            final WalApplyScheduler scheduler = new WalApplyScheduler(engine);
+            try (
+                    ApplyWal2TableJob job1 = new ApplyWal2TableJob(engine, 2, 2, scheduler);
+                    ApplyWal2TableJob job2 = new ApplyWal2TableJob(engine, 2, 2, scheduler)
+            ) {
+                // the first job drains both notifications, but applies a single table
+                Assert.assertTrue(job1.run(0));
+                Assert.assertEquals(1, scheduler.size());
+                // the other table is left to the second job
+                Assert.assertTrue(job2.run(1));
+                Assert.assertEquals(0, scheduler.size());
+            }
+            assertSql("x\n1\n", "select x from a");
+            assertSql("x\n2\n", "select x from b");
+        });
+    }
+
+    @Test
+    public void testMostLaggingTableGoesFirst() throws Exception {
+        assertMemoryLeak(() -> {
+            final TableToken hot = createTable("hot");
+            final TableToken cold = createTable("cold");
+            final TableToken idle = createTable("idle");
+            final TableSequencerAPI tableSequencerAPI = engine.getTableSequencerAPI();
+
+            // hot table is notified all the time, but its oldest unapplied transaction is fresh
+            setBacklog(tableSequencerAPI.getTxnTracker(hot), 100, 99, NOW - 1_000);
+            // cold table has a few transactions waiting for seconds
+            setBacklog(tableSequencerAPI.getTxnTracker(cold), 10, 7, NOW - 3_000_000);
+            // idle table is up-to-date
+            setBacklog(tableSequencerAPI.getTxnTracker(idle), 10, 10, -1);
+
+            final WalApplyScheduler scheduler = new WalApplyScheduler(tableSequencerAPI, 64, BASE_QUOTA, true);
+            for (int i = 0; i < 10; i++) {
+                scheduler.add(hot);
+            }
+            scheduler.add(idle);
+            scheduler.add(cold);
+            Assert.assertEquals(3, scheduler.size());
+
+            Assert.assertEquals(cold, scheduler.poll(NOW));
+            // the cold table holds most of the lag, so it gets a longer time slice
+            Assert.assertTrue(scheduler.getTimeQuotaMicros() > 3 * BASE_QUOTA);
+            Assert.assertTrue(scheduler.getTimeQuotaMicros() <= 4 * BASE_QUOTA);
+
+            Assert.assertEquals(hot, scheduler.poll(NOW));
+            // the last table has no competitors
+            Assert.assertEquals(idle, scheduler.poll(NOW));
+            Assert.assertEquals(BASE_QUOTA, scheduler.getTimeQuotaMicros());
+        });
+    }
+
+    @Test
+    public void testTimeQuotaShrinksWithManyTables() throws Exception {
+        assertMemoryLeak(() -> {
+            final TableSequencerAPI tableSequencerAPI = engine.getTableSequencerAPI();
+            final WalApplyScheduler scheduler = new WalApplyScheduler(tableSequencerAPI, 64, BASE_QUOTA, true);
+            final WalApplyScheduler unscaledScheduler = new WalApplyScheduler(tableSequencerAPI, 64, BASE_QUOTA, false);
+            for (int i = 0; i < 20; i++) {
+                final TableToken tableToken = createTable("t" + i);
+                setBacklog(tableSequencerAPI.getTxnTracker(tableToken), 2, 1, NOW - 1_000_000);
+                scheduler.add(tableToken);
+                unscaledScheduler.add(tableToken);
+            }
+
+            Assert.assertNotNull(scheduler.poll(NOW));
+            Assert.assertEquals(BASE_QUOTA / 4, scheduler.getTimeQuotaMicros());
+            Assert.assertNotNull(unscaledScheduler.poll(NOW));
+            Assert.assertEquals(BASE_QUOTA, unscaledScheduler.getTimeQuotaMicros());
+        });
+    }
+
+    private static TableToken createTable(String tableName) throws Exception {
+        ddl("create table " + tableName + " (ts timestamp, x long) timestamp(ts) partition by day wal");
+        return engine.verifyTableName(tableName);
+    }
+
+    private static void setBacklog(SeqTxnTracker tracker, long seqTxn, long writerTxn, long unappliedSince) {
+        tracker.notifyOnCommit(seqTxn);
+        tracker.onApplied(0, 0, 0, unappliedSince);
+        tracker.notifyCommitReadable(writerTxn);
+    }
+}
@@ -725,6 +725,36 @@ public class WalWriterTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testBatchSymbolsIntoNonSymbolColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            TableToken tableToken = createTable(testName.getMethodName());
+            final long sizesAddress = Unsafe.malloc(Integer.BYTES, MemoryTag.NATIVE_DEFAULT);
+            try (WalWriter walWriter = engine.getWalWriter(tableToken)) {
+                Unsafe.getUnsafe().putInt(sizesAddress, -1);
+                walWriter.beginBatch();
+                try {
+                    walWriter.putBatchSymUtf8(0, sizesAddress, 0, 1);
+                    Assert.fail();
+                } catch (CairoException e) {
+                    Assert.assertFalse(e.isCritical());
+                    TestUtils.assertContains(e.getFlyweightMessage(), "column is not a symbol [column=a]");
+                    walWriter.cancelBatch();
+                }
+
+                // the writer is still usable
+                TableWriter.Row row = walWriter.newRow(0);
+                row.putByte(0, (byte) 1);
+                row.append();
+                walWriter.commit();
+            } finally {
+                Unsafe.free(sizesAddress, Integer.BYTES, MemoryTag.NATIVE_DEFAULT);
+            }
+            drainWalQueue();
+            assertSql("a\tb\tts\n1\t\t1970-01-01T00:00:00.000000Z\n", tableToken.getTableName());
+        });
+    }
+
     @Test
     public void testCancelRowDoesNotStartsNewSegment() throws Exception {
         assertMemoryLeak(() -> {
@@ -40,6 +40,34 @@ import static org.junit.Assert.*;
 public class SeqTxnTrackerTest {
     private static final Log LOG = LogFactory.getLog(SeqTxnTrackerTest.class);
 
+    @Test
+    public void testBacklogEstimates() {
+        final SeqTxnTracker tracker = new SeqTxnTracker();
+        tracker.initTxns(1, 1, false);
+        assertEquals(0, tracker.getBacklogTxnCount());
+        assertEquals(0, tracker.getLagMicros(1_000));
+
+        tracker.notifyOnCommit(5);
+        assertEquals(4, tracker.getBacklogTxnCount());
+        // no apply statistics yet
+        assertEquals(0, tracker.getEstimatedApplyMicros());
+        assertEquals(0, tracker.getEstimatedBacklogRows());
+
+        // 2 transactions of 100 rows each applied in 400us, the oldest unapplied one was committed at 1000us
+        tracker.onApplied(2, 200, 400, 1_000);
+        tracker.notifyCommitReadable(3);
+        assertEquals(2, tracker.getBacklogTxnCount());
+        assertEquals(2 * 100, tracker.getEstimatedApplyMicros());
+        assertEquals(2 * 50, tracker.getEstimatedBacklogRows());
+        assertEquals(500, tracker.getLagMicros(1_500));
+
+        // catching up resets the lag
+        tracker.onApplied(2, 200, 400, 2_000);
+        tracker.notifyCommitReadable(5);
+        assertEquals(0, tracker.getBacklogTxnCount());
+        assertEquals(0, tracker.getLagMicros(3_000));
+    }
+
     @Test
     public void testConcurrentInitTxns() throws Exception {
         LOG.info().$("testConcurrentInitTxns").$();
@@ -273,11 +273,16 @@ public class LineSenderBuilderTest extends AbstractLineTcpReceiverTest {
             assertConfStrError("http::addr=localhost;auto_flush=off;auto_flush_interval=1;", "cannot set auto flush interval when interval based auto-flush is already disabled");
             assertConfStrError("http::addr=localhost;auto_flush=off;auto_flush_rows=1;", "cannot set auto flush rows when auto-flush is already disabled");
             assertConfStrError("http::addr=localhost;auto_flush_bytes=1024;", "auto_flush_bytes is only supported for TCP transport");
+            assertConfStrError("http::addr=localhost;stripes=0;", "stripes must be positive [stripes=0]");
+            assertConfStrError("http::addr=localhost;connections=2;", "connections require stripes to be configured");
+            assertConfStrError("http::addr=localhost;stripes=2;in_flight_window=2;", "in-flight window is not supported together with stripes");
+            assertConfStrError("tcp::addr=localhost;stripes=2;", "stripes are not supported for TCP protocol");
 
             assertConfStrOk("addr=localhost:8080", "auto_flush_rows=100");
             assertConfStrOk("addr=localhost:8080", "auto_flush=on", "auto_flush_rows=100");
             assertConfStrOk("addr=localhost:8080", "auto_flush_rows=100", "auto_flush=on");
             assertConfStrOk("addr=localhost", "auto_flush=on");
+            assertConfStrOk("addr=localhost", "stripes=4", "connections=1", "auto_flush_bytes=65536");
 
             runInContext(r -> {
                 String tcpAddr = "tcp::addr=localhost:" + bindPort;
@@ -30,15 +30,18 @@ import io.questdb.DefaultHttpClientConfiguration;
 import io.questdb.ServerMain;
 import io.questdb.cairo.TableToken;
 import io.questdb.cairo.pool.PoolListener;
+import io.questdb.cutlass.http.client.Fragment;
 import io.questdb.cutlass.http.client.HttpClient;
 import io.questdb.cutlass.http.client.HttpClientException;
 import io.questdb.cutlass.http.client.HttpClientFactory;
+import io.questdb.cutlass.http.client.Response;
 import io.questdb.mp.SOCountDownLatch;
 import io.questdb.std.Files;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.Os;
 import io.questdb.std.Rnd;
 import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.StringSink;
 import io.questdb.std.str.Utf8s;
 import io.questdb.test.AbstractBootstrapTest;
 import io.questdb.test.TestServerMain;
@@ -49,11 +52,18 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static io.questdb.PropertyKey.DEBUG_FORCE_SEND_FRAGMENTATION_CHUNK_SIZE;
+import static io.questdb.PropertyKey.DEBUG_HTTP_FORCE_RECV_FRAGMENTATION_CHUNK_SIZE;
 import static io.questdb.cairo.wal.WalUtils.EVENT_INDEX_FILE_NAME;
 import static io.questdb.test.tools.TestUtils.assertEventually;
 
@@ -356,6 +366,69 @@ public class LineHttpFailureTest extends AbstractBootstrapTest {
         });
     }
 
+    @Test
+    public void testCompressedBody() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (final TestServerMain serverMain = startWithEnvVariables(
+                    DEBUG_HTTP_FORCE_RECV_FRAGMENTATION_CHUNK_SIZE.getEnvVarName(), "7"
+            )) {
+                serverMain.start();
+                // decompressed body is larger than the inflater output buffer
+                final StringBuilder lines = new StringBuilder();
+                for (int i = 0; i < 5000; i++) {
+                    lines.append("line,sym1=s").append(i % 10).append(" field1=").append(i).append("i ").append(1234567890000000000L + i).append('\n');
+                }
+                final byte[] body = lines.toString().getBytes(StandardCharsets.UTF_8);
+
+                try (HttpClient httpClient = HttpClientFactory.newPlainTextInstance(new DefaultHttpClientConfiguration())) {
+                    final StringSink response = new StringSink();
+                    TestUtils.assertEquals("204", sendCompressed(httpClient, serverMain.getHttpServerPort(), "gzip", gzip(body), response));
+                    TestUtils.assertEquals("204", sendCompressed(httpClient, serverMain.getHttpServerPort(), "deflate", deflate(body), response));
+                }
+
+                serverMain.awaitTxn("line", 2);
+                serverMain.assertSql("select count(), sum(field1) from line", "count\tsum\n" +
+                        "10000\t24995000\n");
+            }
+        });
+    }
+
+    @Test
+    public void testCompressedBodyErrors() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (final TestServerMain serverMain = startWithEnvVariables()) {
+                serverMain.start();
+                final byte[] body = "line,sym1=123 field1=123i 1234567890000000000\n".getBytes(StandardCharsets.UTF_8);
+                final int port = serverMain.getHttpServerPort();
+
+                try (HttpClient httpClient = HttpClientFactory.newPlainTextInstance(new DefaultHttpClientConfiguration())) {
+                    final StringSink response = new StringSink();
+                    TestUtils.assertEquals("415", sendCompressed(httpClient, port, "zstd", body, response));
+                    TestUtils.assertContains(response, "unsupported content encoding");
+
+                    TestUtils.assertEquals("400", sendCompressed(httpClient, port, "gzip", body, response));
+                    TestUtils.assertContains(response, "could not decompress request body: invalid gzip header");
+
+                    final byte[] gzipped = gzip(body);
+                    TestUtils.assertEquals("400", sendCompressed(httpClient, port, "gzip", Arrays.copyOf(gzipped, gzipped.length - 3), response));
+                    TestUtils.assertContains(response, "could not decompress request body: truncated compressed body");
+
+                    gzipped[gzipped.length - 8]++;
+                    TestUtils.assertEquals("400", sendCompressed(httpClient, port, "gzip", gzipped, response));
+                    TestUtils.assertContains(response, "could not decompress request body: gzip checksum mismatch");
+
+                    TestUtils.assertEquals("400", sendCompressed(httpClient, port, "deflate", gzip(body), response));
+                    TestUtils.assertContains(response, "could not decompress request body: invalid compressed body");
+                }
+
+                // rows decompressed before the error are not committed
+                TableToken tt = serverMain.getEngine().getTableTokenIfExists("line");
+                Assert.assertNotNull(tt);
+                Assert.assertEquals(0, getSeqTxn(serverMain, tt));
+            }
+        });
+    }
+
     @Test
     public void testPutAndGetAreNotSupported() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -494,6 +567,45 @@ public class LineHttpFailureTest extends AbstractBootstrapTest {
         return walWriterTaken;
     }
 
+    private static byte[] deflate(byte[] body) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(out)) {
+            deflater.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private static String sendCompressed(HttpClient httpClient, int port, String encoding, byte[] body, StringSink response) {
+        final HttpClient.Request request = httpClient.newRequest("localhost", port).POST()
+                .url("/write ")
+                .header("Content-Encoding", encoding)
+                .withContent();
+        for (byte b : body) {
+            request.put(b);
+        }
+        try (HttpClient.ResponseHeaders resp = request.send()) {
+            resp.await();
+            response.clear();
+            final String status = resp.getStatusCode().toString();
+            if (!"204".equals(status)) {
+                final Response chunks = resp.getResponse();
+                Fragment fragment;
+                while ((fragment = chunks.recv()) != null) {
+                    Utf8s.utf8ToUtf16(fragment.lo(), fragment.hi(), response);
+                }
+            }
+            return status;
+        }
+    }
+
     private long getSeqTxn(TestServerMain serverMain, TableToken tt) {
         return serverMain.getEngine().getTableSequencerAPI().getTxnTracker(tt).getSeqTxn();
     }
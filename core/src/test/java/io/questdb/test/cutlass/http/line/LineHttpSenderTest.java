@@ -31,9 +31,11 @@ import io.questdb.client.Sender;
 import io.questdb.cutlass.line.LineSenderException;
 import io.questdb.cutlass.line.http.LineHttpSender;
 import io.questdb.griffin.model.IntervalUtils;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.NumericException;
 import io.questdb.std.Os;
 import io.questdb.std.Rnd;
+import io.questdb.std.Unsafe;
 import io.questdb.test.AbstractBootstrapTest;
 import io.questdb.test.TestServerMain;
 import io.questdb.test.tools.TestUtils;
@@ -43,6 +45,9 @@ import org.junit.Test;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static io.questdb.PropertyKey.DEBUG_FORCE_RECV_FRAGMENTATION_CHUNK_SIZE;
 import static io.questdb.PropertyKey.LINE_HTTP_ENABLED;
@@ -206,6 +211,195 @@ public class LineHttpSenderTest extends AbstractBootstrapTest {
         });
     }
 
+    @Test
+    public void testColumnBatch() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (final TestServerMain serverMain = startWithEnvVariables()) {
+                serverMain.start();
+                final String expected = "sym\ts\tl\td\tb\tt\tts\n" +
+                        "a\tfoo\t10\t1.5\ttrue\t1970-01-01T00:00:01.000000Z\t1970-01-01T00:00:00.000001Z\n" +
+                        "\t\t20\t2.5\tfalse\t1970-01-01T00:00:02.000000Z\t1970-01-01T00:00:00.000002Z\n" +
+                        "c\tąę\t30\t3.5\ttrue\t1970-01-01T00:00:03.000000Z\t1970-01-01T00:00:00.000003Z\n";
+                final long longs = Unsafe.malloc(3 * Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+                try {
+                    for (int i = 0; i < 3; i++) {
+                        Unsafe.getUnsafe().putLong(longs + i * Long.BYTES, (i + 1) * 10L);
+                    }
+                    int port = serverMain.getHttpServerPort();
+                    // text format flushes within the batch, columnar format after the whole batch
+                    assertColumnBatch(serverMain, "http::addr=localhost:" + port + ";auto_flush_rows=2;", "x", longs, 2);
+                    assertColumnBatch(serverMain, "http::addr=localhost:" + port + ";auto_flush_rows=2;format=columnar;", "y", longs, 1);
+                } finally {
+                    Unsafe.free(longs, 3 * Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+                }
+                serverMain.assertSql("select * from x", expected);
+                serverMain.assertSql("select * from y", expected);
+            }
+        });
+    }
+
+    @Test
+    public void testColumnBatchSkipsRowsWithoutFields() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (final TestServerMain serverMain = startWithEnvVariables()) {
+                serverMain.start();
+                serverMain.compile("create table x(sym symbol, s varchar, ts timestamp) timestamp(ts) partition by DAY WAL");
+                int port = serverMain.getHttpServerPort();
+                try (Sender sender = Sender.fromConfig("http::addr=localhost:" + port + ";")) {
+                    // the second row has a symbol, but no fields, text ILP cannot express it
+                    sender.batch("x", 3)
+                            .symbol("sym", new CharSequence[]{"a", "b", "c"})
+                            .stringColumn("s", new CharSequence[]{"foo", null, "bar"})
+                            .at(new long[]{1, 2, 3}, ChronoUnit.MICROS);
+                }
+                serverMain.awaitTxn("x", 1);
+                serverMain.assertSql("select * from x", "sym\ts\tts\n" +
+                        "a\tfoo\t1970-01-01T00:00:00.000001Z\n" +
+                        "c\tbar\t1970-01-01T00:00:00.000003Z\n");
+            }
+        });
+    }
+
+    @Test
+    public void testColumnarFormat() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (final TestServerMain serverMain = startWithEnvVariables(
+                    PropertyKey.HTTP_RECEIVE_BUFFER_SIZE.getEnvVarName(), "2048"
+            )) {
+                serverMain.start();
+                serverMain.compile("create table x(sym symbol, v varchar, s string, l long, d double, b boolean, t timestamp, ts timestamp) " +
+                        "timestamp(ts) partition by DAY WAL");
+
+                int port = serverMain.getHttpServerPort();
+                try (Sender sender = Sender.fromConfig("http::addr=localhost:" + port + ";format=columnar;auto_flush=off;")) {
+                    sender.table("x")
+                            .symbol("sym", "a")
+                            .stringColumn("v", "foo")
+                            .stringColumn("s", "bar")
+                            .longColumn("l", 1)
+                            .doubleColumn("d", 1.5)
+                            .boolColumn("b", true)
+                            .timestampColumn("t", Instant.parse("2024-01-01T00:00:00.000001Z"))
+                            .at(Instant.parse("2024-09-09T14:38:26.361110Z"));
+
+                    // sparse row, missing columns are padded with nulls
+                    sender.table("x")
+                            .symbol("sym", "b")
+                            .longColumn("l", 2)
+                            .at(Instant.parse("2024-09-09T14:28:26.361110Z"));
+
+                    // this one is cancelled
+                    sender.table("x")
+                            .symbol("sym", "c")
+                            .longColumn("l", 3);
+                    sender.cancelRow();
+
+                    sender.table("x")
+                            .symbol("sym", "a")
+                            .stringColumn("v", "ąę")
+                            .stringColumn("s", "żółw")
+                            .at(Instant.parse("2024-09-09T14:48:26.361110Z"));
+
+                    sender.flush();
+                }
+
+                serverMain.awaitTxn("x", 1);
+                serverMain.assertSql("select * from x",
+                        "sym\tv\ts\tl\td\tb\tt\tts\n" +
+                                "b\t\t\t2\tnull\tfalse\t\t2024-09-09T14:28:26.361110Z\n" +
+                                "a\tfoo\tbar\t1\t1.5\ttrue\t2024-01-01T00:00:00.000001Z\t2024-09-09T14:38:26.361110Z\n" +
+                                "a\tąę\tżółw\tnull\tnull\tfalse\t\t2024-09-09T14:48:26.361110Z\n");
+            }
+        });
+    }
+
+    @Test
+    public void testColumnarFormatBlockTooLarge() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (final TestServerMain serverMain = startWithEnvVariables(
+                    PropertyKey.LINE_HTTP_COLUMNAR_MAX_BLOCK_SIZE.getEnvVarName(), "1024"
+            )) {
+                serverMain.start();
+                serverMain.compile("create table x(l long, ts timestamp) timestamp(ts) partition by DAY WAL");
+
+                int port = serverMain.getHttpServerPort();
+                try (Sender sender = Sender.fromConfig("http::addr=localhost:" + port + ";format=columnar;auto_flush=off;")) {
+                    // 100 rows of 16 bytes each make a single block larger than 1KB
+                    for (int i = 0; i < 100; i++) {
+                        sender.table("x")
+                                .longColumn("l", i)
+                                .at(1233456 + i, ChronoUnit.MICROS);
+                    }
+                    flushAndAssertError(
+                            sender,
+                            "Could not flush buffer",
+                            "http-status=413",
+                            "error in block 1: unable to read data: columnar block exceeds the maximum block size",
+                            "maxBlockSize=1024]"
+                    );
+
+                    // small blocks are accepted
+                    sender.table("x")
+                            .longColumn("l", 42)
+                            .at(1233456, ChronoUnit.MICROS);
+                    sender.flush();
+                }
+                serverMain.awaitTxn("x", 1);
+                serverMain.assertSql("select l from x", "l\n42\n");
+            }
+        });
+    }
+
+    @Test
+    public void testColumnarFormatErrors() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (final TestServerMain serverMain = startWithEnvVariables(
+                    PropertyKey.HTTP_RECEIVE_BUFFER_SIZE.getEnvVarName(), "2048"
+            )) {
+                serverMain.start();
+                serverMain.compile("create table x(l long, ts timestamp) timestamp(ts) partition by DAY WAL");
+
+                int port = serverMain.getHttpServerPort();
+                try (Sender sender = Sender.builder(Sender.Transport.HTTP)
+                        .address("localhost:" + port)
+                        .columnarFormat()
+                        .build()
+                ) {
+                    sender.table("y")
+                            .longColumn("l", 1)
+                            .at(1233456, ChronoUnit.MICROS);
+                    flushAndAssertError(
+                            sender,
+                            "Could not flush buffer",
+                            "http-status=400",
+                            "error in block 1: table: y; table does not exist"
+                    );
+
+                    sender.table("x")
+                            .doubleColumn("l", 1)
+                            .at(1233456, ChronoUnit.MICROS);
+                    flushAndAssertError(
+                            sender,
+                            "Could not flush buffer",
+                            "http-status=400",
+                            "error in block 1: table: x; cast error from protocol type: DOUBLE to column type: LONG [column=l]"
+                    );
+
+                    sender.table("x")
+                            .longColumn("z", 1)
+                            .at(1233456, ChronoUnit.MICROS);
+                    flushAndAssertError(
+                            sender,
+                            "Could not flush buffer",
+                            "http-status=400",
+                            "error in block 1: table: x; column does not exist [column=z]"
+                    );
+                }
+                serverMain.assertSql("select count() from x", "count\n0\n");
+            }
+        });
+    }
+
     @Test
     public void testFlushAfterTimeout() throws Exception {
         // this is a regression test
@@ -252,6 +446,81 @@ public class LineHttpSenderTest extends AbstractBootstrapTest {
         });
     }
 
+    @Test
+    public void testInFlightWindow() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (final TestServerMain serverMain = startWithEnvVariables()) {
+                serverMain.start();
+                int port = serverMain.getHttpServerPort();
+
+                int totalCount = 100_000;
+                try (Sender sender = Sender.fromConfig("http::addr=localhost:" + port + ";auto_flush_rows=1000;in_flight_window=4;")) {
+                    for (int i = 0; i < totalCount; i++) {
+                        sender.table("tab")
+                                .symbol("tag1", "value" + i % 10)
+                                .longColumn("l", i)
+                                .at(1233456 + i, ChronoUnit.MICROS);
+                    }
+                    // row in progress is not sent on close
+                    sender.table("tab").longColumn("l", -1);
+                }
+
+                serverMain.awaitTable("tab");
+                serverMain.assertSql("select count(), sum(l) from tab", "count\tsum\n" +
+                        totalCount + "\t" + (totalCount * (totalCount - 1L) / 2) + "\n");
+            }
+        });
+    }
+
+    @Test
+    public void testInFlightWindowErrors() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (final TestServerMain serverMain = startWithEnvVariables()) {
+                serverMain.start();
+                serverMain.compile("create table tab(l long, ts timestamp) timestamp(ts) partition by DAY WAL");
+                int port = serverMain.getHttpServerPort();
+
+                final ConcurrentLinkedQueue<LineSenderException> errors = new ConcurrentLinkedQueue<>();
+                try (Sender sender = Sender.builder(Sender.Transport.HTTP)
+                        .address("localhost:" + port)
+                        .disableAutoFlush()
+                        .inFlightWindow(2)
+                        .errorHandler(errors::add)
+                        .build()
+                ) {
+                    sender.table("tab").longColumn("l", 1).at(1233456, ChronoUnit.MICROS);
+                    sender.flush();
+                    sender.table("tab").stringColumn("l", "foo").at(1233456, ChronoUnit.MICROS);
+                    sender.flush();
+                    sender.table("tab").longColumn("l", 2).at(1233456, ChronoUnit.MICROS);
+                    sender.flush();
+                }
+                Assert.assertEquals(1, errors.size());
+                TestUtils.assertContains(errors.peek().getMessage(), "cast error from protocol type: STRING to column type: LONG");
+
+                // without an error handler, the error is thrown by close()
+                try (Sender sender = Sender.fromConfig("http::addr=localhost:" + port + ";auto_flush=off;in_flight_window=1;")) {
+                    sender.table("tab").stringColumn("l", "foo").at(1233456, ChronoUnit.MICROS);
+                    sender.flush();
+                    sender.close();
+                    Assert.fail();
+                } catch (LineSenderException e) {
+                    TestUtils.assertContains(e.getMessage(), "cast error from protocol type: STRING to column type: LONG");
+                }
+
+                serverMain.awaitTable("tab");
+                serverMain.assertSql("select sum(l) from tab", "sum\n3\n");
+
+                try {
+                    Sender.builder("tcp::addr=localhost:9009;in_flight_window=2;").build();
+                    Assert.fail();
+                } catch (LineSenderException e) {
+                    TestUtils.assertContains(e.getMessage(), "in-flight window is not supported for TCP protocol");
+                }
+            }
+        });
+    }
+
     @Test
     public void testInsertWithIlpHttp() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -482,6 +751,86 @@ public class LineHttpSenderTest extends AbstractBootstrapTest {
         });
     }
 
+    @Test
+    public void testStripes() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (final TestServerMain serverMain = startWithEnvVariables()) {
+                serverMain.start();
+                int port = serverMain.getHttpServerPort();
+
+                final int threadCount = 8;
+                final int rowsPerThread = 10_000;
+                final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+                final AtomicInteger errors = new AtomicInteger();
+                try (Sender sender = Sender.fromConfig("http::addr=localhost:" + port + ";auto_flush_rows=500;auto_flush_bytes=16384;stripes=4;connections=2;")) {
+                    final Thread[] threads = new Thread[threadCount];
+                    for (int t = 0; t < threadCount; t++) {
+                        final int threadId = t;
+                        threads[t] = new Thread(() -> {
+                            try {
+                                barrier.await();
+                                for (int i = 0; i < rowsPerThread; i++) {
+                                    sender.table("tab")
+                                            .symbol("thread", "t" + threadId)
+                                            .longColumn("l", i)
+                                            .at(1233456 + i, ChronoUnit.MICROS);
+                                }
+                                sender.flush();
+                            } catch (Throwable th) {
+                                LOG.error().$("producer failed [ex=").$(th).I$();
+                                errors.incrementAndGet();
+                            }
+                        });
+                        threads[t].start();
+                    }
+                    for (Thread thread : threads) {
+                        thread.join();
+                    }
+                }
+                Assert.assertEquals(0, errors.get());
+
+                serverMain.awaitTable("tab");
+                serverMain.assertSql("select count(), count_distinct(thread), sum(l) from tab", "count\tcount_distinct\tsum\n" +
+                        (threadCount * rowsPerThread) + "\t" + threadCount + "\t" + (threadCount * (rowsPerThread * (rowsPerThread - 1L) / 2)) + "\n");
+            }
+        });
+    }
+
+    private static void assertColumnBatch(TestServerMain serverMain, String conf, String table, long longs, int expectedTxn) {
+        serverMain.compile("create table " + table + "(sym symbol, s varchar, l long, d double, b boolean, t timestamp, ts timestamp) " +
+                "timestamp(ts) partition by DAY WAL");
+        try (Sender sender = Sender.fromConfig(conf)) {
+            try {
+                sender.batch(table, 3).longColumn("l", new long[2]);
+                Assert.fail();
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "column has fewer values than rows [column=l, values=2, rows=3]");
+            }
+            try {
+                sender.batch(table, 3).longColumnDirect("l", longs).doubleColumn("l", new double[3]);
+                Assert.fail();
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "duplicate column [column=l]");
+            }
+            try {
+                sender.batch(table, 3).atNow();
+                Assert.fail();
+            } catch (LineSenderException e) {
+                TestUtils.assertContains(e.getMessage(), "no symbols or columns were provided");
+            }
+
+            sender.batch(table, 3)
+                    .stringColumn("s", new CharSequence[]{"foo", null, "ąę"})
+                    .longColumnDirect("l", longs)
+                    .doubleColumn("d", new double[]{1.5, 2.5, 3.5})
+                    .boolColumn("b", new boolean[]{true, false, true})
+                    .timestampColumn("t", new long[]{1000, 2000, 3000}, ChronoUnit.MILLIS)
+                    .symbol("sym", new CharSequence[]{"a", null, "c"})
+                    .at(new long[]{1, 2, 3}, ChronoUnit.MICROS);
+        }
+        serverMain.awaitTxn(table, expectedTxn);
+    }
+
     private static void flushAndAssertError(Sender sender, String... errors) {
         try {
             sender.flush();
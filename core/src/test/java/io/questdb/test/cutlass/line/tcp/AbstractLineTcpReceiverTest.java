@@ -120,6 +120,7 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
     };
     protected int partitionByDefault = PartitionBy.DAY;
     protected boolean useLegacyStringDefault = true;
+    protected long writerRelocationInterval = 1000;
 
     protected final LineTcpReceiverConfiguration lineConfiguration = new DefaultLineTcpReceiverConfiguration() {
         @Override
@@ -201,6 +202,11 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
             return 4;
         }
 
+        @Override
+        public long getWriterRelocationInterval() {
+            return writerRelocationInterval;
+        }
+
         @Override
         public boolean isUseLegacyStringDefault() {
             return useLegacyStringDefault;
@@ -254,6 +260,7 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
         partitionByDefault = PartitionBy.DAY;
         disconnectOnError = false;
         nf = NetworkFacadeImpl.INSTANCE;
+        writerRelocationInterval = 1000;
     }
 
     protected void assertTable(CharSequence expected, CharSequence tableName) {
@@ -76,10 +76,13 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
     protected NoNetworkIOJob noNetworkIOJob;
     protected String recvBuffer;
     protected LineTcpMeasurementScheduler scheduler;
+    protected boolean startWorkerPool;
     protected boolean stringToCharCastAllowed;
     protected boolean symbolAsFieldSupported;
     protected boolean useLegacyString;
     protected WorkerPool workerPool;
+    protected int writerQueueCapacity;
+    protected long writerRelocationInterval;
 
     @Before
     @Override
@@ -96,6 +99,9 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
         useLegacyString = true;
         autoCreateNewColumns = true;
         autoCreateNewTables = true;
+        startWorkerPool = true;
+        writerQueueCapacity = 64;
+        writerRelocationInterval = 1000;
         lineTcpConfiguration = createNoAuthReceiverConfiguration(provideLineTcpNetworkFacade());
         noNetworkIOJob = new NoNetworkIOJob(lineTcpConfiguration);
     }
@@ -223,6 +229,16 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
                 return 150;
             }
 
+            @Override
+            public int getWriterQueueCapacity() {
+                return writerQueueCapacity;
+            }
+
+            @Override
+            public long getWriterRelocationInterval() {
+                return writerRelocationInterval;
+            }
+
             @Override
             public boolean isStringToCharCastAllowed() {
                 return stringToCharCastAllowed;
@@ -355,7 +371,9 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
         });
         Assert.assertFalse(context.invalid());
         Assert.assertEquals(FD, context.getFd());
-        workerPool.start(LOG);
+        if (startWorkerPool) {
+            workerPool.start(LOG);
+        }
     }
 
     protected void waitForIOCompletion() {
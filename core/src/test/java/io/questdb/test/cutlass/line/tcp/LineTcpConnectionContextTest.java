@@ -1941,6 +1941,42 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
         });
     }
 
+    @Test
+    public void testWriterRelocationPreservesRowOrder() throws Exception {
+        // relocation applies to the tables that have a dedicated writer thread
+        assumeFalse(walEnabled);
+        final String table = "relocated";
+        ddl("create table " + table + " (v long, timestamp timestamp) timestamp(timestamp) partition by day bypass wal");
+        writerQueueCapacity = 4;
+        writerRelocationInterval = 0;
+        // the writer threads are started once all events are published
+        startWorkerPool = false;
+        runInContext(() -> {
+            final long relocations = metrics.line().writerRelocationCounter().getValue();
+            // same timestamp everywhere, so that the rows are kept in the order they are appended
+            final StringBuilder lines = new StringBuilder();
+            final StringBuilder expected = new StringBuilder("v\ttimestamp\n");
+            for (int i = 0; i < 7; i++) {
+                lines.append(table).append(" v=").append(i).append("i 1465839830100400200\n");
+                expected.append(i).append("\t2016-06-13T17:43:50.100400Z\n");
+            }
+            recvBuffer = lines.toString();
+            // the first 4 events fill the queue of the table's writer thread,
+            // the table is relocated to the other writer thread
+            Assert.assertTrue(handleContextIO0());
+            // the rest of the events goes to the other writer thread's queue
+            Assert.assertFalse(handleContextIO0());
+            Assert.assertTrue(recvBuffer.isEmpty());
+
+            // the new writer thread waits for the previous one to append the first 4 rows
+            workerPool.start(LOG);
+            waitForIOCompletion();
+            closeContext();
+            Assert.assertEquals(relocations + 1, metrics.line().writerRelocationCounter().getValue());
+            assertTable(expected, table);
+        });
+    }
+
     private void addTable(String table) {
         TableModel model = new TableModel(configuration, table, walEnabled ? PartitionBy.DAY : PartitionBy.NONE)
                 .col("location", ColumnType.SYMBOL)
@@ -113,6 +113,14 @@ public class LineTcpReceiverFuzzTest extends AbstractLineTcpReceiverFuzzTest {
         runTest();
     }
 
+    @Test
+    public void testLoadWithWriterRelocation() throws Exception {
+        // fewer tables than writer threads, the tables keep moving between writer threads
+        writerRelocationInterval = 0;
+        initLoadParameters(100, Os.isWindows() ? 3 : 5, 7, 3, 20);
+        runTest();
+    }
+
     @Test
     public void testOnSingleConnectionSingeWalUsed() throws Exception {
         Assume.assumeTrue(walEnabled);
@@ -23,11 +23,14 @@
  ******************************************************************************/
 package io.questdb.test.griffin;
 
+import io.questdb.PropertyKey;
+import io.questdb.cairo.SpillFiles;
 import io.questdb.griffin.SqlException;
 import io.questdb.test.AbstractCairoTest;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
 import java.util.Arrays;
 
 public class GroupByTest extends AbstractCairoTest {
@@ -2671,6 +2674,34 @@ public class GroupByTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testSpilledGroupBy() throws Exception {
+        assertSpilledGroupBy(
+                "select l, count(), sum(d), min(s), max(v), first(id), last(id), count_distinct(sym) from (x union all x) order by l"
+        );
+    }
+
+    @Test
+    public void testSpilledGroupByExpressionKey() throws Exception {
+        assertSpilledGroupBy(
+                "select * from (select sym, l % 13 k, avg(d), string_agg(s, ',') from (x union all x) group by sym, k) order by sym, k"
+        );
+    }
+
+    @Test
+    public void testSpilledGroupByShortKey() throws Exception {
+        assertSpilledGroupBy(
+                "select sh, count(), sum(d) from (x union all x) order by sh"
+        );
+    }
+
+    @Test
+    public void testSpilledGroupByToTop() throws Exception {
+        assertSpilledGroupBy(
+                "select x, count(), sum(c) from long_sequence(3) cross join (select v, count() c from (x union all x)) group by x order by x"
+        );
+    }
+
     @Test
     public void testStarIsNotAllowedInGroupBy() throws Exception {
         assertMemoryLeak(() -> {
@@ -2735,4 +2766,26 @@ public class GroupByTest extends AbstractCairoTest {
             Assert.assertEquals(errorMessage, sqle.getMessage());
         }
     }
+
+    private void assertSpilledGroupBy(String query) throws Exception {
+        assertMemoryLeak(() -> {
+            ddl(
+                    "create table x as (" +
+                            "select x id, rnd_long(0, 500, 0) l, rnd_double() d, rnd_symbol('a','b','c',null) sym," +
+                            " rnd_str(3, 5, 1) s, rnd_varchar(1, 4, 1) v, rnd_short(0, 1000) sh, timestamp_sequence(0, 1000) ts" +
+                            " from long_sequence(3000)" +
+                            ") timestamp(ts)"
+            );
+            printSql(query);
+            final String expected = sink.toString();
+
+            setProperty(PropertyKey.CAIRO_SQL_HASH_SPILL_THRESHOLD, 32);
+            setProperty(PropertyKey.CAIRO_SQL_HASH_SPILL_PARTITIONS, 4);
+            assertSql(expected, query);
+
+            // spill files are removed once the cursor is closed
+            final String[] spilled = new File(configuration.getRoot(), SpillFiles.SPILL_DIRECTORY).list();
+            Assert.assertTrue(spilled == null || spilled.length == 0);
+        });
+    }
 }
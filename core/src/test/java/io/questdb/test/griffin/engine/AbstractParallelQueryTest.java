@@ -0,0 +1,92 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin.engine;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.WorkerPool;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.griffin.CustomisableRunnable;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+
+/**
+ * Shared fixture of the parallel ORDER BY, top K and hash join tests. Page frames are
+ * kept small, so that even modest tables are split into many tasks, and
+ * {@link #assertWithPool(CustomisableRunnable)} runs the test against a pool of
+ * {@link #WORKER_COUNT} workers competing for them.
+ */
+public abstract class AbstractParallelQueryTest extends AbstractCairoTest {
+    protected static final int WORKER_COUNT = 4;
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 100;
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        // small shard count and reduce queue capacity make workers and
+        // the query owner steal tasks from each other
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 2);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WORK_STEALING_THRESHOLD, 1);
+        super.setUp();
+    }
+
+    protected static void assertQueries(String actualSql, String expectedSql) throws SqlException {
+        assertSqlCursors(expectedSql, actualSql);
+    }
+
+    protected static void assertQueries(CairoEngine engine, SqlExecutionContext sqlExecutionContext, String actualSql, String expectedSql) throws SqlException {
+        TestUtils.assertSqlCursors(engine, sqlExecutionContext, expectedSql, actualSql, LOG);
+    }
+
+    protected static void createTable(CharSequence name, int rows, long timestampStep) throws SqlException {
+        ddl(tableDdl(name, rows, timestampStep));
+    }
+
+    protected static void createTable(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext, CharSequence name, int rows, long timestampStep) throws SqlException {
+        ddl(compiler, tableDdl(name, rows, timestampStep), sqlExecutionContext);
+    }
+
+    protected void assertWithPool(CustomisableRunnable runnable) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool(() -> WORKER_COUNT);
+            TestUtils.execute(pool, runnable, configuration, LOG);
+        });
+    }
+
+    private static String tableDdl(CharSequence name, int rows, long timestampStep) {
+        // l and i have nulls, negative values and plenty of duplicates
+        return "create table " + name + " as (" +
+                "select rnd_long(-1000, 1000, 2) l, rnd_int(-100, 100, 2) i, cast(rnd_long(0, 50, 0) as timestamp) t, timestamp_sequence(0, " + timestampStep + ") ts " +
+                "from long_sequence(" + rows + ")" +
+                ") timestamp(ts) partition by hour";
+    }
+}
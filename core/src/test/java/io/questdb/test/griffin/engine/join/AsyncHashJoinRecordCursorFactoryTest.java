@@ -0,0 +1,239 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin.engine.join;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.test.griffin.engine.AbstractParallelQueryTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncHashJoinRecordCursorFactoryTest extends AbstractParallelQueryTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, "true");
+        super.setUp();
+    }
+
+    @Test
+    public void testEmptySlave() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(1_000);
+            ddl("create table z (l long, ts timestamp) timestamp(ts) partition by day");
+            assertQueries(
+                    "select x.l, z.ts from x join z on (l)",
+                    "select x.l, z.ts from x join (select l + 0 l, ts from z) z on (l)"
+            );
+        });
+    }
+
+    @Test
+    public void testHashTableExceedsResizeLimit() throws Exception {
+        setProperty(PropertyKey.CAIRO_SQL_MAP_MAX_RESIZES, 0);
+        assertMemoryLeak(() -> {
+            createTables(1_000);
+            assertExceptionNoLeakCheck("select x.l, y.ts from x join y on (l)", 0, "limit of 0 resizes exceeded in parallel hash join");
+        });
+    }
+
+    @Test
+    public void testJoinInt() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(300);
+            assertQueries(
+                    "select x.i, x.ts, y.ts from x join y on (i) order by x.ts, y.ts",
+                    "select x.i, x.ts, y.ts from x join (select i + 0 i, ts from y) y on (i) order by x.ts, y.ts"
+            );
+        });
+    }
+
+    @Test
+    public void testJoinLong() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(300);
+            assertQueries(
+                    "select x.l, x.ts, y.ts from x join y on (l) order by x.ts, y.ts",
+                    "select x.l, x.ts, y.ts from x join (select l + 0 l, ts from y) y on (l) order by x.ts, y.ts"
+            );
+            // null keys match each other, just like in the map-based hash join
+            assertQueries(
+                    "select count() from x join y on (l) where x.l = null",
+                    "select count() from x join (select l + 0 l, ts from y) y on (l) where x.l = null"
+            );
+        });
+    }
+
+    @Test
+    public void testJoinTimestamp() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(300);
+            assertQueries(
+                    "select x.l, x.t, y.l from x join y on (t) order by x.ts, y.ts",
+                    "select x.l, x.t, y.l from x join (select l, dateadd('s', 0, t) t, ts from y) y on (t) order by x.ts, y.ts"
+            );
+        });
+    }
+
+    @Test
+    public void testMasterOrderPreserved() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(300);
+            assertQueries(
+                    "select x.ts, y.ts from x join y on (l) limit 1000",
+                    "select x.ts, y.ts from x join y on (l) order by x.ts, y.ts limit 1000"
+            );
+        });
+    }
+
+    @Test
+    public void testMultipleWorkersDuplicateKeys() throws Exception {
+        assertWithPool((engine, compiler, sqlExecutionContext) -> {
+            // all workers insert the same key, so they keep racing for the same slot
+            ddl(compiler, "create table x as (select x % 3 + 41 k, timestamp_sequence(0, 1000000) ts from long_sequence(30)) timestamp(ts) partition by hour", sqlExecutionContext);
+            ddl(compiler, "create table y as (select 42L k, timestamp_sequence(0, 10000) ts from long_sequence(10000)) timestamp(ts) partition by hour", sqlExecutionContext);
+            assertPlanNoLeakCheck(
+                    compiler,
+                    "select * from x join y on (k)",
+                    "SelectedRecord\n" +
+                            "    Async Hash Join workers: " + WORKER_COUNT + "\n" +
+                            "      condition: y.k=x.k\n" +
+                            "        PageFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: x\n" +
+                            "        Hash\n" +
+                            "            PageFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: y\n",
+                    sqlExecutionContext
+            );
+            assertQueries(
+                    engine,
+                    sqlExecutionContext,
+                    "select x.k, x.ts, y.ts from x join y on (k) order by x.ts, y.ts",
+                    "select x.k, x.ts, y.ts from x join (select k + 0 k, ts from y) y on (k) order by x.ts, y.ts"
+            );
+
+            // a handful of keys shared by thousands of rows each, including null and negative keys
+            ddl(compiler, "create table w as (select case when x % 5 = 0 then null else x % 5 - 3 end k, timestamp_sequence(0, 1000000) ts from long_sequence(40)) timestamp(ts) partition by hour", sqlExecutionContext);
+            ddl(compiler, "create table z as (select case when x % 4 = 0 then null else x % 4 - 2 end k, timestamp_sequence(0, 10000) ts from long_sequence(20000)) timestamp(ts) partition by hour", sqlExecutionContext);
+            assertQueries(
+                    engine,
+                    sqlExecutionContext,
+                    "select w.k, w.ts, z.ts from w join z on (k) order by w.ts, z.ts",
+                    "select w.k, w.ts, z.ts from w join (select k + 0 k, ts from z) z on (k) order by w.ts, z.ts"
+            );
+        });
+    }
+
+    @Test
+    public void testMultipleWorkersReusedFactory() throws Exception {
+        assertWithPool((engine, compiler, sqlExecutionContext) -> {
+            ddl(compiler, "create table x as (select rnd_long(0, 1000, 0) k, timestamp_sequence(0, 1000000) ts from long_sequence(1000)) timestamp(ts) partition by hour", sqlExecutionContext);
+            ddl(compiler, "create table y (k long, ts timestamp) timestamp(ts) partition by hour", sqlExecutionContext);
+            try (
+                    RecordCursorFactory factory = compiler.compile(
+                            "select x.k, x.ts, y.ts from x join y on (k) order by x.ts, y.ts",
+                            sqlExecutionContext
+                    ).getRecordCursorFactory();
+                    RecordCursorFactory expectedFactory = compiler.compile(
+                            "select x.k, x.ts, y.ts from x join (select k + 0 k, ts from y) y on (k) order by x.ts, y.ts",
+                            sqlExecutionContext
+                    ).getRecordCursorFactory()
+            ) {
+                // the hash table is sized upfront for the row count of each build, so the same
+                // factory must allocate a larger table as the build side grows between executions
+                long ts = 0;
+                for (int rows : new int[]{10, 1_000, 20_000, 5}) {
+                    insert(
+                            compiler,
+                            "insert into y select rnd_long(0, 1000, 0), timestamp_sequence(" + ts + ", 1000) from long_sequence(" + rows + ")",
+                            sqlExecutionContext
+                    );
+                    ts += rows * 1000L;
+                    try (
+                            RecordCursor expectedCursor = expectedFactory.getCursor(sqlExecutionContext);
+                            RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+                    ) {
+                        TestUtils.assertEquals(expectedCursor, expectedFactory.getMetadata(), cursor, factory.getMetadata(), false);
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testMultipleWorkersUniqueKeys() throws Exception {
+        assertWithPool((engine, compiler, sqlExecutionContext) -> {
+            // every row claims its own slot, half of the master rows find no match
+            ddl(compiler, "create table x as (select (x * 2) - 10000 k, timestamp_sequence(0, 1000000) ts from long_sequence(10000)) timestamp(ts) partition by hour", sqlExecutionContext);
+            ddl(compiler, "create table y as (select x - 5000 k, timestamp_sequence(0, 700000) ts from long_sequence(20000)) timestamp(ts) partition by hour", sqlExecutionContext);
+            assertQueries(
+                    engine,
+                    sqlExecutionContext,
+                    "select x.k, x.ts, y.ts from x join y on (k)",
+                    "select x.k, x.ts, y.ts from x join (select k + 0 k, ts from y) y on (k) order by x.ts"
+            );
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(10);
+            assertPlanNoLeakCheck(
+                    "select * from x join y on (l)",
+                    "SelectedRecord\n" +
+                            "    Async Hash Join workers: 1\n" +
+                            "      condition: y.l=x.l\n" +
+                            "        PageFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: x\n" +
+                            "        Hash\n" +
+                            "            PageFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: y\n"
+            );
+        });
+    }
+
+    @Test
+    public void testRowIdsExceedMemoryLimit() throws Exception {
+        setProperty(PropertyKey.CAIRO_SQL_HASH_JOIN_VALUE_PAGE_SIZE, 4096);
+        setProperty(PropertyKey.CAIRO_SQL_HASH_JOIN_VALUE_MAX_PAGES, 1);
+        assertMemoryLeak(() -> {
+            createTables(1_000);
+            assertExceptionNoLeakCheck("select x.l, y.ts from x join y on (l)", 0, "limit of 4096 memory exceeded in parallel hash join");
+        });
+    }
+
+    private static void createTables(int rows) throws Exception {
+        createTable("x", rows, 1_000_000);
+        createTable("y", rows, 700_000);
+    }
+}
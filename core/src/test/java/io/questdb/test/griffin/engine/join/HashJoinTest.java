@@ -24,6 +24,8 @@
 
 package io.questdb.test.griffin.engine.join;
 
+import io.questdb.PropertyKey;
+import io.questdb.cairo.SpillFiles;
 import io.questdb.cairo.TableReader;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
@@ -34,6 +36,8 @@ import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
+
 
 public class HashJoinTest extends AbstractCairoTest {
 
@@ -132,4 +136,78 @@ public class HashJoinTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testHashJoinSpillKeepsMasterTimestamp() throws Exception {
+        assertSpilledHashJoinKeepsMasterTimestamp("select a.id, b.id, a.ts from a join b on (l)", "ts");
+    }
+
+    @Test
+    public void testHashJoinSpillKeepsMasterTimestampDescending() throws Exception {
+        assertSpilledHashJoinKeepsMasterTimestamp("select a.id, b.id, a.ts from (a order by ts desc) a join b on (l)", "ts###DESC");
+    }
+
+    @Test
+    public void testHashJoinSpilled() throws Exception {
+        assertSpilledHashJoin("select * from (select a.id, b.id, a.l, a.s, b.v from a join b on (l)) order by 1, 2");
+    }
+
+    @Test
+    public void testHashJoinSpilledMultipleKeys() throws Exception {
+        assertSpilledHashJoin("select * from (select a.id, b.id, a.sym, b.s, b.ts from a join b on (sym, s)) order by 1, 2");
+    }
+
+    @Test
+    public void testHashJoinSpilledShortKey() throws Exception {
+        assertSpilledHashJoin("select * from (select a.id, b.id, a.sh, b.l from a join b on (sh)) order by 1, 2");
+    }
+
+    @Test
+    public void testHashJoinSpilledToTop() throws Exception {
+        assertSpilledHashJoin("select count(*), sum(id), sum(id1) from long_sequence(3) cross join (select a.id, b.id from a join b on (l, v))");
+    }
+
+    private void assertSpilledHashJoin(String query) throws Exception {
+        assertMemoryLeak(() -> {
+            // no designated timestamp on the master, so that the partitions are joined in hash order
+            ddl(
+                    "create table a as (" +
+                            "select x id, rnd_long(0, 200, 0) l, rnd_symbol('a','b','c',null) sym, rnd_str('x','y','z') s," +
+                            " rnd_varchar('u','v') v, rnd_short(0, 200) sh, timestamp_sequence(0, 1000) ts" +
+                            " from long_sequence(2000)" +
+                            ")"
+            );
+            ddl(
+                    "create table b as (" +
+                            "select x id, rnd_long(0, 200, 0) l, rnd_symbol('a','b','c',null) sym, rnd_str('x','y','z') s," +
+                            " rnd_varchar('u','v') v, rnd_short(0, 200) sh, timestamp_sequence(0, 1000) ts" +
+                            " from long_sequence(1000)" +
+                            ") timestamp(ts)"
+            );
+            printSql(query);
+            final String expected = sink.toString();
+
+            setProperty(PropertyKey.CAIRO_SQL_HASH_SPILL_THRESHOLD, 16);
+            setProperty(PropertyKey.CAIRO_SQL_HASH_SPILL_PARTITIONS, 4);
+            assertSql(expected, query);
+
+            // spill files are removed once the cursor is closed
+            final String[] spilled = new File(configuration.getRoot(), SpillFiles.SPILL_DIRECTORY).list();
+            Assert.assertTrue(spilled == null || spilled.length == 0);
+        });
+    }
+
+    private void assertSpilledHashJoinKeepsMasterTimestamp(String query, String expectedTimestamp) throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table a as (select x id, rnd_long(0, 200, 0) l, timestamp_sequence(0, 1000) ts from long_sequence(2000)) timestamp(ts)");
+            // unique slave keys, so that the order of the joined rows follows the master alone
+            ddl("create table b as (select x id, x - 1 l, timestamp_sequence(0, 1000) ts from long_sequence(200)) timestamp(ts)");
+            printSql(query);
+            final String expected = sink.toString();
+
+            setProperty(PropertyKey.CAIRO_SQL_HASH_SPILL_THRESHOLD, 16);
+            setProperty(PropertyKey.CAIRO_SQL_HASH_SPILL_PARTITIONS, 4);
+            // joined partitions are merged back in master timestamp order
+            assertQueryNoLeakCheck(expected, query, expectedTimestamp, false, false);
+        });
+    }
 }
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin.engine.orderby;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.SpillFiles;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+
+public class ExternalSortedRecordCursorTest extends AbstractCairoTest {
+
+    @Test
+    public void testSortAsc() throws Exception {
+        assertSpilledSort("select * from (x union all x) order by l, sym");
+    }
+
+    @Test
+    public void testSortDesc() throws Exception {
+        assertSpilledSort("select * from (x union all x) order by l desc, s");
+    }
+
+    @Test
+    public void testSortFitsInMemory() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String query = "select * from (x union all x) order by v, ts desc";
+            printSql(query);
+            final String expected = sink.toString();
+
+            // the threshold is above the data size, so the sort never spills
+            setProperty(PropertyKey.CAIRO_SQL_SORT_SPILL_THRESHOLD, 64 * 1024 * 1024);
+            assertSql(expected, query);
+        });
+    }
+
+    @Test
+    public void testSortWithLimit() throws Exception {
+        assertSpilledSort("select * from (select * from (x union all x) order by s desc, l) limit 100");
+    }
+
+    @Test
+    public void testWindow() throws Exception {
+        assertSpilledSort("select sym, l, ts, row_number() over (partition by sym order by l), sum(l) over (order by s) from x");
+    }
+
+    private static void createTable() throws Exception {
+        ddl(
+                "create table x as (" +
+                        "select rnd_symbol('a','b','c') sym," +
+                        " rnd_long(0, 100, 1) l," +
+                        " rnd_str(3, 10, 1) s," +
+                        " rnd_varchar(1, 20, 1) v," +
+                        " timestamp_sequence(0, 1000) ts" +
+                        " from long_sequence(5000)" +
+                        ") timestamp(ts)"
+        );
+    }
+
+    private void assertSpilledSort(String query) throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            printSql(query);
+            final String expected = sink.toString();
+
+            setProperty(PropertyKey.CAIRO_SQL_SORT_SPILL_THRESHOLD, 16 * 1024);
+            assertSql(expected, query);
+
+            // spill files are removed once the cursor is closed
+            final String[] spilled = new File(configuration.getRoot(), SpillFiles.SPILL_DIRECTORY).list();
+            Assert.assertTrue(spilled == null || spilled.length == 0);
+        });
+    }
+}
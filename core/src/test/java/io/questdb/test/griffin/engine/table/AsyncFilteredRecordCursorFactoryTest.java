@@ -490,6 +490,27 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractCairoTest {
         testPageFrameSequence(SqlJitMode.JIT_MODE_DISABLED, AsyncFilteredRecordCursorFactory.class);
     }
 
+    @Test
+    public void testPageFrameSequenceReadAhead() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_READ_AHEAD_ENABLED, true);
+        node1.setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_READ_AHEAD_FRAMES, 2);
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+            compiler.compile("create table x as (select rnd_double() a, rnd_varchar(1, 40, 1) v, timestamp_sequence(20000000, 100000) t from long_sequence(500000)) timestamp(t) partition by hour", sqlExecutionContext);
+            final String sql = "x where a > 0.9";
+            try (RecordCursorFactory f = (compiler.compile(sql, sqlExecutionContext).getRecordCursorFactory())) {
+                Assert.assertEquals(AsyncFilteredRecordCursorFactory.class, f.getBaseFactory().getClass());
+            }
+
+            final StringSink expected = new StringSink();
+            sqlExecutionContext.setParallelFilterEnabled(false);
+            TestUtils.printSql(compiler, sqlExecutionContext, sql, expected);
+            sqlExecutionContext.setParallelFilterEnabled(true);
+            // read-ahead only warms up the page cache, so it must not change the result
+            TestUtils.assertSql(compiler, sqlExecutionContext, sql, sink, expected);
+        });
+    }
+
     @Test
     public void testPositiveLimit() throws Exception {
         withPool((engine, compiler, sqlExecutionContext) -> {
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin.engine.table;
+
+import io.questdb.PropertyKey;
+import io.questdb.test.griffin.engine.AbstractParallelQueryTest;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncSortedLightRecordCursorFactoryTest extends AbstractParallelQueryTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ORDERBY_ENABLED, "true");
+        super.setUp();
+    }
+
+    @Test
+    public void testFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", 10_000, 1_000_000);
+            assertQueries("select l from x where i > 0 order by l", "select l from (select l, ts from x where i > 0 order by l, ts)");
+            assertQueries("select i from x where l % 3 = 0 order by i desc", "select i from (select i, ts from x where l % 3 = 0 order by i desc, ts)");
+        });
+    }
+
+    @Test
+    public void testMultipleWorkers() throws Exception {
+        assertWithPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext, "x", 10_000, 1_000_000);
+            assertPlanNoLeakCheck(
+                    compiler,
+                    "select * from x order by l",
+                    "Async Radix sort light workers: " + WORKER_COUNT + "\n" +
+                            "  keys: [l]\n" +
+                            "    PageFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n",
+                    sqlExecutionContext
+            );
+            // l and i have nulls, negative values and duplicates; the multi-key sort is the serial
+            // reference and only keys are compared, since the order of equal keys is not defined
+            assertQueries(engine, sqlExecutionContext, "select l from x order by l", "select l from (select l, ts from x order by l, ts)");
+            assertQueries(engine, sqlExecutionContext, "select l from x order by l desc", "select l from (select l, ts from x order by l desc, ts)");
+            assertQueries(engine, sqlExecutionContext, "select i from x order by i", "select i from (select i, ts from x order by i, ts)");
+            assertQueries(engine, sqlExecutionContext, "select i from x order by i desc", "select i from (select i, ts from x order by i desc, ts)");
+            assertQueries(engine, sqlExecutionContext, "select l from x where i < 0 order by l", "select l from (select l, ts from x where i < 0 order by l, ts)");
+
+            // a handful of keys around the sign bit and the extremes, each repeated thousands of times
+            ddl(
+                    compiler,
+                    "create table y as (" +
+                            "select case" +
+                            "  when x % 7 = 0 then -9223372036854775807L" +
+                            "  when x % 5 = 0 then 9223372036854775807L" +
+                            "  when x % 3 = 0 then null" +
+                            "  else (x % 4) - 2" +
+                            " end l, timestamp_sequence(0, 1000000) ts " +
+                            "from long_sequence(20000)" +
+                            ") timestamp(ts) partition by hour",
+                    sqlExecutionContext
+            );
+            assertQueries(engine, sqlExecutionContext, "select l from y order by l", "select l from (select l, ts from y order by l, ts)");
+            assertQueries(engine, sqlExecutionContext, "select l from y order by l desc", "select l from (select l, ts from y order by l desc, ts)");
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", 10, 1_000_000);
+            assertPlanNoLeakCheck(
+                    "select * from x order by l desc",
+                    "Async Radix sort light workers: 1\n" +
+                            "  keys: [l desc]\n" +
+                            "    PageFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSortAsc() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", 10_000, 1_000_000);
+            assertQueries("select l from x order by l", "select l from (select l, ts from x order by l, ts)");
+            assertQueries("select i from x order by i", "select i from (select i, ts from x order by i, ts)");
+            assertQueries("select ts from x order by ts", "select ts from (select ts, l from x order by ts, l)");
+        });
+    }
+
+    @Test
+    public void testSortDesc() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", 10_000, 1_000_000);
+            assertQueries("select l from x order by l desc", "select l from (select l, ts from x order by l desc, ts)");
+            assertQueries("select i from x order by i desc", "select i from (select i, ts from x order by i desc, ts)");
+        });
+    }
+}
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin.engine.table;
+
+import io.questdb.PropertyKey;
+import io.questdb.test.griffin.engine.AbstractParallelQueryTest;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncTopKRecordCursorFactoryTest extends AbstractParallelQueryTest {
+    private static final String[] LIMITS = {"0", "10", "-10", "5, 15", "-15, -5", "5, -5", "15, 5", "-5, -15", "100000"};
+
+    @Override
+    @Before
+    public void setUp() {
+        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ORDERBY_ENABLED, "true");
+        super.setUp();
+    }
+
+    @Test
+    public void testFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", 10_000, 1_000_000);
+            for (String limit : LIMITS) {
+                assertQueries(
+                        "select l, ts from x where i > 0 order by l limit " + limit,
+                        "select l, ts from (select l, ts from x where i > 0 order by l, ts limit " + limit + ")"
+                );
+                assertQueries(
+                        "select i, ts from x where l % 3 = 0 order by i desc limit " + limit,
+                        "select i, ts from (select i, ts from x where l % 3 = 0 order by i desc, ts limit " + limit + ")"
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testMultipleWorkers() throws Exception {
+        assertWithPool((engine, compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext, "x", 10_000, 1_000_000);
+            assertPlanNoLeakCheck(
+                    compiler,
+                    "select * from x order by l limit 3",
+                    "Async Top K lo: 3 workers: " + WORKER_COUNT + "\n" +
+                            "  keys: [l]\n" +
+                            "    PageFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n",
+                    sqlExecutionContext
+            );
+            for (String limit : LIMITS) {
+                assertQueries(
+                        engine,
+                        sqlExecutionContext,
+                        "select l, ts from x order by l desc limit " + limit,
+                        "select l, ts from (select l, ts from x order by l desc, ts limit " + limit + ")"
+                );
+                assertQueries(
+                        engine,
+                        sqlExecutionContext,
+                        "select i, ts from x where l < 0 order by i limit " + limit,
+                        "select i, ts from (select i, ts from x where l < 0 order by i, ts limit " + limit + ")"
+                );
+            }
+
+            // limits beyond the row count return the whole table in order
+            for (String limit : new String[]{"10000", "10001", "-20000", "9990, 20000", "-20000, -9990"}) {
+                assertQueries(
+                        engine,
+                        sqlExecutionContext,
+                        "select l, ts from x order by l limit " + limit,
+                        "select l, ts from (select l, ts from x order by l, ts limit " + limit + ")"
+                );
+            }
+
+            // three keys only, so that every cut-off falls among thousands of equal keys spread
+            // over all page frames; the earlier row must win a tie on all workers
+            ddl(
+                    compiler,
+                    "create table y as (" +
+                            "select x % 3 - 1 k, timestamp_sequence(0, 1000000) ts " +
+                            "from long_sequence(10000)" +
+                            ") timestamp(ts) partition by hour",
+                    sqlExecutionContext
+            );
+            for (String limit : new String[]{"1", "100", "3333", "3334", "-100", "3300, 3400", "-3400, -3300"}) {
+                assertQueries(
+                        engine,
+                        sqlExecutionContext,
+                        "select k, ts from y order by k limit " + limit,
+                        "select k, ts from (select k, ts from y order by k, ts limit " + limit + ")"
+                );
+                assertQueries(
+                        engine,
+                        sqlExecutionContext,
+                        "select k, ts from y order by k desc limit " + limit,
+                        "select k, ts from (select k, ts from y order by k desc, ts limit " + limit + ")"
+                );
+            }
+
+            // mostly nulls: DESC puts them last, so they show up at the tail and past the non-null keys
+            ddl(
+                    compiler,
+                    "create table z as (" +
+                            "select case when x % 10 = 0 then x - 5000 else null end k, timestamp_sequence(0, 1000000) ts " +
+                            "from long_sequence(10000)" +
+                            ") timestamp(ts) partition by hour",
+                    sqlExecutionContext
+            );
+            for (String limit : new String[]{"10", "1005", "-10", "995, 1010", "-9010, -8990", "20000"}) {
+                assertQueries(
+                        engine,
+                        sqlExecutionContext,
+                        "select k, ts from z order by k desc limit " + limit,
+                        "select k, ts from (select k, ts from z order by k desc, ts limit " + limit + ")"
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", 10, 1_000_000);
+            assertPlanNoLeakCheck(
+                    "select * from x order by l desc limit 3",
+                    "Async Top K lo: 3 workers: 1\n" +
+                            "  keys: [l desc]\n" +
+                            "    PageFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testTopK() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", 10_000, 1_000_000);
+            for (String limit : LIMITS) {
+                assertQueries(
+                        "select l, ts from x order by l limit " + limit,
+                        "select l, ts from (select l, ts from x order by l, ts limit " + limit + ")"
+                );
+                assertQueries(
+                        "select l, ts from x order by l desc limit " + limit,
+                        "select l, ts from (select l, ts from x order by l desc, ts limit " + limit + ")"
+                );
+                assertQueries(
+                        "select i, ts from x order by i limit " + limit,
+                        "select i, ts from (select i, ts from x order by i, ts limit " + limit + ")"
+                );
+            }
+        });
+    }
+}
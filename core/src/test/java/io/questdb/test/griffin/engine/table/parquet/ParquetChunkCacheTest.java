@@ -0,0 +1,185 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin.engine.table.parquet;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableReader;
+import io.questdb.griffin.engine.table.parquet.*;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.std.str.Path;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParquetChunkCacheTest extends AbstractCairoTest {
+    private static final int ROW_GROUP_SIZE = 100;
+    private static final long CHUNK_SIZE = ROW_GROUP_SIZE * Long.BYTES;
+
+    @Test
+    public void testAcquireAndRelease() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (
+                    Path path = new Path();
+                    ParquetChunkCache cache = new ParquetChunkCache(1024 * 1024);
+                    PartitionDecoder decoder = new PartitionDecoder(engine.getConfiguration().getFilesFacade(), cache, 42)
+            ) {
+                encode(path, 1000);
+                decoder.of(path.$());
+
+                Assert.assertNull(cache.acquire(decoder, 0, 0, ColumnType.LONG));
+                final long chunkPtr = decoder.decodeColumnChunk(0, 0, ColumnType.LONG);
+                final ParquetChunkCache.Chunk chunk = cache.put(decoder, 0, 0, ColumnType.LONG, chunkPtr);
+                Assert.assertNotNull(chunk);
+                Assert.assertEquals(CHUNK_SIZE, chunk.getDataSize());
+                Assert.assertTrue(Vect.memeq(chunk.getDataPtr(), PartitionDecoder.getChunkDataPtr(chunkPtr), CHUNK_SIZE));
+                Assert.assertEquals(CHUNK_SIZE, cache.getSize());
+                Assert.assertEquals(CHUNK_SIZE, Unsafe.getMemUsedByTag(MemoryTag.NATIVE_PARQUET_CHUNK_CACHE));
+
+                Assert.assertSame(chunk, cache.acquire(decoder, 0, 0, ColumnType.LONG));
+                // same chunk decoded as another type is a miss
+                Assert.assertNull(cache.acquire(decoder, 0, 0, ColumnType.TIMESTAMP));
+                Assert.assertNull(cache.acquire(decoder, 1, 0, ColumnType.LONG));
+                cache.release(chunk);
+                cache.release(chunk);
+
+                // a decoder of another table must not see the chunk
+                try (PartitionDecoder otherDecoder = new PartitionDecoder(engine.getConfiguration().getFilesFacade(), cache, 43)) {
+                    otherDecoder.of(path.$());
+                    Assert.assertNull(otherDecoder.getChunkCache().acquire(otherDecoder, 0, 0, ColumnType.LONG));
+                }
+                Assert.assertEquals(0, cache.getSize());
+                Assert.assertEquals(0, Unsafe.getMemUsedByTag(MemoryTag.NATIVE_PARQUET_CHUNK_CACHE));
+            }
+        });
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (
+                    Path path = new Path();
+                    ParquetChunkCache cache = new ParquetChunkCache(3 * CHUNK_SIZE);
+                    PartitionDecoder decoder = new PartitionDecoder(engine.getConfiguration().getFilesFacade(), cache, 42)
+            ) {
+                encode(path, 1000);
+                decoder.of(path.$());
+
+                final ParquetChunkCache.Chunk pinned = put(cache, decoder, 0);
+                Assert.assertNotNull(pinned);
+                for (int rowGroup = 1; rowGroup < 10; rowGroup++) {
+                    final ParquetChunkCache.Chunk chunk = put(cache, decoder, rowGroup);
+                    Assert.assertNotNull(chunk);
+                    cache.release(chunk);
+                    Assert.assertTrue(cache.getSize() <= cache.getCapacity());
+                }
+
+                // pinned chunk is never evicted, the two most recently used chunks are kept
+                Assert.assertSame(pinned, cache.acquire(decoder, 0, 0, ColumnType.LONG));
+                cache.release(pinned);
+                for (int rowGroup = 1; rowGroup < 8; rowGroup++) {
+                    Assert.assertNull(cache.acquire(decoder, rowGroup, 0, ColumnType.LONG));
+                }
+                for (int rowGroup = 8; rowGroup < 10; rowGroup++) {
+                    final ParquetChunkCache.Chunk chunk = cache.acquire(decoder, rowGroup, 0, ColumnType.LONG);
+                    Assert.assertNotNull(chunk);
+                    cache.release(chunk);
+                }
+
+                cache.release(pinned);
+
+                // chunk that doesn't fit is not cached
+                try (ParquetChunkCache smallCache = new ParquetChunkCache(CHUNK_SIZE - 1)) {
+                    Assert.assertNull(smallCache.put(decoder, 0, 0, ColumnType.LONG, decoder.decodeColumnChunk(0, 0, ColumnType.LONG)));
+                }
+
+                cache.clear();
+                Assert.assertEquals(0, cache.getSize());
+            }
+        });
+    }
+
+    @Test
+    public void testFileUpdated() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (
+                    Path path = new Path();
+                    ParquetChunkCache cache = new ParquetChunkCache(1024 * 1024);
+                    PartitionDecoder decoder = new PartitionDecoder(engine.getConfiguration().getFilesFacade(), cache, 42)
+            ) {
+                encode(path, 1000);
+                decoder.of(path.$());
+                final ParquetChunkCache.Chunk pinned = put(cache, decoder, 0);
+                Assert.assertNotNull(pinned);
+                cache.release(put(cache, decoder, 1));
+
+                ddl("insert into x select x + 1000, x::timestamp from long_sequence(10)");
+                encode(path, 1010);
+                decoder.of(path.$());
+
+                // chunks of the previous version of the file are stale
+                Assert.assertNull(cache.acquire(decoder, 0, 0, ColumnType.LONG));
+                Assert.assertNull(cache.acquire(decoder, 1, 0, ColumnType.LONG));
+                // the pinned chunk stays valid until released
+                Assert.assertEquals(CHUNK_SIZE, pinned.getDataSize());
+                Assert.assertEquals(CHUNK_SIZE, cache.getSize());
+                cache.release(pinned);
+                Assert.assertEquals(0, cache.getSize());
+            }
+        });
+    }
+
+    private static void createTable() throws Exception {
+        ddl("create table x as (select x id, x::timestamp ts from long_sequence(1000))");
+    }
+
+    private static void encode(Path path, long rows) {
+        try (
+                PartitionDescriptor partitionDescriptor = new PartitionDescriptor();
+                TableReader reader = newOffPoolReader(configuration, "x")
+        ) {
+            path.of(root).concat("x.parquet");
+            PartitionEncoder.populateFromTableReader(reader, partitionDescriptor, 0);
+            PartitionEncoder.encodeWithOptions(
+                    partitionDescriptor,
+                    path,
+                    ParquetCompression.COMPRESSION_UNCOMPRESSED,
+                    true,
+                    ROW_GROUP_SIZE,
+                    0,
+                    ParquetVersion.PARQUET_VERSION_V1
+            );
+            Assert.assertEquals(rows, reader.size());
+        }
+    }
+
+    private static ParquetChunkCache.Chunk put(ParquetChunkCache cache, PartitionDecoder decoder, int rowGroup) {
+        return cache.put(decoder, rowGroup, 0, ColumnType.LONG, decoder.decodeColumnChunk(rowGroup, 0, ColumnType.LONG));
+    }
+}
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin.engine.table.parquet;
+
+import io.questdb.griffin.engine.table.parquet.PartitionDecoder;
+import io.questdb.griffin.engine.table.parquet.PartitionEncoder;
+import io.questdb.griffin.engine.table.parquet.PartitionUpdater;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Checks that every native method of the Parquet decoder, encoder and updater has a JNI export
+ * with the same name and parameter count in the qdbr sources. The check doesn't need the
+ * libquestdbr binary, so a missing or misnamed symbol fails the build even when the library
+ * is not rebuilt locally, rather than surfacing as an UnsatisfiedLinkError at runtime.
+ */
+public class ParquetJniSymbolsTest {
+    private static final Path QDBR_SOURCES = Paths.get("rust", "qdbr", "src");
+    // a single colon separates the name and the type of a parameter, path separators are double colons
+    private static final Pattern RUST_PARAM = Pattern.compile("(?<!:):(?!:)");
+    private static final StringBuilder rustSources = new StringBuilder();
+
+    @BeforeClass
+    public static void setUpStatic() throws IOException {
+        Assert.assertTrue("qdbr sources not found: " + QDBR_SOURCES.toAbsolutePath(), Files.isDirectory(QDBR_SOURCES));
+        try (Stream<Path> files = Files.walk(QDBR_SOURCES)) {
+            for (Path file : (Iterable<Path>) files.filter(p -> p.toString().endsWith(".rs"))::iterator) {
+                rustSources.append(new String(Files.readAllBytes(file), StandardCharsets.UTF_8)).append('\n');
+            }
+        }
+    }
+
+    @Test
+    public void testPartitionDecoder() {
+        assertJniExports(PartitionDecoder.class);
+    }
+
+    @Test
+    public void testPartitionEncoder() {
+        assertJniExports(PartitionEncoder.class);
+    }
+
+    @Test
+    public void testPartitionUpdater() {
+        assertJniExports(PartitionUpdater.class);
+    }
+
+    private static void assertJniExports(Class<?> clazz) {
+        // class literals don't run static initializers, so the native library is not loaded
+        int nativeCount = 0;
+        for (Method method : clazz.getDeclaredMethods()) {
+            if (!Modifier.isNative(method.getModifiers())) {
+                continue;
+            }
+            nativeCount++;
+            final String symbol = "Java_" + clazz.getName().replace('.', '_') + '_' + method.getName();
+            final Matcher matcher = Pattern.compile("fn\\s+" + symbol + "\\s*(<[^>]*>)?\\s*\\(([^)]*)\\)").matcher(rustSources);
+            Assert.assertTrue("missing JNI export: " + symbol, matcher.find());
+            int paramCount = 0;
+            final Matcher params = RUST_PARAM.matcher(matcher.group(2));
+            while (params.find()) {
+                paramCount++;
+            }
+            // JNIEnv and JClass come first
+            Assert.assertEquals("parameter count mismatch: " + symbol, method.getParameterCount() + 2, paramCount);
+            Assert.assertFalse("duplicate JNI export: " + symbol, matcher.find());
+        }
+        Assert.assertTrue(nativeCount > 0);
+    }
+}
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin.engine.table.parquet;
+
+import io.questdb.griffin.engine.table.parquet.ParquetChunkCache;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParquetPartitionScanTest extends AbstractCairoTest {
+
+    @Test
+    public void testChunkCache() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(10_000);
+            final ParquetChunkCache chunkCache = engine.getParquetChunkCache();
+            Assert.assertEquals(0, chunkCache.getSize());
+
+            assertQueries("select * from %s where id % 3 = 0");
+            final long size = chunkCache.getSize();
+            Assert.assertTrue(size > 0);
+            Assert.assertEquals(size, Unsafe.getMemUsedByTag(MemoryTag.NATIVE_PARQUET_CHUNK_CACHE));
+
+            // repeated queries are served from the cache
+            assertQueries("select * from %s where id % 3 = 0");
+            assertQueries("select a_symbol, count(), sum(a_long) from %s order by a_symbol");
+            Assert.assertEquals(size, chunkCache.getSize());
+
+            // symbol keys are resolved per query, so cached chunks remain valid for new symbols
+            ddl("alter table x add column new_sym symbol");
+            ddl("alter table y add column new_sym symbol");
+            assertQueries("select id, a_symbol, new_sym from %s where a_symbol = 'c'");
+
+            engine.clear();
+            Assert.assertEquals(0, chunkCache.getSize());
+        });
+    }
+
+    @Test
+    public void testFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(10_000);
+            assertQueries("select * from %s where a_long > 0 and a_symbol = 'b'");
+            assertQueries("select id, a_varchar, a_string from %s where a_varchar like '%%а%%'");
+            assertQueries("select * from %s where id % 7 = 0 limit 3");
+            assertQueries("select * from %s where id % 7 = 0 limit -3");
+        });
+    }
+
+    @Test
+    public void testFullScan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(10_000);
+            assertQueries("select * from %s");
+            assertQueries("select * from %s order by designated_ts desc");
+        });
+    }
+
+    @Test
+    public void testGroupBy() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(10_000);
+            assertQueries("select a_symbol, count(), sum(a_long), min(a_double), max(a_int) from %s order by a_symbol");
+            assertQueries("select a_varchar, count(), avg(a_double) from %s order by a_varchar");
+            assertQueries("select count(), sum(a_int), max(designated_ts) from %s");
+            assertQueries("select count_distinct(a_string) from %s");
+        });
+    }
+
+    @Test
+    public void testIntervalScan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(10_000);
+            assertQueries("select * from %s where designated_ts in '1970-01-02'");
+            assertQueries("select * from %s where designated_ts between '1970-01-01T12:00' and '1970-01-03T12:00' order by designated_ts desc");
+            assertQueries("select count() from %s where designated_ts > '1970-01-02T06:00'");
+        });
+    }
+
+    @Test
+    public void testNewColumnAfterConversion() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(1_000);
+            ddl("alter table x add column new_col int");
+            ddl("alter table y add column new_col int");
+            insert("insert into x(id, new_col, designated_ts) values (-1, 42, '1970-01-10')");
+            insert("insert into y(id, new_col, designated_ts) values (-1, 42, '1970-01-10')");
+            assertQueries("select id, new_col, designated_ts from %s where new_col = 42 or id < 3");
+            assertQueries("select count(), sum(new_col) from %s");
+            assertQueries("select id, new_col from %s where new_col = 42");
+
+            ddl("alter table x add column new_byte byte");
+            ddl("alter table y add column new_byte byte");
+            assertQueries("select id, new_byte from %s where new_byte = 0 and id < 10");
+        });
+    }
+
+    @Test
+    public void testRowGroupPruning() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(10_000);
+            assertQueries("select * from %s where id = 4242");
+            assertQueries("select * from %s where id < 1500");
+            assertQueries("select * from %s where 1500 >= id");
+            assertQueries("select * from %s where id > 2500 and id <= 2600 and a_symbol = 'b'");
+            assertQueries("select * from %s where id >= 9990 order by designated_ts desc");
+            assertQueries("select * from %s where a_double > 0.99 and a_int > 0");
+            assertQueries("select * from %s where a_varchar = 'слава' and id < 2000");
+            assertQueries("select * from %s where a_string = 'world' and id > 9000");
+            assertQueries("select * from %s where a_symbol = 'd'");
+            assertQueries("select count(), max(id) from %s where id < 3000 and a_long > 0");
+            assertQueries("select * from %s where id < -1");
+        });
+    }
+
+    @Test
+    public void testSampleBy() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables(10_000);
+            assertQueries("select designated_ts, first(a_long), last(a_symbol) from %s sample by 1h");
+            assertQueries("select designated_ts, a_symbol, sum(a_double) from %s sample by 6h order by designated_ts, a_symbol");
+        });
+    }
+
+    private static void assertQueries(String query) throws Exception {
+        assertSqlCursors(String.format(query, "y"), String.format(query, "x"));
+    }
+
+    private static void createTables(long rows) throws Exception {
+        final String columns = " x id," +
+                " rnd_boolean() a_boolean," +
+                " rnd_int() a_int," +
+                " rnd_long() a_long," +
+                " rnd_double() a_double," +
+                " rnd_symbol('a','b','c', null) a_symbol," +
+                " rnd_str('hello', 'world', '!', null) a_string," +
+                " rnd_varchar('ганьба','слава','добрий','вечір', null) a_varchar," +
+                " timestamp_sequence(0, 30000000) designated_ts" +
+                " from long_sequence(" + rows + ")";
+        ddl("create table x as (select" + columns + ") timestamp(designated_ts) partition by day");
+        ddl("create table y as (select * from x) timestamp(designated_ts) partition by day");
+        // The last partition is kept in native format, so the queries scan mixed formats.
+        ddl("alter table x convert partition to parquet where designated_ts < '1970-01-04'");
+    }
+}
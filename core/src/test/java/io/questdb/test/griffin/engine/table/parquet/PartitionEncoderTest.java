@@ -36,6 +36,9 @@ import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
 
 public class PartitionEncoderTest extends AbstractCairoTest {
     private final static Log LOG = LogFactory.getLog(PartitionEncoderTest.class);
@@ -110,6 +113,35 @@ public class PartitionEncoderTest extends AbstractCairoTest {
         }
     }
 
+    @Test
+    public void testParallelEncodingProducesSameFile() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select" +
+                    " x id," +
+                    " rnd_int() an_int," +
+                    " rnd_double() a_double," +
+                    " rnd_symbol('a','b','c') a_symbol," +
+                    " rnd_varchar('ганьба','слава','добрий','вечір') a_varchar," +
+                    " timestamp_sequence(400000000000, 500) designated_ts" +
+                    " from long_sequence(100000)) timestamp(designated_ts) partition by month");
+            try (
+                    Path path = new Path();
+                    PartitionDescriptor partitionDescriptor = new PartitionDescriptor();
+                    TableReader reader = engine.getReader("x")
+            ) {
+                PartitionEncoder.populateFromTableReader(reader, partitionDescriptor, 0);
+                path.of(root).concat("serial.parquet").$();
+                PartitionEncoder.encodeWithOptions(partitionDescriptor, path, ParquetCompression.packCompressionCodecLevel(ParquetCompression.COMPRESSION_ZSTD, 3), true, 1000, 4096, ParquetVersion.PARQUET_VERSION_V1, false);
+                path.of(root).concat("parallel.parquet").$();
+                PartitionEncoder.encodeWithOptions(partitionDescriptor, path, ParquetCompression.packCompressionCodecLevel(ParquetCompression.COMPRESSION_ZSTD, 3), true, 1000, 4096, ParquetVersion.PARQUET_VERSION_V1, true);
+            }
+            Assert.assertArrayEquals(
+                    Files.readAllBytes(Paths.get(root, "serial.parquet")),
+                    Files.readAllBytes(Paths.get(root, "parallel.parquet"))
+            );
+        });
+    }
+
     @Test
     public void testSmoke() throws Exception {
         assertMemoryLeak(() -> {
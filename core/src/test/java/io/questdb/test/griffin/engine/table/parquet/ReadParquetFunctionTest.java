@@ -30,6 +30,8 @@ import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.griffin.SqlCompiler;
 import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.table.parquet.ParquetCompression;
+import io.questdb.griffin.engine.table.parquet.ParquetVersion;
 import io.questdb.griffin.engine.table.parquet.PartitionDescriptor;
 import io.questdb.griffin.engine.table.parquet.PartitionEncoder;
 import io.questdb.std.Files;
@@ -146,6 +148,53 @@ public class ReadParquetFunctionTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testFilterRowGroupPruning() throws Exception {
+        assertMemoryLeak(() -> {
+            final long rows = 10_000;
+            ddl("create table x as (select" +
+                    " x id," +
+                    " case when x % 2 = 0 then rnd_double() end a_double," +
+                    " rnd_symbol('a','b','c') a_sym," +
+                    " rnd_varchar('foo','bar','baz') a_varchar," +
+                    " timestamp_sequence('2015', 1000000) as a_ts" +
+                    " from long_sequence(" + rows + "))");
+
+            try (
+                    Path path = new Path();
+                    PartitionDescriptor partitionDescriptor = new PartitionDescriptor();
+                    TableReader reader = engine.getReader("x")
+            ) {
+                path.of(root).concat("x.parquet");
+                PartitionEncoder.populateFromTableReader(reader, partitionDescriptor, 0);
+                PartitionEncoder.encodeWithOptions(
+                        partitionDescriptor,
+                        path,
+                        ParquetCompression.COMPRESSION_UNCOMPRESSED,
+                        true,
+                        1000,
+                        0,
+                        ParquetVersion.PARQUET_VERSION_V1
+                );
+                Assert.assertTrue(Files.exists(path.$()));
+
+                final String[] filters = {
+                        "id = 4242",
+                        "id < 1500",
+                        "9500 <= id",
+                        "id > 2500 and id <= 2600 and a_sym = 'b'",
+                        "a_double > 0.99",
+                        "a_varchar = 'baz' and id >= 9999",
+                        "a_ts < '2015-01-01T00:10'",
+                        "id < 0"
+                };
+                for (String filter : filters) {
+                    assertSqlCursors("x where " + filter, "read_parquet('x.parquet') where " + filter);
+                }
+            }
+        });
+    }
+
     @Test
     public void testFileDeleted() throws Exception {
         assertMemoryLeak(() -> {
@@ -241,6 +290,58 @@ public class ReadParquetFunctionTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testParallelFilterAndGroupBy() throws Exception {
+        assertMemoryLeak(() -> {
+            final long rows = 10_000;
+            ddl("create table x as (select" +
+                    " x id," +
+                    " case when x % 2 = 0 then rnd_double() end a_double," +
+                    " rnd_varchar('foo','bar','baz') a_varchar," +
+                    " timestamp_sequence('2015', 1000000) as a_ts" +
+                    " from long_sequence(" + rows + "))");
+
+            try (
+                    Path path = new Path();
+                    PartitionDescriptor partitionDescriptor = new PartitionDescriptor();
+                    TableReader reader = engine.getReader("x")
+            ) {
+                path.of(root).concat("x.parquet");
+                PartitionEncoder.populateFromTableReader(reader, partitionDescriptor, 0);
+                PartitionEncoder.encodeWithOptions(
+                        partitionDescriptor,
+                        path,
+                        ParquetCompression.COMPRESSION_UNCOMPRESSED,
+                        true,
+                        1000,
+                        0,
+                        ParquetVersion.PARQUET_VERSION_V1
+                );
+                Assert.assertTrue(Files.exists(path.$()));
+
+                assertPlanNoLeakCheck(
+                        "read_parquet('x.parquet') where id = 42",
+                        "Async JIT Filter workers: 1\n" +
+                                "  filter: id=42\n" +
+                                "    parquet file sequential scan\n"
+                );
+
+                final String[] queries = {
+                        "(%s) where id = 4242",
+                        "(%s) where a_double > 0.5 and a_varchar = 'foo'",
+                        "(%s) where id < 1500 limit -10",
+                        "(%s) where a_ts > '2015-01-01T01:00' limit 5",
+                        "select a_varchar, count(), sum(id), max(a_double) from (%s) order by a_varchar",
+                        "select a_varchar, count(), min(a_ts) from (%s) where id > 2500 order by a_varchar",
+                        "select count(), sum(a_double), max(id) from (%s)",
+                };
+                for (String query : queries) {
+                    assertSqlCursors(String.format(query, "x"), String.format(query, "read_parquet('x.parquet')"));
+                }
+            }
+        });
+    }
+
     protected static void assertSqlCursors(CharSequence expectedSql, CharSequence actualSql) throws SqlException {
         try (SqlCompiler sqlCompiler = engine.getSqlCompiler()) {
             TestUtils.assertSqlCursors(
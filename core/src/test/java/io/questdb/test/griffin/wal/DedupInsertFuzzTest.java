@@ -24,6 +24,7 @@
 
 package io.questdb.test.griffin.wal;
 
+import io.questdb.PropertyKey;
 import io.questdb.cairo.*;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
@@ -54,6 +55,57 @@ import static io.questdb.test.tools.TestUtils.assertEquals;
 
 public class DedupInsertFuzzTest extends AbstractFuzzTest {
 
+    @Test
+    public void testDedupDuplicateRowFilter() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_DEDUP_DUPLICATE_ROW_FILTER_ENABLED, true);
+        assertMemoryLeak(() -> {
+            ddl("create table x (ts timestamp, s symbol, v varchar, b binary, l long) timestamp(ts) partition by DAY WAL dedup upsert keys(ts, s)");
+            final String rows = "select timestamp_sequence('2024-01-01', 60000000) ts, 's' || (x % 3) s, 'v' || x v, rnd_bin(4, 4, 0) b, x l from long_sequence(10)";
+            insert("insert into x " + rows);
+            drainWalQueue();
+            final String expected = "ts\ts\tv\tl\n" +
+                    "2024-01-01T00:00:00.000000Z\ts1\tv1\t1\n" +
+                    "2024-01-01T00:01:00.000000Z\ts2\tv2\t2\n" +
+                    "2024-01-01T00:02:00.000000Z\ts0\tv3\t3\n" +
+                    "2024-01-01T00:03:00.000000Z\ts1\tv4\t4\n" +
+                    "2024-01-01T00:04:00.000000Z\ts2\tv5\t5\n" +
+                    "2024-01-01T00:05:00.000000Z\ts0\tv6\t6\n" +
+                    "2024-01-01T00:06:00.000000Z\ts1\tv7\t7\n" +
+                    "2024-01-01T00:07:00.000000Z\ts2\tv8\t8\n" +
+                    "2024-01-01T00:08:00.000000Z\ts0\tv9\t9\n" +
+                    "2024-01-01T00:09:00.000000Z\ts1\tv10\t10\n";
+            assertSql(expected, "select ts, s, v, l from x");
+            final long nameTxn = getLastPartitionNameTxn();
+
+            // exact copies of existing rows are dropped without rewriting the partition
+            insert("insert into x select * from x where ts > '2024-01-01T00:04'");
+            drainWalQueue();
+            assertSql(expected, "select ts, s, v, l from x");
+            Assert.assertEquals(nameTxn, getLastPartitionNameTxn());
+
+            // exact copies are dropped, changed and new rows are merged
+            insert("insert into x select ts, s, case when l = 5 then 'changed' else v end, b, l from x where ts > '2024-01-01T00:03'");
+            insert("insert into x values ('2024-01-01T00:04:30', 's0', 'new', null, 11)");
+            drainWalQueue();
+            assertSql(
+                    "ts\ts\tv\tl\n" +
+                            "2024-01-01T00:00:00.000000Z\ts1\tv1\t1\n" +
+                            "2024-01-01T00:01:00.000000Z\ts2\tv2\t2\n" +
+                            "2024-01-01T00:02:00.000000Z\ts0\tv3\t3\n" +
+                            "2024-01-01T00:03:00.000000Z\ts1\tv4\t4\n" +
+                            "2024-01-01T00:04:00.000000Z\ts2\tchanged\t5\n" +
+                            "2024-01-01T00:04:30.000000Z\ts0\tnew\t11\n" +
+                            "2024-01-01T00:05:00.000000Z\ts0\tv6\t6\n" +
+                            "2024-01-01T00:06:00.000000Z\ts1\tv7\t7\n" +
+                            "2024-01-01T00:07:00.000000Z\ts2\tv8\t8\n" +
+                            "2024-01-01T00:08:00.000000Z\ts0\tv9\t9\n" +
+                            "2024-01-01T00:09:00.000000Z\ts1\tv10\t10\n",
+                    "select ts, s, v, l from x"
+            );
+            assertSql("count\n11\n", "select count() from x");
+        });
+    }
+
     @Test
     public void testDedupWithRandomShiftAndStep() throws Exception {
         assertMemoryLeak(() -> {
@@ -370,6 +422,13 @@ public class DedupInsertFuzzTest extends AbstractFuzzTest {
         return true;
     }
 
+    private static long getLastPartitionNameTxn() {
+        try (TableReader reader = getReader("x")) {
+            final TxReader txFile = reader.getTxFile();
+            return txFile.getPartitionNameTxn(txFile.getPartitionCount() - 1);
+        }
+    }
+
     private void assertAllSymbolsSet(
             boolean[] foundSymbols,
             String[] symbols,
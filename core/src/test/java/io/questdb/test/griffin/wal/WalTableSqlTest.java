@@ -28,6 +28,8 @@ import io.questdb.PropertyKey;
 import io.questdb.cairo.*;
 import io.questdb.cairo.sql.InsertMethod;
 import io.questdb.cairo.sql.InsertOperation;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.wal.*;
 import io.questdb.griffin.CompiledQuery;
 import io.questdb.griffin.SqlCompiler;
@@ -41,16 +43,19 @@ import io.questdb.std.*;
 import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.Path;
+import io.questdb.std.str.Utf8String;
 import io.questdb.std.str.Utf8s;
 import io.questdb.test.AbstractCairoTest;
 import io.questdb.test.cairo.Overrides;
 import io.questdb.test.std.TestFilesFacadeImpl;
 import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static io.questdb.PropertyKey.CAIRO_WAL_TXN_NOTIFICATION_QUEUE_CAPACITY;
@@ -1764,6 +1769,158 @@ public class WalTableSqlTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testWalCompression() throws Exception {
+        // WAL writers don't compress when the native library can't release the raw pages
+        Assume.assumeTrue(Files.PUNCH_HOLE_AVAILABLE);
+        AtomicInteger punchHoleCount = new AtomicInteger();
+        FilesFacade ff = new TestFilesFacadeImpl() {
+            @Override
+            public boolean punchHole(long fd, long offset, long len) {
+                punchHoleCount.incrementAndGet();
+                return super.punchHole(fd, offset, len);
+            }
+        };
+
+        node1.setProperty(PropertyKey.CAIRO_WAL_COMPRESSION_ENABLED, true);
+        assertMemoryLeak(ff, () -> {
+            String tableName = testName.getMethodName();
+            ddl("create table " + tableName + " (" +
+                    "x long," +
+                    "sym symbol," +
+                    "s string," +
+                    "v varchar," +
+                    "ts timestamp" +
+                    ") timestamp(ts) partition by DAY WAL");
+            TableToken tableToken = engine.verifyTableName(tableName);
+
+            final int rowsPerTxn = 2000;
+            try (WalWriter walWriter = engine.getWalWriter(tableToken)) {
+                for (int txn = 0; txn < 3; txn++) {
+                    for (int i = 0; i < rowsPerTxn; i++) {
+                        long x = (long) txn * rowsPerTxn + i;
+                        TableWriter.Row row = walWriter.newRow(x * Timestamps.MINUTE_MICROS);
+                        row.putLong(0, x);
+                        row.putSym(1, x % 3 == 0 ? "a" : "b");
+                        row.putStr(2, "s" + x);
+                        row.putVarchar(3, new Utf8String("varchar value " + x));
+                        row.append();
+                    }
+                    walWriter.commit();
+                }
+                // raw pages of committed transactions are released while the segment is open
+                Assert.assertTrue(punchHoleCount.get() > 0);
+
+                try (WalReader reader = engine.getWalReader(sqlExecutionContext.getSecurityContext(), tableToken, walWriter.getWalName(), 0, 3 * rowsPerTxn)) {
+                    final RecordCursor cursor = reader.getDataCursor();
+                    final Record record = cursor.getRecord();
+                    long x = 0;
+                    while (cursor.hasNext()) {
+                        Assert.assertEquals(x, record.getLong(0));
+                        TestUtils.assertEquals("s" + x, record.getStrA(2));
+                        TestUtils.assertEquals("varchar value " + x, Utf8s.toString(record.getVarcharA(3)));
+                        x++;
+                    }
+                    Assert.assertEquals(3 * rowsPerTxn, x);
+                }
+            }
+
+            drainWalQueue();
+
+            assertSql(
+                    "count\tsum\tsum1\tsum2\n" +
+                            "6000\t17997000\t28890\t106890\n",
+                    "select count(), sum(x), sum(length(s)), sum(length(v)) from " + tableName
+            );
+            assertSql(
+                    "sym\tcount\n" +
+                            "a\t2000\n" +
+                            "b\t4000\n",
+                    "select sym, count() from " + tableName + " order by sym"
+            );
+            assertSql(
+                    "x\tsym\ts\tv\tts\n" +
+                            "1999\tb\ts1999\tvarchar value 1999\t1970-01-02T09:19:00.000000Z\n" +
+                            "2000\tb\ts2000\tvarchar value 2000\t1970-01-02T09:20:00.000000Z\n",
+                    "select * from " + tableName + " where x in (1999, 2000)"
+            );
+        });
+    }
+
+    @Test
+    public void testWalSegmentPromotion() throws Exception {
+        AtomicInteger walLinkCount = new AtomicInteger();
+        FilesFacade ff = new TestFilesFacadeImpl() {
+            @Override
+            public int hardLink(LPSZ src, LPSZ hardLink) {
+                if (Utf8s.containsAscii(src, Files.SEPARATOR + "wal")) {
+                    walLinkCount.incrementAndGet();
+                }
+                return super.hardLink(src, hardLink);
+            }
+        };
+
+        node1.setProperty(PropertyKey.CAIRO_WAL_SEGMENT_PROMOTION_ENABLED, true);
+        assertMemoryLeak(ff, () -> {
+            String tableName = testName.getMethodName();
+            ddl("create table " + tableName + " (" +
+                    "x long," +
+                    "sym symbol," +
+                    "s string," +
+                    "v varchar," +
+                    "ts timestamp" +
+                    ") timestamp(ts) partition by DAY WAL");
+            TableToken tableToken = engine.verifyTableName(tableName);
+
+            // Both writers start with empty symbol table, so the symbol keys of the second one get remapped.
+            try (
+                    WalWriter walWriter1 = engine.getWalWriter(tableToken);
+                    WalWriter walWriter2 = engine.getWalWriter(tableToken)
+            ) {
+                for (int i = 0; i < 3; i++) {
+                    TableWriter.Row row = walWriter1.newRow(i * Timestamps.HOUR_MICROS);
+                    row.putLong(0, i);
+                    row.putSym(1, i % 2 == 0 ? "a" : "b");
+                    row.putStr(2, "s" + i);
+                    row.putVarchar(3, new Utf8String("v" + i));
+                    row.append();
+                }
+                walWriter1.commit();
+
+                for (int i = 3; i < 5; i++) {
+                    TableWriter.Row row = walWriter2.newRow(Timestamps.DAY_MICROS + i * Timestamps.HOUR_MICROS);
+                    row.putLong(0, i);
+                    row.putSym(1, "c");
+                    row.putStr(2, "s" + i);
+                    row.putVarchar(3, new Utf8String("v" + i));
+                    row.append();
+                }
+                walWriter2.commit();
+            }
+            // close the writers, so that the segments can be promoted
+            engine.releaseInactive();
+
+            drainWalQueue();
+            Assert.assertEquals(11, walLinkCount.get());
+
+            insert("insert into " + tableName + " values (5, 'a', 's5', 'v5', '1970-01-02T05')");
+            drainWalQueue();
+            runWalPurgeJob();
+
+            assertSql(
+                    "x\tsym\ts\tv\tts\n" +
+                            "0\ta\ts0\tv0\t1970-01-01T00:00:00.000000Z\n" +
+                            "1\tb\ts1\tv1\t1970-01-01T01:00:00.000000Z\n" +
+                            "2\ta\ts2\tv2\t1970-01-01T02:00:00.000000Z\n" +
+                            "3\tc\ts3\tv3\t1970-01-02T03:00:00.000000Z\n" +
+                            "4\tc\ts4\tv4\t1970-01-02T04:00:00.000000Z\n" +
+                            "5\ta\ts5\tv5\t1970-01-02T05:00:00.000000Z\n",
+                    tableName
+            );
+            assertSql("count\n5\n", "select count() from " + tableName + " where sym = 'a' or sym = 'c'");
+        });
+    }
+
     @Test
     public void testWhenApplyJobTerminatesEarlierLagCommitted() throws Exception {
         AtomicBoolean isTerminating = new AtomicBoolean();
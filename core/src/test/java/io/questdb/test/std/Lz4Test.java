@@ -0,0 +1,132 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.std;
+
+import io.questdb.std.Lz4;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Rnd;
+import io.questdb.std.Unsafe;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class Lz4Test {
+    private final int[] hashTable = new int[Lz4.HASH_TABLE_SIZE];
+
+    @Test
+    public void testDecompressReferenceBlock() {
+        // literals "abc", a 12-byte match at offset 3, then the last literals "xyzwv"
+        final byte[] block = {0x38, 'a', 'b', 'c', 0x03, 0x00, 0x50, 'x', 'y', 'z', 'w', 'v'};
+        final byte[] expected = "abcabcabcabcabcxyzwv".getBytes(StandardCharsets.US_ASCII);
+        final long src = Unsafe.malloc(block.length, MemoryTag.NATIVE_DEFAULT);
+        final long dst = Unsafe.malloc(expected.length, MemoryTag.NATIVE_DEFAULT);
+        try {
+            copy(block, src);
+            Assert.assertEquals(expected.length, Lz4.decompress(src, block.length, dst, expected.length));
+            assertBytes(expected, dst);
+            // the destination is too small
+            Assert.assertEquals(-1, Lz4.decompress(src, block.length, dst, expected.length - 1));
+            // the offset points before the start of the output
+            Unsafe.getUnsafe().putByte(src + 4, (byte) 4);
+            Assert.assertEquals(-1, Lz4.decompress(src, block.length, dst, expected.length));
+            // truncated block
+            Unsafe.getUnsafe().putByte(src + 4, (byte) 3);
+            Assert.assertEquals(-1, Lz4.decompress(src, 5, dst, expected.length));
+        } finally {
+            Unsafe.free(src, block.length, MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(dst, expected.length, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    @Test
+    public void testIncompressible() {
+        final int len = 64 * 1024;
+        final long src = Unsafe.malloc(len, MemoryTag.NATIVE_DEFAULT);
+        final long dst = Unsafe.malloc(len, MemoryTag.NATIVE_DEFAULT);
+        try {
+            final Rnd rnd = new Rnd();
+            for (int i = 0; i < len; i += 8) {
+                Unsafe.getUnsafe().putLong(src + i, rnd.nextLong());
+            }
+            Assert.assertEquals(-1, Lz4.compress(src, len, dst, len, hashTable));
+        } finally {
+            Unsafe.free(src, len, MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(dst, len, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    @Test
+    public void testRoundTrip() {
+        final Rnd rnd = new Rnd();
+        for (int len : new int[]{0, 1, 12, 13, 100, 4096, 65_537, 1_000_003}) {
+            // runs of repeated values, like timestamps, symbol keys and null-heavy columns
+            assertRoundTrip(rnd, len, 1);
+            assertRoundTrip(rnd, len, 7);
+            assertRoundTrip(rnd, len, 64);
+        }
+    }
+
+    private static void assertBytes(byte[] expected, long address) {
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertEquals("byte " + i, expected[i], Unsafe.getUnsafe().getByte(address + i));
+        }
+    }
+
+    private static void copy(byte[] bytes, long address) {
+        for (int i = 0; i < bytes.length; i++) {
+            Unsafe.getUnsafe().putByte(address + i, bytes[i]);
+        }
+    }
+
+    private void assertRoundTrip(Rnd rnd, int len, int alphabet) {
+        final long capacity = len + len / 255 + 16;
+        final long src = Unsafe.malloc(Math.max(len, 1), MemoryTag.NATIVE_DEFAULT);
+        final long compressed = Unsafe.malloc(capacity, MemoryTag.NATIVE_DEFAULT);
+        final long decompressed = Unsafe.malloc(Math.max(len, 1), MemoryTag.NATIVE_DEFAULT);
+        try {
+            for (int i = 0; i < len; ) {
+                final byte b = (byte) rnd.nextInt(alphabet);
+                for (int run = 1 + rnd.nextInt(40); run > 0 && i < len; run--, i++) {
+                    Unsafe.getUnsafe().putByte(src + i, b);
+                }
+            }
+            final long compressedLen = Lz4.compress(src, len, compressed, capacity, hashTable);
+            Assert.assertTrue(compressedLen > 0);
+            if (len > 4096) {
+                Assert.assertTrue(compressedLen < len / 2);
+            }
+            Assert.assertEquals(len, Lz4.decompress(compressed, compressedLen, decompressed, len));
+            for (int i = 0; i < len; i++) {
+                Assert.assertEquals(Unsafe.getUnsafe().getByte(src + i), Unsafe.getUnsafe().getByte(decompressed + i));
+            }
+        } finally {
+            Unsafe.free(src, Math.max(len, 1), MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(compressed, capacity, MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(decompressed, Math.max(len, 1), MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+}